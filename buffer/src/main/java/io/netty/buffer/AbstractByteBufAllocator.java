@@ -24,6 +24,9 @@ import io.netty.util.internal.MathUtil;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
 
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Skeletal {@link ByteBufAllocator} implementation to extend.
  */
@@ -83,6 +86,8 @@ public abstract class AbstractByteBufAllocator implements ByteBufAllocator {
 
     private final boolean directByDefault;
     private final ByteBuf emptyBuf;
+    // null if the allocation profiler is disabled.
+    private final AllocationProfiler profiler;
 
     /**
      * Instance use heap buffers by default
@@ -100,6 +105,8 @@ public abstract class AbstractByteBufAllocator implements ByteBufAllocator {
     protected AbstractByteBufAllocator(boolean preferDirect) {
         directByDefault = preferDirect && PlatformDependent.hasUnsafe();
         emptyBuf = new EmptyByteBuf(this);
+        profiler = AllocationProfiler.DEFAULT_SAMPLE_INTERVAL > 0 ?
+                new AllocationProfiler(AllocationProfiler.DEFAULT_SAMPLE_INTERVAL) : null;
     }
 
     @Override
@@ -166,7 +173,8 @@ public abstract class AbstractByteBufAllocator implements ByteBufAllocator {
             return emptyBuf;
         }
         validate(initialCapacity, maxCapacity);
-        return newHeapBuffer(initialCapacity, maxCapacity);
+        ByteBuf buf = newHeapBuffer(initialCapacity, maxCapacity);
+        return profiler == null ? buf : profiler.sample(buf, initialCapacity, false);
     }
 
     @Override
@@ -185,7 +193,8 @@ public abstract class AbstractByteBufAllocator implements ByteBufAllocator {
             return emptyBuf;
         }
         validate(initialCapacity, maxCapacity);
-        return newDirectBuffer(initialCapacity, maxCapacity);
+        ByteBuf buf = newDirectBuffer(initialCapacity, maxCapacity);
+        return profiler == null ? buf : profiler.sample(buf, initialCapacity, true);
     }
 
     @Override
@@ -243,6 +252,21 @@ public abstract class AbstractByteBufAllocator implements ByteBufAllocator {
      */
     protected abstract ByteBuf newDirectBuffer(int initialCapacity, int maxCapacity);
 
+    /**
+     * Returns the average number of bytes between two samples of the allocation profiler, or {@code 0} if it is
+     * disabled.
+     */
+    final long allocationSampleInterval() {
+        return profiler == null ? 0 : profiler.sampleInterval();
+    }
+
+    /**
+     * Returns the allocation sites sampled by the allocation profiler.
+     */
+    final List<AllocationSiteMetric> allocationSites() {
+        return profiler == null ? Collections.<AllocationSiteMetric>emptyList() : profiler.sites();
+    }
+
     @Override
     public String toString() {
         return StringUtil.simpleClassName(this) + "(directByDefault: " + directByDefault + ')';
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.ResourceLeakTracker;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.internal.LongCounter;
+import io.netty.util.internal.MathUtil;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.StringUtil;
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+
+/**
+ * Samples the allocations of an {@link AbstractByteBufAllocator} and aggregates them per allocation site.
+ * <p>
+ * Every thread counts down the bytes it allocates and samples the buffer which makes the count reach zero, after
+ * which a new count is drawn from an exponential distribution with a mean of {@link #sampleInterval()}. This is a
+ * Poisson process over the allocated bytes, so each sample of {@code size} bytes stands for
+ * {@code size / (1 - exp(-size / sampleInterval))} bytes on average. The unsampled allocations only pay for the
+ * countdown. The sampled buffers are wrapped into a {@link SimpleLeakAwareByteBuf}, which tells the site once the
+ * buffer and all its derived buffers were released.
+ */
+final class AllocationProfiler {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(AllocationProfiler.class);
+
+    static final long DEFAULT_SAMPLE_INTERVAL;
+
+    // Only the innermost frames are kept, as deep stacks make sampling slower and mostly differ in the outer frames.
+    private static final int MAX_FRAMES = 16;
+    // Stops recording new sites if there are too many, so a bug in the caller can not use up all the memory.
+    private static final int MAX_SITES = 4096;
+
+    private static final Comparator<AllocationSiteMetric> LIVE_BYTES_DESCENDING =
+            new Comparator<AllocationSiteMetric>() {
+                @Override
+                public int compare(AllocationSiteMetric o1, AllocationSiteMetric o2) {
+                    long live1 = o1.liveBytes();
+                    long live2 = o2.liveBytes();
+                    return live1 > live2 ? -1 : live1 < live2 ? 1 : 0;
+                }
+            };
+
+    static {
+        DEFAULT_SAMPLE_INTERVAL = Math.max(0, SystemPropertyUtil.getLong(
+                "io.netty.allocator.profilerSampleInterval", 0));
+        if (logger.isDebugEnabled()) {
+            logger.debug("-Dio.netty.allocator.profilerSampleInterval: {}", DEFAULT_SAMPLE_INTERVAL);
+        }
+    }
+
+    private final long sampleInterval;
+    private final ConcurrentMap<Site, Site> sites = PlatformDependent.newConcurrentHashMap();
+    private final FastThreadLocal<Countdown> countdowns = new FastThreadLocal<Countdown>() {
+        @Override
+        protected Countdown initialValue() {
+            return new Countdown(nextInterval());
+        }
+    };
+
+    AllocationProfiler(long sampleInterval) {
+        this.sampleInterval = checkPositive(sampleInterval, "sampleInterval");
+    }
+
+    long sampleInterval() {
+        return sampleInterval;
+    }
+
+    /**
+     * Returns the given buffer, or a buffer which wraps it if it was sampled.
+     *
+     * @param size the requested capacity.
+     */
+    ByteBuf sample(ByteBuf buf, int size, boolean direct) {
+        Countdown countdown = countdowns.get();
+        if ((countdown.bytes -= size) > 0) {
+            return buf;
+        }
+        countdown.bytes = nextInterval();
+        return track(buf, size, direct);
+    }
+
+    private long nextInterval() {
+        double random = PlatformDependent.threadLocalRandom().nextDouble();
+        return Math.max(1, (long) (-Math.log(1 - random) * sampleInterval));
+    }
+
+    private ByteBuf track(ByteBuf buf, int size, boolean direct) {
+        Site site = site(new Throwable().getStackTrace(), MathUtil.safeFindNextPositivePowerOfTwo(size), direct);
+        if (site == null) {
+            return buf;
+        }
+        long bytes = estimatedBytes(size);
+        site.allocated(bytes);
+        return new SimpleLeakAwareByteBuf(buf, new Sample(site, bytes));
+    }
+
+    long estimatedBytes(int size) {
+        if (size == 0) {
+            return 0;
+        }
+        return (long) Math.ceil(size / -Math.expm1(-(double) size / sampleInterval));
+    }
+
+    private Site site(StackTraceElement[] frames, int sizeClass, boolean direct) {
+        int start = 0;
+        while (start < frames.length && frames[start].getClassName().startsWith("io.netty.buffer.")) {
+            start++;
+        }
+        Site newSite = new Site(Arrays.copyOfRange(frames, start, Math.min(frames.length, start + MAX_FRAMES)),
+                sizeClass, direct);
+        Site site = sites.get(newSite);
+        if (site != null) {
+            return site;
+        }
+        if (sites.size() >= MAX_SITES) {
+            return null;
+        }
+        site = sites.putIfAbsent(newSite, newSite);
+        return site == null ? newSite : site;
+    }
+
+    /**
+     * Returns a snapshot of all sites, ordered by their live bytes from the largest to the smallest.
+     */
+    List<AllocationSiteMetric> sites() {
+        List<AllocationSiteMetric> snapshot = new ArrayList<AllocationSiteMetric>(sites.size());
+        for (Site site: sites.values()) {
+            snapshot.add(site.snapshot());
+        }
+        Collections.sort(snapshot, LIVE_BYTES_DESCENDING);
+        return snapshot;
+    }
+
+    private static final class Countdown {
+        long bytes;
+
+        Countdown(long bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private static final class Site {
+        private final StackTraceElement[] stackTrace;
+        private final int sizeClass;
+        private final boolean direct;
+        private final int hash;
+        private final LongCounter numSamples = PlatformDependent.newLongCounter();
+        private final LongCounter allocatedBytes = PlatformDependent.newLongCounter();
+        private final LongCounter freedBytes = PlatformDependent.newLongCounter();
+
+        Site(StackTraceElement[] stackTrace, int sizeClass, boolean direct) {
+            this.stackTrace = stackTrace;
+            this.sizeClass = sizeClass;
+            this.direct = direct;
+            hash = (Arrays.hashCode(stackTrace) * 31 + sizeClass) * 31 + (direct ? 1 : 0);
+        }
+
+        void allocated(long bytes) {
+            numSamples.increment();
+            allocatedBytes.add(bytes);
+        }
+
+        void freed(long bytes) {
+            freedBytes.add(bytes);
+        }
+
+        SiteSnapshot snapshot() {
+            // Read the freed bytes first, so the live bytes of the snapshot never become negative.
+            long freed = freedBytes.value();
+            return new SiteSnapshot(stackTrace, sizeClass, direct, numSamples.value(), allocatedBytes.value(), freed);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Site)) {
+                return false;
+            }
+            Site other = (Site) obj;
+            return hash == other.hash && sizeClass == other.sizeClass && direct == other.direct &&
+                    Arrays.equals(stackTrace, other.stackTrace);
+        }
+    }
+
+    private static final class SiteSnapshot implements AllocationSiteMetric {
+        private final StackTraceElement[] stackTrace;
+        private final int sizeClass;
+        private final boolean direct;
+        private final long numSamples;
+        private final long allocatedBytes;
+        private final long freedBytes;
+
+        SiteSnapshot(StackTraceElement[] stackTrace, int sizeClass, boolean direct, long numSamples,
+                     long allocatedBytes, long freedBytes) {
+            this.stackTrace = stackTrace;
+            this.sizeClass = sizeClass;
+            this.direct = direct;
+            this.numSamples = numSamples;
+            this.allocatedBytes = allocatedBytes;
+            this.freedBytes = freedBytes;
+        }
+
+        @Override
+        public StackTraceElement[] stackTrace() {
+            return stackTrace.clone();
+        }
+
+        @Override
+        public int sizeClass() {
+            return sizeClass;
+        }
+
+        @Override
+        public boolean isDirect() {
+            return direct;
+        }
+
+        @Override
+        public long numSamples() {
+            return numSamples;
+        }
+
+        @Override
+        public long allocatedBytes() {
+            return allocatedBytes;
+        }
+
+        @Override
+        public long freedBytes() {
+            return freedBytes;
+        }
+
+        @Override
+        public long liveBytes() {
+            return allocatedBytes - freedBytes;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder buf = new StringBuilder(256)
+                    .append("AllocationSite(sizeClass: ").append(sizeClass)
+                    .append("; direct: ").append(direct)
+                    .append("; samples: ").append(numSamples)
+                    .append("; allocatedBytes: ").append(allocatedBytes)
+                    .append("; liveBytes: ").append(liveBytes())
+                    .append(')');
+            for (StackTraceElement frame: stackTrace) {
+                buf.append(StringUtil.NEWLINE).append("\tat ").append(frame);
+            }
+            return buf.toString();
+        }
+    }
+
+    private static final class Sample implements ResourceLeakTracker<ByteBuf> {
+        private final Site site;
+        private final long bytes;
+
+        Sample(Site site, long bytes) {
+            this.site = site;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public void record() {
+        }
+
+        @Override
+        public void record(Object hint) {
+        }
+
+        @Override
+        public boolean close(ByteBuf trackedObject) {
+            site.freed(bytes);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.UnstableApi;
+
+import java.util.List;
+
+/**
+ * A {@link ByteBufAllocatorMetric} which also exposes the allocation sites sampled by the allocation profiler of an
+ * {@link AbstractByteBufAllocator}.
+ * <p>
+ * The profiler is enabled by setting {@code -Dio.netty.allocator.profilerSampleInterval} to the average number of
+ * bytes between two samples. Each thread samples the first buffer allocated after a random number of bytes, drawn
+ * from an exponential distribution with that mean, so large buffers are more likely to be sampled than small ones.
+ * Only the sampled buffers are tracked, which keeps the overhead low for intervals of a few hundred KiB or more.
+ */
+@UnstableApi
+public interface AllocationProfilerMetric extends ByteBufAllocatorMetric {
+
+    /**
+     * Return the average number of bytes between two samples or {@code 0} if the profiler is disabled.
+     */
+    long allocationSampleInterval();
+
+    /**
+     * Return a snapshot of the sampled allocation sites, ordered by {@link AllocationSiteMetric#liveBytes()} from
+     * the largest to the smallest. The {@link List} is empty if the profiler is disabled.
+     */
+    List<AllocationSiteMetric> allocationSites();
+}
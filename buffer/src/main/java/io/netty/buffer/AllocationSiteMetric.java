@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Metrics for the buffers sampled at one allocation site by the allocation profiler of an
+ * {@link AbstractByteBufAllocator}. A site is identified by its stack trace, the size class and the type of the
+ * buffers. The byte counts are estimated from the samples, so every allocated byte is accounted for on average.
+ *
+ * @see AllocationProfilerMetric
+ */
+@UnstableApi
+public interface AllocationSiteMetric {
+
+    /**
+     * Return the stack trace of the allocation, starting with the first frame outside of {@code io.netty.buffer}.
+     */
+    StackTraceElement[] stackTrace();
+
+    /**
+     * Return the requested capacity of the buffers rounded up to the next power of two.
+     */
+    int sizeClass();
+
+    /**
+     * Return {@code true} if the buffers are direct buffers, {@code false} if they are heap buffers.
+     */
+    boolean isDirect();
+
+    /**
+     * Return the number of sampled allocations.
+     */
+    long numSamples();
+
+    /**
+     * Return the estimated number of bytes that were allocated.
+     */
+    long allocatedBytes();
+
+    /**
+     * Return the estimated number of bytes that were released again.
+     */
+    long freedBytes();
+
+    /**
+     * Return the estimated number of bytes that are still in use, which is {@link #allocatedBytes()} minus
+     * {@link #freedBytes()}.
+     */
+    long liveBytes();
+}
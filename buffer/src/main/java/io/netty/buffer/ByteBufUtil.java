@@ -101,6 +101,12 @@ public final class ByteBufUtil {
 
     static final int MAX_TL_ARRAY_LEN = 1024;
 
+    /**
+     * The minimum number of bytes for which the {@link VectorizedByteBufUtil} primitives are used, below that the
+     * scalar code is faster.
+     */
+    private static final int VECTORIZED_MIN_LENGTH = 64;
+
     /**
      * Allocates a new array if minLength > {@link ByteBufUtil#MAX_TL_ARRAY_LEN}
      */
@@ -366,6 +372,11 @@ public final class ByteBufUtil {
             return false;
         }
 
+        if (VectorizedByteBufUtil.isSupported() && length >= VECTORIZED_MIN_LENGTH && a.hasArray() && b.hasArray()) {
+            return VectorizedByteBufUtil.mismatch(a.array(), a.arrayOffset() + aStartIndex,
+                    b.array(), b.arrayOffset() + bStartIndex, length) == -1;
+        }
+
         final int longCount = length >>> 3;
         final int byteCount = length & 7;
 
@@ -424,12 +435,27 @@ public final class ByteBufUtil {
         }
         final int aLen = bufferA.readableBytes();
         final int bLen = bufferB.readableBytes();
-        final int minLength = Math.min(aLen, bLen);
-        final int uintCount = minLength >>> 2;
-        final int byteCount = minLength & 3;
+        int minLength = Math.min(aLen, bLen);
         int aIndex = bufferA.readerIndex();
         int bIndex = bufferB.readerIndex();
 
+        if (VectorizedByteBufUtil.isSupported() && minLength >= VECTORIZED_MIN_LENGTH &&
+                bufferA.hasArray() && bufferB.hasArray()) {
+            final int mismatch = VectorizedByteBufUtil.mismatch(bufferA.array(), bufferA.arrayOffset() + aIndex,
+                    bufferB.array(), bufferB.arrayOffset() + bIndex, minLength);
+            if (mismatch == -1) {
+                return aLen - bLen;
+            }
+            // Continue with the 4 byte block which contains the mismatch, so the result is the same as below.
+            final int skip = mismatch & ~3;
+            aIndex += skip;
+            bIndex += skip;
+            minLength -= skip;
+        }
+
+        final int uintCount = minLength >>> 2;
+        final int byteCount = minLength & 3;
+
         if (uintCount > 0) {
             boolean bufferAIsBigEndian = bufferA.order() == ByteOrder.BIG_ENDIAN;
             final long res;
@@ -573,7 +599,7 @@ public final class ByteBufUtil {
 
     /**
      * This is using a SWAR (SIMD Within A Register) batch read technique to minimize bound-checks and improve memory
-     * usage while searching for {@code value}.
+     * usage while searching for {@code value}, or the {@link VectorizedByteBufUtil} for heap buffers if supported.
      */
     static int firstIndexOf(AbstractByteBuf buffer, int fromIndex, int toIndex, byte value) {
         fromIndex = Math.max(fromIndex, 0);
@@ -582,6 +608,12 @@ public final class ByteBufUtil {
         }
         final int length = toIndex - fromIndex;
         buffer.checkIndex(fromIndex, length);
+        if (VectorizedByteBufUtil.isSupported() && length >= VECTORIZED_MIN_LENGTH && buffer.hasArray()) {
+            final int arrayOffset = buffer.arrayOffset();
+            final int index = VectorizedByteBufUtil.firstIndexOf(
+                    buffer.array(), arrayOffset + fromIndex, arrayOffset + toIndex, value);
+            return index == -1 ? -1 : index - arrayOffset;
+        }
         if (!PlatformDependent.isUnaligned()) {
             return linearFirstIndexOf(buffer, fromIndex, toIndex, value);
         }
@@ -1485,6 +1517,10 @@ public final class ByteBufUtil {
             if (length == 0) {
               return "";
             }
+            if (VectorizedByteBufUtil.isSupported() && length >= VECTORIZED_MIN_LENGTH && buffer.hasArray() &&
+                    !isOutOfBounds(fromIndex, length, buffer.capacity())) {
+                return VectorizedByteBufUtil.hexDump(buffer.array(), buffer.arrayOffset() + fromIndex, length);
+            }
 
             int endIndex = fromIndex + length;
             char[] buf = new char[length << 1];
@@ -1505,6 +1541,9 @@ public final class ByteBufUtil {
             if (length == 0) {
                 return "";
             }
+            if (VectorizedByteBufUtil.isSupported() && length >= VECTORIZED_MIN_LENGTH) {
+                return VectorizedByteBufUtil.hexDump(array, fromIndex, length);
+            }
 
             int endIndex = fromIndex + length;
             char[] buf = new char[length << 1];
@@ -1747,6 +1786,10 @@ public final class ByteBufUtil {
      * @param length The length of the specified buffer.
      */
     private static boolean isAscii(ByteBuf buf, int index, int length) {
+        if (VectorizedByteBufUtil.isSupported() && length >= VECTORIZED_MIN_LENGTH && buf.hasArray()) {
+            final int start = buf.arrayOffset() + index;
+            return VectorizedByteBufUtil.firstNonAscii(buf.array(), start, start + length) == -1;
+        }
         return buf.forEachByte(index, length, FIND_NON_ASCII) == -1;
     }
 
@@ -1795,11 +1838,26 @@ public final class ByteBufUtil {
      */
     private static boolean isUtf8(ByteBuf buf, int index, int length) {
         final int endIndex = index + length;
+        // Runs of ASCII are skipped with the VectorizedByteBufUtil if supported.
+        final byte[] array;
+        final int arrayOffset;
+        if (VectorizedByteBufUtil.isSupported() && length >= VECTORIZED_MIN_LENGTH && buf.hasArray()) {
+            array = buf.array();
+            arrayOffset = buf.arrayOffset();
+        } else {
+            array = null;
+            arrayOffset = 0;
+        }
         while (index < endIndex) {
             byte b1 = buf.getByte(index++);
             byte b2, b3, b4;
             if ((b1 & 0x80) == 0) {
                 // 1 byte
+                if (array != null && index < endIndex) {
+                    final int nonAscii = VectorizedByteBufUtil.firstNonAscii(
+                            array, arrayOffset + index, arrayOffset + endIndex);
+                    index = nonAscii == -1 ? endIndex : nonAscii - arrayOffset;
+                }
                 continue;
             }
             if ((b1 & 0xE0) == 0xC0) {
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.UnstableApi;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Provides the memory of the chunks of the direct arenas of a {@link PooledByteBufAllocator}.
+ * <p>
+ * Chunks are allocated rarely and are kept for a long time, so implementations can use expensive ways to obtain
+ * memory, like mapping it with huge pages or handing out parts of a region that was reserved up front.
+ * Implementations must be thread-safe.
+ */
+@UnstableApi
+public interface ChunkMemoryProvider {
+
+    /**
+     * Returns a direct {@link ByteBuffer} with a capacity of exactly {@code capacity} bytes.
+     *
+     * @throws OutOfMemoryError if the memory could not be allocated.
+     */
+    ByteBuffer allocate(int capacity);
+
+    /**
+     * Gives back the memory of a {@link ByteBuffer} which was returned by {@link #allocate(int)}. The
+     * {@link ByteBuffer} must not be used anymore after this method was called.
+     */
+    void free(ByteBuffer memory);
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.PlatformDependent;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Direct buffers whose memory is allocated through {@code java.lang.foreign.Arena} and accessed through
+ * {@code java.lang.foreign.MemorySegment}, so they neither need {@code sun.misc.Unsafe} nor a {@code Cleaner} to be
+ * freed.
+ * <p>
+ * This is the version used before Java 22, where {@link #isAvailable()} returns {@code false}. Its methods fall back
+ * to the regular direct buffers, so they behave like the allocators do without this class. The Java 22 version is
+ * compiled from {@code src/main/java22} into the multi-release part of the jar. Both versions must keep the same
+ * methods.
+ */
+final class MemorySegmentByteBufs {
+
+    private MemorySegmentByteBufs() { }
+
+    /**
+     * Returns {@code true} if the methods of this class can be used.
+     */
+    static boolean isAvailable() {
+        return false;
+    }
+
+    /**
+     * Allocates a direct {@link ByteBuffer} of exactly {@code capacity} bytes in an automatic arena, whose memory is
+     * freed by the GC once the {@link ByteBuffer} is unreachable.
+     */
+    static ByteBuffer allocateDirect(int capacity) {
+        return ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * Returns a new shared arena, which must be closed by {@link #closeArena(Object)}. The arena is returned as
+     * {@link Object} as the versions before Java 22 cannot refer to {@code java.lang.foreign.Arena}.
+     */
+    static Object newArena() {
+        return new FallbackArena();
+    }
+
+    /**
+     * Allocates a direct {@link ByteBuffer} of exactly {@code capacity} bytes, whose address is a multiple of
+     * {@code alignment} if it is not {@code 0}, in the given arena. Closes the arena if the allocation fails.
+     */
+    static ByteBuffer allocateDirect(Object arena, int capacity, int alignment) {
+        FallbackArena fallbackArena = (FallbackArena) arena;
+        if (alignment == 0) {
+            fallbackArena.base = DirectChunkMemoryProvider.INSTANCE.allocate(capacity);
+            return fallbackArena.base;
+        }
+        fallbackArena.base = DirectChunkMemoryProvider.INSTANCE.allocate(capacity + alignment);
+        // The aligned slice spans everything after the aligned address, which is more than capacity unless the
+        // address of the base had to be moved by exactly alignment bytes.
+        ByteBuffer aligned = PlatformDependent.alignDirectBuffer(fallbackArena.base, alignment);
+        aligned.limit(capacity);
+        return aligned.slice();
+    }
+
+    /**
+     * Closes an arena which was returned by {@link #newArena()}, which frees all of its memory.
+     */
+    static void closeArena(Object arena) {
+        FallbackArena fallbackArena = (FallbackArena) arena;
+        if (fallbackArena.base != null) {
+            DirectChunkMemoryProvider.INSTANCE.free(fallbackArena.base);
+            fallbackArena.base = null;
+        }
+    }
+
+    /**
+     * Returns a new unpooled direct buffer whose memory is accounted in the metric of the given allocator.
+     */
+    static ByteBuf newUnpooledDirectBuffer(UnpooledByteBufAllocator alloc, int initialCapacity, int maxCapacity) {
+        return new UnpooledByteBufAllocator.InstrumentedUnpooledDirectByteBuf(alloc, initialCapacity, maxCapacity);
+    }
+
+    /**
+     * Returns a pooled direct buffer which must be initialized by its {@link PoolArena}.
+     */
+    static PooledByteBuf<ByteBuffer> newPooledDirectBuffer(int maxCapacity) {
+        return PlatformDependent.hasUnsafe() ?
+                PooledUnsafeDirectByteBuf.newInstance(maxCapacity) : PooledDirectByteBuf.newInstance(maxCapacity);
+    }
+
+    // Holds the memory that was allocated for an arena, as there is no java.lang.foreign.Arena to do so.
+    private static final class FallbackArena {
+        ByteBuffer base;
+    }
+}
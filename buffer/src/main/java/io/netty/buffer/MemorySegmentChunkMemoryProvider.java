@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.UnstableApi;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ChunkMemoryProvider} which makes a {@link PooledByteBufAllocator} allocate each chunk in a
+ * {@code java.lang.foreign.Arena} of its own and free it by closing the arena, so chunks are given back right away
+ * without {@code sun.misc.Unsafe} or a {@code Cleaner}. The buffers of the {@link PooledByteBufAllocator} access the
+ * memory through a {@code java.lang.foreign.MemorySegment}, which fails instead of crashing the JVM if a buffer is
+ * used after its chunk was freed.
+ * <p>
+ * The {@link PooledByteBufAllocator} keeps the arena of each chunk itself and does not call {@link #allocate(int)}
+ * and {@link #free(ByteBuffer)}. When called directly they use an automatic arena, so the memory is freed by the GC.
+ * <p>
+ * This needs Java 22 or later. A {@link PooledByteBufAllocator} uses it by default when {@code sun.misc.Unsafe} is not
+ * available or was disabled, unless {@code -Dio.netty.buffer.noMemorySegment=true} is set.
+ */
+@UnstableApi
+public final class MemorySegmentChunkMemoryProvider implements ChunkMemoryProvider {
+
+    /**
+     * Returns {@code true} if a {@link MemorySegmentChunkMemoryProvider} can be created.
+     */
+    public static boolean isAvailable() {
+        return MemorySegmentByteBufs.isAvailable();
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @throws UnsupportedOperationException if {@link #isAvailable()} returns {@code false}.
+     */
+    public MemorySegmentChunkMemoryProvider() {
+        if (!isAvailable()) {
+            throw new UnsupportedOperationException("java.lang.foreign.MemorySegment is not available");
+        }
+    }
+
+    @Override
+    public ByteBuffer allocate(int capacity) {
+        return MemorySegmentByteBufs.allocateDirect(capacity);
+    }
+
+    @Override
+    public void free(ByteBuffer memory) {
+        // The memory is freed by the GC once it is unreachable.
+    }
+}
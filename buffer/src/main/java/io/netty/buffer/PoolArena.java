@@ -25,6 +25,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import static io.netty.buffer.PoolChunk.isSubpage;
 import static java.lang.Math.max;
@@ -52,22 +54,35 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
 
     private final List<PoolChunkListMetric> chunkListMetrics;
 
+    // Guards the PoolChunkLists. Allocating out of or freeing into a PoolChunk only needs the read lock, as each
+    // PoolChunk guards its runs itself and each subpage pool is guarded by its head, so these do not contend with each
+    // other. The write lock is only needed to add, move or remove PoolChunks.
+    final ReentrantReadWriteLock chunkListsLock = new ReentrantReadWriteLock();
+
     // Metrics for allocations and deallocations
-    private long allocationsNormal;
     // We need to use the LongCounter here as this is not guarded via synchronized block.
+    private final LongCounter allocationsNormal = PlatformDependent.newLongCounter();
     private final LongCounter allocationsSmall = PlatformDependent.newLongCounter();
     private final LongCounter allocationsHuge = PlatformDependent.newLongCounter();
     private final LongCounter activeBytesHuge = PlatformDependent.newLongCounter();
 
-    private long deallocationsSmall;
-    private long deallocationsNormal;
-
     // We need to use the LongCounter here as this is not guarded via synchronized block.
+    private final LongCounter deallocationsNormal = PlatformDependent.newLongCounter();
+    private final LongCounter deallocationsSmall = PlatformDependent.newLongCounter();
     private final LongCounter deallocationsHuge = PlatformDependent.newLongCounter();
 
+    // Metrics for the memory that was released by trimming.
+    private final LongCounter trimmedChunks = PlatformDependent.newLongCounter();
+    private final LongCounter trimmedChunkBytes = PlatformDependent.newLongCounter();
+    private final LongCounter trimmedCacheEntries = PlatformDependent.newLongCounter();
+    private final LongCounter trimmedCacheBytes = PlatformDependent.newLongCounter();
+
     // Number of thread caches backed by this arena.
     final AtomicInteger numThreadCaches = new AtomicInteger();
 
+    // Number of thread caches whose EventExecutor periodically destroys the idle chunks of this arena.
+    final AtomicInteger numIdleTrimCaches = new AtomicInteger();
+
     // TODO: Test if adding padding helps under contention
     //private long pad0, pad1, pad2, pad3, pad4, pad5, pad6, pad7;
 
@@ -169,9 +184,7 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
         }
 
         if (needsNormalAllocation) {
-            synchronized (this) {
-                allocateNormal(buf, reqCapacity, sizeIdx, cache);
-            }
+            allocateNormal(buf, reqCapacity, sizeIdx, cache);
         }
 
         incSmallAllocation();
@@ -183,27 +196,74 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
             // was able to allocate out of the cache so move on
             return;
         }
-        synchronized (this) {
-            allocateNormal(buf, reqCapacity, sizeIdx, cache);
-            ++allocationsNormal;
-        }
+        allocateNormal(buf, reqCapacity, sizeIdx, cache);
+        allocationsNormal.increment();
     }
 
-    // Method must be called inside synchronized(this) { ... } block
     private void allocateNormal(PooledByteBuf<T> buf, int reqCapacity, int sizeIdx, PoolThreadCache threadCache) {
-        if (q050.allocate(buf, reqCapacity, sizeIdx, threadCache) ||
-            q025.allocate(buf, reqCapacity, sizeIdx, threadCache) ||
-            q000.allocate(buf, reqCapacity, sizeIdx, threadCache) ||
-            qInit.allocate(buf, reqCapacity, sizeIdx, threadCache) ||
-            q075.allocate(buf, reqCapacity, sizeIdx, threadCache)) {
+        PoolChunk<T> chunk;
+        boolean full = false;
+        Lock readLock = chunkListsLock.readLock();
+        readLock.lock();
+        try {
+            chunk = allocateFromChunkLists(buf, reqCapacity, sizeIdx, threadCache);
+            if (chunk != null) {
+                full = chunk.parent.isFull(chunk);
+            }
+        } finally {
+            readLock.unlock();
+        }
+        if (chunk != null) {
+            if (full) {
+                Lock writeLock = chunkListsLock.writeLock();
+                writeLock.lock();
+                try {
+                    // The PoolChunk may have been moved or freed from in the meantime, so check again.
+                    chunk.parent.moveIfFull(chunk);
+                } finally {
+                    writeLock.unlock();
+                }
+            }
             return;
         }
 
-        // Add a new chunk.
-        PoolChunk<T> c = newChunk(pageSize, nPSizes, pageShifts, chunkSize);
-        boolean success = c.allocate(buf, reqCapacity, sizeIdx, threadCache);
-        assert success;
-        qInit.add(c);
+        Lock writeLock = chunkListsLock.writeLock();
+        writeLock.lock();
+        try {
+            // Some other thread may have added a PoolChunk or freed memory since we released the read lock.
+            chunk = allocateFromChunkLists(buf, reqCapacity, sizeIdx, threadCache);
+            if (chunk != null) {
+                chunk.parent.moveIfFull(chunk);
+                return;
+            }
+
+            // Add a new chunk.
+            PoolChunk<T> c = newChunk(pageSize, nPSizes, pageShifts, chunkSize);
+            boolean success = c.allocate(buf, reqCapacity, sizeIdx, threadCache);
+            assert success;
+            qInit.add(c);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Method must be called while holding the read or write lock of chunkListsLock.
+    private PoolChunk<T> allocateFromChunkLists(PooledByteBuf<T> buf, int reqCapacity, int sizeIdx,
+                                                PoolThreadCache threadCache) {
+        PoolChunk<T> chunk = q050.allocate(buf, reqCapacity, sizeIdx, threadCache);
+        if (chunk == null) {
+            chunk = q025.allocate(buf, reqCapacity, sizeIdx, threadCache);
+            if (chunk == null) {
+                chunk = q000.allocate(buf, reqCapacity, sizeIdx, threadCache);
+                if (chunk == null) {
+                    chunk = qInit.allocate(buf, reqCapacity, sizeIdx, threadCache);
+                    if (chunk == null) {
+                        chunk = q075.allocate(buf, reqCapacity, sizeIdx, threadCache);
+                    }
+                }
+            }
+        }
+        return chunk;
     }
 
     private void incSmallAllocation() {
@@ -240,30 +300,93 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
 
     void freeChunk(PoolChunk<T> chunk, long handle, int normCapacity, SizeClass sizeClass, ByteBuffer nioBuffer,
                    boolean finalizer) {
-        final boolean destroyChunk;
-        synchronized (this) {
+        if (sizeClass == SizeClass.Small) {
             // We only call this if freeChunk is not called because of the PoolThreadCache finalizer as otherwise this
             // may fail due lazy class-loading in for example tomcat.
             if (!finalizer) {
-                switch (sizeClass) {
-                    case Normal:
-                        ++deallocationsNormal;
-                        break;
-                    case Small:
-                        ++deallocationsSmall;
-                        break;
-                    default:
-                        throw new Error();
-                }
+                deallocationsSmall.increment();
             }
-            destroyChunk = !chunk.parent.free(chunk, handle, normCapacity, nioBuffer);
+            // Only the lock of the subpage pool is needed as long as the subpage stays in use, so frees of different
+            // size classes do not contend with each other or with normal allocations.
+            if (chunk.freeSubpage(handle, normCapacity)) {
+                return;
+            }
+        }
+        if (!finalizer && sizeClass == SizeClass.Normal) {
+            deallocationsNormal.increment();
+        }
+        final boolean empty;
+        Lock readLock = chunkListsLock.readLock();
+        readLock.lock();
+        try {
+            empty = chunk.parent.freeRun(chunk, handle, nioBuffer);
+        } finally {
+            readLock.unlock();
+        }
+        if (!empty) {
+            return;
+        }
+        final boolean destroyChunk;
+        Lock writeLock = chunkListsLock.writeLock();
+        writeLock.lock();
+        try {
+            // The PoolChunk may have been moved or allocated from in the meantime, so check again. If another thread
+            // already removed it, its parent was cleared.
+            destroyChunk = chunk.parent != null && !chunk.parent.moveIfEmpty(chunk);
+        } finally {
+            writeLock.unlock();
         }
         if (destroyChunk) {
-            // destroyChunk not need to be called while holding the synchronized lock.
+            // destroyChunk not need to be called while holding the lock.
             destroyChunk(chunk);
         }
     }
 
+    /**
+     * Destroy the {@link PoolChunk}s which were not used at all for at least {@code idleNanos}. As {@link PoolChunk}s
+     * are only found to be unused when this method is called, it must be called periodically.
+     */
+    void trimIdleChunks(long idleNanos) {
+        List<PoolChunk<T>> idleChunks = new ArrayList<PoolChunk<T>>();
+        long nanoTime = System.nanoTime();
+        Lock writeLock = chunkListsLock.writeLock();
+        writeLock.lock();
+        try {
+            // Completely unused chunks are only kept in these lists, all others destroy them once they are empty.
+            qInit.removeIdle(nanoTime, idleNanos, idleChunks);
+            q000.removeIdle(nanoTime, idleNanos, idleChunks);
+        } finally {
+            writeLock.unlock();
+        }
+        for (PoolChunk<T> chunk: idleChunks) {
+            // destroyChunk not need to be called while holding the lock.
+            destroyChunk(chunk);
+            trimmedChunks.increment();
+            trimmedChunkBytes.add(chunk.chunkSize());
+        }
+    }
+
+    void incTrimmedCacheEntry(int normCapacity) {
+        trimmedCacheEntries.increment();
+        trimmedCacheBytes.add(normCapacity);
+    }
+
+    long numTrimmedChunks() {
+        return trimmedChunks.value();
+    }
+
+    long numTrimmedChunkBytes() {
+        return trimmedChunkBytes.value();
+    }
+
+    long numTrimmedCacheEntries() {
+        return trimmedCacheEntries.value();
+    }
+
+    long numTrimmedCacheBytes() {
+        return trimmedCacheBytes.value();
+    }
+
     PoolSubpage<T> findSubpagePoolHead(int sizeIdx) {
         return smallSubpagePools[sizeIdx];
     }
@@ -353,11 +476,7 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
 
     @Override
     public long numAllocations() {
-        final long allocsNormal;
-        synchronized (this) {
-            allocsNormal = allocationsNormal;
-        }
-        return allocationsSmall.value() + allocsNormal + allocationsHuge.value();
+        return allocationsSmall.value() + allocationsNormal.value() + allocationsHuge.value();
     }
 
     @Override
@@ -371,17 +490,13 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
     }
 
     @Override
-    public synchronized long numNormalAllocations() {
-        return allocationsNormal;
+    public long numNormalAllocations() {
+        return allocationsNormal.value();
     }
 
     @Override
     public long numDeallocations() {
-        final long deallocs;
-        synchronized (this) {
-            deallocs = deallocationsSmall + deallocationsNormal;
-        }
-        return deallocs + deallocationsHuge.value();
+        return deallocationsNormal.value() + deallocationsSmall.value() + deallocationsHuge.value();
     }
 
     @Override
@@ -390,13 +505,13 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
     }
 
     @Override
-    public synchronized long numSmallDeallocations() {
-        return deallocationsSmall;
+    public long numSmallDeallocations() {
+        return deallocationsSmall.value();
     }
 
     @Override
-    public synchronized long numNormalDeallocations() {
-        return deallocationsNormal;
+    public long numNormalDeallocations() {
+        return deallocationsNormal.value();
     }
 
     @Override
@@ -411,11 +526,8 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
 
     @Override
     public  long numActiveAllocations() {
-        long val = allocationsSmall.value() + allocationsHuge.value()
-                - deallocationsHuge.value();
-        synchronized (this) {
-            val += allocationsNormal - (deallocationsSmall + deallocationsNormal);
-        }
+        long val = allocationsSmall.value() + allocationsHuge.value() + allocationsNormal.value()
+                - deallocationsSmall.value() - deallocationsHuge.value() - deallocationsNormal.value();
         return max(val, 0);
     }
 
@@ -431,11 +543,7 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
 
     @Override
     public long numActiveNormalAllocations() {
-        final long val;
-        synchronized (this) {
-            val = allocationsNormal - deallocationsNormal;
-        }
-        return max(val, 0);
+        return max(numNormalAllocations() - numNormalDeallocations(), 0);
     }
 
     @Override
@@ -446,12 +554,16 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
     @Override
     public long numActiveBytes() {
         long val = activeBytesHuge.value();
-        synchronized (this) {
+        Lock readLock = chunkListsLock.readLock();
+        readLock.lock();
+        try {
             for (int i = 0; i < chunkListMetrics.size(); i++) {
                 for (PoolChunkMetric m: chunkListMetrics.get(i)) {
                     val += m.chunkSize();
                 }
             }
+        } finally {
+            readLock.unlock();
         }
         return max(0, val);
     }
@@ -462,12 +574,16 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
      */
     public long numPinnedBytes() {
         long val = activeBytesHuge.value(); // Huge chunks are exact-sized for the buffers they were allocated to.
-        synchronized (this) {
+        Lock readLock = chunkListsLock.readLock();
+        readLock.lock();
+        try {
             for (int i = 0; i < chunkListMetrics.size(); i++) {
                 for (PoolChunkMetric m: chunkListMetrics.get(i)) {
                     val += ((PoolChunk<?>) m).pinnedBytes();
                 }
             }
+        } finally {
+            readLock.unlock();
         }
         return max(0, val);
     }
@@ -479,7 +595,7 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
     protected abstract void destroyChunk(PoolChunk<T> chunk);
 
     @Override
-    public synchronized String toString() {
+    public String toString() {
         StringBuilder buf = new StringBuilder()
             .append("Chunk(s) at 0~25%:")
             .append(StringUtil.NEWLINE)
@@ -606,10 +722,16 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
 
     static final class DirectArena extends PoolArena<ByteBuffer> {
 
+        private final ChunkMemoryProvider memoryProvider;
+        // The memory of the chunks lives in an Arena, so the buffers access it through a MemorySegment.
+        private final boolean memorySegments;
+
         DirectArena(PooledByteBufAllocator parent, int pageSize, int pageShifts,
-                    int chunkSize, int directMemoryCacheAlignment) {
+                    int chunkSize, int directMemoryCacheAlignment, ChunkMemoryProvider memoryProvider) {
             super(parent, pageSize, pageShifts, chunkSize,
                   directMemoryCacheAlignment);
+            this.memoryProvider = memoryProvider;
+            memorySegments = memoryProvider instanceof MemorySegmentChunkMemoryProvider;
         }
 
         @Override
@@ -620,13 +742,21 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
         @Override
         protected PoolChunk<ByteBuffer> newChunk(int pageSize, int maxPageIdx,
             int pageShifts, int chunkSize) {
+            if (memorySegments) {
+                // The chunk keeps the Arena of its memory as base, which is closed by destroyChunk(...).
+                Object segmentArena = MemorySegmentByteBufs.newArena();
+                ByteBuffer memory = MemorySegmentByteBufs.allocateDirect(
+                        segmentArena, chunkSize, directMemoryCacheAlignment);
+                return new PoolChunk<ByteBuffer>(this, segmentArena, memory, pageSize, pageShifts,
+                        chunkSize, maxPageIdx);
+            }
             if (directMemoryCacheAlignment == 0) {
-                ByteBuffer memory = allocateDirect(chunkSize);
+                ByteBuffer memory = memoryProvider.allocate(chunkSize);
                 return new PoolChunk<ByteBuffer>(this, memory, memory, pageSize, pageShifts,
                         chunkSize, maxPageIdx);
             }
 
-            final ByteBuffer base = allocateDirect(chunkSize + directMemoryCacheAlignment);
+            final ByteBuffer base = memoryProvider.allocate(chunkSize + directMemoryCacheAlignment);
             final ByteBuffer memory = PlatformDependent.alignDirectBuffer(base, directMemoryCacheAlignment);
             return new PoolChunk<ByteBuffer>(this, base, memory, pageSize,
                     pageShifts, chunkSize, maxPageIdx);
@@ -634,33 +764,40 @@ abstract class PoolArena<T> extends SizeClasses implements PoolArenaMetric {
 
         @Override
         protected PoolChunk<ByteBuffer> newUnpooledChunk(int capacity) {
+            if (memorySegments) {
+                // Huge allocations get an Arena of their own too, which is closed as soon as they are released.
+                Object segmentArena = MemorySegmentByteBufs.newArena();
+                ByteBuffer memory = MemorySegmentByteBufs.allocateDirect(
+                        segmentArena, capacity, directMemoryCacheAlignment);
+                return new PoolChunk<ByteBuffer>(this, segmentArena, memory, capacity);
+            }
+            // Huge allocations are not kept around, so allocate them like any other direct buffer.
             if (directMemoryCacheAlignment == 0) {
-                ByteBuffer memory = allocateDirect(capacity);
+                ByteBuffer memory = DirectChunkMemoryProvider.INSTANCE.allocate(capacity);
                 return new PoolChunk<ByteBuffer>(this, memory, memory, capacity);
             }
 
-            final ByteBuffer base = allocateDirect(capacity + directMemoryCacheAlignment);
+            final ByteBuffer base = DirectChunkMemoryProvider.INSTANCE.allocate(capacity + directMemoryCacheAlignment);
             final ByteBuffer memory = PlatformDependent.alignDirectBuffer(base, directMemoryCacheAlignment);
             return new PoolChunk<ByteBuffer>(this, base, memory, capacity);
         }
 
-        private static ByteBuffer allocateDirect(int capacity) {
-            return PlatformDependent.useDirectBufferNoCleaner() ?
-                    PlatformDependent.allocateDirectNoCleaner(capacity) : ByteBuffer.allocateDirect(capacity);
-        }
-
         @Override
         protected void destroyChunk(PoolChunk<ByteBuffer> chunk) {
-            if (PlatformDependent.useDirectBufferNoCleaner()) {
-                PlatformDependent.freeDirectNoCleaner((ByteBuffer) chunk.base);
+            if (memorySegments) {
+                MemorySegmentByteBufs.closeArena(chunk.base);
+            } else if (chunk.unpooled) {
+                DirectChunkMemoryProvider.INSTANCE.free((ByteBuffer) chunk.base);
             } else {
-                PlatformDependent.freeDirectBuffer((ByteBuffer) chunk.base);
+                memoryProvider.free((ByteBuffer) chunk.base);
             }
         }
 
         @Override
         protected PooledByteBuf<ByteBuffer> newByteBuf(int maxCapacity) {
-            if (HAS_UNSAFE) {
+            if (memorySegments) {
+                return MemorySegmentByteBufs.newPooledDirectBuffer(maxCapacity);
+            } else if (HAS_UNSAFE) {
                 return PooledUnsafeDirectByteBuf.newInstance(maxCapacity);
             } else {
                 return PooledDirectByteBuf.newInstance(maxCapacity);
@@ -124,10 +124,10 @@ import java.util.PriorityQueue;
  *    note that this subpage object is added to subpagesPool in the PoolArena when we init() it
  * 2) call subpage.allocate()
  *
- * Algorithm: [free(handle, length, nioBuffer)]
+ * Algorithm: [freeSubpage(handle, length)], [freeRun(handle, nioBuffer)]
  * ----------
- * 1) if it is a subpage, return the slab back into this subpage
- * 2) if the subpage is not used or it is a run, then start free this run
+ * 1) if it is a subpage, return the slab back into this subpage, which only locks the subpage pool
+ * 2) if the subpage is not used or it is a run, then start free this run while holding the arena lock
  * 3) merge continuous avail runs
  * 4) save the merged run
  *
@@ -177,10 +177,19 @@ final class PoolChunk<T> implements PoolChunkMetric {
     // may produce extra GC, which can be greatly reduced by caching the duplicates.
     //
     // This may be null if the PoolChunk is unpooled as pooling the ByteBuffer instances does not make any sense here.
+    // Guarded by runsAvail.
     private final Deque<ByteBuffer> cachedNioBuffers;
 
-    int freeBytes;
+    // Only modified while holding the lock of runsAvail, but read without it by the PoolChunkList.
+    volatile int freeBytes;
 
+    // Set by PoolArena.trimIdleChunks(...) once it found this chunk unused, reset when something is allocated out of
+    // it. Guarded by the chunk lists lock of the arena, trimming holds the write lock while allocating holds the read
+    // lock.
+    boolean idle;
+    long idleSinceNanos;
+
+    // Guarded by the chunk lists lock of the arena, null once the PoolChunk was removed to be destroyed.
     PoolChunkList<T> parent;
     PoolChunk<T> prev;
     PoolChunk<T> next;
@@ -281,10 +290,6 @@ final class PoolChunk<T> implements PoolChunkMetric {
 
     @Override
     public int usage() {
-        final int freeBytes;
-        synchronized (arena) {
-            freeBytes = this.freeBytes;
-        }
         return usage(freeBytes);
     }
 
@@ -301,6 +306,7 @@ final class PoolChunk<T> implements PoolChunkMetric {
     }
 
     boolean allocate(PooledByteBuf<T> buf, int reqCapacity, int sizeIdx, PoolThreadCache cache) {
+        idle = false;
         final long handle;
         if (sizeIdx <= arena.smallMaxSizeIdx) {
             // small
@@ -320,11 +326,20 @@ final class PoolChunk<T> implements PoolChunkMetric {
             assert !isSubpage(handle);
         }
 
-        ByteBuffer nioBuffer = cachedNioBuffers != null? cachedNioBuffers.pollLast() : null;
+        ByteBuffer nioBuffer = pollCachedNioBuffer();
         initBuf(buf, nioBuffer, handle, reqCapacity, cache);
         return true;
     }
 
+    private ByteBuffer pollCachedNioBuffer() {
+        if (cachedNioBuffers == null) {
+            return null;
+        }
+        synchronized (runsAvail) {
+            return cachedNioBuffers.pollLast();
+        }
+    }
+
     private long allocateRun(int runSize) {
         int pages = runSize >> pageShifts;
         int pageIdx = arena.pages2pageIdx(pages);
@@ -451,35 +466,44 @@ final class PoolChunk<T> implements PoolChunkMetric {
     }
 
     /**
-     * Free a subpage or a run of pages When a subpage is freed from PoolSubpage, it might be added back to subpage pool
-     * of the owning PoolArena. If the subpage pool in PoolArena has at least one other PoolSubpage of given elemSize,
-     * we can completely free the owning Page so it is available for subsequent allocations
+     * Free the element of a subpage. When the subpage was full before, it is added back to the subpage pool of the
+     * owning PoolArena. If the subpage is not used anymore and the subpage pool has at least one other PoolSubpage
+     * of the same elemSize, it is removed from the pool so the owning run can be freed.
+     * <p>
+     * This only needs the lock of the subpage pool of the size class, so it can be called without holding the lock
+     * of the {@link PoolArena}.
      *
-     * @param handle handle to free
+     * @return {@code true} if the subpage is still in use, {@code false} if it was removed from the subpage pool and
+     *         its run must be freed via {@link #freeRun(long, ByteBuffer)}.
      */
-    void free(long handle, int normCapacity, ByteBuffer nioBuffer) {
-        int runSize = runSize(pageShifts, handle);
-        if (isSubpage(handle)) {
-            int sizeIdx = arena.size2SizeIdx(normCapacity);
-            PoolSubpage<T> head = arena.findSubpagePoolHead(sizeIdx);
+    boolean freeSubpage(long handle, int normCapacity) {
+        assert isSubpage(handle);
+        int sizeIdx = arena.size2SizeIdx(normCapacity);
+        PoolSubpage<T> head = arena.findSubpagePoolHead(sizeIdx);
+        int sIdx = runOffset(handle);
 
-            int sIdx = runOffset(handle);
+        // Obtain the head of the PoolSubPage pool that is owned by the PoolArena and synchronize on it.
+        // This is need as we may add it back and so alter the linked-list structure.
+        synchronized (head) {
             PoolSubpage<T> subpage = subpages[sIdx];
             assert subpage != null && subpage.doNotDestroy;
 
-            // Obtain the head of the PoolSubPage pool that is owned by the PoolArena and synchronize on it.
-            // This is need as we may add it back and so alter the linked-list structure.
-            synchronized (head) {
-                if (subpage.free(head, bitmapIdx(handle))) {
-                    //the subpage is still used, do not free it
-                    return;
-                }
-                assert !subpage.doNotDestroy;
-                // Null out slot in the array as it was freed and we should not use it anymore.
-                subpages[sIdx] = null;
+            if (subpage.free(head, bitmapIdx(handle))) {
+                return true;
             }
+            assert !subpage.doNotDestroy;
+            // Null out slot in the array as it was freed and we should not use it anymore.
+            subpages[sIdx] = null;
+            return false;
         }
+    }
 
+    /**
+     * Free a run of pages, which may have been used by a subpage that was already freed via
+     * {@link #freeSubpage(long, int)}. Only the lock of the runs of this {@link PoolChunk} is needed.
+     */
+    void freeRun(long handle, ByteBuffer nioBuffer) {
+        int runSize = runSize(pageShifts, handle);
         //start free run
         synchronized (runsAvail) {
             // collapse continuous runs, successfully collapsed runs
@@ -493,11 +517,11 @@ final class PoolChunk<T> implements PoolChunkMetric {
 
             insertAvailRun(runOffset(finalRun), runPages(finalRun), finalRun);
             freeBytes += runSize;
-        }
 
-        if (nioBuffer != null && cachedNioBuffers != null &&
-            cachedNioBuffers.size() < PooledByteBufAllocator.DEFAULT_MAX_CACHED_BYTEBUFFERS_PER_CHUNK) {
-            cachedNioBuffers.offer(nioBuffer);
+            if (nioBuffer != null && cachedNioBuffers != null &&
+                cachedNioBuffers.size() < PooledByteBufAllocator.DEFAULT_MAX_CACHED_BYTEBUFFERS_PER_CHUNK) {
+                cachedNioBuffers.offer(nioBuffer);
+            }
         }
     }
 
@@ -566,7 +590,7 @@ final class PoolChunk<T> implements PoolChunkMetric {
         } else {
             int maxLength = runSize(pageShifts, handle);
             buf.init(this, nioBuffer, handle, runOffset(handle) << pageShifts,
-                    reqCapacity, maxLength, arena.parent.threadCache());
+                    reqCapacity, maxLength, threadCache);
         }
     }
 
@@ -600,9 +624,7 @@ final class PoolChunk<T> implements PoolChunkMetric {
 
     @Override
     public int freeBytes() {
-        synchronized (arena) {
-            return freeBytes;
-        }
+        return freeBytes;
     }
 
     public int pinnedBytes() {
@@ -611,10 +633,7 @@ final class PoolChunk<T> implements PoolChunkMetric {
 
     @Override
     public String toString() {
-        final int freeBytes;
-        synchronized (arena) {
-            freeBytes = this.freeBytes;
-        }
+        final int freeBytes = this.freeBytes;
 
         return new StringBuilder()
                 .append("Chunk(")
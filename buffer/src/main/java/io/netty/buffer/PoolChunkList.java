@@ -22,6 +22,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
 import static java.lang.Math.*;
 
@@ -96,28 +97,67 @@ final class PoolChunkList<T> implements PoolChunkListMetric {
         this.prevList = prevList;
     }
 
-    boolean allocate(PooledByteBuf<T> buf, int reqCapacity, int sizeIdx, PoolThreadCache threadCache) {
+    /**
+     * Allocate out of one of the {@link PoolChunk}s of this list. Only the read lock of
+     * {@link PoolArena#chunkListsLock} is needed as the {@link PoolChunk}s guard their runs themselves, which is why
+     * the {@link PoolChunk} is not moved here even if it is {@link #isFull(PoolChunk)} now.
+     *
+     * @return the {@link PoolChunk} that was allocated out of, or {@code null} if none had enough space left.
+     */
+    PoolChunk<T> allocate(PooledByteBuf<T> buf, int reqCapacity, int sizeIdx, PoolThreadCache threadCache) {
         int normCapacity = arena.sizeIdx2size(sizeIdx);
         if (normCapacity > maxCapacity) {
             // Either this PoolChunkList is empty or the requested capacity is larger then the capacity which can
             // be handled by the PoolChunks that are contained in this PoolChunkList.
-            return false;
+            return null;
         }
 
         for (PoolChunk<T> cur = head; cur != null; cur = cur.next) {
             if (cur.allocate(buf, reqCapacity, sizeIdx, threadCache)) {
-                if (cur.freeBytes <= freeMinThreshold) {
-                    remove(cur);
-                    nextList.add(cur);
-                }
-                return true;
+                return cur;
             }
         }
-        return false;
+        return null;
+    }
+
+    /**
+     * Returns {@code true} if the {@link PoolChunk} is too full to stay in this list.
+     */
+    boolean isFull(PoolChunk<T> chunk) {
+        return chunk.freeBytes <= freeMinThreshold;
+    }
+
+    /**
+     * Moves the {@link PoolChunk} up the {@link PoolChunkList} linked-list if it is {@link #isFull(PoolChunk)}. Must be
+     * called while holding the write lock of {@link PoolArena#chunkListsLock}.
+     */
+    void moveIfFull(PoolChunk<T> chunk) {
+        if (isFull(chunk)) {
+            remove(chunk);
+            nextList.add(chunk);
+        }
     }
 
-    boolean free(PoolChunk<T> chunk, long handle, int normCapacity, ByteBuffer nioBuffer) {
-        chunk.free(handle, normCapacity, nioBuffer);
+    /**
+     * Free the run of the given {@code handle}. If it was used by a subpage, the subpage must have been freed via
+     * {@link PoolChunk#freeSubpage(long, int)} before. Only the read lock of {@link PoolArena#chunkListsLock} is
+     * needed, so the {@link PoolChunk} is not moved here.
+     *
+     * @return {@code true} if the {@link PoolChunk} is too empty to stay in this list now, in which case
+     *         {@link #moveIfEmpty(PoolChunk)} must be called.
+     */
+    boolean freeRun(PoolChunk<T> chunk, long handle, ByteBuffer nioBuffer) {
+        chunk.freeRun(handle, nioBuffer);
+        return chunk.freeBytes > freeMaxThreshold;
+    }
+
+    /**
+     * Moves the {@link PoolChunk} down the {@link PoolChunkList} linked-list if it is too empty to stay in this list.
+     * Must be called while holding the write lock of {@link PoolArena#chunkListsLock}.
+     *
+     * @return {@code false} if the {@link PoolChunk} was removed and must be destroyed.
+     */
+    boolean moveIfEmpty(PoolChunk<T> chunk) {
         if (chunk.freeBytes > freeMaxThreshold) {
             remove(chunk);
             // Move the PoolChunk down the PoolChunkList linked-list.
@@ -148,6 +188,7 @@ final class PoolChunkList<T> implements PoolChunkListMetric {
             // There is no previous PoolChunkList so return false which result in having the PoolChunk destroyed and
             // all memory associated with the PoolChunk will be released.
             assert chunk.usage() == 0;
+            chunk.parent = null;
             return false;
         }
         return prevList.move(chunk);
@@ -178,6 +219,30 @@ final class PoolChunkList<T> implements PoolChunkListMetric {
         }
     }
 
+    /**
+     * Removes the {@link PoolChunk}s which are completely unused since at least {@code idleNanos} and adds them to
+     * {@code idleChunks}. Unused {@link PoolChunk}s which were not seen before are only marked.
+     */
+    void removeIdle(long nanoTime, long idleNanos, List<PoolChunk<T>> idleChunks) {
+        for (PoolChunk<T> cur = head; cur != null;) {
+            PoolChunk<T> next = cur.next;
+            if (cur.freeBytes == cur.chunkSize()) {
+                if (!cur.idle) {
+                    cur.idle = true;
+                    cur.idleSinceNanos = nanoTime;
+                }
+                if (nanoTime - cur.idleSinceNanos >= idleNanos) {
+                    remove(cur);
+                    cur.parent = null;
+                    idleChunks.add(cur);
+                }
+            } else {
+                cur.idle = false;
+            }
+            cur = next;
+        }
+    }
+
     private void remove(PoolChunk<T> cur) {
         if (cur == head) {
             head = cur.next;
@@ -209,7 +274,9 @@ final class PoolChunkList<T> implements PoolChunkListMetric {
 
     @Override
     public Iterator<PoolChunkMetric> iterator() {
-        synchronized (arena) {
+        Lock readLock = arena.chunkListsLock.readLock();
+        readLock.lock();
+        try {
             if (head == null) {
                 return EMPTY_METRICS;
             }
@@ -222,13 +289,17 @@ final class PoolChunkList<T> implements PoolChunkListMetric {
                 }
             }
             return metrics.iterator();
+        } finally {
+            readLock.unlock();
         }
     }
 
     @Override
     public String toString() {
         StringBuilder buf = new StringBuilder();
-        synchronized (arena) {
+        Lock readLock = arena.chunkListsLock.readLock();
+        readLock.lock();
+        try {
             if (head == null) {
                 return "none";
             }
@@ -241,6 +312,8 @@ final class PoolChunkList<T> implements PoolChunkListMetric {
                 }
                 buf.append(StringUtil.NEWLINE);
             }
+        } finally {
+            readLock.unlock();
         }
         return buf.toString();
     }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * A fixed number of {@link PoolThreadCache}s which are shared by all the threads that do not have a thread-local
+ * {@link PoolThreadCache} of their own, like the threads of a business-logic executor or virtual threads.
+ * <p>
+ * A thread picks a magazine based on its id and only uses it if it can acquire it without blocking, otherwise it
+ * tries the next one and finally allocates from the arena without any cache. Buffers allocated from a magazine are
+ * given back to it when released, which can be done from any thread as the caches are backed by MPSC queues. As the
+ * number of magazines does not depend on the number of threads, short-lived threads do not leave any cache behind.
+ */
+final class PoolMagazines {
+    /**
+     * Used by threads that do not use a cache at all and as the {@link PoolThreadCache} of buffers that were
+     * allocated while all magazines were in use.
+     */
+    static final PoolThreadCache NO_CACHE = new PoolThreadCache(null, null, 0, 0, 0, 0);
+
+    // Number of magazines a thread tries before it allocates without a cache.
+    private static final int MAX_ATTEMPTS = 2;
+
+    private final Magazine[] magazines;
+    private final PoolArena<byte[]>[] heapArenas;
+    private final PoolArena<ByteBuffer>[] directArenas;
+
+    PoolMagazines(int numMagazines, PoolArena<byte[]>[] heapArenas, PoolArena<ByteBuffer>[] directArenas,
+                  int smallCacheSize, int normalCacheSize, int maxCachedBufferCapacity,
+                  int freeSweepAllocationThreshold) {
+        this.heapArenas = heapArenas;
+        this.directArenas = directArenas;
+        magazines = new Magazine[numMagazines];
+        for (int i = 0; i < magazines.length; i++) {
+            magazines[i] = new Magazine(new PoolThreadCache(
+                    arena(heapArenas, i), arena(directArenas, i), smallCacheSize, normalCacheSize,
+                    maxCachedBufferCapacity, freeSweepAllocationThreshold));
+        }
+    }
+
+    private static <T> PoolArena<T> arena(PoolArena<T>[] arenas, int index) {
+        if (arenas == null || arenas.length == 0) {
+            return null;
+        }
+        return arenas[index % arenas.length];
+    }
+
+    int numMagazines() {
+        return magazines.length;
+    }
+
+    PooledByteBuf<byte[]> allocateHeap(int initialCapacity, int maxCapacity) {
+        int index = index();
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            Magazine magazine = magazines[(index + i) % magazines.length];
+            if (magazine.tryAcquire()) {
+                try {
+                    PoolThreadCache cache = magazine.cache;
+                    return cache.heapArena.allocate(cache, initialCapacity, maxCapacity);
+                } finally {
+                    magazine.release();
+                }
+            }
+        }
+        return arena(heapArenas, index).allocate(NO_CACHE, initialCapacity, maxCapacity);
+    }
+
+    PooledByteBuf<ByteBuffer> allocateDirect(int initialCapacity, int maxCapacity) {
+        int index = index();
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            Magazine magazine = magazines[(index + i) % magazines.length];
+            if (magazine.tryAcquire()) {
+                try {
+                    PoolThreadCache cache = magazine.cache;
+                    return cache.directArena.allocate(cache, initialCapacity, maxCapacity);
+                } finally {
+                    magazine.release();
+                }
+            }
+        }
+        return arena(directArenas, index).allocate(NO_CACHE, initialCapacity, maxCapacity);
+    }
+
+    private int index() {
+        // Thread ids are handed out sequentially, so this spreads the threads evenly over the magazines.
+        return (int) ((Thread.currentThread().getId() & Long.MAX_VALUE) % magazines.length);
+    }
+
+    /**
+     * Trim the caches of all magazines that are not in use right now.
+     */
+    void trim() {
+        for (Magazine magazine: magazines) {
+            if (magazine.tryAcquire()) {
+                try {
+                    magazine.cache.trim();
+                } finally {
+                    magazine.release();
+                }
+            }
+        }
+    }
+
+    private static final class Magazine {
+        private static final AtomicIntegerFieldUpdater<Magazine> ACQUIRED_UPDATER =
+                AtomicIntegerFieldUpdater.newUpdater(Magazine.class, "acquired");
+
+        final PoolThreadCache cache;
+        private volatile int acquired;
+
+        Magazine(PoolThreadCache cache) {
+            this.cache = cache;
+        }
+
+        boolean tryAcquire() {
+            return acquired == 0 && ACQUIRED_UPDATER.compareAndSet(this, 0, 1);
+        }
+
+        void release() {
+            acquired = 0;
+        }
+    }
+}
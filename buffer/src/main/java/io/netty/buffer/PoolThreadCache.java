@@ -20,6 +20,7 @@ package io.netty.buffer;
 import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
 
 import io.netty.buffer.PoolArena.SizeClass;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.internal.MathUtil;
 import io.netty.util.internal.ObjectPool;
 import io.netty.util.internal.ObjectPool.Handle;
@@ -32,6 +33,8 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
@@ -58,6 +61,10 @@ final class PoolThreadCache {
     private final int freeSweepAllocationThreshold;
     private final AtomicBoolean freed = new AtomicBoolean();
 
+    // The periodic trim tasks scheduled on the EventExecutor of the owning thread, cancelled once this cache is freed.
+    private volatile Future<?> trimFuture;
+    private volatile Future<?> idleTrimFuture;
+
     private int allocations;
 
     // TODO: Test if adding padding helps under contention
@@ -208,6 +215,28 @@ final class PoolThreadCache {
         }
     }
 
+    /**
+     * Periodically run {@code trimTask} on {@code executor} until this cache is freed.
+     */
+    void scheduleTrim(EventExecutor executor, Runnable trimTask, long intervalMillis) {
+        trimFuture = executor.scheduleAtFixedRate(trimTask, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Periodically run {@code idleTrimTask} on {@code executor} until this cache is freed. The arenas of this cache
+     * are trimmed by the task, so they no longer need to be trimmed by the tasks of other caches.
+     */
+    void scheduleIdleTrim(EventExecutor executor, Runnable idleTrimTask, long idleTimeMillis) {
+        if (directArena != null) {
+            directArena.numIdleTrimCaches.getAndIncrement();
+        }
+        if (heapArena != null) {
+            heapArena.numIdleTrimCaches.getAndIncrement();
+        }
+        idleTrimFuture = executor.scheduleAtFixedRate(
+                idleTrimTask, idleTimeMillis, idleTimeMillis, TimeUnit.MILLISECONDS);
+    }
+
     /**
      *  Should be called if the Thread that uses this cache is about to exist to release resources out of the cache
      */
@@ -215,6 +244,21 @@ final class PoolThreadCache {
         // As free() may be called either by the finalizer or by FastThreadLocal.onRemoval(...) we need to ensure
         // we only call this one time.
         if (freed.compareAndSet(false, true)) {
+            Future<?> trimFuture = this.trimFuture;
+            if (trimFuture != null) {
+                trimFuture.cancel(false);
+            }
+            Future<?> idleTrimFuture = this.idleTrimFuture;
+            if (idleTrimFuture != null) {
+                idleTrimFuture.cancel(false);
+                if (directArena != null) {
+                    directArena.numIdleTrimCaches.getAndDecrement();
+                }
+                if (heapArena != null) {
+                    heapArena.numIdleTrimCaches.getAndDecrement();
+                }
+            }
+
             int numFreed = free(smallSubPageDirectCaches, finalizer) +
                     free(normalDirectCaches, finalizer) +
                     free(smallSubPageHeapCaches, finalizer) +
@@ -410,8 +454,17 @@ final class PoolThreadCache {
             allocations = 0;
 
             // We not even allocated all the number that are
-            if (free > 0) {
-                free(free, false);
+            for (; free > 0; free--) {
+                Entry<T> entry = queue.poll();
+                if (entry == null) {
+                    // all cleared
+                    return;
+                }
+                // Capture entry state before the entry is recycled.
+                PoolArena<T> arena = entry.chunk.arena;
+                int normCapacity = entry.normCapacity;
+                freeEntry(entry, false);
+                arena.incTrimmedCacheEntry(normCapacity);
             }
         }
 
@@ -16,6 +16,7 @@
 
 package io.netty.buffer;
 
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
 import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
 
 import io.netty.util.NettyRuntime;
@@ -48,9 +49,12 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
     static final int DEFAULT_MAX_CACHED_BUFFER_CAPACITY;
     private static final int DEFAULT_CACHE_TRIM_INTERVAL;
     private static final long DEFAULT_CACHE_TRIM_INTERVAL_MILLIS;
+    private static final long DEFAULT_IDLE_TRIM_TIME_MILLIS;
     private static final boolean DEFAULT_USE_CACHE_FOR_ALL_THREADS;
+    private static final int DEFAULT_NUM_MAGAZINES;
     private static final int DEFAULT_DIRECT_MEMORY_CACHE_ALIGNMENT;
     static final int DEFAULT_MAX_CACHED_BYTEBUFFERS_PER_CHUNK;
+    private static final ChunkMemoryProvider DEFAULT_CHUNK_MEMORY_PROVIDER;
 
     private static final int MIN_PAGE_SIZE = 4096;
     private static final int MAX_CHUNK_SIZE = (int) (((long) Integer.MAX_VALUE + 1) / 2);
@@ -64,6 +68,13 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
         }
     };
 
+    private final Runnable idleTrimTask = new Runnable() {
+        @Override
+        public void run() {
+            PooledByteBufAllocator.this.trimIdleMemory(TimeUnit.MILLISECONDS.toNanos(idleTrimTimeMillis));
+        }
+    };
+
     static {
         int defaultAlignment = SystemPropertyUtil.getInt(
                 "io.netty.allocator.directMemoryCacheAlignment", 0);
@@ -145,9 +156,21 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
                     "io.netty.allocator.cacheTrimIntervalMillis", 0);
         }
 
+        // Memory which was not used for this time is released by the EventLoops, 0 disables it.
+        DEFAULT_IDLE_TRIM_TIME_MILLIS = Math.max(0, SystemPropertyUtil.getLong(
+                "io.netty.allocator.idleTrimTimeMillis", 0));
+
         DEFAULT_USE_CACHE_FOR_ALL_THREADS = SystemPropertyUtil.getBoolean(
                 "io.netty.allocator.useCacheForAllThreads", false);
 
+        // The number of caches that are shared by the threads which do not get a thread-local cache, 0 disables them.
+        DEFAULT_NUM_MAGAZINES = Math.max(0, SystemPropertyUtil.getInt("io.netty.allocator.numMagazines", 0));
+
+        // Without Unsafe direct buffers can only be freed by the GC, so allocate the chunks in an Arena if we can.
+        DEFAULT_CHUNK_MEMORY_PROVIDER =
+                !PlatformDependent.hasUnsafe() && MemorySegmentChunkMemoryProvider.isAvailable() ?
+                        new MemorySegmentChunkMemoryProvider() : DirectChunkMemoryProvider.INSTANCE;
+
         // Use 1023 by default as we use an ArrayDeque as backing storage which will then allocate an internal array
         // of 1024 elements. Otherwise we would allocate 2048 and only use 1024 which is wasteful.
         DEFAULT_MAX_CACHED_BYTEBUFFERS_PER_CHUNK = SystemPropertyUtil.getInt(
@@ -172,7 +195,11 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
             logger.debug("-Dio.netty.allocator.maxCachedBufferCapacity: {}", DEFAULT_MAX_CACHED_BUFFER_CAPACITY);
             logger.debug("-Dio.netty.allocator.cacheTrimInterval: {}", DEFAULT_CACHE_TRIM_INTERVAL);
             logger.debug("-Dio.netty.allocator.cacheTrimIntervalMillis: {}", DEFAULT_CACHE_TRIM_INTERVAL_MILLIS);
+            logger.debug("-Dio.netty.allocator.idleTrimTimeMillis: {}", DEFAULT_IDLE_TRIM_TIME_MILLIS);
             logger.debug("-Dio.netty.allocator.useCacheForAllThreads: {}", DEFAULT_USE_CACHE_FOR_ALL_THREADS);
+            logger.debug("-Dio.netty.allocator.numMagazines: {}", DEFAULT_NUM_MAGAZINES);
+            logger.debug("chunkMemoryProvider: {}",
+                    DEFAULT_CHUNK_MEMORY_PROVIDER.getClass().getSimpleName());
             logger.debug("-Dio.netty.allocator.maxCachedByteBuffersPerChunk: {}",
                     DEFAULT_MAX_CACHED_BYTEBUFFERS_PER_CHUNK);
         }
@@ -188,7 +215,9 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
     private final List<PoolArenaMetric> heapArenaMetrics;
     private final List<PoolArenaMetric> directArenaMetrics;
     private final PoolThreadLocalCache threadCache;
+    private final PoolMagazines magazines;
     private final int chunkSize;
+    private final long idleTrimTimeMillis;
     private final PooledByteBufAllocatorMetric metric;
 
     public PooledByteBufAllocator() {
@@ -265,7 +294,63 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
     public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
                                   int smallCacheSize, int normalCacheSize,
                                   boolean useCacheForAllThreads, int directMemoryCacheAlignment) {
+        this(preferDirect, nHeapArena, nDirectArena, pageSize, maxOrder,
+             smallCacheSize, normalCacheSize,
+             useCacheForAllThreads, directMemoryCacheAlignment, DEFAULT_NUM_MAGAZINES);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param numMagazines the number of caches that are shared by all the threads which do not get a cache of their
+     *                     own, like threads that are not {@link FastThreadLocalThread}s or virtual threads, or
+     *                     {@code 0} if these threads should allocate without any cache.
+     */
+    public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
+                                  int smallCacheSize, int normalCacheSize,
+                                  boolean useCacheForAllThreads, int directMemoryCacheAlignment, int numMagazines) {
+        this(preferDirect, nHeapArena, nDirectArena, pageSize, maxOrder,
+             smallCacheSize, normalCacheSize,
+             useCacheForAllThreads, directMemoryCacheAlignment, numMagazines, DEFAULT_CHUNK_MEMORY_PROVIDER);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param numMagazines the number of caches that are shared by all the threads which do not get a cache of their
+     *                     own, like threads that are not {@link FastThreadLocalThread}s or virtual threads, or
+     *                     {@code 0} if these threads should allocate without any cache.
+     * @param chunkMemoryProvider the {@link ChunkMemoryProvider} which provides the memory of the chunks of the
+     *                            direct arenas.
+     */
+    public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
+                                  int smallCacheSize, int normalCacheSize,
+                                  boolean useCacheForAllThreads, int directMemoryCacheAlignment, int numMagazines,
+                                  ChunkMemoryProvider chunkMemoryProvider) {
+        this(preferDirect, nHeapArena, nDirectArena, pageSize, maxOrder,
+             smallCacheSize, normalCacheSize,
+             useCacheForAllThreads, directMemoryCacheAlignment, numMagazines, chunkMemoryProvider,
+             DEFAULT_IDLE_TRIM_TIME_MILLIS);
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param numMagazines the number of caches that are shared by all the threads which do not get a cache of their
+     *                     own, like threads that are not {@link FastThreadLocalThread}s or virtual threads, or
+     *                     {@code 0} if these threads should allocate without any cache.
+     * @param chunkMemoryProvider the {@link ChunkMemoryProvider} which provides the memory of the chunks of the
+     *                            direct arenas.
+     * @param idleTrimTimeMillis the time after which memory that was not used is released by the
+     *                           {@link EventExecutor}s which allocate from this allocator, or {@code 0} to keep it.
+     */
+    public PooledByteBufAllocator(boolean preferDirect, int nHeapArena, int nDirectArena, int pageSize, int maxOrder,
+                                  int smallCacheSize, int normalCacheSize,
+                                  boolean useCacheForAllThreads, int directMemoryCacheAlignment, int numMagazines,
+                                  ChunkMemoryProvider chunkMemoryProvider, long idleTrimTimeMillis) {
         super(preferDirect);
+        checkNotNull(chunkMemoryProvider, "chunkMemoryProvider");
+        this.idleTrimTimeMillis = checkPositiveOrZero(idleTrimTimeMillis, "idleTrimTimeMillis");
         threadCache = new PoolThreadLocalCache(useCacheForAllThreads);
         this.smallCacheSize = smallCacheSize;
         this.normalCacheSize = normalCacheSize;
@@ -286,6 +371,7 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
         checkPositiveOrZero(nDirectArena, "nDirectArena");
 
         checkPositiveOrZero(directMemoryCacheAlignment, "directMemoryCacheAlignment");
+        checkPositiveOrZero(numMagazines, "numMagazines");
         if (directMemoryCacheAlignment > 0 && !isDirectMemoryCacheAlignmentSupported()) {
             throw new IllegalArgumentException("directMemoryCacheAlignment is not supported");
         }
@@ -317,7 +403,7 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
             List<PoolArenaMetric> metrics = new ArrayList<PoolArenaMetric>(directArenas.length);
             for (int i = 0; i < directArenas.length; i ++) {
                 PoolArena.DirectArena arena = new PoolArena.DirectArena(
-                        this, pageSize, pageShifts, chunkSize, directMemoryCacheAlignment);
+                        this, pageSize, pageShifts, chunkSize, directMemoryCacheAlignment, chunkMemoryProvider);
                 directArenas[i] = arena;
                 metrics.add(arena);
             }
@@ -326,6 +412,13 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
             directArenas = null;
             directArenaMetrics = Collections.emptyList();
         }
+
+        if (numMagazines > 0 && (heapArenas != null || directArenas != null)) {
+            magazines = new PoolMagazines(numMagazines, heapArenas, directArenas, smallCacheSize, normalCacheSize,
+                    DEFAULT_MAX_CACHED_BUFFER_CAPACITY, DEFAULT_CACHE_TRIM_INTERVAL);
+        } else {
+            magazines = null;
+        }
         metric = new PooledByteBufAllocatorMetric(this);
     }
 
@@ -375,7 +468,9 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
         PoolArena<byte[]> heapArena = cache.heapArena;
 
         final ByteBuf buf;
-        if (heapArena != null) {
+        if (cache == PoolMagazines.NO_CACHE && heapArenas != null) {
+            buf = magazines.allocateHeap(initialCapacity, maxCapacity);
+        } else if (heapArena != null) {
             buf = heapArena.allocate(cache, initialCapacity, maxCapacity);
         } else {
             buf = PlatformDependent.hasUnsafe() ?
@@ -392,7 +487,9 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
         PoolArena<ByteBuffer> directArena = cache.directArena;
 
         final ByteBuf buf;
-        if (directArena != null) {
+        if (cache == PoolMagazines.NO_CACHE && directArenas != null) {
+            buf = magazines.allocateDirect(initialCapacity, maxCapacity);
+        } else if (directArena != null) {
             buf = directArena.allocate(cache, initialCapacity, maxCapacity);
         } else {
             buf = PlatformDependent.hasUnsafe() ?
@@ -438,6 +535,14 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
         return DEFAULT_USE_CACHE_FOR_ALL_THREADS;
     }
 
+    /**
+     * Default number of caches shared by the threads without a thread-local cache - System Property:
+     * io.netty.allocator.numMagazines - default 0
+     */
+    public static int defaultNumMagazines() {
+        return DEFAULT_NUM_MAGAZINES;
+    }
+
     /**
      * Default prefer direct - System Property: io.netty.noPreferDirect - default false
      */
@@ -527,12 +632,20 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
 
                 if (DEFAULT_CACHE_TRIM_INTERVAL_MILLIS > 0) {
                     if (executor != null) {
-                        executor.scheduleAtFixedRate(trimTask, DEFAULT_CACHE_TRIM_INTERVAL_MILLIS,
-                                DEFAULT_CACHE_TRIM_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                        cache.scheduleTrim(executor, trimTask, DEFAULT_CACHE_TRIM_INTERVAL_MILLIS);
+                    }
+                }
+                if (idleTrimTimeMillis > 0) {
+                    if (executor != null) {
+                        cache.scheduleIdleTrim(executor, idleTrimTask, idleTrimTimeMillis);
                     }
                 }
                 return cache;
             }
+            if (magazines != null) {
+                // Allocate out of the shared magazines, so we do not need to create a cache for each thread.
+                return PoolMagazines.NO_CACHE;
+            }
             // No caching so just use 0 as sizes.
             return new PoolThreadCache(heapArena, directArena, 0, 0, 0, 0);
         }
@@ -626,7 +739,12 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
             total += arena.numThreadCaches.get();
         }
 
-        return total;
+        // The magazines are not bound to a thread.
+        return magazines == null ? total : total - magazines.numMagazines();
+    }
+
+    final int numMagazines() {
+        return magazines == null ? 0 : magazines.numMagazines();
     }
 
     /**
@@ -746,6 +864,77 @@ public class PooledByteBufAllocator extends AbstractByteBufAllocator implements
         return false;
     }
 
+    /**
+     * Trim the thread local cache of the current {@link Thread}, which gives back the cached memory that was not
+     * allocated since the last trim, and destroy the chunks of its arenas which were not used at all for at least
+     * {@code idleNanos}. The idle chunks of the arenas which are not trimmed by the {@link EventExecutor} of any
+     * thread cache, like those only used by the magazines or by threads which are gone, are destroyed as well. This
+     * is done periodically by the {@link EventExecutor}s if an idle trim time is set.
+     */
+    void trimIdleMemory(long idleNanos) {
+        PoolThreadCache cache = threadCache.getIfExists();
+        if (cache != null) {
+            cache.trim();
+            if (cache.heapArena != null) {
+                cache.heapArena.trimIdleChunks(idleNanos);
+            }
+            if (cache.directArena != null) {
+                cache.directArena.trimIdleChunks(idleNanos);
+            }
+        }
+        if (magazines != null) {
+            magazines.trim();
+        }
+        for (PoolArena<?> arena: allArenas()) {
+            if (arena.numIdleTrimCaches.get() == 0) {
+                arena.trimIdleChunks(idleNanos);
+            }
+        }
+    }
+
+    final long numTrimmedChunks() {
+        long total = 0;
+        for (PoolArena<?> arena: allArenas()) {
+            total += arena.numTrimmedChunks();
+        }
+        return total;
+    }
+
+    final long trimmedChunkBytes() {
+        long total = 0;
+        for (PoolArena<?> arena: allArenas()) {
+            total += arena.numTrimmedChunkBytes();
+        }
+        return total;
+    }
+
+    final long numTrimmedCacheEntries() {
+        long total = 0;
+        for (PoolArena<?> arena: allArenas()) {
+            total += arena.numTrimmedCacheEntries();
+        }
+        return total;
+    }
+
+    final long trimmedCacheBytes() {
+        long total = 0;
+        for (PoolArena<?> arena: allArenas()) {
+            total += arena.numTrimmedCacheBytes();
+        }
+        return total;
+    }
+
+    private List<PoolArena<?>> allArenas() {
+        List<PoolArena<?>> arenas = new ArrayList<PoolArena<?>>();
+        if (heapArenas != null) {
+            Collections.addAll(arenas, heapArenas);
+        }
+        if (directArenas != null) {
+            Collections.addAll(arenas, directArenas);
+        }
+        return arenas;
+    }
+
     /**
      * Returns the status of the allocator (which contains all metrics) as string. Be aware this may be expensive
      * and so should not called too frequently.
@@ -23,7 +23,7 @@ import java.util.List;
  * Exposed metric for {@link PooledByteBufAllocator}.
  */
 @SuppressWarnings("deprecation")
-public final class PooledByteBufAllocatorMetric implements ByteBufAllocatorMetric {
+public final class PooledByteBufAllocatorMetric implements AllocationProfilerMetric {
 
     private final PooledByteBufAllocator allocator;
 
@@ -66,6 +66,43 @@ public final class PooledByteBufAllocatorMetric implements ByteBufAllocatorMetri
         return allocator.numThreadLocalCaches();
     }
 
+    /**
+     * Return the number of caches which are shared by the threads that do not have a thread local cache.
+     */
+    public int numMagazines() {
+        return allocator.numMagazines();
+    }
+
+    /**
+     * Return the number of chunks which were released because they were not used for some time.
+     */
+    public long numTrimmedChunks() {
+        return allocator.numTrimmedChunks();
+    }
+
+    /**
+     * Return the number of bytes of the chunks which were released because they were not used for some time.
+     */
+    public long trimmedChunkBytes() {
+        return allocator.trimmedChunkBytes();
+    }
+
+    /**
+     * Return the number of buffers which were released from the thread local caches because they were not
+     * allocated frequently enough.
+     */
+    public long numTrimmedCacheEntries() {
+        return allocator.numTrimmedCacheEntries();
+    }
+
+    /**
+     * Return the number of bytes of the buffers which were released from the thread local caches because they were
+     * not allocated frequently enough.
+     */
+    public long trimmedCacheBytes() {
+        return allocator.trimmedCacheBytes();
+    }
+
     /**
      * Return the size of the tiny cache.
      *
@@ -107,6 +144,16 @@ public final class PooledByteBufAllocatorMetric implements ByteBufAllocatorMetri
         return allocator.usedDirectMemory();
     }
 
+    @Override
+    public long allocationSampleInterval() {
+        return allocator.allocationSampleInterval();
+    }
+
+    @Override
+    public List<AllocationSiteMetric> allocationSites() {
+        return allocator.allocationSites();
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder(256);
@@ -118,6 +165,7 @@ public final class PooledByteBufAllocatorMetric implements ByteBufAllocatorMetri
                 .append("; smallCacheSize: ").append(smallCacheSize())
                 .append("; normalCacheSize: ").append(normalCacheSize())
                 .append("; numThreadLocalCaches: ").append(numThreadLocalCaches())
+                .append("; numMagazines: ").append(numMagazines())
                 .append("; chunkSize: ").append(chunkSize()).append(')');
         return sb.toString();
     }
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A {@link ChunkMemoryProvider} which reserves one contiguous region of memory up front and hands out slices of it
+ * for chunks of the given size. Chunks of any other size, and chunks which do not fit into the region anymore, are
+ * allocated by the {@link ChunkMemoryProvider} which is used as fallback.
+ * <p>
+ * The region is never given back and, as it is reserved through a single call to {@link ChunkMemoryProvider#allocate},
+ * can be at most {@link Integer#MAX_VALUE} bytes. Chunks of a {@link PooledByteBufAllocator} which uses a
+ * {@code directMemoryCacheAlignment} are bigger than its chunk size and so always use the fallback.
+ */
+@UnstableApi
+public final class ReservedChunkMemoryProvider implements ChunkMemoryProvider {
+
+    private final ChunkMemoryProvider fallback;
+    private final int chunkSize;
+    private final Map<ByteBuffer, Boolean> slices;
+    private final Deque<ByteBuffer> freeSlices;
+
+    /**
+     * Reserve a region for {@code numChunks} chunks of {@code chunkSize} bytes like any other direct
+     * {@link ByteBuffer}.
+     */
+    public ReservedChunkMemoryProvider(int chunkSize, int numChunks) {
+        this(DirectChunkMemoryProvider.INSTANCE, chunkSize, numChunks);
+    }
+
+    /**
+     * Reserve a region for {@code numChunks} chunks of {@code chunkSize} bytes through the given
+     * {@link ChunkMemoryProvider}, which is also used as fallback.
+     */
+    public ReservedChunkMemoryProvider(ChunkMemoryProvider provider, int chunkSize, int numChunks) {
+        this.fallback = ObjectUtil.checkNotNull(provider, "provider");
+        this.chunkSize = ObjectUtil.checkPositive(chunkSize, "chunkSize");
+        ObjectUtil.checkPositive(numChunks, "numChunks");
+        if ((long) chunkSize * numChunks > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("chunkSize * numChunks: " + (long) chunkSize * numChunks +
+                    " (expected: <= " + Integer.MAX_VALUE + ')');
+        }
+        ByteBuffer region = provider.allocate(chunkSize * numChunks);
+        slices = new IdentityHashMap<ByteBuffer, Boolean>(numChunks);
+        freeSlices = new ArrayDeque<ByteBuffer>(numChunks);
+        for (int i = 0; i < numChunks; i++) {
+            ByteBuffer slice = region.duplicate();
+            slice.limit((i + 1) * chunkSize).position(i * chunkSize);
+            slice = slice.slice();
+            slices.put(slice, Boolean.TRUE);
+            freeSlices.add(slice);
+        }
+    }
+
+    /**
+     * Returns the number of chunks which can still be allocated out of the reserved region.
+     */
+    public synchronized int numFreeChunks() {
+        return freeSlices.size();
+    }
+
+    @Override
+    public ByteBuffer allocate(int capacity) {
+        if (capacity == chunkSize) {
+            ByteBuffer slice;
+            synchronized (this) {
+                slice = freeSlices.poll();
+            }
+            if (slice != null) {
+                slice.clear();
+                return slice;
+            }
+        }
+        return fallback.allocate(capacity);
+    }
+
+    @Override
+    public void free(ByteBuffer memory) {
+        // The map is never modified after construction so it is safe to query it without synchronization.
+        if (slices.containsKey(memory)) {
+            synchronized (this) {
+                freeSlices.push(memory);
+            }
+        } else {
+            fallback.free(memory);
+        }
+    }
+}
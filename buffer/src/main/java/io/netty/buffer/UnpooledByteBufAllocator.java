@@ -20,13 +20,14 @@ import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.StringUtil;
 
 import java.nio.ByteBuffer;
+import java.util.List;
 
 /**
  * Simplistic {@link ByteBufAllocator} implementation that does not pool anything.
  */
 public final class UnpooledByteBufAllocator extends AbstractByteBufAllocator implements ByteBufAllocatorMetricProvider {
 
-    private final UnpooledByteBufAllocatorMetric metric = new UnpooledByteBufAllocatorMetric();
+    private final UnpooledByteBufAllocatorMetric metric = new UnpooledByteBufAllocatorMetric(this);
     private final boolean disableLeakDetector;
     private final boolean noCleaner;
 
@@ -90,6 +91,8 @@ public final class UnpooledByteBufAllocator extends AbstractByteBufAllocator imp
         if (PlatformDependent.hasUnsafe()) {
             buf = noCleaner ? new InstrumentedUnpooledUnsafeNoCleanerDirectByteBuf(this, initialCapacity, maxCapacity) :
                     new InstrumentedUnpooledUnsafeDirectByteBuf(this, initialCapacity, maxCapacity);
+        } else if (MemorySegmentByteBufs.isAvailable()) {
+            buf = MemorySegmentByteBufs.newUnpooledDirectBuffer(this, initialCapacity, maxCapacity);
         } else {
             buf = new InstrumentedUnpooledDirectByteBuf(this, initialCapacity, maxCapacity);
         }
@@ -225,7 +228,7 @@ public final class UnpooledByteBufAllocator extends AbstractByteBufAllocator imp
         }
     }
 
-    private static final class InstrumentedUnpooledDirectByteBuf extends UnpooledDirectByteBuf {
+    static final class InstrumentedUnpooledDirectByteBuf extends UnpooledDirectByteBuf {
         InstrumentedUnpooledDirectByteBuf(
                 UnpooledByteBufAllocator alloc, int initialCapacity, int maxCapacity) {
             super(alloc, initialCapacity, maxCapacity);
@@ -246,9 +249,14 @@ public final class UnpooledByteBufAllocator extends AbstractByteBufAllocator imp
         }
     }
 
-    private static final class UnpooledByteBufAllocatorMetric implements ByteBufAllocatorMetric {
+    private static final class UnpooledByteBufAllocatorMetric implements AllocationProfilerMetric {
         final LongCounter directCounter = PlatformDependent.newLongCounter();
         final LongCounter heapCounter = PlatformDependent.newLongCounter();
+        private final UnpooledByteBufAllocator allocator;
+
+        UnpooledByteBufAllocatorMetric(UnpooledByteBufAllocator allocator) {
+            this.allocator = allocator;
+        }
 
         @Override
         public long usedHeapMemory() {
@@ -260,6 +268,16 @@ public final class UnpooledByteBufAllocator extends AbstractByteBufAllocator imp
             return directCounter.value();
         }
 
+        @Override
+        public long allocationSampleInterval() {
+            return allocator.allocationSampleInterval();
+        }
+
+        @Override
+        public List<AllocationSiteMetric> allocationSites() {
+            return allocator.allocationSites();
+        }
+
         @Override
         public String toString() {
             return StringUtil.simpleClassName(this) +
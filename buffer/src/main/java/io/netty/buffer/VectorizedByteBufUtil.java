@@ -0,0 +1,83 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.StringUtil;
+
+/**
+ * Vectorized versions of some of the {@link ByteBufUtil} primitives, which all work on the backing {@code byte[]} of
+ * heap buffers.
+ * <p>
+ * This is the version used before Java 17, which only has scalar loops and so reports itself as not supported, to let
+ * {@link ByteBufUtil} keep using its own loops. The Java 17 version is compiled from {@code src/main/java17} into the
+ * multi-release part of the jar and uses the {@code jdk.incubator.vector} module if it was added with
+ * {@code --add-modules jdk.incubator.vector}. Both versions must keep the same methods.
+ */
+final class VectorizedByteBufUtil {
+
+    private VectorizedByteBufUtil() { }
+
+    /**
+     * Returns {@code true} if the methods of this class can be used.
+     */
+    static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code value} in {@code array[fromIndex:toIndex]}, or {@code -1}.
+     */
+    static int firstIndexOf(byte[] array, int fromIndex, int toIndex, byte value) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the offset of the first byte which differs between {@code a[aIndex:aIndex + length]} and
+     * {@code b[bIndex:bIndex + length]}, or {@code -1} if they are equal.
+     */
+    static int mismatch(byte[] a, int aIndex, byte[] b, int bIndex, int length) {
+        for (int i = 0; i < length; i++) {
+            if (a[aIndex + i] != b[bIndex + i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the first byte in {@code array[fromIndex:toIndex]} which is not ASCII, or {@code -1}.
+     */
+    static int firstNonAscii(byte[] array, int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (array[i] < 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the same as {@link ByteBufUtil#hexDump(byte[], int, int)}.
+     */
+    static String hexDump(byte[] array, int fromIndex, int length) {
+        return StringUtil.toHexStringPadded(array, fromIndex, length);
+    }
+}
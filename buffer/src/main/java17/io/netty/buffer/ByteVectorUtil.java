@@ -0,0 +1,130 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.CharsetUtil;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The {@link VectorizedByteBufUtil} primitives implemented with the {@code jdk.incubator.vector} API, using the
+ * widest vectors the CPU supports. Each method processes whole vectors first and the remaining bytes one by one.
+ */
+final class ByteVectorUtil {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final int LENGTH = SPECIES.length();
+    private static final byte[] DIGITS = "0123456789abcdef".getBytes(CharsetUtil.US_ASCII);
+
+    // Interleave the high and the low digits of the bytes of one vector into two vectors. The negative indexes select
+    // the lanes of the second vector passed to rearrange, which holds the low digits.
+    private static final VectorShuffle<Byte> FIRST_HALF = interleave(0);
+    private static final VectorShuffle<Byte> SECOND_HALF = interleave(LENGTH);
+
+    private ByteVectorUtil() { }
+
+    private static VectorShuffle<Byte> interleave(int first) {
+        int[] indexes = new int[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            int source = (first + i) >>> 1;
+            indexes[i] = (i & 1) == 0 ? source : source - LENGTH;
+        }
+        return VectorShuffle.fromArray(SPECIES, indexes, 0);
+    }
+
+    static int vectorBitSize() {
+        return SPECIES.vectorBitSize();
+    }
+
+    static boolean isUsable() {
+        // Without at least 128 bit registers the API falls back to Java code which is slower than the scalar loops.
+        return SPECIES.vectorBitSize() >= 128;
+    }
+
+    static int firstIndexOf(byte[] array, int fromIndex, int toIndex, byte value) {
+        int i = fromIndex;
+        for (int bound = toIndex - LENGTH; i <= bound; i += LENGTH) {
+            VectorMask<Byte> found = ByteVector.fromArray(SPECIES, array, i).eq(value);
+            if (found.anyTrue()) {
+                return i + found.firstTrue();
+            }
+        }
+        for (; i < toIndex; i++) {
+            if (array[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int mismatch(byte[] a, int aIndex, byte[] b, int bIndex, int length) {
+        int i = 0;
+        for (int bound = length - LENGTH; i <= bound; i += LENGTH) {
+            VectorMask<Byte> different = ByteVector.fromArray(SPECIES, a, aIndex + i)
+                    .compare(VectorOperators.NE, ByteVector.fromArray(SPECIES, b, bIndex + i));
+            if (different.anyTrue()) {
+                return i + different.firstTrue();
+            }
+        }
+        for (; i < length; i++) {
+            if (a[aIndex + i] != b[bIndex + i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int firstNonAscii(byte[] array, int fromIndex, int toIndex) {
+        int i = fromIndex;
+        for (int bound = toIndex - LENGTH; i <= bound; i += LENGTH) {
+            VectorMask<Byte> nonAscii = ByteVector.fromArray(SPECIES, array, i).lt((byte) 0);
+            if (nonAscii.anyTrue()) {
+                return i + nonAscii.firstTrue();
+            }
+        }
+        for (; i < toIndex; i++) {
+            if (array[i] < 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static String hexDump(byte[] array, int fromIndex, int length) {
+        byte[] dump = new byte[length << 1];
+        int i = 0;
+        for (int bound = length - LENGTH; i <= bound; i += LENGTH) {
+            ByteVector bytes = ByteVector.fromArray(SPECIES, array, fromIndex + i);
+            ByteVector high = digits(bytes.lanewise(VectorOperators.LSHR, 4).and((byte) 0x0F));
+            ByteVector low = digits(bytes.and((byte) 0x0F));
+            high.rearrange(FIRST_HALF, low).intoArray(dump, i << 1);
+            high.rearrange(SECOND_HALF, low).intoArray(dump, (i << 1) + LENGTH);
+        }
+        for (; i < length; i++) {
+            int b = array[fromIndex + i] & 0xFF;
+            dump[i << 1] = DIGITS[b >>> 4];
+            dump[(i << 1) + 1] = DIGITS[b & 0x0F];
+        }
+        return new String(dump, CharsetUtil.ISO_8859_1);
+    }
+
+    private static ByteVector digits(ByteVector nibbles) {
+        // '0' to '9' for 0 to 9 and 'a' to 'f' for 10 to 15.
+        return nibbles.add((byte) '0').add((byte) ('a' - '0' - 10), nibbles.compare(VectorOperators.GT, (byte) 9));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+/**
+ * Vectorized versions of some of the {@link ByteBufUtil} primitives, which all work on the backing {@code byte[]} of
+ * heap buffers.
+ * <p>
+ * This is the Java 17 version, which delegates to {@link ByteVectorUtil} if the {@code jdk.incubator.vector}
+ * module was added with {@code --add-modules jdk.incubator.vector}. {@link ByteVectorUtil} is only loaded in that
+ * case, as it links against the incubator module.
+ */
+final class VectorizedByteBufUtil {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(VectorizedByteBufUtil.class);
+
+    private static final boolean SUPPORTED;
+
+    static {
+        boolean supported = false;
+        if (SystemPropertyUtil.getBoolean("io.netty.buffer.noVectorApi", false)) {
+            logger.debug("-Dio.netty.buffer.noVectorApi: true");
+        } else if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            logger.debug("jdk.incubator.vector: unavailable (add it with --add-modules jdk.incubator.vector)");
+        } else {
+            try {
+                supported = ByteVectorUtil.isUsable();
+                logger.debug("jdk.incubator.vector: {} ({} bits)", supported ? "available" : "not accelerated",
+                        ByteVectorUtil.vectorBitSize());
+            } catch (Throwable cause) {
+                logger.debug("jdk.incubator.vector: unavailable", cause);
+            }
+        }
+        SUPPORTED = supported;
+    }
+
+    private VectorizedByteBufUtil() { }
+
+    /**
+     * Returns {@code true} if the methods of this class can be used.
+     */
+    static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    /**
+     * Returns the index of the first occurrence of {@code value} in {@code array[fromIndex:toIndex]}, or {@code -1}.
+     */
+    static int firstIndexOf(byte[] array, int fromIndex, int toIndex, byte value) {
+        return ByteVectorUtil.firstIndexOf(array, fromIndex, toIndex, value);
+    }
+
+    /**
+     * Returns the offset of the first byte which differs between {@code a[aIndex:aIndex + length]} and
+     * {@code b[bIndex:bIndex + length]}, or {@code -1} if they are equal.
+     */
+    static int mismatch(byte[] a, int aIndex, byte[] b, int bIndex, int length) {
+        return ByteVectorUtil.mismatch(a, aIndex, b, bIndex, length);
+    }
+
+    /**
+     * Returns the index of the first byte in {@code array[fromIndex:toIndex]} which is not ASCII, or {@code -1}.
+     */
+    static int firstNonAscii(byte[] array, int fromIndex, int toIndex) {
+        return ByteVectorUtil.firstNonAscii(array, fromIndex, toIndex);
+    }
+
+    /**
+     * Returns the same as {@link ByteBufUtil#hexDump(byte[], int, int)}.
+     */
+    static String hexDump(byte[] array, int fromIndex, int length) {
+        return ByteVectorUtil.hexDump(array, fromIndex, length);
+    }
+}
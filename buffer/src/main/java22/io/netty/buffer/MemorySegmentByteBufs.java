@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Direct buffers whose memory is allocated through {@link Arena} and accessed through
+ * {@link java.lang.foreign.MemorySegment}, so they neither need {@code sun.misc.Unsafe} nor a {@code Cleaner} to be
+ * freed.
+ * <p>
+ * This is the Java 22 version. Each chunk of a {@link PooledByteBufAllocator} and each unpooled buffer gets a shared
+ * {@link Arena} of its own, as the buffers can be released from any thread. The owner keeps the {@link Arena} and
+ * closes it once the memory is freed, so no registry is needed to find it again. Closing a shared {@link Arena} is
+ * more expensive than allocating it, so this fits the chunks of a {@link PooledByteBufAllocator} better than
+ * unpooled buffers.
+ */
+final class MemorySegmentByteBufs {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(MemorySegmentByteBufs.class);
+
+    // The accessors of MemorySegment use VarHandles for these layouts, which are intrinsified by the JIT.
+    static final ValueLayout.OfShort SHORT_BE =
+            ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    static final ValueLayout.OfShort SHORT_LE =
+            ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfInt INT_BE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    static final ValueLayout.OfInt INT_LE = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    static final ValueLayout.OfLong LONG_BE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.BIG_ENDIAN);
+    static final ValueLayout.OfLong LONG_LE = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+
+    private static final boolean AVAILABLE;
+
+    static {
+        boolean available = false;
+        if (SystemPropertyUtil.getBoolean("io.netty.buffer.noMemorySegment", false)) {
+            logger.debug("-Dio.netty.buffer.noMemorySegment: true");
+        } else {
+            try {
+                try (Arena arena = Arena.ofShared()) {
+                    arena.allocate(Long.BYTES).set(LONG_BE, 0, 1L);
+                }
+                available = true;
+                logger.debug("java.lang.foreign.MemorySegment: available");
+            } catch (Throwable cause) {
+                logger.debug("java.lang.foreign.MemorySegment: unavailable", cause);
+            }
+        }
+        AVAILABLE = available;
+    }
+
+    private MemorySegmentByteBufs() { }
+
+    /**
+     * Returns {@code true} if the methods of this class can be used.
+     */
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Allocates a direct {@link ByteBuffer} of exactly {@code capacity} bytes in an automatic arena, whose memory is
+     * freed by the GC once the {@link ByteBuffer} is unreachable.
+     */
+    static ByteBuffer allocateDirect(int capacity) {
+        return Arena.ofAuto().allocate(capacity).asByteBuffer();
+    }
+
+    /**
+     * Returns a new shared arena, which must be closed by {@link #closeArena(Object)}. The arena is returned as
+     * {@link Object} as the versions before Java 22 cannot refer to {@link Arena}.
+     */
+    static Object newArena() {
+        return Arena.ofShared();
+    }
+
+    /**
+     * Allocates a direct {@link ByteBuffer} of exactly {@code capacity} bytes, whose address is a multiple of
+     * {@code alignment} if it is not {@code 0}, in the given arena. Closes the arena if the allocation fails.
+     */
+    static ByteBuffer allocateDirect(Object arena, int capacity, int alignment) {
+        try {
+            return ((Arena) arena).allocate(capacity, Math.max(1, alignment)).asByteBuffer();
+        } catch (Throwable cause) {
+            closeArena(arena);
+            throw cause;
+        }
+    }
+
+    /**
+     * Closes an arena which was returned by {@link #newArena()}, which frees all of its memory.
+     */
+    static void closeArena(Object arena) {
+        ((Arena) arena).close();
+    }
+
+    /**
+     * Returns a new unpooled direct buffer whose memory is accounted in the metric of the given allocator.
+     */
+    static ByteBuf newUnpooledDirectBuffer(UnpooledByteBufAllocator alloc, int initialCapacity, int maxCapacity) {
+        return new UnpooledSegmentDirectByteBuf(alloc, initialCapacity, maxCapacity);
+    }
+
+    /**
+     * Returns a pooled direct buffer which must be initialized by its {@link PoolArena}.
+     */
+    static PooledByteBuf<ByteBuffer> newPooledDirectBuffer(int maxCapacity) {
+        return PooledSegmentDirectByteBuf.newInstance(maxCapacity);
+    }
+}
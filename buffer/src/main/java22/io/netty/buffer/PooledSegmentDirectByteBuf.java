@@ -0,0 +1,346 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.ObjectPool;
+import io.netty.util.internal.ObjectPool.Handle;
+import io.netty.util.internal.ObjectPool.ObjectCreator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+
+import static io.netty.buffer.MemorySegmentByteBufs.INT_BE;
+import static io.netty.buffer.MemorySegmentByteBufs.INT_LE;
+import static io.netty.buffer.MemorySegmentByteBufs.LONG_BE;
+import static io.netty.buffer.MemorySegmentByteBufs.LONG_LE;
+import static io.netty.buffer.MemorySegmentByteBufs.SHORT_BE;
+import static io.netty.buffer.MemorySegmentByteBufs.SHORT_LE;
+
+/**
+ * A {@link PooledByteBuf} which accesses the memory of its chunk through a {@link MemorySegment}. The segment only
+ * spans the part of the chunk which belongs to this buffer, and keeps the scope of the chunk's
+ * {@link java.lang.foreign.Arena}, so an access after the chunk was freed fails instead of touching freed memory.
+ */
+final class PooledSegmentDirectByteBuf extends PooledByteBuf<ByteBuffer> {
+
+    private static final ObjectPool<PooledSegmentDirectByteBuf> RECYCLER = ObjectPool.newPool(
+            new ObjectCreator<PooledSegmentDirectByteBuf>() {
+        @Override
+        public PooledSegmentDirectByteBuf newObject(Handle<PooledSegmentDirectByteBuf> handle) {
+            return new PooledSegmentDirectByteBuf(handle, 0);
+        }
+    });
+
+    static PooledSegmentDirectByteBuf newInstance(int maxCapacity) {
+        PooledSegmentDirectByteBuf buf = RECYCLER.get();
+        buf.reuse(maxCapacity);
+        return buf;
+    }
+
+    private MemorySegment segment;
+
+    private PooledSegmentDirectByteBuf(Handle<PooledSegmentDirectByteBuf> recyclerHandle, int maxCapacity) {
+        super(recyclerHandle, maxCapacity);
+    }
+
+    @Override
+    void init(PoolChunk<ByteBuffer> chunk, ByteBuffer nioBuffer,
+              long handle, int offset, int length, int maxLength, PoolThreadCache cache) {
+        super.init(chunk, nioBuffer, handle, offset, length, maxLength, cache);
+        initSegment();
+    }
+
+    @Override
+    void initUnpooled(PoolChunk<ByteBuffer> chunk, int length) {
+        super.initUnpooled(chunk, length);
+        initSegment();
+    }
+
+    private void initSegment() {
+        segment = MemorySegment.ofBuffer(memory).asSlice(offset, maxLength);
+    }
+
+    @Override
+    protected ByteBuffer newInternalNioBuffer(ByteBuffer memory) {
+        return memory.duplicate();
+    }
+
+    @Override
+    public boolean isDirect() {
+        return true;
+    }
+
+    @Override
+    protected byte _getByte(int index) {
+        return segment.get(ValueLayout.JAVA_BYTE, index);
+    }
+
+    @Override
+    protected short _getShort(int index) {
+        return segment.get(SHORT_BE, index);
+    }
+
+    @Override
+    protected short _getShortLE(int index) {
+        return segment.get(SHORT_LE, index);
+    }
+
+    @Override
+    protected int _getUnsignedMedium(int index) {
+        return (_getByte(index) & 0xff)     << 16 |
+               (_getByte(index + 1) & 0xff) << 8  |
+               _getByte(index + 2) & 0xff;
+    }
+
+    @Override
+    protected int _getUnsignedMediumLE(int index) {
+        return _getByte(index)      & 0xff        |
+               (_getByte(index + 1) & 0xff) << 8  |
+               (_getByte(index + 2) & 0xff) << 16;
+    }
+
+    @Override
+    protected int _getInt(int index) {
+        return segment.get(INT_BE, index);
+    }
+
+    @Override
+    protected int _getIntLE(int index) {
+        return segment.get(INT_LE, index);
+    }
+
+    @Override
+    protected long _getLong(int index) {
+        return segment.get(LONG_BE, index);
+    }
+
+    @Override
+    protected long _getLongLE(int index) {
+        return segment.get(LONG_LE, index);
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, ByteBuf dst, int dstIndex, int length) {
+        checkDstIndex(index, length, dstIndex, dst.capacity());
+        if (dst.hasArray()) {
+            getBytes(index, dst.array(), dst.arrayOffset() + dstIndex, length);
+        } else if (dst.nioBufferCount() > 0) {
+            for (ByteBuffer bb: dst.nioBuffers(dstIndex, length)) {
+                int bbLen = bb.remaining();
+                getBytes(index, bb);
+                index += bbLen;
+            }
+        } else {
+            dst.setBytes(dstIndex, this, index, length);
+        }
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, byte[] dst, int dstIndex, int length) {
+        checkDstIndex(index, length, dstIndex, dst.length);
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, index, dst, dstIndex, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf readBytes(byte[] dst, int dstIndex, int length) {
+        checkDstIndex(length, dstIndex, dst.length);
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, readerIndex, dst, dstIndex, length);
+        readerIndex += length;
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, ByteBuffer dst) {
+        dst.put(duplicateInternalNioBuffer(index, dst.remaining()));
+        return this;
+    }
+
+    @Override
+    public ByteBuf readBytes(ByteBuffer dst) {
+        int length = dst.remaining();
+        checkReadableBytes(length);
+        dst.put(_internalNioBuffer(readerIndex, length, false));
+        readerIndex += length;
+        return this;
+    }
+
+    @Override
+    public ByteBuf getBytes(int index, OutputStream out, int length) throws IOException {
+        getBytes(index, out, length, false);
+        return this;
+    }
+
+    private void getBytes(int index, OutputStream out, int length, boolean internal) throws IOException {
+        checkIndex(index, length);
+        if (length == 0) {
+            return;
+        }
+        ByteBufUtil.readBytes(alloc(), internal ? internalNioBuffer() : memory.duplicate(), idx(index), length, out);
+    }
+
+    @Override
+    public ByteBuf readBytes(OutputStream out, int length) throws IOException {
+        checkReadableBytes(length);
+        getBytes(readerIndex, out, length, true);
+        readerIndex += length;
+        return this;
+    }
+
+    @Override
+    protected void _setByte(int index, int value) {
+        segment.set(ValueLayout.JAVA_BYTE, index, (byte) value);
+    }
+
+    @Override
+    protected void _setShort(int index, int value) {
+        segment.set(SHORT_BE, index, (short) value);
+    }
+
+    @Override
+    protected void _setShortLE(int index, int value) {
+        segment.set(SHORT_LE, index, (short) value);
+    }
+
+    @Override
+    protected void _setMedium(int index, int value) {
+        _setByte(index, (byte) (value >>> 16));
+        _setByte(index + 1, (byte) (value >>> 8));
+        _setByte(index + 2, (byte) value);
+    }
+
+    @Override
+    protected void _setMediumLE(int index, int value) {
+        _setByte(index, (byte) value);
+        _setByte(index + 1, (byte) (value >>> 8));
+        _setByte(index + 2, (byte) (value >>> 16));
+    }
+
+    @Override
+    protected void _setInt(int index, int value) {
+        segment.set(INT_BE, index, value);
+    }
+
+    @Override
+    protected void _setIntLE(int index, int value) {
+        segment.set(INT_LE, index, value);
+    }
+
+    @Override
+    protected void _setLong(int index, long value) {
+        segment.set(LONG_BE, index, value);
+    }
+
+    @Override
+    protected void _setLongLE(int index, long value) {
+        segment.set(LONG_LE, index, value);
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, ByteBuf src, int srcIndex, int length) {
+        checkSrcIndex(index, length, srcIndex, src.capacity());
+        if (src.hasArray()) {
+            setBytes(index, src.array(), src.arrayOffset() + srcIndex, length);
+        } else if (src.nioBufferCount() > 0) {
+            for (ByteBuffer bb: src.nioBuffers(srcIndex, length)) {
+                int bbLen = bb.remaining();
+                setBytes(index, bb);
+                index += bbLen;
+            }
+        } else {
+            src.getBytes(srcIndex, this, index, length);
+        }
+        return this;
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, byte[] src, int srcIndex, int length) {
+        checkSrcIndex(index, length, srcIndex, src.length);
+        MemorySegment.copy(src, srcIndex, segment, ValueLayout.JAVA_BYTE, index, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, ByteBuffer src) {
+        int length = src.remaining();
+        checkIndex(index, length);
+        ByteBuffer tmpBuf = internalNioBuffer();
+        if (src == tmpBuf) {
+            src = src.duplicate();
+        }
+
+        index = idx(index);
+        tmpBuf.limit(index + length).position(index);
+        tmpBuf.put(src);
+        return this;
+    }
+
+    @Override
+    public int setBytes(int index, InputStream in, int length) throws IOException {
+        checkIndex(index, length);
+        byte[] tmp = ByteBufUtil.threadLocalTempArray(length);
+        int readBytes = in.read(tmp, 0, length);
+        if (readBytes <= 0) {
+            return readBytes;
+        }
+        MemorySegment.copy(tmp, 0, segment, ValueLayout.JAVA_BYTE, index, readBytes);
+        return readBytes;
+    }
+
+    @Override
+    public ByteBuf setZero(int index, int length) {
+        checkIndex(index, length);
+        segment.asSlice(index, length).fill((byte) 0);
+        return this;
+    }
+
+    @Override
+    public ByteBuf copy(int index, int length) {
+        checkIndex(index, length);
+        ByteBuf copy = alloc().directBuffer(length, maxCapacity());
+        return copy.writeBytes(this, index, length);
+    }
+
+    @Override
+    public boolean hasArray() {
+        return false;
+    }
+
+    @Override
+    public byte[] array() {
+        throw new UnsupportedOperationException("direct buffer");
+    }
+
+    @Override
+    public int arrayOffset() {
+        throw new UnsupportedOperationException("direct buffer");
+    }
+
+    @Override
+    public boolean hasMemoryAddress() {
+        return false;
+    }
+
+    @Override
+    public long memoryAddress() {
+        throw new UnsupportedOperationException();
+    }
+}
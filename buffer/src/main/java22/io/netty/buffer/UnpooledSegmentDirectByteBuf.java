@@ -0,0 +1,198 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+
+import static io.netty.buffer.MemorySegmentByteBufs.INT_BE;
+import static io.netty.buffer.MemorySegmentByteBufs.INT_LE;
+import static io.netty.buffer.MemorySegmentByteBufs.LONG_BE;
+import static io.netty.buffer.MemorySegmentByteBufs.LONG_LE;
+import static io.netty.buffer.MemorySegmentByteBufs.SHORT_BE;
+import static io.netty.buffer.MemorySegmentByteBufs.SHORT_LE;
+
+/**
+ * An {@link UnpooledDirectByteBuf} whose memory is allocated in a shared {@link Arena} of its own, which is closed
+ * as soon as the buffer is released or reallocated, and accessed through a {@link MemorySegment}. The memory is
+ * accounted in the metric of its {@link UnpooledByteBufAllocator}.
+ */
+final class UnpooledSegmentDirectByteBuf extends UnpooledDirectByteBuf {
+
+    // These are assigned by allocateDirect(...) and setByteBuffer(...), which are called from the super constructor,
+    // so they must not have an initializer.
+    private Arena arena;
+    private Arena newArena;
+    private MemorySegment segment;
+
+    UnpooledSegmentDirectByteBuf(UnpooledByteBufAllocator alloc, int initialCapacity, int maxCapacity) {
+        super(alloc, initialCapacity, maxCapacity);
+    }
+
+    @Override
+    protected ByteBuffer allocateDirect(int initialCapacity) {
+        Arena arena = Arena.ofShared();
+        ByteBuffer buffer;
+        try {
+            buffer = arena.allocate(initialCapacity).asByteBuffer();
+        } catch (Throwable cause) {
+            arena.close();
+            throw cause;
+        }
+        // The current arena is closed by freeDirect(...) once the new buffer is set.
+        newArena = arena;
+        ((UnpooledByteBufAllocator) alloc()).incrementDirect(initialCapacity);
+        return buffer;
+    }
+
+    @Override
+    protected void freeDirect(ByteBuffer buffer) {
+        int capacity = buffer.capacity();
+        Arena arena = this.arena;
+        this.arena = null;
+        segment = null;
+        arena.close();
+        ((UnpooledByteBufAllocator) alloc()).decrementDirect(capacity);
+    }
+
+    @Override
+    void setByteBuffer(ByteBuffer buffer, boolean tryFree) {
+        super.setByteBuffer(buffer, tryFree);
+        arena = newArena;
+        newArena = null;
+        segment = MemorySegment.ofBuffer(buffer);
+    }
+
+    @Override
+    protected byte _getByte(int index) {
+        return segment.get(ValueLayout.JAVA_BYTE, index);
+    }
+
+    @Override
+    protected short _getShort(int index) {
+        return segment.get(SHORT_BE, index);
+    }
+
+    @Override
+    protected short _getShortLE(int index) {
+        return segment.get(SHORT_LE, index);
+    }
+
+    @Override
+    protected int _getUnsignedMedium(int index) {
+        return (_getByte(index) & 0xff)     << 16 |
+               (_getByte(index + 1) & 0xff) << 8  |
+               _getByte(index + 2) & 0xff;
+    }
+
+    @Override
+    protected int _getUnsignedMediumLE(int index) {
+        return _getByte(index)      & 0xff        |
+               (_getByte(index + 1) & 0xff) << 8  |
+               (_getByte(index + 2) & 0xff) << 16;
+    }
+
+    @Override
+    protected int _getInt(int index) {
+        return segment.get(INT_BE, index);
+    }
+
+    @Override
+    protected int _getIntLE(int index) {
+        return segment.get(INT_LE, index);
+    }
+
+    @Override
+    protected long _getLong(int index) {
+        return segment.get(LONG_BE, index);
+    }
+
+    @Override
+    protected long _getLongLE(int index) {
+        return segment.get(LONG_LE, index);
+    }
+
+    @Override
+    void getBytes(int index, byte[] dst, int dstIndex, int length, boolean internal) {
+        checkDstIndex(index, length, dstIndex, dst.length);
+        MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, index, dst, dstIndex, length);
+    }
+
+    @Override
+    protected void _setByte(int index, int value) {
+        segment.set(ValueLayout.JAVA_BYTE, index, (byte) value);
+    }
+
+    @Override
+    protected void _setShort(int index, int value) {
+        segment.set(SHORT_BE, index, (short) value);
+    }
+
+    @Override
+    protected void _setShortLE(int index, int value) {
+        segment.set(SHORT_LE, index, (short) value);
+    }
+
+    @Override
+    protected void _setMedium(int index, int value) {
+        _setByte(index, (byte) (value >>> 16));
+        _setByte(index + 1, (byte) (value >>> 8));
+        _setByte(index + 2, (byte) value);
+    }
+
+    @Override
+    protected void _setMediumLE(int index, int value) {
+        _setByte(index, (byte) value);
+        _setByte(index + 1, (byte) (value >>> 8));
+        _setByte(index + 2, (byte) (value >>> 16));
+    }
+
+    @Override
+    protected void _setInt(int index, int value) {
+        segment.set(INT_BE, index, value);
+    }
+
+    @Override
+    protected void _setIntLE(int index, int value) {
+        segment.set(INT_LE, index, value);
+    }
+
+    @Override
+    protected void _setLong(int index, long value) {
+        segment.set(LONG_BE, index, value);
+    }
+
+    @Override
+    protected void _setLongLE(int index, long value) {
+        segment.set(LONG_LE, index, value);
+    }
+
+    @Override
+    public ByteBuf setBytes(int index, byte[] src, int srcIndex, int length) {
+        checkSrcIndex(index, length, srcIndex, src.length);
+        MemorySegment.copy(src, srcIndex, segment, ValueLayout.JAVA_BYTE, index, length);
+        return this;
+    }
+
+    @Override
+    public ByteBuf setZero(int index, int length) {
+        checkIndex(index, length);
+        segment.asSlice(index, length).fill((byte) 0);
+        return this;
+    }
+}
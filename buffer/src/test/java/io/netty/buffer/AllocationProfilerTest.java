@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AllocationProfilerTest {
+
+    @Test
+    public void testAggregatesPerSite() {
+        // Sample every allocation.
+        AllocationProfiler profiler = new AllocationProfiler(1);
+        ByteBuf[] buffers = new ByteBuf[2];
+        for (int i = 0; i < buffers.length; i++) {
+            ByteBuf buf = Unpooled.buffer(100);
+            buffers[i] = profiler.sample(buf, 100, false);
+            assertNotSame(buf, buffers[i]);
+        }
+        ByteBuf direct = profiler.sample(Unpooled.directBuffer(150), 150, true);
+
+        List<AllocationSiteMetric> sites = profiler.sites();
+        assertEquals(2, sites.size());
+        AllocationSiteMetric heapSite = sites.get(0);
+        assertFalse(heapSite.isDirect());
+        assertEquals(128, heapSite.sizeClass());
+        assertEquals(2, heapSite.numSamples());
+        assertEquals(200, heapSite.allocatedBytes());
+        assertEquals(200, heapSite.liveBytes());
+        assertFalse(heapSite.stackTrace()[0].getClassName().startsWith("io.netty.buffer."));
+        AllocationSiteMetric directSite = sites.get(1);
+        assertTrue(directSite.isDirect());
+        assertEquals(256, directSite.sizeClass());
+        assertEquals(1, directSite.numSamples());
+
+        assertTrue(buffers[0].release());
+        ByteBuf slice = buffers[1].retainedSlice();
+        assertFalse(buffers[1].release());
+        sites = profiler.sites();
+        // The direct site has more live bytes now.
+        assertTrue(sites.get(0).isDirect());
+        assertEquals(100, sites.get(1).freedBytes());
+        assertEquals(100, sites.get(1).liveBytes());
+
+        assertTrue(slice.release());
+        assertTrue(direct.release());
+        for (AllocationSiteMetric site: profiler.sites()) {
+            assertEquals(site.allocatedBytes(), site.freedBytes());
+            assertEquals(0, site.liveBytes());
+        }
+    }
+
+    @Test
+    public void testEstimatesAllocatedBytes() {
+        AllocationProfiler profiler = new AllocationProfiler(1024);
+        int allocations = 10000;
+        int size = 64;
+        for (int i = 0; i < allocations; i++) {
+            ByteBuf buf = profiler.sample(Unpooled.buffer(size), size, false);
+            buf.release();
+        }
+        List<AllocationSiteMetric> sites = profiler.sites();
+        assertEquals(1, sites.size());
+        AllocationSiteMetric site = sites.get(0);
+        long expected = (long) allocations * size;
+        // About 625 samples are expected, so 20% is far more than the standard deviation.
+        assertTrue(site.numSamples() < allocations / 2, "samples: " + site.numSamples());
+        assertTrue(Math.abs(site.allocatedBytes() - expected) < expected / 5, "allocated: " + site.allocatedBytes());
+        assertEquals(0, site.liveBytes());
+    }
+
+    @Test
+    public void testEstimatedBytes() {
+        AllocationProfiler profiler = new AllocationProfiler(1024);
+        assertEquals(0, profiler.estimatedBytes(0));
+        // Small buffers stand for about one interval, large buffers for their own size.
+        assertEquals(1025, profiler.estimatedBytes(1));
+        assertEquals(1024 * 1024, profiler.estimatedBytes(1024 * 1024));
+    }
+}
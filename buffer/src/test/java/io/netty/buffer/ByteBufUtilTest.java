@@ -223,6 +223,44 @@ public class ByteBufUtilTest {
         });
     }
 
+    @Test
+    public void testLongHeapBufferSameAsDirect() {
+        // Heap buffers with an array offset, which are long enough to use the VectorizedByteBufUtil if supported.
+        Random rand = new Random();
+        for (int length = 0; length < 300; length++) {
+            byte[] bytes = new byte[length + 16];
+            rand.nextBytes(bytes);
+            if (rand.nextBoolean()) {
+                for (int i = 0; i < bytes.length; i++) {
+                    bytes[i] &= 0x7F;
+                }
+            }
+            ByteBuf heap = Unpooled.wrappedBuffer(bytes).slice(7, length);
+            ByteBuf direct = Unpooled.directBuffer(length).writeBytes(heap, heap.readerIndex(), length);
+            ByteBuf otherHeap = Unpooled.wrappedBuffer(bytes.clone()).slice(3, length + 4).setIndex(4, length + 4);
+            try {
+                byte value = (byte) rand.nextInt();
+                assertEquals(direct.indexOf(0, length, value), heap.indexOf(0, length, value));
+                assertEquals(ByteBufUtil.hexDump(direct), ByteBufUtil.hexDump(heap));
+                assertEquals(ByteBufUtil.isText(direct, CharsetUtil.US_ASCII),
+                        ByteBufUtil.isText(heap, CharsetUtil.US_ASCII));
+                assertEquals(ByteBufUtil.isText(direct, CharsetUtil.UTF_8),
+                        ByteBufUtil.isText(heap, CharsetUtil.UTF_8));
+
+                assertEquals(ByteBufUtil.compare(direct, heap) == 0, ByteBufUtil.equals(otherHeap, heap));
+                if (length > 0) {
+                    int diffIndex = 4 + rand.nextInt(length);
+                    otherHeap.setByte(diffIndex, otherHeap.getByte(diffIndex) + 1);
+                    direct.setByte(diffIndex - 4, otherHeap.getByte(diffIndex));
+                    assertFalse(ByteBufUtil.equals(otherHeap, heap));
+                    assertEquals(ByteBufUtil.compare(direct, heap), ByteBufUtil.compare(otherHeap, heap));
+                }
+            } finally {
+                direct.release();
+            }
+        }
+    }
+
     @SuppressWarnings("deprecation")
     @ParameterizedTest(name = PARAMETERIZED_NAME)
     @MethodSource("noUnsafe")
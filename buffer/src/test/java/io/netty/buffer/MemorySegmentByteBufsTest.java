@@ -0,0 +1,62 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.PlatformDependent;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests the methods of {@link MemorySegmentByteBufs} which every version must support, whether it uses
+ * {@code java.lang.foreign} or falls back to the regular direct buffers.
+ */
+public class MemorySegmentByteBufsTest {
+
+    @Test
+    public void testAllocateDirect() {
+        ByteBuffer buffer = MemorySegmentByteBufs.allocateDirect(64);
+        assertTrue(buffer.isDirect());
+        assertEquals(64, buffer.capacity());
+    }
+
+    @Test
+    public void testAllocateDirectInArena() {
+        Object arena = MemorySegmentByteBufs.newArena();
+        ByteBuffer buffer = MemorySegmentByteBufs.allocateDirect(arena, 1024, 64);
+        assertTrue(buffer.isDirect());
+        assertEquals(1024, buffer.capacity());
+        if (PlatformDependent.hasUnsafe()) {
+            assertEquals(0, PlatformDependent.directBufferAddress(buffer) & 63);
+        }
+        buffer.putLong(0, 42);
+        assertEquals(42, buffer.getLong(0));
+        MemorySegmentByteBufs.closeArena(arena);
+    }
+
+    @Test
+    public void testNewUnpooledDirectBuffer() {
+        UnpooledByteBufAllocator alloc = new UnpooledByteBufAllocator(true);
+        ByteBuf buf = MemorySegmentByteBufs.newUnpooledDirectBuffer(alloc, 16, 64);
+        assertTrue(buf.isDirect());
+        assertEquals(16, alloc.metric().usedDirectMemory());
+        buf.release();
+        assertEquals(0, alloc.metric().usedDirectMemory());
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.internal.SystemPropertyUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Tests big-endian direct buffers whose memory is allocated in an {@code Arena}.
+ */
+public class MemorySegmentDirectByteBufTest extends BigEndianDirectByteBufTest {
+
+    @BeforeAll
+    public static void checkAvailable() {
+        boolean available = MemorySegmentByteBufs.isAvailable();
+        // The memory-segment profile runs these tests against the Java 22 classes, where they must not be skipped.
+        assertTrue(available || !SystemPropertyUtil.getBoolean("io.netty.buffer.requireMemorySegment", false));
+        assumeTrue(available);
+    }
+
+    @Override
+    protected ByteBuf newDirectBuffer(int length, int maxCapacity) {
+        return MemorySegmentByteBufs.newUnpooledDirectBuffer(UnpooledByteBufAllocator.DEFAULT, length, maxCapacity);
+    }
+
+    @Test
+    public void testMemoryIsAccounted() {
+        UnpooledByteBufAllocator alloc = new UnpooledByteBufAllocator(true);
+        ByteBuf buf = MemorySegmentByteBufs.newUnpooledDirectBuffer(alloc, 16, 64);
+        assertEquals(16, alloc.metric().usedDirectMemory());
+        buf.capacity(32);
+        assertEquals(32, alloc.metric().usedDirectMemory());
+        buf.release();
+        assertEquals(0, alloc.metric().usedDirectMemory());
+    }
+}
@@ -33,7 +33,8 @@ public class PoolArenaTest {
 
     @Test
     public void testNormalizeCapacity() {
-        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(null, PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 0);
+        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(
+                null, PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 0, DirectChunkMemoryProvider.INSTANCE);
         int[] reqCapacities = {0, 15, 510, 1024, 1023, 1025};
         int[] expectedResult = {16, 16, 512, 1024, 1024, 1280};
         for (int i = 0; i < reqCapacities.length; i ++) {
@@ -43,7 +44,8 @@ public class PoolArenaTest {
 
     @Test
     public void testNormalizeAlignedCapacity() {
-        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(null, PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 64);
+        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(
+                null, PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 64, DirectChunkMemoryProvider.INSTANCE);
         int[] reqCapacities = {0, 15, 510, 1024, 1023, 1025};
         int[] expectedResult = {64, 64, 512, 1024, 1024, 1280};
         for (int i = 0; i < reqCapacities.length; i ++) {
@@ -53,7 +55,8 @@ public class PoolArenaTest {
 
     @Test
     public void testSize2SizeIdx() {
-        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(null, PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 0);
+        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(
+                null, PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 0, DirectChunkMemoryProvider.INSTANCE);
 
         for (int sz = 0; sz <= CHUNK_SIZE; sz++) {
             int sizeIdx = arena.size2SizeIdx(sz);
@@ -68,7 +71,8 @@ public class PoolArenaTest {
     public void testPages2PageIdx() {
         int pageShifts = PAGE_SHIFTS;
 
-        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(null, PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 0);
+        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(
+                null, PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 0, DirectChunkMemoryProvider.INSTANCE);
 
         int maxPages = CHUNK_SIZE >> pageShifts;
         for (int pages = 1; pages <= maxPages; pages++) {
@@ -88,7 +92,8 @@ public class PoolArenaTest {
 
     @Test
     public void testSizeIdx2size() {
-        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(null, PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 0);
+        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(
+                null, PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 0, DirectChunkMemoryProvider.INSTANCE);
         for (int i = 0; i < arena.nSizes; i++) {
             assertEquals(arena.sizeIdx2sizeCompute(i), arena.sizeIdx2size(i));
         }
@@ -96,7 +101,8 @@ public class PoolArenaTest {
 
     @Test
     public void testPageIdx2size() {
-        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(null, PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 0);
+        PoolArena<ByteBuffer> arena = new PoolArena.DirectArena(
+                null, PAGE_SIZE, PAGE_SHIFTS, CHUNK_SIZE, 0, DirectChunkMemoryProvider.INSTANCE);
         for (int i = 0; i < arena.nPSizes; i++) {
             assertEquals(arena.pageIdx2sizeCompute(i), arena.pageIdx2size(i));
         }
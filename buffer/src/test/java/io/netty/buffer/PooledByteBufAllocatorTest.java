@@ -16,6 +16,7 @@
 
 package io.netty.buffer;
 
+import io.netty.util.concurrent.DefaultEventExecutor;
 import io.netty.util.concurrent.FastThreadLocal;
 import io.netty.util.concurrent.FastThreadLocalThread;
 import io.netty.util.internal.PlatformDependent;
@@ -28,6 +29,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadLocalRandom;
@@ -95,8 +97,14 @@ public class PooledByteBufAllocatorTest extends AbstractByteBufAllocatorTest<Poo
     public void testPooledUnsafeHeapBufferAndUnsafeDirectBuffer() {
         PooledByteBufAllocator allocator = newAllocator(true);
         ByteBuf directBuffer = allocator.directBuffer();
-        assertInstanceOf(directBuffer,
-                PlatformDependent.hasUnsafe() ? PooledUnsafeDirectByteBuf.class : PooledDirectByteBuf.class);
+        if (PlatformDependent.hasUnsafe()) {
+            assertInstanceOf(directBuffer, PooledUnsafeDirectByteBuf.class);
+        } else if (MemorySegmentChunkMemoryProvider.isAvailable()) {
+            // Only compiled into the Java 22 part of the jar, so compare by name.
+            assertEquals("io.netty.buffer.PooledSegmentDirectByteBuf", directBuffer.getClass().getName());
+        } else {
+            assertInstanceOf(directBuffer, PooledDirectByteBuf.class);
+        }
         directBuffer.release();
 
         ByteBuf heapBuffer = allocator.heapBuffer();
@@ -676,6 +684,193 @@ public class PooledByteBufAllocatorTest extends AbstractByteBufAllocatorTest<Poo
         buffer.release();
     }
 
+    @Test
+    public void testMagazinesUsedWithoutUseCacheForAllThreads() throws Exception {
+        assertFalse(Thread.currentThread() instanceof FastThreadLocalThread);
+
+        int maxCachedBufferCapacity = PooledByteBufAllocator.DEFAULT_MAX_CACHED_BUFFER_CAPACITY;
+        final PooledByteBufAllocator allocator =
+                new PooledByteBufAllocator(true, 0, 1,
+                        PooledByteBufAllocator.defaultPageSize(), PooledByteBufAllocator.defaultMaxOrder(),
+                        128, 128, false, 0, 1);
+        assertEquals(1, allocator.metric().numMagazines());
+
+        ByteBuf buffer = allocator.directBuffer(maxCachedBufferCapacity);
+        assertEquals(1, allocator.metric().directArenas().get(0).numNormalAllocations());
+        buffer.release();
+
+        buffer = allocator.directBuffer(maxCachedBufferCapacity);
+        // Should come out of the magazine so the count should not be incremented
+        assertEquals(1, allocator.metric().directArenas().get(0).numNormalAllocations());
+
+        // Release from another thread, the buffer must still go back into the magazine.
+        final ByteBuf released = buffer;
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                released.release();
+            }
+        });
+        thread.start();
+        thread.join();
+
+        buffer = allocator.directBuffer(maxCachedBufferCapacity);
+        assertEquals(1, allocator.metric().directArenas().get(0).numNormalAllocations());
+        buffer.release();
+
+        // The magazines are shared and so not counted as thread local caches.
+        assertEquals(0, allocator.metric().numThreadLocalCaches());
+    }
+
+    @Test
+    public void testConcurrentSmallRelease() throws Exception {
+        final PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 9, 0, 0, false);
+        final int[] sizes = { 16, 64, 512, 1024, 4096 };
+        final Queue<ByteBuf> buffers = new ConcurrentLinkedQueue<ByteBuf>();
+        for (int i = 0; i < 10000; i++) {
+            buffers.add(allocator.directBuffer(sizes[i % sizes.length]));
+        }
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ByteBuf buf;
+                    while ((buf = buffers.poll()) != null) {
+                        buf.release();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread: threads) {
+            thread.join();
+        }
+        PoolArenaMetric arena = allocator.metric().directArenas().get(0);
+        assertEquals(10000, arena.numSmallDeallocations());
+        assertEquals(0, arena.numActiveSmallAllocations());
+
+        // All memory must be usable again.
+        for (int i = 0; i < 10000; i++) {
+            allocator.directBuffer(sizes[i % sizes.length]).release();
+        }
+        assertEquals(0, arena.numActiveAllocations());
+    }
+
+    @Test
+    public void testTrimIdleChunks() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 5, 0, 0, false);
+        int chunkSize = allocator.metric().chunkSize();
+        // Small enough to keep the chunk in qInit, where empty chunks are kept until they are trimmed.
+        ByteBuf buffer = allocator.directBuffer(chunkSize / 8);
+
+        // The chunk is still in use.
+        allocator.trimIdleMemory(0);
+        assertEquals(0, allocator.metric().numTrimmedChunks());
+
+        buffer.release();
+        // Not idle for long enough.
+        allocator.trimIdleMemory(MILLISECONDS.toNanos(10000));
+        assertEquals(0, allocator.metric().numTrimmedChunks());
+
+        allocator.trimIdleMemory(0);
+        assertEquals(1, allocator.metric().numTrimmedChunks());
+        assertEquals(chunkSize, allocator.metric().trimmedChunkBytes());
+        assertEquals(0, allocator.metric().usedDirectMemory());
+
+        // A new chunk is allocated when needed.
+        allocator.directBuffer(chunkSize / 8).release();
+        assertEquals(1, allocator.metric().numTrimmedChunks());
+    }
+
+    @Test
+    public void testTrimIdleChunksOfUnboundArenas() throws Exception {
+        final PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 2, 8192, 5, 0, 0, false);
+        final int chunkSize = allocator.metric().chunkSize();
+        Thread thread = new FastThreadLocalThread(new Runnable() {
+            @Override
+            public void run() {
+                allocator.directBuffer(chunkSize / 8).release();
+                allocator.freeThreadLocalCache();
+            }
+        });
+        thread.start();
+        thread.join();
+        assertEquals(0, allocator.metric().numThreadLocalCaches());
+
+        // The arena of the thread is not bound to any cache anymore, but is still trimmed.
+        allocator.trimIdleMemory(0);
+        assertEquals(1, allocator.metric().numTrimmedChunks());
+        assertEquals(0, allocator.metric().usedDirectMemory());
+    }
+
+    @Test
+    @Timeout(10)
+    public void testIdleTrimTaskCancelledOnFree() throws Exception {
+        final PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, 8192, 5, 0, 0, false, 0,
+                0, DirectChunkMemoryProvider.INSTANCE, 10);
+        final int chunkSize = allocator.metric().chunkSize();
+        final PoolArena<?> arena = (PoolArena<?>) allocator.metric().directArenas().get(0);
+        DefaultEventExecutor executor = new DefaultEventExecutor();
+        try {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    allocator.directBuffer(chunkSize / 8).release();
+                }
+            }).sync();
+            assertEquals(1, arena.numIdleTrimCaches.get());
+
+            // The idle trim task of the executor destroys the chunk once it was idle for long enough.
+            while (allocator.metric().numTrimmedChunks() == 0) {
+                Thread.sleep(10);
+            }
+
+            assertEquals(Integer.valueOf(0), executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    allocator.freeThreadLocalCache();
+                    return arena.numIdleTrimCaches.get();
+                }
+            }).sync().getNow());
+
+            // Once the cache was freed the task does not run anymore, so the new chunk is not destroyed.
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    allocator.directBuffer(chunkSize / 8).release();
+                    allocator.freeThreadLocalCache();
+                }
+            }).sync();
+            Thread.sleep(100);
+            assertEquals(1, allocator.metric().numTrimmedChunks());
+        } finally {
+            executor.shutdownGracefully(0, 0, MILLISECONDS).sync();
+        }
+    }
+
+    @Test
+    public void testTrimIdleCacheEntries() {
+        int maxCachedBufferCapacity = PooledByteBufAllocator.DEFAULT_MAX_CACHED_BUFFER_CAPACITY;
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1,
+                PooledByteBufAllocator.defaultPageSize(), PooledByteBufAllocator.defaultMaxOrder(),
+                128, 128, true);
+        allocator.directBuffer(maxCachedBufferCapacity).release();
+        assertEquals(0, allocator.metric().numTrimmedCacheEntries());
+
+        allocator.trimIdleMemory(0);
+        assertEquals(1, allocator.metric().numTrimmedCacheEntries());
+        assertEquals(maxCachedBufferCapacity, allocator.metric().trimmedCacheBytes());
+        // Now the chunk is unused too.
+        assertEquals(1, allocator.metric().numTrimmedChunks());
+    }
+
+    @Test
+    public void testNoMagazinesByDefault() {
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true);
+        assertEquals(PooledByteBufAllocator.defaultNumMagazines(), allocator.metric().numMagazines());
+    }
+
     @Test
     public void testNormalPoolSubpageRelease() {
         // 16 < elemSize <= 7168 or 8192 < elemSize <= 28672, 1 < subpage.maxNumElems <= 256
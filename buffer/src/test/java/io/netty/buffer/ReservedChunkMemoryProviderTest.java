@@ -0,0 +1,89 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReservedChunkMemoryProviderTest {
+
+    @Test
+    public void testAllocateFromRegion() {
+        ReservedChunkMemoryProvider provider = new ReservedChunkMemoryProvider(8192, 2);
+        assertEquals(2, provider.numFreeChunks());
+
+        ByteBuffer first = provider.allocate(8192);
+        ByteBuffer second = provider.allocate(8192);
+        assertEquals(0, provider.numFreeChunks());
+        assertTrue(first.isDirect());
+        assertEquals(8192, first.capacity());
+        assertEquals(8192, second.capacity());
+        assertNotSame(first, second);
+
+        // The region is used up, so this comes from the fallback.
+        ByteBuffer third = provider.allocate(8192);
+        assertEquals(8192, third.capacity());
+        provider.free(third);
+        assertEquals(0, provider.numFreeChunks());
+
+        provider.free(second);
+        assertEquals(1, provider.numFreeChunks());
+        assertSame(second, provider.allocate(8192));
+        provider.free(second);
+        provider.free(first);
+        assertEquals(2, provider.numFreeChunks());
+    }
+
+    @Test
+    public void testOtherSizesUseFallback() {
+        ReservedChunkMemoryProvider provider = new ReservedChunkMemoryProvider(8192, 1);
+        ByteBuffer buffer = provider.allocate(4096);
+        assertEquals(4096, buffer.capacity());
+        assertEquals(1, provider.numFreeChunks());
+        provider.free(buffer);
+        assertEquals(1, provider.numFreeChunks());
+    }
+
+    @Test
+    public void testRegionTooBig() {
+        assertThrows(IllegalArgumentException.class, new Executable() {
+            @Override
+            public void execute() {
+                new ReservedChunkMemoryProvider(1 << 24, 1 << 8);
+            }
+        });
+    }
+
+    @Test
+    public void testPooledByteBufAllocator() {
+        int pageSize = 8192;
+        int maxOrder = 2;
+        ReservedChunkMemoryProvider provider = new ReservedChunkMemoryProvider(pageSize << maxOrder, 2);
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, pageSize, maxOrder,
+                0, 0, false, 0, 0, provider);
+        ByteBuf buffer = allocator.directBuffer(pageSize);
+        assertEquals(1, provider.numFreeChunks());
+        buffer.writeLong(1).release();
+    }
+}
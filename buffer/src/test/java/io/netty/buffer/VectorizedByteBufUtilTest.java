@@ -0,0 +1,58 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.buffer;
+
+import io.netty.util.CharsetUtil;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class VectorizedByteBufUtilTest {
+
+    @Test
+    public void testFirstIndexOf() {
+        byte[] array = "abcdefabcdef".getBytes(CharsetUtil.US_ASCII);
+        assertEquals(2, VectorizedByteBufUtil.firstIndexOf(array, 0, array.length, (byte) 'c'));
+        assertEquals(8, VectorizedByteBufUtil.firstIndexOf(array, 3, array.length, (byte) 'c'));
+        assertEquals(-1, VectorizedByteBufUtil.firstIndexOf(array, 3, 8, (byte) 'c'));
+    }
+
+    @Test
+    public void testMismatch() {
+        byte[] a = "xxabcdef".getBytes(CharsetUtil.US_ASCII);
+        byte[] b = "abcdeg".getBytes(CharsetUtil.US_ASCII);
+        assertEquals(-1, VectorizedByteBufUtil.mismatch(a, 2, b, 0, 5));
+        assertEquals(5, VectorizedByteBufUtil.mismatch(a, 2, b, 0, 6));
+    }
+
+    @Test
+    public void testFirstNonAscii() {
+        byte[] array = { 'a', 'b', (byte) 0x80, 'c', (byte) 0xFF };
+        assertEquals(2, VectorizedByteBufUtil.firstNonAscii(array, 0, array.length));
+        assertEquals(4, VectorizedByteBufUtil.firstNonAscii(array, 3, array.length));
+        assertEquals(-1, VectorizedByteBufUtil.firstNonAscii(array, 3, 4));
+    }
+
+    @Test
+    public void testHexDump() {
+        byte[] array = new byte[256];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = (byte) i;
+        }
+        assertEquals(ByteBufUtil.hexDump(Unpooled.wrappedBuffer(array, 3, 100)),
+                VectorizedByteBufUtil.hexDump(array, 3, 100));
+    }
+}
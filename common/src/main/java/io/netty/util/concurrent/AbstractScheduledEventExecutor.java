@@ -50,6 +50,9 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
 
     long nextTaskId;
 
+    // Tick duration of the ScheduledTaskTimingWheel used as scheduledTaskQueue, 0 for a DefaultPriorityQueue.
+    private long timingWheelTickNanos;
+
     protected AbstractScheduledEventExecutor() {
     }
 
@@ -81,14 +84,45 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
 
     PriorityQueue<ScheduledFutureTask<?>> scheduledTaskQueue() {
         if (scheduledTaskQueue == null) {
-            scheduledTaskQueue = new DefaultPriorityQueue<ScheduledFutureTask<?>>(
-                    SCHEDULED_FUTURE_TASK_COMPARATOR,
-                    // Use same initial capacity as java.util.PriorityQueue
-                    11);
+            if (timingWheelTickNanos > 0) {
+                scheduledTaskQueue = new ScheduledTaskTimingWheel(
+                        SCHEDULED_FUTURE_TASK_COMPARATOR, timingWheelTickNanos);
+            } else {
+                scheduledTaskQueue = new DefaultPriorityQueue<ScheduledFutureTask<?>>(
+                        SCHEDULED_FUTURE_TASK_COMPARATOR,
+                        // Use same initial capacity as java.util.PriorityQueue
+                        11);
+            }
         }
         return scheduledTaskQueue;
     }
 
+    /**
+     * Stores the scheduled tasks in a {@link ScheduledTaskTimingWheel} with the given tick duration, or in a
+     * {@link DefaultPriorityQueue} if it is {@code 0}. The tasks which are already scheduled are moved over.
+     * <p>
+     * This method MUST be called from within the event loop thread.
+     */
+    final void setTimingWheelTickNanos(long tickNanos) {
+        assert inEventLoop();
+        if (tickNanos == timingWheelTickNanos) {
+            return;
+        }
+        timingWheelTickNanos = tickNanos;
+        PriorityQueue<ScheduledFutureTask<?>> oldQueue = scheduledTaskQueue;
+        scheduledTaskQueue = null;
+        if (oldQueue != null && !oldQueue.isEmpty()) {
+            PriorityQueue<ScheduledFutureTask<?>> newQueue = scheduledTaskQueue();
+            for (;;) {
+                ScheduledFutureTask<?> task = oldQueue.poll();
+                if (task == null) {
+                    break;
+                }
+                newQueue.add(task);
+            }
+        }
+    }
+
     private static boolean isNullOrEmpty(Queue<ScheduledFutureTask<?>> queue) {
         return queue == null || queue.isEmpty();
     }
@@ -163,6 +197,14 @@ public abstract class AbstractScheduledEventExecutor extends AbstractEventExecut
         return scheduledTaskQueue != null ? scheduledTaskQueue.peek() : null;
     }
 
+    /**
+     * Returns the number of scheduled tasks which did not run yet. Must be called from the executor thread.
+     */
+    protected final int scheduledTaskCount() {
+        Queue<ScheduledFutureTask<?>> scheduledTaskQueue = this.scheduledTaskQueue;
+        return scheduledTaskQueue != null ? scheduledTaskQueue.size() : 0;
+    }
+
     /**
      * Returns {@code true} if a scheduled task is ready for processing.
      */
@@ -15,6 +15,8 @@
  */
 package io.netty.util.concurrent;
 
+import io.netty.util.internal.UnstableApi;
+
 import static io.netty.util.internal.ObjectUtil.checkPositive;
 
 import java.util.Collections;
@@ -163,6 +165,20 @@ public abstract class MultithreadEventExecutorGroup extends AbstractEventExecuto
         return children.length;
     }
 
+    /**
+     * Stores the scheduled tasks of the child executors in a hierarchical timing wheel with the given tick duration.
+     *
+     * @see SingleThreadEventExecutor#useTimingWheel(long, TimeUnit)
+     */
+    @UnstableApi
+    public void useTimingWheel(long tickDuration, TimeUnit unit) {
+        for (EventExecutor e: children) {
+            if (e instanceof SingleThreadEventExecutor) {
+                ((SingleThreadEventExecutor) e).useTimingWheel(tickDuration, unit);
+            }
+        }
+    }
+
     /**
      * Create a new EventExecutor which will later then accessible via the {@link #next()}  method. This method will be
      * called for each thread that will serve this {@link MultithreadEventExecutorGroup}.
@@ -50,6 +50,11 @@ final class ScheduledFutureTask<V> extends PromiseTask<V> implements ScheduledFu
 
     private int queueIndex = INDEX_NOT_IN_QUEUE;
 
+    // Links of the slot this task is in if it is stored in a ScheduledTaskTimingWheel.
+    ScheduledFutureTask<?> wheelPrev;
+    ScheduledFutureTask<?> wheelNext;
+    int wheelSlot = ScheduledTaskTimingWheel.NOT_IN_WHEEL;
+
     ScheduledFutureTask(AbstractScheduledEventExecutor executor,
             Runnable runnable, long nanoTime) {
 
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.DefaultPriorityQueue;
+import io.netty.util.internal.PriorityQueue;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+import static io.netty.util.internal.PriorityQueueNode.INDEX_NOT_IN_QUEUE;
+
+/**
+ * A {@link PriorityQueue} of {@link ScheduledFutureTask}s backed by a hierarchical timing wheel, so adding and
+ * removing a task is {@code O(1)} instead of {@code O(log n)} for a {@link DefaultPriorityQueue}.
+ * <p>
+ * The time is divided in ticks. The wheel has {@link #LEVELS} levels of 64 slots, a slot of level {@code n} spanning
+ * 64<sup>n</sup> ticks. A task is stored in the level of the highest group of 6 bits in which its tick differs from
+ * the current tick, and when the current tick enters a slot of a higher level its tasks are moved down to the lower
+ * levels. The tasks whose tick is before the current tick are moved to a heap, which only holds the tasks of the few
+ * last ticks, so they are still returned in the order of their deadline. The tasks which are too far in the future
+ * for the wheel are kept in another heap.
+ * <p>
+ * The current tick follows {@link ScheduledFutureTask#nanoTime()} each time {@link #peek()} is called and nothing
+ * is left in the heap of expired ticks.
+ */
+final class ScheduledTaskTimingWheel extends AbstractQueue<ScheduledFutureTask<?>>
+        implements PriorityQueue<ScheduledFutureTask<?>> {
+    static final int NOT_IN_WHEEL = -1;
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 6;
+    private static final int WHEEL_BITS = SLOT_BITS * LEVELS;
+
+    private final long tickNanos;
+    // The first task of each slot, the slots of level n are at index n * SLOTS.
+    private final ScheduledFutureTask<?>[] slots = new ScheduledFutureTask<?>[LEVELS * SLOTS];
+    // One bit per non-empty slot for each level.
+    private final long[] occupied = new long[LEVELS];
+    // Tasks whose tick is before the current tick.
+    private final DefaultPriorityQueue<ScheduledFutureTask<?>> expired;
+    // Tasks whose tick is too far from the current tick to be stored in the wheel.
+    private final DefaultPriorityQueue<ScheduledFutureTask<?>> overflow;
+    private long currentTick;
+    private int wheelSize;
+    // The first task which is stored in the wheel or the overflow, null if it must be looked up again.
+    private ScheduledFutureTask<?> first;
+
+    ScheduledTaskTimingWheel(Comparator<ScheduledFutureTask<?>> comparator, long tickNanos) {
+        this.tickNanos = checkPositive(tickNanos, "tickNanos");
+        expired = new DefaultPriorityQueue<ScheduledFutureTask<?>>(comparator, 16);
+        overflow = new DefaultPriorityQueue<ScheduledFutureTask<?>>(comparator, 0);
+        currentTick = tick(ScheduledFutureTask.nanoTime());
+    }
+
+    private long tick(ScheduledFutureTask<?> task) {
+        return tick(task.deadlineNanos());
+    }
+
+    private long tick(long nanoTime) {
+        return nanoTime / tickNanos;
+    }
+
+    @Override
+    public boolean offer(ScheduledFutureTask<?> task) {
+        if (task.wheelSlot != NOT_IN_WHEEL || task.priorityQueueIndex(expired) != INDEX_NOT_IN_QUEUE) {
+            throw new IllegalArgumentException("task is already in a queue: " + task);
+        }
+        place(task);
+        return true;
+    }
+
+    private void place(ScheduledFutureTask<?> task) {
+        long tick = tick(task);
+        if (tick < currentTick) {
+            expired.offer(task);
+            return;
+        }
+        long diff = tick ^ currentTick;
+        int level = diff == 0 ? 0 : (63 - Long.numberOfLeadingZeros(diff)) / SLOT_BITS;
+        if (level < LEVELS) {
+            link(task, level * SLOTS + ((int) (tick >>> level * SLOT_BITS) & SLOT_MASK));
+        } else {
+            overflow.offer(task);
+        }
+        if (first != null && task.compareTo(first) < 0) {
+            first = task;
+        }
+    }
+
+    private void link(ScheduledFutureTask<?> task, int slot) {
+        ScheduledFutureTask<?> next = slots[slot];
+        task.wheelSlot = slot;
+        task.wheelNext = next;
+        if (next != null) {
+            next.wheelPrev = task;
+        } else {
+            occupied[slot >>> SLOT_BITS] |= 1L << (slot & SLOT_MASK);
+        }
+        slots[slot] = task;
+        wheelSize++;
+    }
+
+    private void unlink(ScheduledFutureTask<?> task) {
+        int slot = task.wheelSlot;
+        ScheduledFutureTask<?> prev = task.wheelPrev;
+        ScheduledFutureTask<?> next = task.wheelNext;
+        if (prev == null) {
+            slots[slot] = next;
+            if (next == null) {
+                occupied[slot >>> SLOT_BITS] &= ~(1L << (slot & SLOT_MASK));
+            }
+        } else {
+            prev.wheelNext = next;
+        }
+        if (next != null) {
+            next.wheelPrev = prev;
+        }
+        task.wheelPrev = null;
+        task.wheelNext = null;
+        task.wheelSlot = NOT_IN_WHEEL;
+        wheelSize--;
+    }
+
+    /**
+     * Removes all the tasks of the given slot and returns the first of them.
+     */
+    private ScheduledFutureTask<?> detach(int slot) {
+        ScheduledFutureTask<?> head = slots[slot];
+        slots[slot] = null;
+        occupied[slot >>> SLOT_BITS] &= ~(1L << (slot & SLOT_MASK));
+        for (ScheduledFutureTask<?> task = head; task != null; task = task.wheelNext) {
+            task.wheelSlot = NOT_IN_WHEEL;
+            task.wheelPrev = null;
+            wheelSize--;
+        }
+        return head;
+    }
+
+    @Override
+    public ScheduledFutureTask<?> peek() {
+        ScheduledFutureTask<?> task = expired.peek();
+        if (task != null) {
+            return task;
+        }
+        if (wheelSize == 0 && overflow.isEmpty()) {
+            return null;
+        }
+        advance(tick(ScheduledFutureTask.nanoTime()));
+        task = expired.peek();
+        return task != null ? task : first();
+    }
+
+    /**
+     * Moves all the tasks whose tick is not after the given tick to {@link #expired}.
+     */
+    private void advance(long nowTick) {
+        while (currentTick <= nowTick) {
+            int slot = nextSlot();
+            long start = slot == NOT_IN_WHEEL ? overflowStart() : slotStart(slot);
+            if (start > nowTick) {
+                moveTo(nowTick + 1);
+            } else if (slot == NOT_IN_WHEEL || slot >= SLOTS) {
+                moveTo(start);
+            } else {
+                // All the tasks of a slot of the lowest level have the same tick.
+                ScheduledFutureTask<?> task = detach(slot);
+                while (task != null) {
+                    ScheduledFutureTask<?> next = task.wheelNext;
+                    task.wheelNext = null;
+                    expired.offer(task);
+                    task = next;
+                }
+                first = null;
+                moveTo(start + 1);
+            }
+        }
+    }
+
+    /**
+     * Returns the first non-empty slot after the current tick, or {@link #NOT_IN_WHEEL} if the wheel is empty.
+     */
+    private int nextSlot() {
+        for (int level = 0; level < LEVELS; level++) {
+            int index = (int) (currentTick >>> level * SLOT_BITS) & SLOT_MASK;
+            // The slot of the current tick is always empty for the levels above the lowest one.
+            long bits = occupied[level] & -1L << index;
+            if (bits != 0) {
+                return level * SLOTS + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return NOT_IN_WHEEL;
+    }
+
+    private long slotStart(int slot) {
+        int shift = (slot >>> SLOT_BITS) * SLOT_BITS;
+        long parentStart = (currentTick >>> shift + SLOT_BITS) << shift + SLOT_BITS;
+        return parentStart | (long) (slot & SLOT_MASK) << shift;
+    }
+
+    private long overflowStart() {
+        ScheduledFutureTask<?> task = overflow.peek();
+        return task == null ? Long.MAX_VALUE : tick(task) >>> WHEEL_BITS << WHEEL_BITS;
+    }
+
+    private void moveTo(long tick) {
+        long previous = currentTick;
+        currentTick = tick;
+        if (previous >>> WHEEL_BITS != tick >>> WHEEL_BITS) {
+            ScheduledFutureTask<?> task;
+            while ((task = overflow.peek()) != null && tick(task) >>> WHEEL_BITS <= tick >>> WHEEL_BITS) {
+                overflow.poll();
+                first = null;
+                place(task);
+            }
+        }
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = level * SLOT_BITS;
+            if (previous >>> shift != tick >>> shift) {
+                // Entered another slot of this level, so its tasks must be moved to the lower levels.
+                ScheduledFutureTask<?> task = detach(level * SLOTS + ((int) (tick >>> shift) & SLOT_MASK));
+                if (task != null) {
+                    first = null;
+                    do {
+                        ScheduledFutureTask<?> next = task.wheelNext;
+                        task.wheelNext = null;
+                        place(task);
+                        task = next;
+                    } while (task != null);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the first task which is stored in the wheel or in the overflow.
+     */
+    private ScheduledFutureTask<?> first() {
+        if (first == null) {
+            int slot = nextSlot();
+            if (slot == NOT_IN_WHEEL) {
+                first = overflow.peek();
+            } else {
+                ScheduledFutureTask<?> task = slots[slot];
+                first = task;
+                for (task = task.wheelNext; task != null; task = task.wheelNext) {
+                    if (task.compareTo(first) < 0) {
+                        first = task;
+                    }
+                }
+            }
+        }
+        return first;
+    }
+
+    @Override
+    public ScheduledFutureTask<?> poll() {
+        ScheduledFutureTask<?> task = peek();
+        if (task != null) {
+            removeTyped(task);
+        }
+        return task;
+    }
+
+    @Override
+    public boolean removeTyped(ScheduledFutureTask<?> task) {
+        if (task.wheelSlot != NOT_IN_WHEEL) {
+            unlink(task);
+        } else if (!expired.removeTyped(task) && !overflow.removeTyped(task)) {
+            return false;
+        }
+        if (task == first) {
+            first = null;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof ScheduledFutureTask && removeTyped((ScheduledFutureTask<?>) o);
+    }
+
+    @Override
+    public boolean containsTyped(ScheduledFutureTask<?> task) {
+        return task.wheelSlot != NOT_IN_WHEEL || expired.containsTyped(task) || overflow.containsTyped(task);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof ScheduledFutureTask && containsTyped((ScheduledFutureTask<?>) o);
+    }
+
+    @Override
+    public void priorityChanged(ScheduledFutureTask<?> task) {
+        if (removeTyped(task)) {
+            place(task);
+        }
+    }
+
+    @Override
+    public int size() {
+        return expired.size() + wheelSize + overflow.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return wheelSize == 0 && expired.isEmpty() && overflow.isEmpty();
+    }
+
+    @Override
+    public void clearIgnoringIndexes() {
+        expired.clearIgnoringIndexes();
+        overflow.clearIgnoringIndexes();
+        Arrays.fill(slots, null);
+        Arrays.fill(occupied, 0);
+        wheelSize = 0;
+        first = null;
+    }
+
+    @Override
+    public Iterator<ScheduledFutureTask<?>> iterator() {
+        List<ScheduledFutureTask<?>> tasks = new ArrayList<ScheduledFutureTask<?>>(size());
+        tasks.addAll(expired);
+        for (ScheduledFutureTask<?> head: slots) {
+            for (ScheduledFutureTask<?> task = head; task != null; task = task.wheelNext) {
+                tasks.add(task);
+            }
+        }
+        tasks.addAll(overflow);
+        return Collections.unmodifiableList(tasks).iterator();
+    }
+}
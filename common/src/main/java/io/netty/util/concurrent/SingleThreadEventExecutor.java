@@ -624,6 +624,29 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         }
     }
 
+    /**
+     * Stores the scheduled tasks of this executor in a hierarchical timing wheel with the given tick duration instead
+     * of a priority queue, which makes scheduling and cancelling a task {@code O(1)} instead of {@code O(log n)}.
+     * This pays off when a lot of tasks are scheduled and most of them are cancelled before they expire, like the
+     * timeouts of a large number of connections. The tasks still run in the order of their deadline, the tick duration
+     * only decides how many tasks are sorted at once. A tick duration of {@code 0} switches back to the priority
+     * queue. The tasks which are already scheduled are moved over.
+     */
+    @UnstableApi
+    public void useTimingWheel(long tickDuration, TimeUnit unit) {
+        final long tickNanos = unit.toNanos(ObjectUtil.checkPositiveOrZero(tickDuration, "tickDuration"));
+        if (inEventLoop()) {
+            setTimingWheelTickNanos(tickNanos);
+        } else {
+            execute(new Runnable() {
+                @Override
+                public void run() {
+                    setTimingWheelTickNanos(tickNanos);
+                }
+            });
+        }
+    }
+
     private boolean runShutdownHooks() {
         boolean ran = false;
         // Note shutdown hooks can add / remove shutdown hooks.
@@ -853,6 +876,50 @@ public abstract class SingleThreadEventExecutor extends AbstractScheduledEventEx
         lazyExecute0(task);
     }
 
+    /**
+     * Executes all the given tasks in order, like calling {@link #execute(Runnable)} for each of them, but starts and
+     * wakes up the thread at most once for the whole batch. This is cheaper for producers which submit many tasks at
+     * once from outside of the {@link EventExecutor}.
+     */
+    @UnstableApi
+    public void executeAll(Collection<? extends Runnable> tasks) {
+        ObjectUtil.checkNotNull(tasks, "tasks");
+        boolean inEventLoop = inEventLoop();
+        boolean immediate = false;
+        int added = 0;
+        try {
+            for (Runnable task: tasks) {
+                addTask(task);
+                added++;
+                immediate |= !(task instanceof LazyRunnable) && wakesUpForTask(task);
+            }
+        } finally {
+            if (added > 0) {
+                if (!inEventLoop) {
+                    startThread();
+                    if (isShutdown()) {
+                        boolean reject = false;
+                        try {
+                            for (Runnable task: tasks) {
+                                if (removeTask(task)) {
+                                    reject = true;
+                                }
+                            }
+                        } catch (UnsupportedOperationException e) {
+                            // Same as in execute(Runnable, boolean).
+                        }
+                        if (reject) {
+                            reject();
+                        }
+                    }
+                }
+                if (!addTaskWakesUp && immediate) {
+                    wakeup(inEventLoop);
+                }
+            }
+        }
+    }
+
     private void execute0(@Schedule Runnable task) {
         ObjectUtil.checkNotNull(task, "task");
         execute(task, !(task instanceof LazyRunnable) && wakesUpForTask(task));
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link EventExecutorGroup} for {@link io.netty.channel.ChannelHandler}s which block, like handlers that run JDBC
+ * calls. Each call of {@link #next()} returns a new lightweight {@link OrderedEventExecutor}, so adding a handler
+ * with {@code pipeline.addLast(group, handler)} gives each {@link io.netty.channel.Channel} its own executor which
+ * runs the events of the {@link io.netty.channel.Channel} in order.
+ * <p>
+ * Unlike the {@link DefaultEventExecutorGroup}, an executor does not own a thread. When tasks are submitted to an
+ * idle executor it starts a thread through a {@link ThreadPerTaskExecutor}, which runs its tasks until it has no
+ * more and then terminates. On Java 19 and later the threads are virtual threads if the runtime supports them, so
+ * thousands of {@link io.netty.channel.Channel}s can block at the same time without thousands of platform threads.
+ * Otherwise, or if a {@link ThreadFactory} is given, the threads come from that factory.
+ * <p>
+ * The executors returned by {@link #next()} share the lifecycle of this group, shutting one of them down shuts
+ * down the group. {@link #iterator()} does not return them as they are not kept by the group.
+ */
+@UnstableApi
+public final class VirtualThreadEventExecutorGroup extends AbstractEventExecutorGroup {
+    private static final InternalLogger logger =
+            InternalLoggerFactory.getInstance(VirtualThreadEventExecutorGroup.class);
+    private static final ThreadFactory VIRTUAL_THREAD_FACTORY = newVirtualThreadFactory();
+
+    private final Executor executor;
+    private final boolean virtualThreads;
+    // Number of executors which are running tasks right now.
+    private final AtomicInteger activeExecutors = new AtomicInteger();
+    private final Promise<?> terminationFuture = new DefaultPromise<Void>(GlobalEventExecutor.INSTANCE);
+    private volatile boolean shuttingDown;
+
+    /**
+     * Creates a new instance which uses virtual threads if supported, or daemon platform threads otherwise.
+     */
+    public VirtualThreadEventExecutorGroup() {
+        this(VIRTUAL_THREAD_FACTORY != null ? VIRTUAL_THREAD_FACTORY :
+                new DefaultThreadFactory(VirtualThreadEventExecutorGroup.class, true));
+    }
+
+    /**
+     * Creates a new instance which creates a new thread from the given {@link ThreadFactory} whenever an idle
+     * executor gets a task.
+     */
+    public VirtualThreadEventExecutorGroup(ThreadFactory threadFactory) {
+        ObjectUtil.checkNotNull(threadFactory, "threadFactory");
+        executor = new ThreadPerTaskExecutor(threadFactory);
+        virtualThreads = threadFactory == VIRTUAL_THREAD_FACTORY;
+    }
+
+    private static ThreadFactory newVirtualThreadFactory() {
+        if (PlatformDependent.javaVersion() < 19) {
+            return null;
+        }
+        try {
+            // Thread.ofVirtual().name("virtualThreadEventExecutorGroup-", 0).factory()
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class)
+                    .invoke(builder, "virtualThreadEventExecutorGroup-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            logger.debug("Virtual threads: available");
+            return factory;
+        } catch (Throwable t) {
+            // Java 19 and 20 need --enable-preview.
+            logger.debug("Virtual threads: unavailable", t);
+            return null;
+        }
+    }
+
+    /**
+     * Returns {@code true} if the executors of this group run their tasks on virtual threads.
+     */
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Returns a new {@link OrderedEventExecutor} which runs its tasks one after the other.
+     */
+    @Override
+    public EventExecutor next() {
+        return new VirtualThreadOrderedEventExecutor(this);
+    }
+
+    @Override
+    public Iterator<EventExecutor> iterator() {
+        return Collections.<EventExecutor>emptyList().iterator();
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        return shuttingDown;
+    }
+
+    /**
+     * Stops accepting tasks and completes the {@link #terminationFuture()} once the tasks which were submitted
+     * before ran. Scheduled tasks whose deadline did not pass yet are not run. The quiet period is ignored.
+     */
+    @Override
+    public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        shutdown0();
+        return terminationFuture();
+    }
+
+    @Override
+    @Deprecated
+    public void shutdown() {
+        shutdown0();
+    }
+
+    private void shutdown0() {
+        shuttingDown = true;
+        if (activeExecutors.get() == 0) {
+            terminationFuture.trySuccess(null);
+        }
+    }
+
+    @Override
+    public Future<?> terminationFuture() {
+        return terminationFuture;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shuttingDown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminationFuture.isDone();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminationFuture.await(timeout, unit);
+    }
+
+    void executorStarted(Runnable drainTask) {
+        activeExecutors.incrementAndGet();
+        try {
+            executor.execute(drainTask);
+        } catch (Throwable t) {
+            executorStopped();
+            PlatformDependent.throwException(t);
+        }
+    }
+
+    void executorStopped() {
+        if (activeExecutors.decrementAndGet() == 0 && shuttingDown) {
+            terminationFuture.trySuccess(null);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
+
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * {@link OrderedEventExecutor} of a {@link VirtualThreadEventExecutorGroup}. It does not own a thread but asks the
+ * group for a new one when it gets a task while idle, which runs tasks until there are no more.
+ * {@link #inEventLoop()} returns {@code true} for that thread while it is running.
+ */
+final class VirtualThreadOrderedEventExecutor extends AbstractScheduledEventExecutor implements OrderedEventExecutor {
+    private static final AtomicIntegerFieldUpdater<VirtualThreadOrderedEventExecutor> STATE_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(VirtualThreadOrderedEventExecutor.class, "state");
+    private static final int ST_IDLE = 0;
+    private static final int ST_RUNNING = 1;
+
+    private final VirtualThreadEventExecutorGroup group;
+    private final Queue<Runnable> taskQueue = PlatformDependent.newMpscQueue();
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+    private final Runnable wakeupTask = new Runnable() {
+        @Override
+        public void run() {
+            wakeupDeadlineNanos = Long.MAX_VALUE;
+            startDrain();
+        }
+    };
+    private volatile int state = ST_IDLE;
+    private volatile Thread thread;
+    // Deadline of the wakeup which was scheduled for the next scheduled task, Long.MAX_VALUE if there is none.
+    private volatile long wakeupDeadlineNanos = Long.MAX_VALUE;
+
+    VirtualThreadOrderedEventExecutor(VirtualThreadEventExecutorGroup group) {
+        super(group);
+        this.group = group;
+    }
+
+    @Override
+    public boolean inEventLoop(Thread thread) {
+        return thread == this.thread;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        ObjectUtil.checkNotNull(task, "task");
+        if (group.isShuttingDown()) {
+            throw new RejectedExecutionException("event executor terminated");
+        }
+        taskQueue.offer(task);
+        startDrain();
+    }
+
+    private void startDrain() {
+        if (state == ST_IDLE && STATE_UPDATER.compareAndSet(this, ST_IDLE, ST_RUNNING)) {
+            try {
+                group.executorStarted(drainTask);
+            } catch (Throwable t) {
+                state = ST_IDLE;
+                PlatformDependent.throwException(t);
+            }
+        }
+    }
+
+    private void drain() {
+        boolean completed = false;
+        try {
+            do {
+                thread = Thread.currentThread();
+                runTasks();
+                if (group.isShuttingDown()) {
+                    cancelScheduledTasks();
+                } else {
+                    scheduleWakeup();
+                }
+                thread = null;
+                state = ST_IDLE;
+                // A task may have been added after the queue was found empty but before the state was reset.
+            } while (!taskQueue.isEmpty() && STATE_UPDATER.compareAndSet(this, ST_IDLE, ST_RUNNING));
+            completed = true;
+        } finally {
+            if (!completed) {
+                thread = null;
+                state = ST_IDLE;
+            }
+            group.executorStopped();
+        }
+    }
+
+    private void runTasks() {
+        for (;;) {
+            long nanoTime = nanoTime();
+            Runnable scheduledTask;
+            while ((scheduledTask = pollScheduledTask(nanoTime)) != null) {
+                safeExecute(scheduledTask);
+            }
+            Runnable task = taskQueue.poll();
+            if (task == null) {
+                return;
+            }
+            safeExecute(task);
+        }
+    }
+
+    private void scheduleWakeup() {
+        long deadlineNanos = nextScheduledTaskDeadlineNanos();
+        if (deadlineNanos != -1 && deadlineNanos < wakeupDeadlineNanos) {
+            wakeupDeadlineNanos = deadlineNanos;
+            GlobalEventExecutor.INSTANCE.schedule(
+                    wakeupTask, deadlineToDelayNanos(deadlineNanos), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public boolean isShuttingDown() {
+        return group.isShuttingDown();
+    }
+
+    @Override
+    public Future<?> shutdownGracefully(long quietPeriod, long timeout, TimeUnit unit) {
+        return group.shutdownGracefully(quietPeriod, timeout, unit);
+    }
+
+    @Override
+    public Future<?> terminationFuture() {
+        return group.terminationFuture();
+    }
+
+    @Override
+    @Deprecated
+    public void shutdown() {
+        group.shutdown();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return group.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return group.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return group.awaitTermination(timeout, unit);
+    }
+}
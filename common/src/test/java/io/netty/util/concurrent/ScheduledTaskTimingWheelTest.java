@@ -0,0 +1,199 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ScheduledTaskTimingWheelTest {
+    private static final Comparator<ScheduledFutureTask<?>> COMPARATOR = new Comparator<ScheduledFutureTask<?>>() {
+        @Override
+        public int compare(ScheduledFutureTask<?> o1, ScheduledFutureTask<?> o2) {
+            return o1.compareTo(o2);
+        }
+    };
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private DefaultEventExecutor executor;
+    private long nextId;
+
+    @BeforeEach
+    public void setUp() {
+        executor = new DefaultEventExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    private ScheduledFutureTask<Void> newTask(long deadlineNanos) {
+        return new ScheduledFutureTask<Void>(executor, NOOP, deadlineNanos).setId(++nextId);
+    }
+
+    @Test
+    public void testPollInDeadlineOrder() {
+        ScheduledTaskTimingWheel wheel = new ScheduledTaskTimingWheel(COMPARATOR, 1000);
+        Random random = new Random(42);
+        long now = ScheduledFutureTask.nanoTime();
+        List<ScheduledFutureTask<?>> expected = new ArrayList<ScheduledFutureTask<?>>();
+        for (int i = 0; i < 10000; i++) {
+            long deadline;
+            switch (i % 4) {
+                case 0:
+                    deadline = Math.max(0, now - random.nextInt(100000));
+                    break;
+                case 1:
+                    deadline = now + random.nextInt(1000000);
+                    break;
+                case 2:
+                    deadline = now + (random.nextLong() & 0xFFFFFFFFFFFFL);
+                    break;
+                default:
+                    deadline = i % 100 == 3 ? Long.MAX_VALUE : now + (random.nextLong() & Long.MAX_VALUE >> 1);
+                    break;
+            }
+            ScheduledFutureTask<Void> task = newTask(deadline);
+            assertTrue(wheel.offer(task));
+            expected.add(task);
+        }
+        // Remove some of the tasks, like cancelled ones.
+        for (int i = 0; i < 3000; i++) {
+            ScheduledFutureTask<?> task = expected.remove(random.nextInt(expected.size()));
+            assertTrue(wheel.containsTyped(task));
+            assertTrue(wheel.removeTyped(task));
+            assertFalse(wheel.containsTyped(task));
+            assertFalse(wheel.removeTyped(task));
+        }
+        assertEquals(expected.size(), wheel.size());
+        assertEquals(expected.size(), wheel.toArray().length);
+
+        Collections.sort(expected, COMPARATOR);
+        for (ScheduledFutureTask<?> task: expected) {
+            assertSame(task, wheel.peek());
+            assertSame(task, wheel.poll());
+        }
+        assertTrue(wheel.isEmpty());
+        assertNull(wheel.peek());
+    }
+
+    @Test
+    public void testAddWhileAdvancing() throws Exception {
+        ScheduledTaskTimingWheel wheel = new ScheduledTaskTimingWheel(COMPARATOR, TimeUnit.MILLISECONDS.toNanos(1));
+        Random random = new Random(7);
+        List<ScheduledFutureTask<?>> polled = new ArrayList<ScheduledFutureTask<?>>();
+        long end = ScheduledFutureTask.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200);
+        int added = 0;
+        while (ScheduledFutureTask.nanoTime() < end) {
+            long now = ScheduledFutureTask.nanoTime();
+            for (int i = 0; i < 10; i++) {
+                wheel.offer(newTask(now + random.nextInt((int) TimeUnit.MILLISECONDS.toNanos(100))));
+                added++;
+            }
+            for (;;) {
+                ScheduledFutureTask<?> task = wheel.peek();
+                if (task == null || task.deadlineNanos() > ScheduledFutureTask.nanoTime()) {
+                    break;
+                }
+                assertSame(task, wheel.poll());
+                polled.add(task);
+            }
+            Thread.sleep(1);
+        }
+        for (;;) {
+            ScheduledFutureTask<?> task = wheel.poll();
+            if (task == null) {
+                break;
+            }
+            polled.add(task);
+        }
+        assertEquals(added, polled.size());
+        for (int i = 1; i < polled.size(); i++) {
+            assertTrue(COMPARATOR.compare(polled.get(i - 1), polled.get(i)) < 0);
+        }
+    }
+
+    @Test
+    public void testScheduledTasksRunInOrder() throws Exception {
+        executor.useTimingWheel(1, TimeUnit.MILLISECONDS);
+        final BlockingQueue<Integer> order = new LinkedBlockingQueue<Integer>();
+        List<ScheduledFuture<?>> futures = new ArrayList<ScheduledFuture<?>>();
+        for (int i = 0; i < 20; i++) {
+            final int delay = (i * 7) % 20;
+            futures.add(executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    order.add(delay);
+                }
+            }, delay * 5, TimeUnit.MILLISECONDS));
+        }
+        // Cancel the tasks with an odd delay.
+        for (int i = 0; i < futures.size(); i++) {
+            if ((i * 7) % 20 % 2 == 1) {
+                assertTrue(futures.get(i).cancel(false));
+            }
+        }
+        for (int i = 0; i < 20; i += 2) {
+            assertEquals(Integer.valueOf(i), order.poll(5, TimeUnit.SECONDS));
+        }
+        assertNull(order.poll(50, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testSwitchWithScheduledTasks() throws Exception {
+        final BlockingQueue<Integer> order = new LinkedBlockingQueue<Integer>();
+        for (int i = 0; i < 3; i++) {
+            final int index = i;
+            executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    order.add(index);
+                }
+            }, 100 + i * 50, TimeUnit.MILLISECONDS);
+        }
+        executor.useTimingWheel(10, TimeUnit.MILLISECONDS);
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                order.add(3);
+            }
+        }, 300, TimeUnit.MILLISECONDS);
+        executor.useTimingWheel(0, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(Integer.valueOf(i), order.poll(5, TimeUnit.SECONDS));
+        }
+    }
+}
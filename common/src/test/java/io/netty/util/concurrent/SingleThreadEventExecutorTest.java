@@ -21,7 +21,9 @@ import io.netty.util.concurrent.AbstractEventExecutor.LazyRunnable;
 import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.function.Executable;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
@@ -269,6 +271,65 @@ public class SingleThreadEventExecutorTest {
         assertEquals(0, latch2.getCount());
     }
 
+    @Test
+    @Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+    public void testExecuteAll() throws Exception {
+        final AtomicInteger wakeups = new AtomicInteger();
+        final SingleThreadEventExecutor executor = new SingleThreadEventExecutor(null,
+                Executors.defaultThreadFactory(), false) {
+            @Override
+            protected void run() {
+                while (!confirmShutdown()) {
+                    Runnable task = takeTask();
+                    if (task != null) {
+                        task.run();
+                    }
+                }
+            }
+
+            @Override
+            protected void wakeup(boolean inEventLoop) {
+                if (!inEventLoop) {
+                    wakeups.incrementAndGet();
+                }
+                super.wakeup(inEventLoop);
+            }
+        };
+        try {
+            final List<Integer> ran = Collections.synchronizedList(new ArrayList<Integer>());
+            List<Runnable> tasks = new ArrayList<Runnable>();
+            for (int i = 0; i < 100; i++) {
+                final int id = i;
+                tasks.add(new Runnable() {
+                    @Override
+                    public void run() {
+                        ran.add(id);
+                    }
+                });
+            }
+            LatchTask latch = new LatchTask();
+            tasks.add(latch);
+            executor.executeAll(tasks);
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+            assertEquals(1, wakeups.get());
+            assertEquals(100, ran.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(Integer.valueOf(i), ran.get(i));
+            }
+
+            // A batch of lazy tasks does not wake up the executor.
+            LatchTask lazy = new LazyLatchTask();
+            executor.executeAll(Collections.singletonList(lazy));
+            assertEquals(1, wakeups.get());
+            LatchTask latch2 = new LatchTask();
+            executor.execute(latch2);
+            assertTrue(latch2.await(5, TimeUnit.SECONDS));
+            assertEquals(0, lazy.getCount());
+        } finally {
+            executor.shutdownGracefully(0, 0, TimeUnit.SECONDS);
+        }
+    }
+
     @Test
     public void testTaskAddedAfterShutdownNotAbandoned() throws Exception {
 
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.util.concurrent;
+
+import io.netty.util.internal.PlatformDependent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VirtualThreadEventExecutorGroupTest {
+
+    private VirtualThreadEventExecutorGroup group;
+
+    @BeforeEach
+    public void setUp() {
+        group = new VirtualThreadEventExecutorGroup();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        group.shutdownGracefully().syncUninterruptibly();
+    }
+
+    @Test
+    public void testUsesVirtualThreadsIfAvailable() {
+        if (PlatformDependent.javaVersion() >= 21) {
+            assertTrue(group.isVirtualThreads());
+        }
+        assertFalse(group.iterator().hasNext());
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testOrdered() throws Exception {
+        final EventExecutor executor = group.next();
+        assertTrue(executor instanceof OrderedEventExecutor);
+        assertNotSame(executor, group.next());
+        final List<Integer> executed = Collections.synchronizedList(new ArrayList<Integer>());
+        final int tasks = 10000;
+        for (int i = 0; i < tasks; i++) {
+            final int index = i;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    assertTrue(executor.inEventLoop());
+                    executed.add(index);
+                    if (index % 100 == 0) {
+                        // Let the executor become idle so it has to start a new thread.
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        executor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).sync();
+        assertFalse(executor.inEventLoop());
+        assertEquals(tasks, executed.size());
+        for (int i = 0; i < tasks; i++) {
+            assertEquals(Integer.valueOf(i), executed.get(i));
+        }
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testBlockingTasksDoNotBlockOtherExecutors() throws Exception {
+        // Every task blocks until all of them were started, which only completes if they run concurrently.
+        int executors = 500;
+        final CountDownLatch started = new CountDownLatch(executors);
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < executors; i++) {
+            futures.add(group.next().submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    started.countDown();
+                    started.await();
+                    return null;
+                }
+            }));
+        }
+        for (Future<?> future: futures) {
+            future.sync();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testSchedule() throws Exception {
+        final EventExecutor executor = group.next();
+        long start = System.nanoTime();
+        ScheduledFuture<Boolean> future = executor.schedule(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return executor.inEventLoop();
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+        assertTrue(future.get());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+
+        final CountDownLatch latch = new CountDownLatch(3);
+        ScheduledFuture<?> periodic = executor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 10, 10, TimeUnit.MILLISECONDS);
+        latch.await();
+        periodic.cancel(false);
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testShutdown() throws Exception {
+        final EventExecutor executor = group.next();
+        final CountDownLatch block = new CountDownLatch(1);
+        Future<?> blocked = executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                block.await();
+                return null;
+            }
+        });
+        Future<?> queued = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        Future<?> termination = executor.shutdownGracefully();
+        assertTrue(group.isShuttingDown());
+        assertThrows(RejectedExecutionException.class, new Executable() {
+            @Override
+            public void execute() {
+                group.next().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                });
+            }
+        });
+        assertFalse(termination.await(50, TimeUnit.MILLISECONDS));
+        block.countDown();
+        termination.sync();
+        assertTrue(group.isTerminated());
+        assertTrue(blocked.isSuccess());
+        assertTrue(queued.isSuccess());
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.handler.ssl;
+
+import io.netty.channel.socket.TlsOffloadChannel;
+import io.netty.util.CharsetUtil;
+
+import javax.crypto.spec.SecretKeySpec;
+import javax.net.ssl.SSLSession;
+import java.util.Arrays;
+
+/**
+ * Derives the TLSv1.2 write key of a {@link ReferenceCountedOpenSslEngine} so the encryption of outbound records can
+ * be taken over by a {@link TlsOffloadChannel}.
+ */
+final class OpenSslTlsOffload {
+    private static final byte[] KEY_EXPANSION = "key expansion".getBytes(CharsetUtil.US_ASCII);
+
+    // The sequence number is reset to 0 by the ChangeCipherSpec and the Finished message uses 0, so the first
+    // application data record written after the handshake uses 1.
+    private static final long FIRST_APPLICATION_DATA_SEQUENCE_NUMBER = 1;
+
+    private OpenSslTlsOffload() { }
+
+    /**
+     * Try to offload the encryption of outbound records. Must be called directly after the handshake completed and
+     * before any application data was wrapped by the engine.
+     *
+     * @return {@code true} if the {@link TlsOffloadChannel} encrypts all records from now on.
+     */
+    static boolean offloadTx(ReferenceCountedOpenSslEngine engine, TlsOffloadChannel channel) {
+        SSLSession session = engine.getSession();
+        String protocol = session.getProtocol();
+        String cipherSuite = session.getCipherSuite();
+        if (!SslProtocols.TLS_v1_2.equals(protocol) || cipherSuite == null) {
+            // TLSv1.3 derives the keys from the traffic secrets which are not exposed by the engine.
+            return false;
+        }
+
+        final int keySize;
+        final int ivSize;
+        final String prfAlgorithm;
+        if (cipherSuite.contains("_AES_128_GCM_")) {
+            keySize = 16;
+            ivSize = 4;
+            prfAlgorithm = "HmacSHA256";
+        } else if (cipherSuite.contains("_AES_256_GCM_")) {
+            keySize = 32;
+            ivSize = 4;
+            prfAlgorithm = "HmacSHA384";
+        } else if (cipherSuite.contains("_CHACHA20_POLY1305_")) {
+            keySize = 32;
+            ivSize = 12;
+            prfAlgorithm = "HmacSHA256";
+        } else {
+            return false;
+        }
+
+        SecretKeySpec masterKey = engine.masterKey();
+        byte[] clientRandom = engine.clientRandom();
+        byte[] serverRandom = engine.serverRandom();
+        if (masterKey == null || clientRandom == null || serverRandom == null) {
+            return false;
+        }
+
+        // See https://tools.ietf.org/html/rfc5246#section-6.3:
+        // key_block = PRF(SecurityParameters.master_secret, "key expansion",
+        //                 SecurityParameters.server_random + SecurityParameters.client_random);
+        //
+        // AEAD ciphers don't use MAC keys so it is partitioned as:
+        //       client_write_key[SecurityParameters.enc_key_length]
+        //       server_write_key[SecurityParameters.enc_key_length]
+        //       client_write_IV[SecurityParameters.fixed_iv_length]
+        //       server_write_IV[SecurityParameters.fixed_iv_length]
+        byte[] seed = Arrays.copyOf(serverRandom, serverRandom.length + clientRandom.length);
+        System.arraycopy(clientRandom, 0, seed, serverRandom.length, clientRandom.length);
+        byte[] keyBlock = PseudoRandomFunction.hash(
+                masterKey.getEncoded(), KEY_EXPANSION, seed, 2 * (keySize + ivSize), prfAlgorithm);
+
+        boolean client = engine.getUseClientMode();
+        int keyOffset = client ? 0 : keySize;
+        int ivOffset = 2 * keySize + (client ? 0 : ivSize);
+        byte[] key = Arrays.copyOfRange(keyBlock, keyOffset, keyOffset + keySize);
+        byte[] iv = Arrays.copyOfRange(keyBlock, ivOffset, ivOffset + ivSize);
+        try {
+            return channel.offloadTlsTx(protocol, cipherSuite, key, iv, FIRST_APPLICATION_DATA_SEQUENCE_NUMBER);
+        } finally {
+            Arrays.fill(keyBlock, (byte) 0);
+            Arrays.fill(key, (byte) 0);
+        }
+    }
+}
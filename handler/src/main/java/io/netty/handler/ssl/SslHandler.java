@@ -33,6 +33,7 @@ import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelOutboundHandler;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.socket.TlsOffloadChannel;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.DecoderException;
 import io.netty.handler.codec.UnsupportedMessageTypeException;
@@ -190,6 +191,11 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
      */
     private static final int STATE_FIRE_CHANNEL_READ = 1 << 8;
     private static final int STATE_UNWRAP_REENTRY = 1 << 9;
+    /**
+     * Set once the encryption of outbound records was taken over by the {@link TlsOffloadChannel}, from then on all
+     * writes pass through this handler unmodified.
+     */
+    private static final int STATE_TLS_TX_OFFLOADED = 1 << 10;
 
     /**
      * <a href="https://tools.ietf.org/html/rfc5246#section-6.2">2^14</a> which is the maximum sized plaintext chunk
@@ -405,6 +411,7 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
     private volatile long closeNotifyFlushTimeoutMillis = 3000;
     private volatile long closeNotifyReadTimeoutMillis;
     volatile int wrapDataSize = MAX_PLAINTEXT_LENGTH;
+    private volatile boolean tlsTxOffloadEnabled;
 
     /**
      * Creates a new instance which runs all delegated tasks directly on the {@link EventExecutor}.
@@ -493,6 +500,34 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
         this.wrapDataSize = wrapDataSize;
     }
 
+    /**
+     * Enables or disables the offload of the encryption of outbound TLS records to the {@link Channel} once the
+     * handshake completed successfully. This is only done if the {@link Channel} is a {@link TlsOffloadChannel}
+     * that supports the negotiated protocol and cipher suite (for example an {@code EpollSocketChannel} using
+     * kernel TLS) and if the {@link SSLEngine} was created by {@link SslProvider#OPENSSL}. Otherwise the records
+     * continue to be encrypted by this handler.
+     * <p>
+     * Once offloaded this handler passes all writes unmodified to the {@link Channel}, which also allows to write
+     * {@link io.netty.channel.FileRegion}s. Inbound records are still decrypted by this handler. As the
+     * {@link SSLEngine} can not produce records anymore, renegotiation is not possible.
+     * <p>
+     * This must be called before the handshake completes.
+     */
+    @UnstableApi
+    public final void setTlsTxOffloadEnabled(boolean tlsTxOffloadEnabled) {
+        this.tlsTxOffloadEnabled = tlsTxOffloadEnabled;
+    }
+
+    /**
+     * Returns {@code true} if the encryption of outbound TLS records was offloaded to the {@link Channel}.
+     *
+     * @see #setTlsTxOffloadEnabled(boolean)
+     */
+    @UnstableApi
+    public final boolean isTlsTxOffloaded() {
+        return isStateSet(STATE_TLS_TX_OFFLOADED);
+    }
+
     /**
      * @deprecated use {@link #getCloseNotifyFlushTimeoutMillis()}
      */
@@ -745,7 +780,9 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
 
     @Override
     public void write(final ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
-        if (!(msg instanceof ByteBuf)) {
+        if (isStateSet(STATE_TLS_TX_OFFLOADED)) {
+            ctx.write(msg, promise);
+        } else if (!(msg instanceof ByteBuf)) {
             UnsupportedMessageTypeException exception = new UnsupportedMessageTypeException(msg, ByteBuf.class);
             ReferenceCountUtil.safeRelease(msg);
             promise.setFailure(exception);
@@ -759,6 +796,11 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
 
     @Override
     public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (isStateSet(STATE_TLS_TX_OFFLOADED)) {
+            ctx.flush();
+            return;
+        }
+
         // Do not encrypt the first write request if this handler is
         // created with startTLS flag turned on.
         if (startTls && !isStateSet(STATE_SENT_FIRST_MESSAGE)) {
@@ -812,6 +854,11 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
             // Only continue to loop if the handler was not removed in the meantime.
             // See https://github.com/netty/netty/issues/5860
             outer: while (!ctx.isRemoved()) {
+                if (isStateSet(STATE_TLS_TX_OFFLOADED)) {
+                    // The handshake completed and the channel encrypts everything that is written from now on.
+                    pendingUnencryptedWrites.writeAndRemoveAll(ctx);
+                    break;
+                }
                 ChannelPromise promise = ctx.newPromise();
                 ByteBuf buf = wrapDataSize > 0 ?
                         pendingUnencryptedWrites.remove(alloc, wrapDataSize, promise) :
@@ -911,6 +958,9 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
      * @return {@code true} if this method ends on {@link SSLEngineResult.HandshakeStatus#NOT_HANDSHAKING}.
      */
     private boolean wrapNonAppData(final ChannelHandlerContext ctx, boolean inUnwrap) throws SSLException {
+        if (isStateSet(STATE_TLS_TX_OFFLOADED)) {
+            return wrapNonAppDataOffloaded();
+        }
         ByteBuf out = null;
         ByteBufAllocator alloc = ctx.alloc();
         try {
@@ -1815,6 +1865,34 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
         }
     }
 
+    private boolean wrapNonAppDataOffloaded() throws SSLException {
+        // The SSLEngine does not know the sequence number of the records the channel wrote, so it can not produce
+        // any records itself anymore.
+        if (engine.getHandshakeStatus() == HandshakeStatus.NEED_WRAP && !engine.isInboundDone()) {
+            throw new SSLException("SSLEngine needs to wrap but the encryption was offloaded to the channel");
+        }
+        // Nothing to wrap or the close_notify the remote peer is waiting for, which the channel sends on close.
+        return true;
+    }
+
+    private void tryOffloadTlsTx() {
+        final Channel channel = ctx.channel();
+        if (!tlsTxOffloadEnabled || !(channel instanceof TlsOffloadChannel) ||
+                !(engine instanceof ReferenceCountedOpenSslEngine) || ctx.executor() != channel.eventLoop()) {
+            return;
+        }
+        // Everything the SSLEngine produced so far must be written to the socket before the channel takes over.
+        ctx.flush();
+        if (OpenSslTlsOffload.offloadTx((ReferenceCountedOpenSslEngine) engine, (TlsOffloadChannel) channel)) {
+            setState(STATE_TLS_TX_OFFLOADED);
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} Offloaded the encryption of outbound TLS records to the channel", channel);
+            }
+            // Writes that were queued while handshaking don't need to be wrapped anymore.
+            pendingUnencryptedWrites.writeAndRemoveAll(ctx);
+        }
+    }
+
     /**
      * Notify all the handshake futures about the successfully handshake
      * @return {@code true} if {@link #handshakePromise} was set successfully and a {@link SslHandshakeCompletionEvent}
@@ -1834,6 +1912,7 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
                         session.getProtocol(),
                         session.getCipherSuite());
             }
+            tryOffloadTlsTx();
             ctx.fireUserEventTriggered(SslHandshakeCompletionEvent.SUCCESS);
         }
         if (isStateSet(STATE_READ_DURING_HANDSHAKE)) {
@@ -1926,7 +2005,11 @@ public class SslHandler extends ByteToMessageDecoder implements ChannelOutboundH
         setState(STATE_OUTBOUND_CLOSED);
         engine.closeOutbound();
 
-        if (!ctx.channel().isActive()) {
+        if (isStateSet(STATE_TLS_TX_OFFLOADED)) {
+            // The channel sends the close_notify itself when it is closed.
+            ctx.flush();
+        }
+        if (!ctx.channel().isActive() || isStateSet(STATE_TLS_TX_OFFLOADED)) {
             if (disconnect) {
                 ctx.disconnect(promise);
             } else {
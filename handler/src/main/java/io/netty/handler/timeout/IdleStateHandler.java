@@ -474,6 +474,11 @@ public class IdleStateHandler extends ChannelDuplexHandler {
             if (!ctx.channel().isOpen()) {
                 return;
             }
+            if (!ctx.executor().inEventLoop()) {
+                // The channel was registered with another EventLoop since this task was scheduled.
+                ctx.executor().execute(this);
+                return;
+            }
 
             run(ctx);
         }
@@ -201,6 +201,11 @@ public class WriteTimeoutHandler extends ChannelOutboundHandlerAdapter {
 
         @Override
         public void run() {
+            if (!ctx.executor().inEventLoop()) {
+                // The channel was registered with another EventLoop since this task was scheduled.
+                ctx.executor().execute(this);
+                return;
+            }
             // Was not written yet so issue a write timeout
             // The promise itself will be failed with a ClosedChannelException once the close() was issued
             // See https://github.com/netty/netty/issues/2159
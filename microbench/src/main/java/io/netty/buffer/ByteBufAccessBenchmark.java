@@ -103,8 +103,40 @@ public class ByteBufAccessBenchmark extends AbstractMicrobenchmark {
             ByteBuf newBuffer() {
                 return new NioFacade(ByteBuffer.allocateDirect(64));
             }
+        },
+        SEGMENT {
+            @Override
+            ByteBuf newBuffer() {
+                checkMemorySegmentAvailable();
+                return MemorySegmentByteBufs.newUnpooledDirectBuffer(
+                        UnpooledByteBufAllocator.DEFAULT, 64, 64).setIndex(0, 64);
+            }
+        },
+        POOLED_UNSAFE {
+            @Override
+            ByteBuf newBuffer() {
+                return newPooledAllocator(DirectChunkMemoryProvider.INSTANCE).directBuffer(64, 64).setIndex(0, 64);
+            }
+        },
+        POOLED_SEGMENT {
+            @Override
+            ByteBuf newBuffer() {
+                checkMemorySegmentAvailable();
+                return newPooledAllocator(new MemorySegmentChunkMemoryProvider())
+                        .directBuffer(64, 64).setIndex(0, 64);
+            }
         };
         abstract ByteBuf newBuffer();
+
+        private static PooledByteBufAllocator newPooledAllocator(ChunkMemoryProvider memoryProvider) {
+            return new PooledByteBufAllocator(true, 0, 1, 8192, 11, 0, 0, false, 0, 0, memoryProvider);
+        }
+
+        private static void checkMemorySegmentAvailable() {
+            if (!MemorySegmentByteBufs.isAvailable()) {
+                throw new UnsupportedOperationException("MemorySegment buffers need Java 22 or later");
+            }
+        }
     }
 
     @Param
@@ -17,6 +17,7 @@ package io.netty.microbench.buffer;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.MemorySegmentChunkMemoryProvider;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.microbench.util.AbstractMicrobenchmark;
@@ -36,6 +37,10 @@ public class ByteBufAllocatorBenchmark extends AbstractMicrobenchmark {
     private static final ByteBufAllocator unpooledAllocator = new UnpooledByteBufAllocator(true);
     private static final ByteBufAllocator pooledAllocator =
             new PooledByteBufAllocator(true, 4, 4, 8192, 11, 0, 0, 0, true, 0); // Disable thread-local cache
+    // Same as pooledAllocator but the chunks are allocated in an Arena, needs Java 22 or later.
+    private static final ByteBufAllocator segmentPooledAllocator = MemorySegmentChunkMemoryProvider.isAvailable() ?
+            new PooledByteBufAllocator(true, 4, 4, 8192, 11, 0, 0, true, 0, 0, new MemorySegmentChunkMemoryProvider()) :
+            null;
 
     private static final int MAX_LIVE_BUFFERS = 8192;
     private static final Random rand = new Random();
@@ -43,6 +48,7 @@ public class ByteBufAllocatorBenchmark extends AbstractMicrobenchmark {
     private static final ByteBuf[] unpooledDirectBuffers = new ByteBuf[MAX_LIVE_BUFFERS];
     private static final ByteBuf[] pooledHeapBuffers = new ByteBuf[MAX_LIVE_BUFFERS];
     private static final ByteBuf[] pooledDirectBuffers = new ByteBuf[MAX_LIVE_BUFFERS];
+    private static final ByteBuf[] segmentPooledDirectBuffers = new ByteBuf[MAX_LIVE_BUFFERS];
     private static final ByteBuf[] defaultPooledHeapBuffers = new ByteBuf[MAX_LIVE_BUFFERS];
     private static final ByteBuf[] defaultPooledDirectBuffers = new ByteBuf[MAX_LIVE_BUFFERS];
 
@@ -89,6 +95,19 @@ public class ByteBufAllocatorBenchmark extends AbstractMicrobenchmark {
         pooledDirectBuffers[idx] = pooledAllocator.directBuffer(size);
     }
 
+    @Benchmark
+    public void segmentPooledDirectAllocAndFree() {
+        if (segmentPooledAllocator == null) {
+            throw new UnsupportedOperationException("MemorySegment buffers need Java 22 or later");
+        }
+        int idx = rand.nextInt(segmentPooledDirectBuffers.length);
+        ByteBuf oldBuf = segmentPooledDirectBuffers[idx];
+        if (oldBuf != null) {
+            oldBuf.release();
+        }
+        segmentPooledDirectBuffers[idx] = segmentPooledAllocator.directBuffer(size);
+    }
+
     @Benchmark
     public void defaultPooledHeapAllocAndFree() {
         int idx = rand.nextInt(defaultPooledHeapBuffers.length);
@@ -15,16 +15,23 @@
  */
 package io.netty.microbench.buffer;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.UnpooledByteBufAllocator;
 import io.netty.microbench.util.AbstractMicrobenchmark;
 import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
 import org.openjdk.jmh.annotations.Measurement;
 import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.Threads;
 import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Control;
+
+import java.util.concurrent.ArrayBlockingQueue;
 
 @State(Scope.Benchmark)
 @Warmup(iterations = 5)
@@ -33,12 +40,69 @@ import org.openjdk.jmh.annotations.Warmup;
 public class ByteBufAllocatorConcurrentBenchmark  extends AbstractMicrobenchmark {
 
     private static final ByteBufAllocator unpooledAllocator = new UnpooledByteBufAllocator(true, true);
+    // A single arena without caches, so all threads contend on it.
+    private static final ByteBufAllocator pooledAllocator = new PooledByteBufAllocator(true, 0, 1,
+            PooledByteBufAllocator.defaultPageSize(), PooledByteBufAllocator.defaultMaxOrder(), 0, 0, false);
 
-    @Param({ "00064", "00256", "01024", "04096" })
+    // The largest size is served as a normal allocation out of the PoolChunkLists, all others out of subpages.
+    @Param({ "00064", "00256", "01024", "04096", "65536" })
     public int size;
 
     @Benchmark
     public boolean allocateRelease() {
         return unpooledAllocator.directBuffer(size).release();
     }
+
+    @Benchmark
+    public boolean pooledAllocateRelease() {
+        return pooledAllocator.directBuffer(size).release();
+    }
+
+    // Small buffers of the size class under test are allocated while other threads allocate normal sized buffers out of
+    // the same arena.
+    @Benchmark
+    @Group("pooledMixedSizeClasses")
+    @GroupThreads(4)
+    public boolean pooledAllocateReleaseSmall() {
+        return pooledAllocator.directBuffer(size).release();
+    }
+
+    @Benchmark
+    @Group("pooledMixedSizeClasses")
+    @GroupThreads(4)
+    public boolean pooledAllocateReleaseNormal() {
+        return pooledAllocator.directBuffer(65536).release();
+    }
+
+    @State(Scope.Benchmark)
+    public static class CrossThreadState {
+        final ArrayBlockingQueue<ByteBuf> queue = new ArrayBlockingQueue<ByteBuf>(1024);
+    }
+
+    // Buffers are released by other threads than the ones that allocated them.
+    @Benchmark
+    @Group("pooledCrossThreadRelease")
+    @GroupThreads(4)
+    public void pooledAllocate(CrossThreadState state, Control control) {
+        ByteBuf buf = pooledAllocator.directBuffer(size);
+        while (!control.stopMeasurement) {
+            if (state.queue.offer(buf)) {
+                return;
+            }
+        }
+        buf.release();
+    }
+
+    @Benchmark
+    @Group("pooledCrossThreadRelease")
+    @GroupThreads(4)
+    public void pooledRelease(CrossThreadState state, Control control) {
+        do {
+            ByteBuf buf = state.queue.poll();
+            if (buf != null) {
+                buf.release();
+                return;
+            }
+        } while (!control.stopMeasurement);
+    }
 }
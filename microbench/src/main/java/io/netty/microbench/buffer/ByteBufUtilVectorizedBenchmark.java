@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.buffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.CharsetUtil;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.SuppressJava6Requirement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link ByteBufUtil} primitives on heap buffers with and without the {@code jdk.incubator.vector}
+ * based implementation, which is only used on Java 17 and later. On older versions both are the same.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(2)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 8, time = 1)
+public class ByteBufUtilVectorizedBenchmark extends AbstractMicrobenchmark {
+
+    @Param({ "64", "1024", "8192" })
+    private int size;
+
+    @Param({ "true", "false" })
+    private boolean vectorized;
+
+    private ByteBuf ascii;
+    private ByteBuf utf8;
+    private ByteBuf copy;
+    private ByteBuf different;
+
+    @Setup(Level.Trial)
+    @SuppressJava6Requirement(reason = "using SplittableRandom to reliably produce data")
+    public void setup() {
+        // Must be set before ByteBufUtil is used for the first time.
+        System.setProperty("io.netty.buffer.noVectorApi", Boolean.toString(!vectorized));
+        SplittableRandom random = new SplittableRandom(42);
+        byte[] bytes = new byte[size];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) random.nextInt(' ', '~' + 1);
+        }
+        ascii = Unpooled.wrappedBuffer(bytes);
+        copy = Unpooled.wrappedBuffer(bytes.clone());
+        byte[] differentBytes = bytes.clone();
+        differentBytes[differentBytes.length - 1]++;
+        different = Unpooled.wrappedBuffer(differentBytes);
+
+        // Mostly ASCII with a two byte character every 64 bytes.
+        byte[] utf8Bytes = bytes.clone();
+        for (int i = 32; i < utf8Bytes.length - 1; i += 64) {
+            utf8Bytes[i] = (byte) 0xC3;
+            utf8Bytes[i + 1] = (byte) 0xA9;
+        }
+        utf8 = Unpooled.wrappedBuffer(utf8Bytes);
+    }
+
+    @TearDown
+    public void tearDown() {
+        ascii.release();
+        copy.release();
+        different.release();
+        utf8.release();
+    }
+
+    @Override
+    protected String[] jvmArgs() {
+        String[] jvmArgs = super.jvmArgs();
+        if (PlatformDependent.javaVersion() < 17) {
+            return jvmArgs;
+        }
+        String[] withVectorApi = Arrays.copyOf(jvmArgs, jvmArgs.length + 1);
+        withVectorApi[jvmArgs.length] = "--add-modules=jdk.incubator.vector";
+        return withVectorApi;
+    }
+
+    @Benchmark
+    public int indexOf() {
+        // Not found, so the whole buffer is searched.
+        return ascii.indexOf(0, size, (byte) '\n');
+    }
+
+    @Benchmark
+    public boolean equals() {
+        return ByteBufUtil.equals(ascii, copy);
+    }
+
+    @Benchmark
+    public int compare() {
+        return ByteBufUtil.compare(ascii, different);
+    }
+
+    @Benchmark
+    public boolean isAscii() {
+        return ByteBufUtil.isText(ascii, CharsetUtil.US_ASCII);
+    }
+
+    @Benchmark
+    public boolean isUtf8() {
+        return ByteBufUtil.isText(utf8, CharsetUtil.UTF_8);
+    }
+
+    @Benchmark
+    public String hexDump() {
+        return ByteBufUtil.hexDump(ascii);
+    }
+}
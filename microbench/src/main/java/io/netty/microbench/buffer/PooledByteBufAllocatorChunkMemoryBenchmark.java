@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.buffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ChunkMemoryProvider;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.ReservedChunkMemoryProvider;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.unix.MmapChunkMemoryProvider;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.internal.SuppressJava6Requirement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.SplittableRandom;
+
+/**
+ * Compares the {@link ChunkMemoryProvider}s of the direct arenas of the {@link PooledByteBufAllocator}, both for
+ * allocations that go to the arenas and for random reads spread over a working set which is much bigger than what
+ * the TLB covers with regular pages. Run with {@code -prof perfnorm} to see the dTLB misses.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+public class PooledByteBufAllocatorChunkMemoryBenchmark extends AbstractMicrobenchmark {
+
+    private static final int PAGE_SIZE = 8192;
+    private static final int MAX_ORDER = 11;
+    private static final int CHUNK_SIZE = PAGE_SIZE << MAX_ORDER;
+    private static final int WORKING_SET_CHUNKS = 32;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public enum Provider {
+        DEFAULT,
+        MMAP,
+        MMAP_HUGE_PAGES,
+        RESERVED_HUGE_PAGES
+    }
+
+    @Param
+    public Provider provider;
+
+    @Param({ "01024", "16384", "65536" })
+    public int size;
+
+    private PooledByteBufAllocator allocator;
+    private ByteBuf[] workingSet;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    @SuppressJava6Requirement(reason = "using SplittableRandom to reliably produce data")
+    public void setup() {
+        ChunkMemoryProvider chunkMemoryProvider;
+        switch (provider) {
+        case DEFAULT:
+            chunkMemoryProvider = null;
+            break;
+        case MMAP:
+            Epoll.ensureAvailability();
+            chunkMemoryProvider = new MmapChunkMemoryProvider(false);
+            break;
+        case MMAP_HUGE_PAGES:
+            Epoll.ensureAvailability();
+            chunkMemoryProvider = new MmapChunkMemoryProvider(true);
+            break;
+        case RESERVED_HUGE_PAGES:
+            Epoll.ensureAvailability();
+            chunkMemoryProvider = new ReservedChunkMemoryProvider(
+                    new MmapChunkMemoryProvider(true), CHUNK_SIZE, WORKING_SET_CHUNKS + 1);
+            break;
+        default:
+            throw new Error();
+        }
+        // No caches, so every allocation goes to the arena.
+        allocator = chunkMemoryProvider == null ?
+                new PooledByteBufAllocator(true, 0, 1, PAGE_SIZE, MAX_ORDER, 0, 0, false) :
+                new PooledByteBufAllocator(true, 0, 1, PAGE_SIZE, MAX_ORDER, 0, 0, false, 0, 0,
+                        chunkMemoryProvider);
+
+        workingSet = new ByteBuf[WORKING_SET_CHUNKS * (CHUNK_SIZE / BUFFER_SIZE)];
+        for (int i = 0; i < workingSet.length; i++) {
+            workingSet[i] = allocator.directBuffer(BUFFER_SIZE, BUFFER_SIZE).writeZero(BUFFER_SIZE);
+        }
+        random = new SplittableRandom(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+        for (ByteBuf buf: workingSet) {
+            buf.release();
+        }
+    }
+
+    @Benchmark
+    public boolean allocateRelease() {
+        return allocator.directBuffer(size).release();
+    }
+
+    @Benchmark
+    @SuppressJava6Requirement(reason = "using SplittableRandom to reliably produce data")
+    public long randomRead() {
+        ByteBuf buf = workingSet[random.nextInt(workingSet.length)];
+        return buf.getLong(random.nextInt(BUFFER_SIZE - 8));
+    }
+}
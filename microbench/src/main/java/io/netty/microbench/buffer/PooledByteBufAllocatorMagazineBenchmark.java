@@ -0,0 +1,70 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.buffer;
+
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares allocations from threads which are not {@link io.netty.util.concurrent.FastThreadLocalThread}s, and so
+ * do not get a thread-local cache, with and without the shared magazines of the {@link PooledByteBufAllocator}.
+ * The unpooled allocation is the same as in {@link ByteBufAllocatorConcurrentBenchmark}.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Threads(8)
+public class PooledByteBufAllocatorMagazineBenchmark extends AbstractMicrobenchmark {
+
+    private static final ByteBufAllocator unpooledAllocator = new UnpooledByteBufAllocator(true, true);
+    private static final ByteBufAllocator pooledAllocator = newPooledAllocator(0);
+    private static final ByteBufAllocator magazineAllocator =
+            newPooledAllocator(PooledByteBufAllocator.defaultNumDirectArena());
+
+    @Param({ "00064", "00256", "01024", "04096", "16384" })
+    public int size;
+
+    private static ByteBufAllocator newPooledAllocator(int numMagazines) {
+        return new PooledByteBufAllocator(true, PooledByteBufAllocator.defaultNumHeapArena(),
+                PooledByteBufAllocator.defaultNumDirectArena(), PooledByteBufAllocator.defaultPageSize(),
+                PooledByteBufAllocator.defaultMaxOrder(), PooledByteBufAllocator.defaultSmallCacheSize(),
+                PooledByteBufAllocator.defaultNormalCacheSize(), false, 0, numMagazines);
+    }
+
+    @Benchmark
+    public boolean unpooledAllocateRelease() {
+        return unpooledAllocator.directBuffer(size).release();
+    }
+
+    @Benchmark
+    public boolean pooledAllocateRelease() {
+        return pooledAllocator.directBuffer(size).release();
+    }
+
+    @Benchmark
+    public boolean magazineAllocateRelease() {
+        return magazineAllocator.directBuffer(size).release();
+    }
+}
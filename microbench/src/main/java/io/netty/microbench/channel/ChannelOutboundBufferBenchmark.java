@@ -0,0 +1,102 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Measures the throughput of writing a number of small messages and flushing them at once through the
+ * {@link ChannelOutboundBuffer}, with a channel that does gathering writes like the socket transports and accepts all
+ * the bytes on each write.
+ */
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+public class ChannelOutboundBufferBenchmark extends AbstractMicrobenchmark {
+
+    private static final int MESSAGES_PER_INVOCATION = 1024;
+
+    @Param({ "1", "16", "1024" })
+    public int pendingMessages;
+
+    @Param({ "64" })
+    public int messageSize;
+
+    @Param({ "true", "false" })
+    public boolean voidPromise;
+
+    private Channel channel;
+    private ByteBuf message;
+
+    @Setup
+    public void setup() {
+        channel = new GatheringWriteChannel();
+        message = Unpooled.directBuffer(messageSize).writeZero(messageSize);
+    }
+
+    @TearDown
+    public void tearDown() {
+        channel.close();
+        message.release();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES_PER_INVOCATION)
+    public void writeAndFlush() {
+        Channel channel = this.channel;
+        for (int i = 0; i < MESSAGES_PER_INVOCATION; i += pendingMessages) {
+            for (int j = 0; j < pendingMessages; j++) {
+                channel.write(message.retainedDuplicate(),
+                        voidPromise ? channel.voidPromise() : channel.newPromise());
+            }
+            channel.flush();
+        }
+    }
+
+    private static final class GatheringWriteChannel extends EmbeddedChannel {
+        // Same as Limits.IOV_MAX on Linux.
+        private static final int MAX_BUFFERS = 1024;
+
+        @Override
+        protected void doWrite(ChannelOutboundBuffer in) {
+            while (!in.isEmpty()) {
+                ByteBuffer[] buffers = in.nioBuffers(MAX_BUFFERS, Integer.MAX_VALUE);
+                long written = 0;
+                for (int i = 0; i < in.nioBufferCount(); i++) {
+                    // The channel accepts all the bytes, but does not change the buffers so they can be reused.
+                    written += buffers[i].remaining();
+                }
+                in.removeBytes(written);
+            }
+        }
+    }
+}
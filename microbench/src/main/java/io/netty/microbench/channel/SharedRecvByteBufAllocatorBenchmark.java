@@ -0,0 +1,196 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocatorMetric;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.SharedRecvByteBufAllocator;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends a small message over many mostly-idle connections, whose server side keeps the last buffer it received like
+ * a decoder which waits for the rest of a frame, and reports how many bytes the server retains per connection.
+ */
+@Threads(1)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class SharedRecvByteBufAllocatorBenchmark extends AbstractMicrobenchmark {
+
+    public enum AllocatorType {
+        ADAPTIVE {
+            @Override
+            RecvByteBufAllocator newAllocator() {
+                return new AdaptiveRecvByteBufAllocator();
+            }
+        },
+        SHARED {
+            @Override
+            RecvByteBufAllocator newAllocator() {
+                return new SharedRecvByteBufAllocator();
+            }
+        };
+
+        abstract RecvByteBufAllocator newAllocator();
+    }
+
+    @Param
+    public AllocatorType allocatorType;
+
+    @Param({ "1000" })
+    public int connections;
+
+    @Param({ "64" })
+    public int messageSize;
+
+    /**
+     * The memory the server retains after each connection received a message, which includes the shared buffers.
+     */
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class RetainedBytes {
+        long retainedBytes;
+        int connections;
+
+        public long retainedBytesPerConnection() {
+            return connections == 0 ? 0 : retainedBytes / connections;
+        }
+    }
+
+    private NioEventLoopGroup serverGroup;
+    private NioEventLoopGroup clientGroup;
+    private ByteBufAllocatorMetric serverMetric;
+    private Channel server;
+    private Channel[] clients;
+    private ByteBuf message;
+    private volatile CountDownLatch received;
+
+    @Setup
+    public void setup() throws Exception {
+        serverGroup = new NioEventLoopGroup(1);
+        clientGroup = new NioEventLoopGroup(1);
+        UnpooledByteBufAllocator serverAllocator = new UnpooledByteBufAllocator(true);
+        serverMetric = serverAllocator.metric();
+        server = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(NioServerSocketChannel.class)
+                .childOption(ChannelOption.ALLOCATOR, serverAllocator)
+                .childOption(ChannelOption.RCVBUF_ALLOCATOR, allocatorType.newAllocator())
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast(new PendingFrameHandler());
+                    }
+                })
+                .bind(new InetSocketAddress("127.0.0.1", 0)).sync().channel();
+
+        clients = new Channel[connections];
+        Bootstrap bootstrap = new Bootstrap()
+                .group(clientGroup)
+                .channel(NioSocketChannel.class)
+                .handler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        // The clients only write.
+                    }
+                });
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = bootstrap.connect(server.localAddress()).sync().channel();
+        }
+        message = Unpooled.directBuffer(messageSize).writeZero(messageSize);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        for (Channel client : clients) {
+            client.close().sync();
+        }
+        server.close().sync();
+        clientGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        serverGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        message.release();
+    }
+
+    @Benchmark
+    public void sendToAllConnections(RetainedBytes retained) throws Exception {
+        CountDownLatch received = new CountDownLatch(clients.length);
+        this.received = received;
+        for (Channel client : clients) {
+            client.writeAndFlush(message.retainedDuplicate(), client.voidPromise());
+        }
+        if (!received.await(1, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Not all connections received the message");
+        }
+        retained.retainedBytes = serverMetric.usedDirectMemory() + serverMetric.usedHeapMemory();
+        retained.connections = clients.length;
+    }
+
+    private final class PendingFrameHandler extends ChannelInboundHandlerAdapter {
+        private ByteBuf pending;
+        private int receivedBytes;
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+            ByteBuf buf = (ByteBuf) msg;
+            receivedBytes += buf.readableBytes();
+            if (pending != null) {
+                pending.release();
+            }
+            pending = buf;
+            if (receivedBytes >= messageSize) {
+                receivedBytes -= messageSize;
+                received.countDown();
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) {
+            if (pending != null) {
+                pending.release();
+                pending = null;
+            }
+            ctx.fireChannelInactive();
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.channel.shm;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDomainSocketChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerDomainSocketChannel;
+import io.netty.channel.epoll.EpollSharedMemoryChannel;
+import io.netty.channel.epoll.EpollSharedMemoryServerChannel;
+import io.netty.channel.shm.SharedMemoryAddress;
+import io.netty.channel.shm.SharedMemoryChannel;
+import io.netty.channel.shm.SharedMemoryServerChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.net.SocketAddress;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the {@link SharedMemoryChannel}, which polls, and the {@link EpollSharedMemoryChannel}, which waits for
+ * eventfds, with the {@link EpollDomainSocketChannel}. Both ends of the connection live in the JMH process, but each
+ * one on its own {@link EpollEventLoopGroup} like it would in two processes. Each operation writes a message of
+ * {@code size} bytes, which is echoed by the server, and waits until all of its bytes came back.
+ * {@link #pingPongEncoded()} fills the message on the {@link io.netty.channel.EventLoop} first, which the shared
+ * memory transports do in place through {@link SharedMemoryChannel#claimOutbound(int)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SharedMemoryChannelBenchmark extends AbstractMicrobenchmark {
+
+    public enum TransportType {
+        SHARED_MEMORY,
+        EPOLL_SHARED_MEMORY,
+        EPOLL_DOMAIN_SOCKET
+    }
+
+    @Param
+    public TransportType transport;
+
+    @Param({ "64", "4096", "65536" })
+    public int size;
+
+    private EpollEventLoopGroup serverGroup;
+    private EpollEventLoopGroup clientGroup;
+    private Channel serverChannel;
+    private Channel channel;
+    private ByteBuf message;
+    private File file;
+    private final Callable<ChannelFuture> encodeTask = new Callable<ChannelFuture>() {
+        @Override
+        public ChannelFuture call() {
+            ByteBuf buf = null;
+            if (channel instanceof SharedMemoryChannel) {
+                buf = ((SharedMemoryChannel) channel).claimOutbound(size);
+            }
+            if (buf == null) {
+                buf = channel.alloc().directBuffer(size);
+            }
+            buf.writeBytes(message, message.readerIndex(), size);
+            return channel.writeAndFlush(buf);
+        }
+    };
+
+    @Setup
+    public void setup() throws Exception {
+        Epoll.ensureAvailability();
+        serverGroup = new EpollEventLoopGroup(1);
+        clientGroup = new EpollEventLoopGroup(1);
+
+        Class<? extends ServerChannel> serverChannelClass;
+        Class<? extends Channel> channelClass;
+        SocketAddress address;
+        file = new File(System.getProperty("java.io.tmpdir"), "netty-shm-benchmark-" + System.nanoTime());
+        if (transport == TransportType.SHARED_MEMORY) {
+            serverChannelClass = SharedMemoryServerChannel.class;
+            channelClass = SharedMemoryChannel.class;
+            address = new SharedMemoryAddress(file.getName());
+        } else if (transport == TransportType.EPOLL_SHARED_MEMORY) {
+            serverChannelClass = EpollSharedMemoryServerChannel.class;
+            channelClass = EpollSharedMemoryChannel.class;
+            address = new SharedMemoryAddress(file.getName());
+        } else {
+            serverChannelClass = EpollServerDomainSocketChannel.class;
+            channelClass = EpollDomainSocketChannel.class;
+            address = new DomainSocketAddress(file);
+        }
+
+        serverChannel = new ServerBootstrap()
+                .group(serverGroup)
+                .channel(serverChannelClass)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ctx.write(msg, ctx.voidPromise());
+                    }
+
+                    @Override
+                    public void channelReadComplete(ChannelHandlerContext ctx) {
+                        ctx.flush();
+                    }
+                })
+                .bind(address).sync().channel();
+        channel = new Bootstrap()
+                .group(clientGroup)
+                .channel(channelClass)
+                .handler(new ChannelDuplexHandler() {
+                    private ChannelPromise lastWritePromise;
+                    private int remaining;
+
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ByteBuf buf = (ByteBuf) msg;
+                        remaining -= buf.readableBytes();
+                        buf.release();
+                        if (remaining == 0) {
+                            ChannelPromise promise = lastWritePromise;
+                            lastWritePromise = null;
+                            promise.trySuccess();
+                        }
+                    }
+
+                    @Override
+                    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                        if (lastWritePromise != null) {
+                            throw new IllegalStateException();
+                        }
+                        lastWritePromise = promise;
+                        remaining = ((ByteBuf) msg).readableBytes();
+                        ctx.write(msg, ctx.voidPromise());
+                    }
+                })
+                .connect(address).sync().channel();
+
+        message = channel.alloc().directBuffer(size);
+        message.writerIndex(size);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        channel.close().sync();
+        serverChannel.close().sync();
+        clientGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        serverGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+        message.release();
+        if (transport != TransportType.EPOLL_DOMAIN_SOCKET) {
+            new SharedMemoryAddress(file.getName()).directory().delete();
+        } else {
+            file.delete();
+        }
+    }
+
+    @Benchmark
+    public Object pingPong() throws Exception {
+        return channel.writeAndFlush(message.retainedSlice()).sync();
+    }
+
+    @Benchmark
+    public Object pingPongEncoded() throws Exception {
+        return channel.eventLoop().submit(encodeTask).get().sync();
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.concurrent;
+
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import io.netty.util.concurrent.DefaultEventExecutorGroup;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+import io.netty.util.concurrent.UnorderedThreadPoolEventExecutor;
+import io.netty.util.concurrent.VirtualThreadEventExecutorGroup;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs blocking tasks, like the JDBC calls of a {@link io.netty.channel.ChannelHandler} which was added to the
+ * {@link io.netty.channel.ChannelPipeline} with an {@link EventExecutorGroup}, for many channels at once. Each
+ * operation submits {@code tasksPerChannel} tasks per channel, which block for {@code blockMicros} each, and waits
+ * until all of them ran.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class BlockingHandlerExecutorBenchmark extends AbstractMicrobenchmark {
+
+    public enum ExecutorType {
+        DEFAULT,
+        UNORDERED,
+        VIRTUAL
+    }
+
+    @Param
+    public ExecutorType executorType;
+
+    @Param({ "100", "1000" })
+    public int channels;
+
+    @Param({ "16" })
+    public int threads;
+
+    @Param({ "4" })
+    public int tasksPerChannel;
+
+    @Param({ "1000" })
+    public int blockMicros;
+
+    private EventExecutorGroup group;
+    // The executor of each channel, as it would be picked by the ChannelPipeline.
+    private EventExecutor[] executors;
+
+    public BlockingHandlerExecutorBenchmark() {
+        super(true);
+    }
+
+    @Setup
+    public void setup() {
+        switch (executorType) {
+            case DEFAULT:
+                group = new DefaultEventExecutorGroup(threads);
+                break;
+            case UNORDERED:
+                group = new UnorderedThreadPoolEventExecutor(threads);
+                break;
+            case VIRTUAL:
+                group = new VirtualThreadEventExecutorGroup();
+                break;
+            default:
+                throw new Error();
+        }
+        executors = new EventExecutor[channels];
+        for (int i = 0; i < channels; i++) {
+            executors[i] = group.next();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    @Benchmark
+    public void blockingTasks() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(channels * tasksPerChannel);
+        final long blockNanos = TimeUnit.MICROSECONDS.toNanos(blockMicros);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(blockNanos);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            }
+        };
+        for (int i = 0; i < tasksPerChannel; i++) {
+            for (EventExecutor executor: executors) {
+                executor.execute(task);
+            }
+        }
+        done.await();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.microbench.concurrent;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.BatchingChannelWriter;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.microbench.util.AbstractMicrobenchmark;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes messages to a {@link Channel} from several threads outside of its {@link io.netty.channel.EventLoop}, like
+ * business-logic threads which answer requests, either with {@link Channel#writeAndFlush(Object)} or with a shared
+ * {@link BatchingChannelWriter}. Each operation writes {@code burst} messages and waits until the last one was
+ * written, so the score is the cost of a burst including the task submissions and wakeups of the
+ * {@link io.netty.channel.EventLoop}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Threads(4)
+public class CrossThreadWriteBenchmark extends AbstractMicrobenchmark {
+    private static final Object MESSAGE = new Object();
+
+    public enum WriterType {
+        WRITE_AND_FLUSH,
+        BATCHING
+    }
+
+    @Param
+    public WriterType writerType;
+
+    @Param({ "1", "16", "128" })
+    public int burst;
+
+    private EventLoopGroup group;
+    private Channel server;
+    private Channel channel;
+    private BatchingChannelWriter writer;
+
+    public CrossThreadWriteBenchmark() {
+        super(true);
+    }
+
+    @Setup
+    public void setup() throws Exception {
+        // The NIO EventLoop blocks in the Selector while idle, so writes from other threads have to wake it up.
+        group = new NioEventLoopGroup(1);
+        LocalAddress address = new LocalAddress("CrossThreadWriteBenchmark");
+        server = new ServerBootstrap()
+                .group(group)
+                .channel(LocalServerChannel.class)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        // Discard
+                    }
+                })
+                .bind(address).sync().channel();
+        channel = new Bootstrap()
+                .group(group)
+                .channel(LocalChannel.class)
+                .handler(new ChannelInboundHandlerAdapter())
+                .connect(address).sync().channel();
+        writer = new BatchingChannelWriter(channel);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        channel.close().sync();
+        server.close().sync();
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    }
+
+    @Benchmark
+    public void write() throws Exception {
+        ChannelFuture last;
+        if (writerType == WriterType.BATCHING) {
+            for (int i = 1; i < burst; i++) {
+                writer.write(MESSAGE);
+            }
+            last = writer.write(MESSAGE, channel.newPromise());
+        } else {
+            for (int i = 1; i < burst; i++) {
+                channel.writeAndFlush(MESSAGE, channel.voidPromise());
+            }
+            last = channel.writeAndFlush(MESSAGE);
+        }
+        last.sync();
+    }
+}
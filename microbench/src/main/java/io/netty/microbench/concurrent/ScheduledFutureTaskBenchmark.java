@@ -16,7 +16,6 @@
 package io.netty.microbench.concurrent;
 
 import io.netty.channel.DefaultEventLoop;
-import io.netty.channel.EventLoop;
 import io.netty.microbench.util.AbstractMicrobenchmark;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.ScheduledFuture;
@@ -36,7 +35,7 @@ import java.util.concurrent.TimeUnit;
 @State(Scope.Benchmark)
 public class ScheduledFutureTaskBenchmark extends AbstractMicrobenchmark {
 
-    static final EventLoop executor = new DefaultEventLoop();
+    static final DefaultEventLoop executor = new DefaultEventLoop();
 
     @State(Scope.Thread)
     public static class FuturesHolder {
@@ -51,11 +50,15 @@ public class ScheduledFutureTaskBenchmark extends AbstractMicrobenchmark {
         @Param({ "100", "1000", "10000", "100000" })
         int num;
 
+        @Param({ "false", "true" })
+        boolean timingWheel;
+
         final List<ScheduledFuture<Void>> futures = new ArrayList<ScheduledFuture<Void>>();
 
         @Setup(Level.Invocation)
         public void reset() {
             futures.clear();
+            executor.useTimingWheel(timingWheel ? 1 : 0, TimeUnit.MILLISECONDS);
             executor.submit(new Runnable() {
                 @Override
                 public void run() {
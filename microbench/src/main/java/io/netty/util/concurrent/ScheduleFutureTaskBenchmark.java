@@ -50,11 +50,18 @@ public class ScheduleFutureTaskBenchmark extends AbstractMicrobenchmark {
         @Param({ "100000" })
         int num;
 
+        @Param({ "false", "true" })
+        boolean timingWheel;
+
         AbstractScheduledEventExecutor eventLoop;
 
         @Setup(Level.Trial)
         public void reset() {
-            eventLoop = (AbstractScheduledEventExecutor) new NioEventLoopGroup(1).next();
+            NioEventLoopGroup group = new NioEventLoopGroup(1);
+            if (timingWheel) {
+                group.useTimingWheel(1, TimeUnit.MILLISECONDS);
+            }
+            eventLoop = (AbstractScheduledEventExecutor) group.next();
         }
 
         @Setup(Level.Invocation)
@@ -226,7 +226,7 @@ abstract class AbstractEpollChannel extends AbstractChannel implements UnixChann
         // We must set the read flag here as it is possible the user didn't read in the last read loop, the
         // executeEpollInReadyRunnable could read nothing, and if the user doesn't explicitly call read they will
         // never get data after this.
-        setFlag(Native.EPOLLIN);
+        setEpollIn();
 
         // If EPOLL ET mode is enabled and auto read was toggled off on the last read loop then we may not be notified
         // again if we didn't consume all the data. So we force a read operation here if there maybe more data.
@@ -235,6 +235,13 @@ abstract class AbstractEpollChannel extends AbstractChannel implements UnixChann
         }
     }
 
+    /**
+     * Request to be notified once there is something to read.
+     */
+    void setEpollIn() throws IOException {
+        setFlag(Native.EPOLLIN);
+    }
+
     final boolean shouldBreakEpollInReady(ChannelConfig config) {
         return socket.isInputShutdown() && (inputClosedSeenErrorOnRead || !isAllowHalfClosure(config));
     }
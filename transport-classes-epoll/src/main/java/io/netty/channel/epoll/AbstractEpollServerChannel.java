@@ -22,14 +22,23 @@ import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
+import io.netty.util.concurrent.EventExecutor;
 
+import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 public abstract class AbstractEpollServerChannel extends AbstractEpollChannel implements ServerChannel {
     private static final ChannelMetadata METADATA = new ChannelMetadata(false, 16);
 
+    // Only used if EpollServerChannelConfig.isEpollExclusive() is true.
+    private EpollExclusiveAcceptor[] acceptors;
+
     protected AbstractEpollServerChannel(int fd) {
         this(new LinuxSocket(fd), false);
     }
@@ -74,6 +83,112 @@ public abstract class AbstractEpollServerChannel extends AbstractEpollChannel im
 
     abstract Channel newChildChannel(int fd, byte[] remote, int offset, int len) throws Exception;
 
+    @Override
+    void setEpollIn() throws IOException {
+        if (!((EpollServerChannelConfig) config()).isEpollExclusive()) {
+            super.setEpollIn();
+            return;
+        }
+        if (!isActive()) {
+            // We will be called again once the channel is bound.
+            return;
+        }
+        EpollExclusiveAcceptor[] acceptors = this.acceptors;
+        if (acceptors == null) {
+            this.acceptors = acceptors = newAcceptors();
+        }
+        for (EpollExclusiveAcceptor acceptor: acceptors) {
+            acceptor.arm();
+        }
+    }
+
+    private EpollExclusiveAcceptor[] newAcceptors() throws IOException {
+        List<EpollEventLoop> loops = new ArrayList<EpollEventLoop>();
+        EventLoopGroup group = eventLoop().parent();
+        if (group instanceof EpollEventLoopGroup) {
+            for (EventExecutor executor: group) {
+                loops.add((EpollEventLoop) executor);
+            }
+        } else {
+            loops.add((EpollEventLoop) eventLoop());
+        }
+        EpollExclusiveAcceptor[] acceptors = new EpollExclusiveAcceptor[loops.size()];
+        try {
+            for (int i = 0; i < acceptors.length; i++) {
+                acceptors[i] = new EpollExclusiveAcceptor(this, loops.get(i), socket.dup());
+            }
+        } catch (IOException e) {
+            for (EpollExclusiveAcceptor acceptor: acceptors) {
+                if (acceptor != null) {
+                    acceptor.socket.close();
+                }
+            }
+            throw e;
+        }
+        return acceptors;
+    }
+
+    /**
+     * Called by an {@link EpollExclusiveAcceptor} with the connections it accepted.
+     */
+    void fireAccepted(final List<Channel> accepted, final Throwable cause) {
+        EventLoop loop = eventLoop();
+        if (loop.inEventLoop()) {
+            fireAccepted0(accepted, cause);
+        } else {
+            try {
+                loop.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        fireAccepted0(accepted, cause);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                closeAccepted(accepted);
+            }
+        }
+    }
+
+    private void fireAccepted0(List<Channel> accepted, Throwable cause) {
+        if (!isOpen()) {
+            closeAccepted(accepted);
+            return;
+        }
+        ((AbstractEpollUnsafe) unsafe()).readPending = false;
+        ChannelPipeline pipeline = pipeline();
+        for (int i = 0; i < accepted.size(); i++) {
+            pipeline.fireChannelRead(accepted.get(i));
+        }
+        pipeline.fireChannelReadComplete();
+        if (cause != null) {
+            pipeline.fireExceptionCaught(cause);
+        }
+    }
+
+    private static void closeAccepted(List<Channel> accepted) {
+        for (Channel child: accepted) {
+            child.unsafe().closeForcibly();
+        }
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        EpollExclusiveAcceptor[] acceptors = this.acceptors;
+        if (acceptors != null) {
+            // The duplicated file descriptors keep the socket listening until the acceptors closed them on their
+            // EventLoop, so stop listening right away.
+            try {
+                socket.shutdown();
+            } catch (IOException ignore) {
+                // ignore
+            }
+            for (EpollExclusiveAcceptor acceptor: acceptors) {
+                acceptor.close();
+            }
+        }
+        super.doClose();
+    }
+
     final class EpollServerSocketUnsafe extends AbstractEpollUnsafe {
         // Will hold the remote address after accept(...) was successful.
         // We need 24 bytes for the address as maximum + 1 byte for storing the length.
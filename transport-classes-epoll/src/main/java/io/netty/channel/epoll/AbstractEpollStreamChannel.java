@@ -78,6 +78,9 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
 
     private WritableByteChannel byteChannel;
 
+    // Lazy init if we write with MSG_ZEROCOPY
+    private volatile EpollZeroCopyQueue zeroCopyQueue;
+
     protected AbstractEpollStreamChannel(Channel parent, int fd) {
         this(parent, new LinuxSocket(fd));
     }
@@ -256,6 +259,9 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
             return 0;
         }
 
+        if (isZeroCopyWrite(buf)) {
+            return writeBytesZeroCopy(in, buf);
+        }
         if (buf.hasMemoryAddress() || buf.nioBufferCount() == 1) {
             return doWriteBytes(in, buf);
         } else {
@@ -265,6 +271,79 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
         }
     }
 
+    /**
+     * Write a {@link ByteBuf} with {@code MSG_ZEROCOPY}.
+     * @param in the collection which contains objects to write.
+     * @param buf the {@link ByteBuf} from which the bytes should be written
+     * @return The value that should be decremented from the write quantum which starts at
+     * {@link ChannelConfig#getWriteSpinCount()}. The typical use cases are as follows:
+     * <ul>
+     *     <li>1 - if a single call to write data was made to the OS</li>
+     *     <li>{@link ChannelUtils#WRITE_STATUS_SNDBUF_FULL} - if an attempt to write data was made to the OS, but
+     *     no data was accepted</li>
+     * </ul>
+     */
+    private int writeBytesZeroCopy(ChannelOutboundBuffer in, ByteBuf buf) throws Exception {
+        EpollZeroCopyQueue queue = zeroCopyQueue;
+        if (queue == null) {
+            zeroCopyQueue = queue = new EpollZeroCopyQueue(zeroCopyMetric0());
+        }
+        final int readerIndex = buf.readerIndex();
+        final int writerIndex = buf.writerIndex();
+        final int localFlushedAmount = socket.sendAddressZeroCopy(buf.memoryAddress(), readerIndex, writerIndex);
+        if (localFlushedAmount > 0) {
+            // The kernel references the memory until it signals the completion via the error queue.
+            if (localFlushedAmount == writerIndex - readerIndex) {
+                // Move the buffer and its promise out of the ChannelOutboundBuffer, so the following messages can
+                // be written while we wait for the completion. The promise is notified once it arrived.
+                in.progress(localFlushedAmount);
+                queue.add(buf, in.removeDeferred());
+            } else {
+                // The ChannelOutboundBuffer keeps its reference until the rest of the buffer was written as well.
+                queue.add(buf.retain(), null);
+                in.removeBytes(localFlushedAmount);
+            }
+            return 1;
+        }
+        if (localFlushedAmount < 0) {
+            // The kernel could not pin the memory, just copy it.
+            queue.fallback();
+            return doWriteBytes(in, buf);
+        }
+        return WRITE_STATUS_SNDBUF_FULL;
+    }
+
+    private boolean isZeroCopyWrite(ByteBuf buf) {
+        final int threshold = msgZeroCopyThreshold();
+        return threshold >= 0 && buf.readableBytes() >= threshold && buf.hasMemoryAddress();
+    }
+
+    /**
+     * Returns the minimum number of readable bytes a {@link ByteBuf} must have to be written with
+     * {@code MSG_ZEROCOPY}, or {@code -1} if zero copy writes are not supported or disabled.
+     */
+    int msgZeroCopyThreshold() {
+        return -1;
+    }
+
+    /**
+     * Returns the {@link EpollZeroCopyMetric} in which the {@code MSG_ZEROCOPY} writes are counted.
+     */
+    EpollZeroCopyMetric zeroCopyMetric0() {
+        return EpollZeroCopyMetric.NONE;
+    }
+
+    private void processZeroCopyCompletions() {
+        EpollZeroCopyQueue queue = zeroCopyQueue;
+        if (queue != null && !queue.isEmpty()) {
+            try {
+                queue.processCompletions(socket);
+            } catch (IOException e) {
+                pipeline().fireExceptionCaught(e);
+            }
+        }
+    }
+
     private void adjustMaxBytesPerGatheringWrite(long attempted, long written, long oldMaxBytesPerGatheringWrite) {
         // By default we track the SO_SNDBUF when ever it is explicitly set. However some OSes may dynamically change
         // SO_SNDBUF (and other characteristics that determine how much data can be written at once) so we should try
@@ -417,8 +496,10 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
         int writeSpinCount = config().getWriteSpinCount();
         do {
             final int msgCount = in.size();
-            // Do gathering write if the outbound buffer entries start with more than one ByteBuf.
-            if (msgCount > 1 && in.current() instanceof ByteBuf) {
+            final Object current = in.current();
+            // Do gathering write if the outbound buffer entries start with more than one ByteBuf, unless the first
+            // one should be written with MSG_ZEROCOPY.
+            if (msgCount > 1 && current instanceof ByteBuf && !isZeroCopyWrite((ByteBuf) current)) {
                 writeSpinCount -= doWriteMultiple(in);
             } else if (msgCount == 0) {
                 // Wrote all messages.
@@ -667,13 +748,52 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
 
     @Override
     protected void doClose() throws Exception {
+        LinuxSocket zeroCopySocket = null;
         try {
+            zeroCopySocket = keepZeroCopySocket();
             // Calling super.doClose() first so spliceTo(...) will fail on next call.
             super.doClose();
         } finally {
             safeClosePipe(pipeIn);
             safeClosePipe(pipeOut);
             clearSpliceQueue();
+            EpollZeroCopyQueue queue = zeroCopyQueue;
+            if (queue != null && !queue.isEmpty()) {
+                if (zeroCopySocket != null) {
+                    queue.releaseAfterClose(zeroCopySocket, eventLoop());
+                } else {
+                    queue.abandon();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a duplicate of the file descriptor through which the completions of the outstanding {@code MSG_ZEROCOPY}
+     * writes can still be read once the channel was closed, or {@code null} if there are none.
+     */
+    private LinuxSocket keepZeroCopySocket() {
+        EpollZeroCopyQueue queue = zeroCopyQueue;
+        if (queue == null || queue.isEmpty()) {
+            return null;
+        }
+        // Release what we can while we are still able to read the completions.
+        processZeroCopyCompletions();
+        if (queue.isEmpty()) {
+            return null;
+        }
+        try {
+            // Closing the file descriptor will not close the socket as long as the duplicate is open, so shut it down
+            // to send the FIN right away.
+            socket.shutdown();
+        } catch (IOException e) {
+            logger.debug("Failed to shutdown the socket before keeping it for the MSG_ZEROCOPY completions", e);
+        }
+        try {
+            return socket.dup();
+        } catch (IOException e) {
+            logger.debug("Failed to keep the socket for the outstanding MSG_ZEROCOPY completions", e);
+            return null;
         }
     }
 
@@ -741,6 +861,9 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
 
         @Override
         void epollInReady() {
+            // The completion of MSG_ZEROCOPY writes is signaled via EPOLLERR, which also ends up here.
+            processZeroCopyCompletions();
+
             final ChannelConfig config = config();
             if (shouldBreakEpollInReady(config)) {
                 clearEpollIn0();
@@ -782,7 +905,7 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
 
                     // we use a direct buffer here as the native implementations only be able
                     // to handle direct buffers.
-                    byteBuf = allocHandle.allocate(allocator);
+                    byteBuf = allocHandle.allocateShared(allocator);
                     allocHandle.lastBytesRead(doReadBytes(byteBuf));
                     if (allocHandle.lastBytesRead() <= 0) {
                         // nothing was read, release the buffer.
@@ -797,6 +920,7 @@ public abstract class AbstractEpollStreamChannel extends AbstractEpollChannel im
                     }
                     allocHandle.incMessagesRead(1);
                     readPending = false;
+                    byteBuf = allocHandle.received(byteBuf);
                     pipeline.fireChannelRead(byteBuf);
                     byteBuf = null;
 
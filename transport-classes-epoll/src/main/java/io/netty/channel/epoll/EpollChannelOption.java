@@ -47,6 +47,23 @@ public final class EpollChannelOption<T> extends UnixChannelOption<T> {
             ChannelOption.valueOf(EpollChannelOption.class, "TCP_DEFER_ACCEPT");
     public static final ChannelOption<Boolean> TCP_QUICKACK = valueOf(EpollChannelOption.class, "TCP_QUICKACK");
     public static final ChannelOption<Integer> SO_BUSY_POLL = valueOf(EpollChannelOption.class, "SO_BUSY_POLL");
+    /**
+     * The minimum number of readable bytes a {@link io.netty.buffer.ByteBuf} must have to be written with
+     * {@code MSG_ZEROCOPY}, or {@code -1} (the default) to never use zero copy writes. Needs Linux 4.14 or later.
+     */
+    public static final ChannelOption<Integer> MSG_ZEROCOPY_THRESHOLD =
+            valueOf(EpollChannelOption.class, "MSG_ZEROCOPY_THRESHOLD");
+    /**
+     * The CPU id set with {@code SO_INCOMING_CPU} on a listening socket that is part of a {@code SO_REUSEPORT}
+     * group, so the kernel prefers it for connections received on that CPU. Needs Linux 3.19 or later.
+     */
+    public static final ChannelOption<Integer> SO_INCOMING_CPU = valueOf(EpollChannelOption.class, "SO_INCOMING_CPU");
+    /**
+     * If {@code true} the listening socket of a server channel is registered with {@code EPOLLEXCLUSIVE} on every
+     * {@link io.netty.channel.EventLoop} of its {@link EpollEventLoopGroup} so each of them accepts connections.
+     * Needs Linux 4.5 or later.
+     */
+    public static final ChannelOption<Boolean> EPOLL_EXCLUSIVE = valueOf(EpollChannelOption.class, "EPOLL_EXCLUSIVE");
 
     public static final ChannelOption<EpollMode> EPOLL_MODE =
             ChannelOption.valueOf(EpollChannelOption.class, "EPOLL_MODE");
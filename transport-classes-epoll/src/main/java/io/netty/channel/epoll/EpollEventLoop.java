@@ -15,6 +15,7 @@
  */
 package io.netty.channel.epoll;
 
+import io.netty.channel.AdaptiveBusyPollSelectStrategy;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.EventLoopTaskQueueFactory;
@@ -58,6 +59,11 @@ class EpollEventLoop extends SingleThreadEventLoop {
     private final FileDescriptor eventFd;
     private final FileDescriptor timerFd;
     private final IntObjectMap<AbstractEpollChannel> channels = new IntObjectHashMap<AbstractEpollChannel>(4096);
+    // Only used for server channels that accept on multiple EventLoops, see EpollServerChannelConfig.setEpollExclusive
+    private final IntObjectMap<EpollExclusiveAcceptor> acceptors = new IntObjectHashMap<EpollExclusiveAcceptor>(4);
+    // Only used for the file descriptors of the shared memory transport, see EpollSharedMemoryServerChannel
+    private final IntObjectMap<EpollSharedMemoryHandler> sharedMemoryHandlers =
+            new IntObjectHashMap<EpollSharedMemoryHandler>(4);
     private final boolean allowGrowing;
     private final EpollEventArray events;
 
@@ -66,6 +72,8 @@ class EpollEventLoop extends SingleThreadEventLoop {
     private NativeDatagramPacketArray datagramPacketArray;
 
     private final SelectStrategy selectStrategy;
+    // Same as selectStrategy if it adapts its spin budget to the waits of this EventLoop, null otherwise.
+    private final AdaptiveBusyPollSelectStrategy adaptiveSelectStrategy;
     private final IntSupplier selectNowSupplier = new IntSupplier() {
         @Override
         public int get() throws Exception {
@@ -93,6 +101,8 @@ class EpollEventLoop extends SingleThreadEventLoop {
         super(parent, executor, false, newTaskQueue(taskQueueFactory), newTaskQueue(tailTaskQueueFactory),
                 rejectedExecutionHandler);
         selectStrategy = ObjectUtil.checkNotNull(strategy, "strategy");
+        adaptiveSelectStrategy = strategy instanceof AdaptiveBusyPollSelectStrategy ?
+                (AdaptiveBusyPollSelectStrategy) strategy : null;
         if (maxEvents == 0) {
             allowGrowing = true;
             events = new EpollEventArray(4096);
@@ -184,7 +194,8 @@ class EpollEventLoop extends SingleThreadEventLoop {
 
     @Override
     protected void wakeup(boolean inEventLoop) {
-        if (!inEventLoop && nextWakeupNanos.getAndSet(AWAKE) != AWAKE) {
+        // Check before the getAndSet so producers do not contend on nextWakeupNanos while the loop is awake.
+        if (!inEventLoop && nextWakeupNanos.get() != AWAKE && nextWakeupNanos.getAndSet(AWAKE) != AWAKE) {
             // write to the evfd which will then wake-up epoll_wait(...)
             Native.eventFdWrite(eventFd.intValue(), 1L);
         }
@@ -224,6 +235,47 @@ class EpollEventLoop extends SingleThreadEventLoop {
         Native.epollCtlMod(epollFd.intValue(), ch.socket.intValue(), ch.flags);
     }
 
+    /**
+     * Register the given {@link EpollExclusiveAcceptor} with this {@link EventLoop} using {@code EPOLLEXCLUSIVE}.
+     */
+    void add(EpollExclusiveAcceptor acceptor) throws IOException {
+        assert inEventLoop();
+        int fd = acceptor.socket.intValue();
+        Native.epollCtlAdd(epollFd.intValue(), fd, Native.EPOLLIN | Native.EPOLLEXCLUSIVE);
+        acceptors.put(fd, acceptor);
+    }
+
+    /**
+     * Deregister the given {@link EpollExclusiveAcceptor} from this {@link EventLoop}.
+     */
+    void remove(EpollExclusiveAcceptor acceptor) throws IOException {
+        assert inEventLoop();
+        int fd = acceptor.socket.intValue();
+        if (acceptors.remove(fd) != null) {
+            Native.epollCtlDel(epollFd.intValue(), fd);
+        }
+    }
+
+    /**
+     * Register the given file descriptor of the shared memory transport with this {@link EventLoop}, which calls the
+     * {@link EpollSharedMemoryHandler} once it is readable.
+     */
+    void add(FileDescriptor fd, int flags, EpollSharedMemoryHandler handler) throws IOException {
+        assert inEventLoop();
+        Native.epollCtlAdd(epollFd.intValue(), fd.intValue(), flags);
+        sharedMemoryHandlers.put(fd.intValue(), handler);
+    }
+
+    /**
+     * Deregister the given file descriptor of the shared memory transport from this {@link EventLoop}.
+     */
+    void remove(FileDescriptor fd) throws IOException {
+        assert inEventLoop();
+        if (sharedMemoryHandlers.remove(fd.intValue()) != null) {
+            Native.epollCtlDel(epollFd.intValue(), fd.intValue());
+        }
+    }
+
     /**
      * Deregister the given epoll from this {@link EventLoop}.
      */
@@ -302,6 +354,32 @@ class EpollEventLoop extends SingleThreadEventLoop {
         return Native.epollBusyWait(epollFd, events);
     }
 
+    /**
+     * Polls for I/O without blocking until something is ready, a task was submitted or the spin budget is spent.
+     */
+    private int busyPoll(long startNanos) throws IOException {
+        final long deadlineNanos = startNanos + adaptiveSelectStrategy.spinBudgetNanos();
+        int ready;
+        long nowNanos;
+        do {
+            ready = epollWaitNow();
+            nowNanos = System.nanoTime();
+        } while (ready == 0 && !hasTasks() && nowNanos - deadlineNanos < 0);
+        reportWait(nowNanos - startNanos, 0);
+        if (ready > 0 || hasTasks()) {
+            adaptiveSelectStrategy.waited(nowNanos - startNanos);
+        }
+        return ready;
+    }
+
+    private void blocked(long waitStartNanos, long blockStartNanos) {
+        final long nowNanos = System.nanoTime();
+        reportWait(0, nowNanos - blockStartNanos);
+        if (adaptiveSelectStrategy != null) {
+            adaptiveSelectStrategy.waited(nowNanos - waitStartNanos);
+        }
+    }
+
     private int epollWaitTimeboxed() throws IOException {
         // Wait with 1 second "safeguard" timeout
         return Native.epollWait(epollFd, events, 1000);
@@ -313,13 +391,23 @@ class EpollEventLoop extends SingleThreadEventLoop {
         for (;;) {
             try {
                 int strategy = selectStrategy.calculateStrategy(selectNowSupplier, hasTasks());
+                // Start of the busy-poll which preceded the blocking epoll_wait, 0 if there was none.
+                long spinStartNanos = 0;
                 switch (strategy) {
                     case SelectStrategy.CONTINUE:
                         continue;
 
                     case SelectStrategy.BUSY_WAIT:
-                        strategy = epollBusyWait();
-                        break;
+                        if (adaptiveSelectStrategy == null) {
+                            strategy = epollBusyWait();
+                            break;
+                        }
+                        spinStartNanos = System.nanoTime();
+                        strategy = busyPoll(spinStartNanos);
+                        if (strategy > 0 || hasTasks()) {
+                            break;
+                        }
+                        // fall-through
 
                     case SelectStrategy.SELECT:
                         if (pendingWakeup) {
@@ -346,6 +434,9 @@ class EpollEventLoop extends SingleThreadEventLoop {
                         nextWakeupNanos.set(curDeadlineNanos);
                         try {
                             if (!hasTasks()) {
+                                // Only time the wait if the adaptive strategy or the metric consumes it.
+                                final boolean timeWait = adaptiveSelectStrategy != null || isTrackingIterations();
+                                final long blockStartNanos = timeWait ? System.nanoTime() : 0;
                                 if (curDeadlineNanos == prevDeadlineNanos) {
                                     // No timer activity needed
                                     strategy = epollWaitNoTimerChange();
@@ -357,23 +448,38 @@ class EpollEventLoop extends SingleThreadEventLoop {
                                     strategy = Native.epollReady(result);
                                     prevDeadlineNanos = Native.epollTimerWasUsed(result) ? curDeadlineNanos : NONE;
                                 }
+                                if (timeWait) {
+                                    blocked(spinStartNanos != 0 ? spinStartNanos : blockStartNanos, blockStartNanos);
+                                }
                             }
                         } finally {
                             // Try get() first to avoid much more expensive CAS in the case we
                             // were woken via the wakeup() method (submitted task)
                             if (nextWakeupNanos.get() == AWAKE || nextWakeupNanos.getAndSet(AWAKE) == AWAKE) {
                                 pendingWakeup = true;
+                                reportWakeup();
                             }
                         }
                         // fallthrough
                     default:
                 }
 
+                startIteration();
                 final int ioRatio = this.ioRatio;
                 if (ioRatio == 100) {
                     try {
-                        if (strategy > 0 && processReady(events, strategy)) {
-                            prevDeadlineNanos = NONE;
+                        if (strategy > 0) {
+                            final boolean timeIo = isTrackingIterations();
+                            final long ioStartTime = timeIo ? System.nanoTime() : 0;
+                            try {
+                                if (processReady(events, strategy)) {
+                                    prevDeadlineNanos = NONE;
+                                }
+                            } finally {
+                                if (timeIo) {
+                                    reportIo(System.nanoTime() - ioStartTime, strategy);
+                                }
+                            }
                         }
                     } finally {
                         // Ensure we always run tasks.
@@ -388,6 +494,7 @@ class EpollEventLoop extends SingleThreadEventLoop {
                     } finally {
                         // Ensure we always run tasks.
                         final long ioTime = System.nanoTime() - ioStartTime;
+                        reportIo(ioTime, strategy);
                         runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
                     }
                 } else {
@@ -442,6 +549,11 @@ class EpollEventLoop extends SingleThreadEventLoop {
         for (AbstractEpollChannel ch: localChannels) {
             ch.unsafe().close(ch.unsafe().voidPromise());
         }
+
+        EpollExclusiveAcceptor[] localAcceptors = acceptors.values().toArray(new EpollExclusiveAcceptor[0]);
+        for (EpollExclusiveAcceptor acceptor: localAcceptors) {
+            acceptor.close0();
+        }
     }
 
     // Returns true if a timerFd event was encountered
@@ -493,6 +605,10 @@ class EpollEventLoop extends SingleThreadEventLoop {
                     if ((ev & Native.EPOLLRDHUP) != 0) {
                         unsafe.epollRdHupReady();
                     }
+                } else if (acceptors.containsKey(fd)) {
+                    acceptors.get(fd).acceptReady();
+                } else if (sharedMemoryHandlers.containsKey(fd)) {
+                    sharedMemoryHandlers.get(fd).epollInReady();
                 } else {
                     // We received an event for an fd which we not use anymore. Remove it from the epoll_event set.
                     try {
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Accepts connections of an {@link AbstractEpollServerChannel} on one {@link EpollEventLoop}. The listening socket is
+ * registered with {@code EPOLLEXCLUSIVE} through a duplicated file descriptor in every {@link EpollEventLoop} that
+ * has an {@link EpollExclusiveAcceptor}, so the kernel only wakes up one of them for each new connection.
+ * <p>
+ * The accepted {@link Channel}s are handed over to the {@link EpollEventLoop} of the server channel, as its
+ * {@link io.netty.channel.ChannelPipeline} must only be used from there.
+ */
+final class EpollExclusiveAcceptor {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(EpollExclusiveAcceptor.class);
+
+    private final AbstractEpollServerChannel server;
+    private final EpollEventLoop loop;
+    final LinuxSocket socket;
+    // Will hold the remote address after accept(...) was successful.
+    // We need 24 bytes for the address as maximum + 1 byte for storing the length.
+    // So use 26 bytes as it's a power of two.
+    private final byte[] acceptedAddress = new byte[26];
+    private final Runnable armTask = new Runnable() {
+        @Override
+        public void run() {
+            arm0();
+        }
+    };
+    private RecvByteBufAllocator.Handle allocHandle;
+    private volatile boolean armed;
+    private boolean closed;
+
+    EpollExclusiveAcceptor(AbstractEpollServerChannel server, EpollEventLoop loop, LinuxSocket socket) {
+        this.server = server;
+        this.loop = loop;
+        this.socket = socket;
+    }
+
+    /**
+     * Start accepting connections on the {@link EpollEventLoop} of this acceptor.
+     */
+    void arm() {
+        if (armed) {
+            return;
+        }
+        if (loop.inEventLoop()) {
+            arm0();
+        } else {
+            try {
+                loop.execute(armTask);
+            } catch (RejectedExecutionException e) {
+                logger.debug("Failed to arm acceptor on {} as it was shut down", loop, e);
+            }
+        }
+    }
+
+    private void arm0() {
+        if (armed || closed) {
+            return;
+        }
+        try {
+            loop.add(this);
+            armed = true;
+        } catch (IOException e) {
+            server.pipeline().fireExceptionCaught(e);
+        }
+    }
+
+    private void disarm() {
+        if (!armed) {
+            return;
+        }
+        armed = false;
+        try {
+            loop.remove(this);
+        } catch (IOException e) {
+            logger.debug("Failed to disarm acceptor on {}", loop, e);
+        }
+    }
+
+    /**
+     * Stop accepting connections and close the duplicated file descriptor.
+     */
+    void close() {
+        if (loop.inEventLoop()) {
+            close0();
+        } else {
+            try {
+                loop.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        close0();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // The EventLoop is shut down, which closes all its acceptors.
+                logger.debug("Failed to close acceptor on {} as it was shut down", loop, e);
+            }
+        }
+    }
+
+    void close0() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        disarm();
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close the duplicated file descriptor of {}", server, e);
+        }
+    }
+
+    /**
+     * Called by the {@link EpollEventLoop} once the listening socket is readable.
+     */
+    void acceptReady() {
+        assert loop.inEventLoop();
+        if (!server.isOpen()) {
+            close0();
+            return;
+        }
+        final ChannelConfig config = server.config();
+        RecvByteBufAllocator.Handle allocHandle = this.allocHandle;
+        if (allocHandle == null) {
+            this.allocHandle = allocHandle = config.getRecvByteBufAllocator().newHandle();
+        }
+        allocHandle.reset(config);
+
+        List<Channel> accepted = new ArrayList<Channel>();
+        Throwable exception = null;
+        try {
+            do {
+                allocHandle.attemptedBytesRead(1);
+                int fd = socket.accept(acceptedAddress);
+                if (fd == -1) {
+                    // this means everything was handled for now
+                    break;
+                }
+                allocHandle.lastBytesRead(1);
+                allocHandle.incMessagesRead(1);
+                accepted.add(server.newChildChannel(fd, acceptedAddress, 1, acceptedAddress[0]));
+            } while (allocHandle.continueReading());
+        } catch (Throwable t) {
+            exception = t;
+        }
+        allocHandle.readComplete();
+
+        if (!config.isAutoRead()) {
+            // Channel.read() will arm us again.
+            disarm();
+        }
+        if (!accepted.isEmpty() || exception != null) {
+            server.fireAccepted(accepted, exception);
+        }
+    }
+}
@@ -19,6 +19,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.RecvByteBufAllocator.DelegatingHandle;
 import io.netty.channel.RecvByteBufAllocator.ExtendedHandle;
+import io.netty.channel.RecvByteBufAllocator.SharedBufferHandle;
 import io.netty.channel.unix.PreferredDirectByteBufAllocator;
 import io.netty.util.UncheckedBooleanSupplier;
 
@@ -75,6 +76,27 @@ class EpollRecvByteAllocatorHandle extends DelegatingHandle implements ExtendedH
         return delegate().allocate(preferredDirectByteBufAllocator);
     }
 
+    /**
+     * Same as {@link #allocate(ByteBufAllocator)}, but returns the shared buffer of a
+     * {@link io.netty.channel.SharedRecvByteBufAllocator} if it is used. The buffer must be passed through
+     * {@link #received(ByteBuf)} before it is passed through the pipeline.
+     */
+    final ByteBuf allocateShared(ByteBufAllocator alloc) {
+        if (!(delegate() instanceof SharedBufferHandle)) {
+            return allocate(alloc);
+        }
+        preferredDirectByteBufAllocator.updateAllocator(alloc);
+        return ((SharedBufferHandle) delegate()).allocateShared(preferredDirectByteBufAllocator);
+    }
+
+    /**
+     * Returns the buffer which is passed through the pipeline after bytes were read into a buffer returned by
+     * {@link #allocateShared(ByteBufAllocator)}.
+     */
+    final ByteBuf received(ByteBuf byteBuf) {
+        return delegate() instanceof SharedBufferHandle ? ((SharedBufferHandle) delegate()).received(byteBuf) : byteBuf;
+    }
+
     @Override
     public final boolean continueReading(UncheckedBooleanSupplier maybeMoreDataSupplier) {
         return ((ExtendedHandle) delegate()).continueReading(maybeMoreDataSupplier);
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.bootstrap.ServerBootstrapConfig;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.AttributeKey;
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.Future;
+import io.netty.util.concurrent.FutureListener;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
+
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Binds one {@link EpollServerSocketChannel} per {@link EventLoop} of an {@link EpollEventLoopGroup} to the
+ * same address using {@code SO_REUSEPORT}, pins each {@link EventLoop} thread to a CPU and steers each
+ * connection to the {@link EventLoop} that runs on the CPU which received its packets. Accepted channels are
+ * registered on the {@link EventLoop} of the server channel that accepted them, so a connection is processed
+ * on the same core from the NIC interrupt up to the {@link io.netty.channel.ChannelPipeline}.
+ * <p>
+ * This only gives the expected locality if the NIC queues (RSS / RPS) deliver packets to the CPUs the
+ * {@link EventLoop}s are pinned to.
+ */
+@UnstableApi
+public final class EpollReusePortBinder {
+
+    /**
+     * How the kernel is told which socket of the {@code SO_REUSEPORT} group should accept a connection.
+     */
+    public enum Steering {
+        /**
+         * Attach a reuseport BPF program to the group which selects the socket by the CPU that received the
+         * connection. Needs Linux 4.5 or later.
+         */
+        REUSEPORT_BPF,
+        /**
+         * Set {@code SO_INCOMING_CPU} on each socket of the group. The kernel only takes it into account for
+         * {@code SO_REUSEPORT} groups since Linux 6.0, before it falls back to the default hash.
+         */
+        INCOMING_CPU
+    }
+
+    private EpollReusePortBinder() { }
+
+    /**
+     * Same as {@link #bind(ServerBootstrap, SocketAddress, Steering)} using {@link Steering#REUSEPORT_BPF}.
+     */
+    public static Future<List<Channel>> bind(ServerBootstrap bootstrap, SocketAddress localAddress) {
+        return bind(bootstrap, localAddress, Steering.REUSEPORT_BPF);
+    }
+
+    /**
+     * Bind one {@link EpollServerSocketChannel} per {@link EventLoop} of the {@link EpollEventLoopGroup} that
+     * is used as the group of the given {@link ServerBootstrap}. The options, attributes and handlers of the
+     * {@link ServerBootstrap} are used for each of them, while its channel factory and child group are ignored.
+     * <p>
+     * The {@link EventLoop} threads are pinned to the CPUs the calling thread is allowed to run on, in order.
+     * If there are more {@link EventLoop}s than CPUs some CPUs are shared, if there are less the connections
+     * received on the remaining CPUs are distributed by the default hash of the kernel.
+     *
+     * @return the {@link Future} which is notified with the bound channels, in the order of their CPU.
+     */
+    public static Future<List<Channel>> bind(
+            ServerBootstrap bootstrap, SocketAddress localAddress, Steering steering) {
+        ObjectUtil.checkNotNull(bootstrap, "bootstrap");
+        ObjectUtil.checkNotNull(localAddress, "localAddress");
+        ObjectUtil.checkNotNull(steering, "steering");
+        ServerBootstrapConfig config = bootstrap.config();
+        EventLoopGroup group = config.group();
+        if (!(group instanceof EpollEventLoopGroup)) {
+            throw new IllegalArgumentException("bootstrap group must be an " +
+                    EpollEventLoopGroup.class.getSimpleName() + " (was: " + group + ')');
+        }
+        List<EventLoop> loops = new ArrayList<EventLoop>();
+        for (EventExecutor executor: group) {
+            loops.add((EventLoop) executor);
+        }
+        int[] allowedCpus = Native.currentThreadAffinity();
+        int[] cpus = new int[loops.size()];
+        for (int i = 0; i < cpus.length; i++) {
+            cpus[i] = allowedCpus[i % allowedCpus.length];
+        }
+
+        Promise<List<Channel>> promise = GlobalEventExecutor.INSTANCE.newPromise();
+        new GroupBinder(config, loops, cpus, localAddress, steering, promise).bindNext();
+        return promise;
+    }
+
+    /**
+     * Returns the program input for {@link LinuxSocket#attachReusePortCpuFilter(int[])}, which maps the CPU at
+     * {@code cpus[i]} to the socket at index {@code i}.
+     */
+    static int[] indexByCpu(int[] cpus) {
+        int maxCpu = 0;
+        for (int cpu: cpus) {
+            maxCpu = Math.max(maxCpu, cpu);
+        }
+        int[] indexByCpu = new int[maxCpu + 1];
+        Arrays.fill(indexByCpu, -1);
+        for (int i = 0; i < cpus.length; i++) {
+            // If a CPU is shared by multiple sockets the first one accepts all its connections.
+            if (indexByCpu[cpus[i]] < 0) {
+                indexByCpu[cpus[i]] = i;
+            }
+        }
+        return indexByCpu;
+    }
+
+    private static final class GroupBinder {
+        private final ServerBootstrapConfig config;
+        private final List<EventLoop> loops;
+        private final int[] cpus;
+        private final Steering steering;
+        private final Promise<List<Channel>> promise;
+        private final List<Channel> channels;
+        private SocketAddress localAddress;
+
+        GroupBinder(ServerBootstrapConfig config, List<EventLoop> loops, int[] cpus, SocketAddress localAddress,
+                    Steering steering, Promise<List<Channel>> promise) {
+            this.config = config;
+            this.loops = loops;
+            this.cpus = cpus;
+            this.localAddress = localAddress;
+            this.steering = steering;
+            this.promise = promise;
+            channels = new ArrayList<Channel>(loops.size());
+        }
+
+        // The sockets must join the SO_REUSEPORT group one after the other, as the index of a socket in the group
+        // is the order in which it was bound.
+        void bindNext() {
+            final int index = channels.size();
+            if (index == loops.size()) {
+                done();
+                return;
+            }
+            final EventLoop loop = loops.get(index);
+            final int cpu = cpus[index];
+            loop.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    Native.setCurrentThreadAffinity(cpu);
+                    return null;
+                }
+            }).addListener(new FutureListener<Void>() {
+                @Override
+                public void operationComplete(Future<Void> future) {
+                    if (!future.isSuccess()) {
+                        fail(future.cause());
+                        return;
+                    }
+                    newBootstrap(loop, cpu).bind(localAddress).addListener(new ChannelFutureListener() {
+                        @Override
+                        public void operationComplete(ChannelFuture future) {
+                            if (!future.isSuccess()) {
+                                fail(future.cause());
+                                return;
+                            }
+                            Channel channel = future.channel();
+                            if (index == 0 && localAddress instanceof InetSocketAddress &&
+                                    ((InetSocketAddress) localAddress).getPort() == 0) {
+                                // All the other sockets of the group must use the port that was picked.
+                                localAddress = channel.localAddress();
+                            }
+                            channels.add(channel);
+                            bindNext();
+                        }
+                    });
+                }
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private ServerBootstrap newBootstrap(EventLoop loop, int cpu) {
+            // Using the EventLoop as child group registers the accepted channels on the same EventLoop.
+            ServerBootstrap bootstrap = new ServerBootstrap()
+                    .group(loop, loop)
+                    .channel(EpollServerSocketChannel.class);
+            for (Map.Entry<ChannelOption<?>, Object> e: config.options().entrySet()) {
+                bootstrap.option((ChannelOption<Object>) e.getKey(), e.getValue());
+            }
+            for (Map.Entry<AttributeKey<?>, Object> e: config.attrs().entrySet()) {
+                bootstrap.attr((AttributeKey<Object>) e.getKey(), e.getValue());
+            }
+            for (Map.Entry<ChannelOption<?>, Object> e: config.childOptions().entrySet()) {
+                bootstrap.childOption((ChannelOption<Object>) e.getKey(), e.getValue());
+            }
+            for (Map.Entry<AttributeKey<?>, Object> e: config.childAttrs().entrySet()) {
+                bootstrap.childAttr((AttributeKey<Object>) e.getKey(), e.getValue());
+            }
+            ChannelHandler handler = config.handler();
+            if (handler != null) {
+                bootstrap.handler(handler);
+            }
+            ChannelHandler childHandler = config.childHandler();
+            if (childHandler != null) {
+                bootstrap.childHandler(childHandler);
+            }
+            bootstrap.option(EpollChannelOption.SO_REUSEPORT, true);
+            if (steering == Steering.INCOMING_CPU) {
+                bootstrap.option(EpollChannelOption.SO_INCOMING_CPU, cpu);
+            }
+            return bootstrap;
+        }
+
+        private void done() {
+            if (steering == Steering.REUSEPORT_BPF) {
+                try {
+                    // The program is shared by the whole group so it is enough to attach it to one socket.
+                    ((EpollServerSocketChannel) channels.get(0)).socket.attachReusePortCpuFilter(indexByCpu(cpus));
+                } catch (Throwable cause) {
+                    fail(cause);
+                    return;
+                }
+            }
+            promise.setSuccess(Collections.unmodifiableList(channels));
+        }
+
+        private void fail(Throwable cause) {
+            for (Channel channel: channels) {
+                channel.close();
+            }
+            promise.setFailure(cause);
+        }
+    }
+}
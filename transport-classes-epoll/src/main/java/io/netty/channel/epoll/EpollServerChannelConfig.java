@@ -37,6 +37,7 @@ import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
 public class EpollServerChannelConfig extends EpollChannelConfig implements ServerSocketChannelConfig {
     private volatile int backlog = NetUtil.SOMAXCONN;
     private volatile int pendingFastOpenRequestsThreshold;
+    private volatile boolean epollExclusive;
 
     EpollServerChannelConfig(AbstractEpollChannel channel) {
         super(channel, new ServerChannelRecvByteBufAllocator());
@@ -44,7 +45,8 @@ public class EpollServerChannelConfig extends EpollChannelConfig implements Serv
 
     @Override
     public Map<ChannelOption<?>, Object> getOptions() {
-        return getOptions(super.getOptions(), SO_RCVBUF, SO_REUSEADDR, SO_BACKLOG, TCP_FASTOPEN);
+        return getOptions(super.getOptions(), SO_RCVBUF, SO_REUSEADDR, SO_BACKLOG, TCP_FASTOPEN,
+                EpollChannelOption.EPOLL_EXCLUSIVE);
     }
 
     @SuppressWarnings("unchecked")
@@ -62,6 +64,9 @@ public class EpollServerChannelConfig extends EpollChannelConfig implements Serv
         if (option == TCP_FASTOPEN) {
             return (T) Integer.valueOf(getTcpFastopen());
         }
+        if (option == EpollChannelOption.EPOLL_EXCLUSIVE) {
+            return (T) Boolean.valueOf(isEpollExclusive());
+        }
         return super.getOption(option);
     }
 
@@ -77,6 +82,8 @@ public class EpollServerChannelConfig extends EpollChannelConfig implements Serv
             setBacklog((Integer) value);
         } else if (option == TCP_FASTOPEN) {
             setTcpFastopen((Integer) value);
+        } else if (option == EpollChannelOption.EPOLL_EXCLUSIVE) {
+            setEpollExclusive((Boolean) value);
         } else {
             return super.setOption(option, value);
         }
@@ -158,6 +165,29 @@ public class EpollServerChannelConfig extends EpollChannelConfig implements Serv
         return this;
     }
 
+    /**
+     * Returns {@code true} if the listening socket is registered with {@code EPOLLEXCLUSIVE} on every
+     * {@link io.netty.channel.EventLoop} of the {@link EpollEventLoopGroup} of the channel.
+     */
+    public boolean isEpollExclusive() {
+        return epollExclusive;
+    }
+
+    /**
+     * If {@code true} the listening socket is registered with {@code EPOLLEXCLUSIVE} on every
+     * {@link io.netty.channel.EventLoop} of the {@link EpollEventLoopGroup} of the channel, so connections are
+     * accepted on all of them while the kernel only wakes up one for each new connection. The accepted channels are
+     * still passed through the {@link io.netty.channel.ChannelPipeline} of the server channel on its own
+     * {@link io.netty.channel.EventLoop}. Needs Linux 4.5 or later and must be set before the channel is bound.
+     */
+    public EpollServerChannelConfig setEpollExclusive(boolean epollExclusive) {
+        if (channel.isActive()) {
+            throw new IllegalStateException("EPOLL_EXCLUSIVE can only be changed before the channel is bound");
+        }
+        this.epollExclusive = epollExclusive;
+        return this;
+    }
+
     @Override
     public EpollServerChannelConfig setPerformancePreferences(int connectionTime, int latency, int bandwidth) {
         return this;
@@ -27,6 +27,8 @@ import java.io.IOException;
 import java.net.InetAddress;
 import java.util.Map;
 
+import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
+
 public final class EpollServerSocketChannelConfig extends EpollServerChannelConfig
         implements ServerSocketChannelConfig {
 
@@ -42,7 +44,8 @@ public final class EpollServerSocketChannelConfig extends EpollServerChannelConf
     @Override
     public Map<ChannelOption<?>, Object> getOptions() {
         return getOptions(super.getOptions(), EpollChannelOption.SO_REUSEPORT, EpollChannelOption.IP_FREEBIND,
-            EpollChannelOption.IP_TRANSPARENT, EpollChannelOption.TCP_DEFER_ACCEPT);
+            EpollChannelOption.IP_TRANSPARENT, EpollChannelOption.TCP_DEFER_ACCEPT,
+            EpollChannelOption.SO_INCOMING_CPU);
     }
 
     @SuppressWarnings("unchecked")
@@ -60,6 +63,9 @@ public final class EpollServerSocketChannelConfig extends EpollServerChannelConf
         if (option == EpollChannelOption.TCP_DEFER_ACCEPT) {
             return (T) Integer.valueOf(getTcpDeferAccept());
         }
+        if (option == EpollChannelOption.SO_INCOMING_CPU) {
+            return (T) Integer.valueOf(getIncomingCpu());
+        }
         return super.getOption(option);
     }
 
@@ -79,6 +85,8 @@ public final class EpollServerSocketChannelConfig extends EpollServerChannelConf
             setTcpMd5Sig(m);
         } else if (option == EpollChannelOption.TCP_DEFER_ACCEPT) {
             setTcpDeferAccept((Integer) value);
+        } else if (option == EpollChannelOption.SO_INCOMING_CPU) {
+            setIncomingCpu((Integer) value);
         } else {
             return super.setOption(option, value);
         }
@@ -285,4 +293,31 @@ public final class EpollServerSocketChannelConfig extends EpollServerChannelConf
             throw new ChannelException(e);
         }
     }
+
+    /**
+     * Set the {@code SO_INCOMING_CPU} option on the socket. When multiple sockets are bound to the same port via
+     * {@code SO_REUSEPORT} the kernel will prefer the socket whose CPU matches the CPU that received the connection.
+     * See {@code man 7 socket} for more details.
+     */
+    public EpollServerSocketChannelConfig setIncomingCpu(int cpu) {
+        checkPositiveOrZero(cpu, "cpu");
+        try {
+            ((EpollServerSocketChannel) channel).socket.setSoIncomingCpu(cpu);
+            return this;
+        } catch (IOException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    /**
+     * Returns the value of the <a href="https://man7.org/linux/man-pages/man7/socket.7.html">SO_INCOMING_CPU</a>
+     * option, or {@code -1} if it was never set.
+     */
+    public int getIncomingCpu() {
+        try {
+            return ((EpollServerSocketChannel) channel).socket.getSoIncomingCpu();
+        } catch (IOException e) {
+            throw new ChannelException(e);
+        }
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.channel.shm.SharedMemoryAddress;
+import io.netty.channel.shm.SharedMemoryChannel;
+import io.netty.channel.shm.SharedMemoryDoorbell;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.channel.unix.FileDescriptor;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link SharedMemoryChannel} which waits for an eventfd of the connection instead of polling its rings while the
+ * connection is idle, as long as it is registered with an {@link EpollEventLoop}.
+ * <p>
+ * When connecting to an {@link EpollSharedMemoryServerChannel} it creates the two eventfds and passes them to the
+ * server through a domain socket in the directory of the {@link SharedMemoryAddress}. If the server has no such
+ * socket, because it is a plain {@link io.netty.channel.shm.SharedMemoryServerChannel}, it falls back to polling.
+ */
+@UnstableApi
+public final class EpollSharedMemoryChannel extends SharedMemoryChannel {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(EpollSharedMemoryChannel.class);
+
+    public EpollSharedMemoryChannel() {
+        Epoll.ensureAvailability();
+    }
+
+    @Override
+    protected SharedMemoryDoorbell connectDoorbell(SharedMemoryAddress remoteAddress, long id) {
+        File bellFile = new File(remoteAddress.directory(), EpollSharedMemoryServerChannel.BELL_FILE);
+        if (!bellFile.exists()) {
+            return null;
+        }
+        FileDescriptor clientBell = null;
+        FileDescriptor serverBell = null;
+        LinuxSocket socket = null;
+        SharedMemoryDoorbell doorbell = null;
+        try {
+            clientBell = Native.newEventFd();
+            serverBell = Native.newEventFd();
+            socket = LinuxSocket.newSocketDomain();
+            // The id, followed by the eventfd the server listens on and the one it rings, see
+            // EpollSharedMemoryServerChannel.Handshake. A local connect never has to wait unless the backlog is full,
+            // in which case it is not worth waiting either.
+            ByteBuffer idBuffer = ByteBuffer.allocateDirect(EpollSharedMemoryServerChannel.ID_SIZE);
+            idBuffer.putLong(0, id);
+            if (socket.connect(new DomainSocketAddress(bellFile)) &&
+                    socket.write(idBuffer, 0, idBuffer.capacity()) == idBuffer.capacity() &&
+                    socket.sendFd(serverBell.intValue()) > 0 &&
+                    socket.sendFd(clientBell.intValue()) > 0) {
+                doorbell = new EpollSharedMemoryDoorbell(clientBell, serverBell);
+            }
+        } catch (IOException e) {
+            logger.debug("Failed to pass the doorbell to {}, falling back to polling", remoteAddress, e);
+        } finally {
+            closeQuietly(socket);
+            if (doorbell == null) {
+                closeQuietly(clientBell);
+                closeQuietly(serverBell);
+            }
+        }
+        return doorbell;
+    }
+
+    static void closeQuietly(FileDescriptor fd) {
+        if (fd != null) {
+            try {
+                fd.close();
+            } catch (IOException e) {
+                logger.debug("Failed to close {}", fd, e);
+            }
+        }
+    }
+}
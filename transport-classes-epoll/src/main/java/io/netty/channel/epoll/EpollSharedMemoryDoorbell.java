@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.shm.SharedMemoryDoorbell;
+import io.netty.channel.unix.FileDescriptor;
+
+import java.io.IOException;
+
+/**
+ * A {@link SharedMemoryDoorbell} made of two eventfds, one of which is rung by the peer and one which the peer listens
+ * on. They are created by the connecting {@link EpollSharedMemoryChannel} and handed to the
+ * {@link EpollSharedMemoryServerChannel} through a domain socket.
+ * <p>
+ * The eventfd it listens on is registered with {@code EPOLLET} and never read, like the one which wakes up the
+ * {@link EpollEventLoop}, so every ring costs the peer one {@code write} and this side no system call at all.
+ */
+final class EpollSharedMemoryDoorbell extends SharedMemoryDoorbell implements EpollSharedMemoryHandler {
+    private final FileDescriptor listenFd;
+    private final FileDescriptor ringFd;
+    private EpollEventLoop loop;
+
+    EpollSharedMemoryDoorbell(FileDescriptor listenFd, FileDescriptor ringFd) {
+        this.listenFd = listenFd;
+        this.ringFd = ringFd;
+    }
+
+    @Override
+    protected void ring() {
+        Native.eventFdWrite(ringFd.intValue(), 1L);
+    }
+
+    @Override
+    protected boolean doRegister(EventLoop loop) throws IOException {
+        if (!(loop instanceof EpollEventLoop)) {
+            return false;
+        }
+        EpollEventLoop epollLoop = (EpollEventLoop) loop;
+        epollLoop.add(listenFd, Native.EPOLLIN | Native.EPOLLET, this);
+        this.loop = epollLoop;
+        return true;
+    }
+
+    @Override
+    protected void doDeregister() throws IOException {
+        EpollEventLoop loop = this.loop;
+        if (loop != null) {
+            this.loop = null;
+            loop.remove(listenFd);
+        }
+    }
+
+    @Override
+    protected void close() throws IOException {
+        try {
+            listenFd.close();
+        } finally {
+            ringFd.close();
+        }
+    }
+
+    @Override
+    public void epollInReady() {
+        rang();
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.shm.SharedMemoryAddress;
+import io.netty.channel.shm.SharedMemoryServerChannel;
+import io.netty.channel.unix.DomainSocketAddress;
+import io.netty.channel.unix.FileDescriptor;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link SharedMemoryServerChannel} which is told about new connections of {@link EpollSharedMemoryChannel}s
+ * through a domain socket in its directory, which also passes the eventfds that wake up both sides of the connection.
+ * Other {@link io.netty.channel.shm.SharedMemoryChannel}s are still accepted through their connect files.
+ * <p>
+ * It listens on the domain socket as long as it is registered with an {@link EpollEventLoop}.
+ */
+@UnstableApi
+public final class EpollSharedMemoryServerChannel extends SharedMemoryServerChannel {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(
+            EpollSharedMemoryServerChannel.class);
+
+    static final String BELL_FILE = "bell";
+    static final int ID_SIZE = 8;
+    private static final int BACKLOG = 128;
+
+    private final EpollSharedMemoryHandler listenerHandler = new EpollSharedMemoryHandler() {
+        @Override
+        public void epollInReady() {
+            acceptHandshakes();
+        }
+    };
+    private final byte[] acceptedAddress = new byte[26];
+    // Connections whose domain socket was accepted but which did not pass both eventfds yet.
+    private final List<Handshake> handshakes = new ArrayList<Handshake>();
+    private LinuxSocket listener;
+    private File bellFile;
+    private EpollEventLoop registeredLoop;
+
+    public EpollSharedMemoryServerChannel() {
+        Epoll.ensureAvailability();
+    }
+
+    @Override
+    protected void doRegister() throws Exception {
+        super.doRegister();
+        if (listener != null) {
+            registerListener();
+        }
+    }
+
+    @Override
+    protected void doBind(SocketAddress localAddress) throws Exception {
+        super.doBind(localAddress);
+        if (!(eventLoop() instanceof EpollEventLoop)) {
+            // Nobody would listen, so let the clients fall back to connect files.
+            return;
+        }
+        // Binding removed a socket file left behind by a process which did not close its channel.
+        File bellFile = new File(((SharedMemoryAddress) localAddress).directory(), BELL_FILE);
+        LinuxSocket listener = LinuxSocket.newSocketDomain();
+        try {
+            listener.bind(new DomainSocketAddress(bellFile));
+            listener.listen(BACKLOG);
+        } catch (IOException e) {
+            // Still bound, just like a plain SharedMemoryServerChannel.
+            logger.warn("Failed to listen for doorbells on {}, clients fall back to polling", bellFile, e);
+            EpollSharedMemoryChannel.closeQuietly(listener);
+            bellFile.delete();
+            return;
+        }
+        this.listener = listener;
+        this.bellFile = bellFile;
+        registerListener();
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (listener != null) {
+            try {
+                deregisterListener();
+            } finally {
+                // Delete the file first, so connecting channels fall back to connect files right away.
+                bellFile.delete();
+                EpollSharedMemoryChannel.closeQuietly(listener);
+                for (Handshake handshake: handshakes) {
+                    handshake.close();
+                }
+                handshakes.clear();
+                listener = null;
+                bellFile = null;
+            }
+        }
+        super.doClose();
+    }
+
+    @Override
+    protected void doDeregister() throws Exception {
+        try {
+            deregisterListener();
+        } finally {
+            super.doDeregister();
+        }
+    }
+
+    private void registerListener() throws IOException {
+        EventLoop loop = eventLoop();
+        if (!(loop instanceof EpollEventLoop)) {
+            // Registered with another EventLoop after it was bound, so clients which pass their eventfds now would
+            // never be accepted.
+            bellFile.delete();
+            return;
+        }
+        EpollEventLoop epollLoop = (EpollEventLoop) loop;
+        epollLoop.add(listener, Native.EPOLLIN, listenerHandler);
+        registeredLoop = epollLoop;
+        for (Handshake handshake: handshakes) {
+            epollLoop.add(handshake.socket, Native.EPOLLIN, handshake);
+        }
+    }
+
+    private void deregisterListener() throws IOException {
+        EpollEventLoop loop = registeredLoop;
+        if (loop == null) {
+            return;
+        }
+        registeredLoop = null;
+        loop.remove(listener);
+        for (Handshake handshake: handshakes) {
+            loop.remove(handshake.socket);
+        }
+    }
+
+    private void acceptHandshakes() {
+        for (;;) {
+            int fd;
+            try {
+                fd = listener.accept(acceptedAddress);
+            } catch (IOException e) {
+                logger.warn("Failed to accept a doorbell for {}", localAddress(), e);
+                return;
+            }
+            if (fd == -1) {
+                return;
+            }
+            Handshake handshake = new Handshake(new LinuxSocket(fd));
+            try {
+                registeredLoop.add(handshake.socket, Native.EPOLLIN, handshake);
+            } catch (IOException e) {
+                logger.warn("Failed to accept a doorbell for {}", localAddress(), e);
+                handshake.close();
+                continue;
+            }
+            handshakes.add(handshake);
+            // The client usually sent everything before it was accepted.
+            handshake.epollInReady();
+        }
+    }
+
+    /**
+     * Reads the id of a new connection followed by the two eventfds of its doorbell, the one this side listens on
+     * and the one it rings. The id is read exactly, as reading further would drop the eventfds.
+     */
+    private final class Handshake implements EpollSharedMemoryHandler {
+        final LinuxSocket socket;
+        private final ByteBuffer id = ByteBuffer.allocateDirect(ID_SIZE);
+        private FileDescriptor listenFd;
+
+        Handshake(LinuxSocket socket) {
+            this.socket = socket;
+        }
+
+        @Override
+        public void epollInReady() {
+            EpollSharedMemoryDoorbell doorbell = null;
+            try {
+                while (id.hasRemaining()) {
+                    int read = socket.read(id, id.position(), id.limit());
+                    if (read <= 0) {
+                        if (read < 0) {
+                            remove();
+                        }
+                        return;
+                    }
+                    id.position(id.position() + read);
+                }
+                if (listenFd == null) {
+                    int fd = socket.recvFd();
+                    if (fd <= 0) {
+                        if (fd < 0) {
+                            remove();
+                        }
+                        return;
+                    }
+                    listenFd = new FileDescriptor(fd);
+                }
+                int fd = socket.recvFd();
+                if (fd <= 0) {
+                    if (fd < 0) {
+                        remove();
+                    }
+                    return;
+                }
+                doorbell = new EpollSharedMemoryDoorbell(listenFd, new FileDescriptor(fd));
+                listenFd = null;
+            } catch (IOException e) {
+                logger.warn("Failed to read a doorbell for {}", localAddress(), e);
+                remove();
+                return;
+            }
+            remove();
+            accept(id.getLong(0), doorbell);
+        }
+
+        private void remove() {
+            handshakes.remove(this);
+            if (registeredLoop != null) {
+                try {
+                    registeredLoop.remove(socket);
+                } catch (IOException e) {
+                    logger.debug("Failed to deregister a doorbell socket of {}", localAddress(), e);
+                }
+            }
+            close();
+        }
+
+        void close() {
+            EpollSharedMemoryChannel.closeQuietly(socket);
+            EpollSharedMemoryChannel.closeQuietly(listenFd);
+            listenFd = null;
+        }
+    }
+}
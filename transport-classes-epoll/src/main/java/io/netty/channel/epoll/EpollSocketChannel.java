@@ -22,7 +22,10 @@ import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.socket.InternetProtocolFamily;
 import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.TlsOffloadChannel;
 import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
 
 import java.io.IOException;
 import java.net.InetAddress;
@@ -40,11 +43,16 @@ import static io.netty.channel.epoll.Native.IS_SUPPORTING_TCP_FASTOPEN_CLIENT;
  * {@link SocketChannel} implementation that uses linux EPOLL Edge-Triggered Mode for
  * maximal performance.
  */
-public final class EpollSocketChannel extends AbstractEpollStreamChannel implements SocketChannel {
+public final class EpollSocketChannel extends AbstractEpollStreamChannel implements SocketChannel, TlsOffloadChannel {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(EpollSocketChannel.class);
+    private static final int TLS_RECORD_TYPE_ALERT = 21;
+    private static final byte[] TLS_CLOSE_NOTIFY = { 1 /* warning */, 0 /* close_notify */ };
 
     private final EpollSocketChannelConfig config;
+    private final EpollZeroCopyMetric zeroCopyMetric = new EpollZeroCopyMetric();
 
     private volatile Collection<InetAddress> tcpMd5SigAddresses = Collections.emptyList();
+    private volatile boolean tlsTxOffloaded;
 
     public EpollSocketChannel() {
         super(newSocketStream(), false);
@@ -96,6 +104,76 @@ public final class EpollSocketChannel extends AbstractEpollStreamChannel impleme
         }
     }
 
+    /**
+     * Returns the counters of the {@code MSG_ZEROCOPY} writes of this channel.
+     * See {@link EpollChannelOption#MSG_ZEROCOPY_THRESHOLD}.
+     */
+    public EpollZeroCopyMetric zeroCopyMetric() {
+        return zeroCopyMetric;
+    }
+
+    @Override
+    EpollZeroCopyMetric zeroCopyMetric0() {
+        return zeroCopyMetric;
+    }
+
+    @Override
+    int msgZeroCopyThreshold() {
+        // The kernel needs to read the data to encrypt it anyway, so there is nothing to gain.
+        return tlsTxOffloaded ? -1 : config.getMsgZeroCopyThreshold();
+    }
+
+    /**
+     * Install the keys on the socket via kernel TLS, which needs Linux 4.13 or later and the {@code tls} kernel
+     * module. Only TLSv1.2 with AES-GCM and ChaCha20-Poly1305 cipher suites is supported.
+     */
+    @Override
+    public boolean offloadTlsTx(String protocol, String cipherSuite, byte[] key, byte[] iv, long sequenceNumber) {
+        assert eventLoop().inEventLoop();
+        if (tlsTxOffloaded) {
+            return false;
+        }
+        byte[] cryptoInfo = EpollTlsCryptoInfo.newCryptoInfo(protocol, cipherSuite, key, iv, sequenceNumber);
+        if (cryptoInfo == null) {
+            return false;
+        }
+        ChannelOutboundBuffer outbound = unsafe().outboundBuffer();
+        if (outbound == null || outbound.totalPendingWriteBytes() != 0) {
+            // The kernel would encrypt the bytes that were already encrypted.
+            return false;
+        }
+        try {
+            socket.setTcpUlpTls();
+            socket.setTlsTx(cryptoInfo);
+        } catch (IOException e) {
+            logger.debug("{} Failed to enable kernel TLS, continue without it.", this, e);
+            return false;
+        }
+        tlsTxOffloaded = true;
+        return true;
+    }
+
+    @Override
+    public boolean isTlsTxOffloaded() {
+        return tlsTxOffloaded;
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (tlsTxOffloaded) {
+            tlsTxOffloaded = false;
+            try {
+                if (isActive() && !socket.isOutputShutdown()) {
+                    // The user space TLS implementation can not produce the close_notify anymore.
+                    socket.sendTlsRecord(TLS_RECORD_TYPE_ALERT, TLS_CLOSE_NOTIFY);
+                }
+            } catch (IOException e) {
+                logger.debug("{} Failed to send close_notify.", this, e);
+            }
+        }
+        super.doClose();
+    }
+
     @Override
     public InetSocketAddress remoteAddress() {
         return (InetSocketAddress) super.remoteAddress();
@@ -40,6 +40,7 @@ import static io.netty.channel.ChannelOption.TCP_NODELAY;
 public final class EpollSocketChannelConfig extends EpollChannelConfig implements SocketChannelConfig {
     private volatile boolean allowHalfClosure;
     private volatile boolean tcpFastopen;
+    private volatile int msgZeroCopyThreshold = -1;
 
     /**
      * Creates a new instance.
@@ -61,7 +62,8 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
                 ALLOW_HALF_CLOSURE, EpollChannelOption.TCP_CORK, EpollChannelOption.TCP_NOTSENT_LOWAT,
                 EpollChannelOption.TCP_KEEPCNT, EpollChannelOption.TCP_KEEPIDLE, EpollChannelOption.TCP_KEEPINTVL,
                 EpollChannelOption.TCP_MD5SIG, EpollChannelOption.TCP_QUICKACK, EpollChannelOption.IP_TRANSPARENT,
-                ChannelOption.TCP_FASTOPEN_CONNECT, EpollChannelOption.SO_BUSY_POLL);
+                ChannelOption.TCP_FASTOPEN_CONNECT, EpollChannelOption.SO_BUSY_POLL,
+                EpollChannelOption.MSG_ZEROCOPY_THRESHOLD);
     }
 
     @SuppressWarnings("unchecked")
@@ -121,6 +123,9 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
         if (option == EpollChannelOption.SO_BUSY_POLL) {
             return (T) Integer.valueOf(getSoBusyPoll());
         }
+        if (option == EpollChannelOption.MSG_ZEROCOPY_THRESHOLD) {
+            return (T) Integer.valueOf(getMsgZeroCopyThreshold());
+        }
         return super.getOption(option);
     }
 
@@ -168,6 +173,8 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
             setTcpFastOpenConnect((Boolean) value);
         } else if (option == EpollChannelOption.SO_BUSY_POLL) {
             setSoBusyPoll((Integer) value);
+        } else if (option == EpollChannelOption.MSG_ZEROCOPY_THRESHOLD) {
+            setMsgZeroCopyThreshold((Integer) value);
         } else {
             return super.setOption(option, value);
         }
@@ -551,6 +558,49 @@ public final class EpollSocketChannelConfig extends EpollChannelConfig implement
         }
     }
 
+    /**
+     * Set the minimum number of readable bytes a {@link io.netty.buffer.ByteBuf} must have to be written with
+     * {@code MSG_ZEROCOPY}, or {@code -1} to never use zero copy writes. Smaller buffers are written by copying
+     * their content into the kernel as usual, as for these the cost of pinning the memory and of processing the
+     * completion notification outweighs the cost of the copy. Zero copy writes are only used for buffers that
+     * have a memory address.
+     * <p>
+     * The kernel transmits the data straight from the memory of the buffer, so the buffer is retained and its write
+     * promise is only notified once the kernel signals that it does not reference the memory anymore, which for TCP
+     * is once the data was acknowledged by the peer. <strong>The memory of the buffer must not be modified before the
+     * write promise is notified</strong>, which may happen after the promises of later writes were notified. If the
+     * channel is closed before, it waits up to 60 seconds for the outstanding completions. If they still did not
+     * arrive then, the promises are failed and the buffers are never released, as the kernel may still reference
+     * their memory. See {@link EpollSocketChannel#zeroCopyMetric()} to verify if the kernel was able to avoid the
+     * copy.
+     * See <a href="https://www.kernel.org/doc/html/latest/networking/msg_zerocopy.html">MSG_ZEROCOPY</a> for more
+     * details.
+     */
+    public EpollSocketChannelConfig setMsgZeroCopyThreshold(int msgZeroCopyThreshold) {
+        if (msgZeroCopyThreshold < -1) {
+            throw new IllegalArgumentException(
+                    "msgZeroCopyThreshold: " + msgZeroCopyThreshold + " (expected: >= -1)");
+        }
+        try {
+            boolean enable = msgZeroCopyThreshold >= 0;
+            if (enable != this.msgZeroCopyThreshold >= 0) {
+                ((EpollSocketChannel) channel).socket.setSoZeroCopy(enable);
+            }
+            this.msgZeroCopyThreshold = msgZeroCopyThreshold;
+            return this;
+        } catch (IOException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    /**
+     * Returns the minimum number of readable bytes a {@link io.netty.buffer.ByteBuf} must have to be written with
+     * {@code MSG_ZEROCOPY}, or {@code -1} if zero copy writes are not used.
+     */
+    public int getMsgZeroCopyThreshold() {
+        return msgZeroCopyThreshold;
+    }
+
     /**
      * Enables client TCP fast open. {@code TCP_FASTOPEN_CONNECT} normally
      * requires Linux kernel 4.11 or later, so instead we use the traditional fast open
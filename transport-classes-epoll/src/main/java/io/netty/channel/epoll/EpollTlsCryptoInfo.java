@@ -0,0 +1,92 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Builds the {@code struct tls12_crypto_info_*} that is used to configure kernel TLS via {@code setsockopt}.
+ * See <a href="https://www.kernel.org/doc/html/latest/networking/tls.html">Kernel TLS</a>.
+ */
+final class EpollTlsCryptoInfo {
+    private static final short TLS_1_2_VERSION = 0x0303;
+    private static final short TLS_CIPHER_AES_GCM_128 = 51;
+    private static final short TLS_CIPHER_AES_GCM_256 = 52;
+    private static final short TLS_CIPHER_CHACHA20_POLY1305 = 54;
+
+    private static final int EXPLICIT_IV_SIZE = 8;
+    private static final int GCM_SALT_SIZE = 4;
+    private static final int CHACHA20_POLY1305_IV_SIZE = 12;
+
+    /**
+     * Returns the crypto info for the given protocol and cipher suite, or {@code null} if it is not supported by
+     * kernel TLS.
+     */
+    static byte[] newCryptoInfo(String protocol, String cipherSuite, byte[] key, byte[] iv, long sequenceNumber) {
+        if (!"TLSv1.2".equals(protocol) || cipherSuite == null) {
+            return null;
+        }
+        final short cipherType;
+        final int ivSize;
+        final int keySize;
+        final int saltSize;
+        if (cipherSuite.contains("_AES_128_GCM_")) {
+            cipherType = TLS_CIPHER_AES_GCM_128;
+            ivSize = EXPLICIT_IV_SIZE;
+            keySize = 16;
+            saltSize = GCM_SALT_SIZE;
+        } else if (cipherSuite.contains("_AES_256_GCM_")) {
+            cipherType = TLS_CIPHER_AES_GCM_256;
+            ivSize = EXPLICIT_IV_SIZE;
+            keySize = 32;
+            saltSize = GCM_SALT_SIZE;
+        } else if (cipherSuite.contains("_CHACHA20_POLY1305_")) {
+            cipherType = TLS_CIPHER_CHACHA20_POLY1305;
+            ivSize = CHACHA20_POLY1305_IV_SIZE;
+            keySize = 32;
+            saltSize = 0;
+        } else {
+            return null;
+        }
+        if (key.length != keySize || iv.length != (saltSize == 0 ? ivSize : saltSize)) {
+            return null;
+        }
+
+        // struct tls_crypto_info { __u16 version; __u16 cipher_type; } followed by iv, key, salt and rec_seq.
+        ByteBuffer info = ByteBuffer.allocate(4 + ivSize + keySize + saltSize + 8);
+        info.order(ByteOrder.nativeOrder());
+        info.putShort(TLS_1_2_VERSION);
+        info.putShort(cipherType);
+        info.order(ByteOrder.BIG_ENDIAN);
+        if (saltSize == 0) {
+            // ChaCha20-Poly1305 uses the whole write IV as nonce, the kernel xors the sequence number into it.
+            info.put(iv);
+        } else {
+            // The explicit part of the GCM nonce just needs to be unique per record, so use the sequence number
+            // the same way as the kernel increments it.
+            info.putLong(sequenceNumber);
+        }
+        info.put(key);
+        if (saltSize != 0) {
+            info.put(iv);
+        }
+        info.putLong(sequenceNumber);
+        return info.array();
+    }
+
+    private EpollTlsCryptoInfo() { }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.util.internal.StringUtil;
+
+/**
+ * Counters of the {@code MSG_ZEROCOPY} writes done by an {@link EpollSocketChannel}.
+ * See {@link EpollChannelOption#MSG_ZEROCOPY_THRESHOLD}.
+ */
+public final class EpollZeroCopyMetric {
+    static final EpollZeroCopyMetric NONE = new EpollZeroCopyMetric();
+
+    // Only modified from within the EventLoop.
+    volatile long sends;
+    volatile long fallbacks;
+    volatile long completions;
+    volatile long copiedCompletions;
+    volatile int pendingBuffers;
+
+    EpollZeroCopyMetric() { }
+
+    /**
+     * Returns the number of writes that were done with {@code MSG_ZEROCOPY}.
+     */
+    public long sends() {
+        return sends;
+    }
+
+    /**
+     * Returns the number of writes that were big enough to be done with {@code MSG_ZEROCOPY} but needed to copy the
+     * data because the kernel could not pin the memory (for example because {@code net.core.optmem_max} was
+     * reached).
+     */
+    public long fallbacks() {
+        return fallbacks;
+    }
+
+    /**
+     * Returns the number of {@code MSG_ZEROCOPY} writes for which the kernel signaled that it does not reference the
+     * memory anymore.
+     */
+    public long completions() {
+        return completions;
+    }
+
+    /**
+     * Returns the number of completed {@code MSG_ZEROCOPY} writes for which the kernel copied the data anyway, which
+     * for example happens over loopback or if the network device does not support scatter-gather. If this is close
+     * to {@link #completions()} zero copy writes only add overhead and should be disabled.
+     */
+    public long copiedCompletions() {
+        return copiedCompletions;
+    }
+
+    /**
+     * Returns the number of buffers that are retained until the kernel signals the completion of their write.
+     */
+    public int pendingBuffers() {
+        return pendingBuffers;
+    }
+
+    @Override
+    public String toString() {
+        return StringUtil.simpleClassName(this) +
+                "(sends: " + sends +
+                ", fallbacks: " + fallbacks +
+                ", completions: " + completions +
+                ", copiedCompletions: " + copiedCompletions +
+                ", pendingBuffers: " + pendingBuffers + ')';
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.EventLoop;
+import io.netty.channel.VoidChannelPromise;
+import io.netty.util.internal.PromiseNotificationUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the {@link ByteBuf}s written with {@code MSG_ZEROCOPY} alive until the kernel signals via the error queue of
+ * the socket that it does not reference their memory anymore, and only then notifies their write promises.
+ *
+ * Only accessed from within the {@link EpollEventLoop}.
+ */
+final class EpollZeroCopyQueue {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(EpollZeroCopyQueue.class);
+
+    // How long to wait for the outstanding completions once the channel was closed, and how often to check for them.
+    private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final long MIN_CLOSE_POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long MAX_CLOSE_POLL_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final ArrayDeque<Entry> entries = new ArrayDeque<Entry>();
+    private final int[] completion = new int[3];
+    private final EpollZeroCopyMetric metric;
+
+    // The kernel numbers the MSG_ZEROCOPY writes of each socket with an uint32_t counter that starts at 0.
+    private int nextId;
+
+    EpollZeroCopyQueue(EpollZeroCopyMetric metric) {
+        this.metric = metric;
+    }
+
+    /**
+     * Add the {@link ByteBuf} which was just written with {@code MSG_ZEROCOPY}. The queue takes over one reference of
+     * it, and notifies the given promise once the kernel completed this write and all writes before it. The promise
+     * is {@code null} if more bytes of the buffer need to be written.
+     */
+    void add(ByteBuf buf, ChannelPromise promise) {
+        entries.add(new Entry(nextId++, buf, promise));
+        metric.sends++;
+        metric.pendingBuffers = entries.size();
+    }
+
+    /**
+     * Record that a write fell back to copying the data.
+     */
+    void fallback() {
+        metric.fallbacks++;
+    }
+
+    boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * Read all completions from the error queue of the socket and release the buffers that are not referenced by
+     * the kernel anymore.
+     */
+    void processCompletions(LinuxSocket socket) throws IOException {
+        try {
+            int res;
+            while ((res = socket.recvZeroCopyCompletion(completion)) >= 0) {
+                if (res == 1) {
+                    complete(completion[0], completion[1], completion[2] != 0);
+                }
+            }
+        } finally {
+            releaseCompleted();
+        }
+    }
+
+    /**
+     * Keep reading the completions from {@code socket}, which is a duplicate of the file descriptor of the closed
+     * channel, until all buffers were released. The kernel may still transmit from their memory after the channel
+     * was closed, so they must not be released before. The duplicate is closed once all completions were read.
+     */
+    void releaseAfterClose(final LinuxSocket socket, final EventLoop eventLoop) {
+        final long deadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+        Runnable task = new Runnable() {
+            private long interval = MIN_CLOSE_POLL_INTERVAL_NANOS;
+
+            @Override
+            public void run() {
+                try {
+                    processCompletions(socket);
+                } catch (IOException e) {
+                    logger.debug("Failed to read the MSG_ZEROCOPY completions of a closed channel", e);
+                    closeAndAbandon(socket);
+                    return;
+                }
+                if (entries.isEmpty()) {
+                    closeQuietly(socket);
+                } else if (System.nanoTime() - deadline >= 0) {
+                    closeAndAbandon(socket);
+                } else {
+                    interval = Math.min(interval << 1, MAX_CLOSE_POLL_INTERVAL_NANOS);
+                    schedule(this, socket, eventLoop, interval);
+                }
+            }
+        };
+        schedule(task, socket, eventLoop, MIN_CLOSE_POLL_INTERVAL_NANOS);
+    }
+
+    private void schedule(Runnable task, LinuxSocket socket, EventLoop eventLoop, long delayNanos) {
+        try {
+            eventLoop.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // The EventLoop is shutting down.
+            closeAndAbandon(socket);
+        }
+    }
+
+    private void closeAndAbandon(LinuxSocket socket) {
+        closeQuietly(socket);
+        abandon();
+    }
+
+    /**
+     * Give up on the completions of the outstanding writes, which is done if they are not signaled anymore.
+     * <strong>The buffers are never released</strong> as the kernel may still reference their memory, so this leaks
+     * them. Their promises are failed as it is unknown if their data was sent.
+     */
+    void abandon() {
+        if (entries.isEmpty()) {
+            return;
+        }
+        logger.warn("Dropping {} buffer(s) written with MSG_ZEROCOPY without releasing them, as their completion was " +
+                "not signaled and the kernel may still reference their memory.", entries.size());
+        ClosedChannelException cause = null;
+        for (;;) {
+            Entry entry = entries.poll();
+            if (entry == null) {
+                break;
+            }
+            if (entry.promise != null) {
+                if (cause == null) {
+                    cause = new ClosedChannelException();
+                }
+                PromiseNotificationUtil.tryFailure(entry.promise, cause,
+                        entry.promise instanceof VoidChannelPromise ? null : logger);
+            }
+        }
+        metric.pendingBuffers = 0;
+    }
+
+    private static void closeQuietly(LinuxSocket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            logger.debug("Failed to close a duplicated socket", e);
+        }
+    }
+
+    private void complete(int lo, int hi, boolean copied) {
+        long count = ((hi - lo) & 0xFFFFFFFFL) + 1;
+        metric.completions += count;
+        if (copied) {
+            metric.copiedCompletions += count;
+        }
+        for (Entry entry: entries) {
+            if (inRange(entry.id, lo, hi)) {
+                entry.done = true;
+                if (entry.id == hi) {
+                    // The ids are in ascending order so there can't be any more matches.
+                    break;
+                }
+            }
+        }
+    }
+
+    private void releaseCompleted() {
+        // Ranges may be signaled out of order, in which case completed buffers are released once all the buffers
+        // that were written before them are completed as well.
+        for (;;) {
+            Entry entry = entries.peek();
+            if (entry == null || !entry.done) {
+                break;
+            }
+            entries.poll();
+            entry.buf.release();
+            if (entry.promise != null) {
+                PromiseNotificationUtil.trySuccess(entry.promise, null,
+                        entry.promise instanceof VoidChannelPromise ? null : logger);
+            }
+        }
+        metric.pendingBuffers = entries.size();
+    }
+
+    private static boolean inRange(int id, int lo, int hi) {
+        // Compare as unsigned values to handle the wrap around of the counter.
+        return ((id - lo) & 0xFFFFFFFFL) <= ((hi - lo) & 0xFFFFFFFFL);
+    }
+
+    private static final class Entry {
+        final int id;
+        final ByteBuf buf;
+        final ChannelPromise promise;
+        boolean done;
+
+        Entry(int id, ByteBuf buf, ChannelPromise promise) {
+            this.id = id;
+            this.buf = buf;
+            this.promise = promise;
+        }
+    }
+}
@@ -33,6 +33,7 @@ import java.net.UnknownHostException;
 import java.util.Enumeration;
 
 import static io.netty.channel.unix.Errors.ioResult;
+import static io.netty.channel.unix.Errors.newIOException;
 
 /**
  * A socket which provides access Linux native methods.
@@ -172,6 +173,54 @@ public final class LinuxSocket extends Socket {
         setTcpQuickAck(intValue(), quickAck ? 1 : 0);
     }
 
+    void setSoZeroCopy(boolean zeroCopy) throws IOException {
+        setSoZeroCopy(intValue(), zeroCopy ? 1 : 0);
+    }
+
+    void setTcpUlpTls() throws IOException {
+        setTcpUlpTls(intValue());
+    }
+
+    void setTlsTx(byte[] cryptoInfo) throws IOException {
+        setTlsTx(intValue(), cryptoInfo);
+    }
+
+    /**
+     * Send {@code data} as a single TLS record of the given type. Only valid once {@link #setTlsTx(byte[])} was
+     * called.
+     */
+    int sendTlsRecord(int recordType, byte[] data) throws IOException {
+        int res = sendTlsRecord(intValue(), recordType, data);
+        if (res >= 0) {
+            return res;
+        }
+        return ioResult("sendTlsRecord", res);
+    }
+
+    /**
+     * Returns a new {@link LinuxSocket} which refers to the same socket through a duplicated file descriptor.
+     */
+    LinuxSocket dup() throws IOException {
+        int res = dup(intValue());
+        if (res < 0) {
+            throw newIOException("dup", res);
+        }
+        return new LinuxSocket(res);
+    }
+
+    void setSoIncomingCpu(int cpu) throws IOException {
+        setSoIncomingCpu(intValue(), cpu);
+    }
+
+    /**
+     * Attach a reuseport BPF program to the {@code SO_REUSEPORT} group this socket belongs to, which selects the
+     * socket with index {@code indexByCpu[cpu]} for connections received on {@code cpu}. Negative indexes let the
+     * kernel use its default hash for connections received on that CPU.
+     */
+    void attachReusePortCpuFilter(int[] indexByCpu) throws IOException {
+        attachReusePortCpuFilter(intValue(), indexByCpu);
+    }
+
     void setTcpCork(boolean tcpCork) throws IOException {
         setTcpCork(intValue(), tcpCork ? 1 : 0);
     }
@@ -244,6 +293,44 @@ public final class LinuxSocket extends Socket {
         return getTcpDeferAccept(intValue());
     }
 
+    boolean isSoZeroCopy() throws IOException {
+        return isSoZeroCopy(intValue()) != 0;
+    }
+
+    int getSoIncomingCpu() throws IOException {
+        return getSoIncomingCpu(intValue());
+    }
+
+    /**
+     * Write the bytes between {@code pos} and {@code limit} of the memory at {@code address} using
+     * {@code MSG_ZEROCOPY}. Returns the number of bytes written, {@code 0} if the socket is not writable or
+     * {@code -1} if the kernel could not pin the memory and a normal write should be used instead.
+     */
+    int sendAddressZeroCopy(long address, int pos, int limit) throws IOException {
+        int res = sendAddressZeroCopy(intValue(), address, pos, limit);
+        if (res > 0) {
+            return res;
+        }
+        if (res == 0) {
+            return -1;
+        }
+        return ioResult("sendAddressZeroCopy", res);
+    }
+
+    /**
+     * Read the next message from the error queue of the socket. Returns {@code 1} if it was a {@code MSG_ZEROCOPY}
+     * completion, in which case {@code completion} holds the first and last completed send and {@code 1} if the
+     * kernel copied the data, {@code 0} if it was another message and {@code -1} if the error queue is empty.
+     */
+    int recvZeroCopyCompletion(int[] completion) throws IOException {
+        int res = recvZeroCopyCompletion(intValue(), completion);
+        if (res >= 0) {
+            return res;
+        }
+        ioResult("recvZeroCopyCompletion", res);
+        return -1;
+    }
+
     boolean isTcpQuickAck() throws IOException {
         return isTcpQuickAck(intValue()) != 0;
     }
@@ -417,4 +504,15 @@ public final class LinuxSocket extends Socket {
     private static native void setTimeToLive(int fd, int ttl) throws IOException;
     private static native int isUdpGro(int fd) throws IOException;
     private static native void setUdpGro(int fd, int gro) throws IOException;
+    private static native int isSoZeroCopy(int fd) throws IOException;
+    private static native void setSoZeroCopy(int fd, int zeroCopy) throws IOException;
+    private static native int sendAddressZeroCopy(int fd, long address, int pos, int limit);
+    private static native int recvZeroCopyCompletion(int fd, int[] completion);
+    private static native void setTcpUlpTls(int fd) throws IOException;
+    private static native void setTlsTx(int fd, byte[] cryptoInfo) throws IOException;
+    private static native int sendTlsRecord(int fd, int recordType, byte[] data);
+    private static native int getSoIncomingCpu(int fd) throws IOException;
+    private static native void setSoIncomingCpu(int fd, int cpu) throws IOException;
+    private static native void attachReusePortCpuFilter(int fd, int[] indexByCpu) throws IOException;
+    private static native int dup(int fd);
 }
@@ -33,6 +33,7 @@ import java.nio.channels.Selector;
 
 import static io.netty.channel.epoll.NativeStaticallyReferencedJniMethods.epollerr;
 import static io.netty.channel.epoll.NativeStaticallyReferencedJniMethods.epollet;
+import static io.netty.channel.epoll.NativeStaticallyReferencedJniMethods.epollexclusive;
 import static io.netty.channel.epoll.NativeStaticallyReferencedJniMethods.epollin;
 import static io.netty.channel.epoll.NativeStaticallyReferencedJniMethods.epollout;
 import static io.netty.channel.epoll.NativeStaticallyReferencedJniMethods.epollrdhup;
@@ -108,6 +109,7 @@ public final class Native {
     public static final int EPOLLRDHUP = epollrdhup();
     public static final int EPOLLET = epollet();
     public static final int EPOLLERR = epollerr();
+    public static final int EPOLLEXCLUSIVE = epollexclusive();
 
     public static final boolean IS_SUPPORTING_SENDMMSG = isSupportingSendmmsg();
     static final boolean IS_SUPPORTING_RECVMMSG = isSupportingRecvmmsg();
@@ -307,6 +309,22 @@ public final class Native {
     private static native int recvmsg0(
             int fd, boolean ipv6, NativeDatagramPacketArray.NativeDatagramPacket msg);
 
+    // Thread affinity
+    static void setCurrentThreadAffinity(int cpu) throws IOException {
+        int res = setCurrentThreadAffinity0(cpu);
+        if (res < 0) {
+            throw newIOException("sched_setaffinity", res);
+        }
+    }
+
+    private static native int setCurrentThreadAffinity0(int cpu);
+
+    static int[] currentThreadAffinity() {
+        return currentThreadAffinity0();
+    }
+
+    private static native int[] currentThreadAffinity0();
+
     // epoll_event related
     public static native int sizeofEpollEvent();
     public static native int offsetofEpollData();
@@ -35,6 +35,7 @@ final class NativeStaticallyReferencedJniMethods {
     static native int epollrdhup();
     static native int epollet();
     static native int epollerr();
+    static native int epollexclusive();
     static native long ssizeMax();
     static native int tcpMd5SigMaxKeyLen();
     static native int iovMax();
@@ -0,0 +1,922 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelException;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelMetadata;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.channel.EventLoop;
+import io.netty.channel.socket.ChannelInputShutdownEvent;
+import io.netty.channel.socket.ChannelInputShutdownReadComplete;
+import io.netty.channel.socket.SocketChannelConfig;
+import io.netty.channel.unix.Buffer;
+import io.netty.channel.unix.Errors;
+import io.netty.channel.unix.FileDescriptor;
+import io.netty.channel.unix.Socket;
+import io.netty.channel.unix.UnixChannel;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Future;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AlreadyConnectedException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ConnectionPendingException;
+import java.nio.channels.NotYetConnectedException;
+import java.nio.channels.UnresolvedAddressException;
+import java.nio.channels.UnsupportedAddressTypeException;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.channel.unix.UnixChannelUtil.computeRemoteAddr;
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+
+/**
+ * Base class for all io_uring based channels.
+ * <p>
+ * Every operation is queued on the {@link IOUringSubmissionQueue} of the {@link IOUringEventLoop} the channel is
+ * registered with, and the state of the channel is only updated once the matching completion is reaped. The sockets
+ * are non-blocking, so reads, accepts and receives are only submitted once a {@code POLLIN} poll completed, while
+ * writes are submitted directly and fall back to a {@code POLLOUT} poll if the socket is not writable.
+ * <p>
+ * A channel must not be registered with another {@link EventLoop} while it still has operations in flight.
+ */
+abstract class AbstractIOUringChannel extends AbstractChannel implements UnixChannel {
+    private static final ChannelMetadata METADATA = new ChannelMetadata(false);
+
+    // The bits of ioState, each one tells that the operation is in flight.
+    static final int POLL_IN_SCHEDULED = 1;
+    static final int POLL_OUT_SCHEDULED = 1 << 1;
+    static final int POLL_RDHUP_SCHEDULED = 1 << 2;
+    static final int READ_SCHEDULED = 1 << 3;
+    static final int WRITE_SCHEDULED = 1 << 4;
+    static final int CONNECT_SCHEDULED = 1 << 5;
+
+    // The user data of the operations which are used to cancel them, we never need the completions of these.
+    private static final long POLL_REMOVE_USER_DATA = UserData.encode(0, Native.IORING_OP_POLL_REMOVE, (short) 0);
+    private static final long CANCEL_USER_DATA = UserData.encode(0, Native.IORING_OP_ASYNC_CANCEL, (short) 0);
+
+    final LinuxSocket socket;
+    /**
+     * The future of the current connection attempt.  If not null, subsequent
+     * connection attempts will fail.
+     */
+    private ChannelPromise connectPromise;
+    private Future<?> connectTimeoutFuture;
+    private SocketAddress requestedRemoteAddress;
+    // The native memory that holds the socket address for a connect operation which is in flight.
+    private ByteBuffer remoteAddressMemory;
+
+    private volatile SocketAddress local;
+    private volatile SocketAddress remote;
+
+    private IOUringEventLoop registeredLoop;
+    private int registrationId;
+    private boolean removePending;
+    private boolean resourcesReleased;
+
+    private int ioState;
+    private int ioCancelled;
+    // The user data of the read, write and connect operations which are in flight so we are able to cancel them.
+    private long readUserData;
+    private long writeUserData;
+    private long connectUserData;
+    // The cause of a failed write, which will be thrown by the next doWrite(...) call.
+    private IOException writeCause;
+
+    boolean inputClosedSeenErrorOnRead;
+
+    protected volatile boolean active;
+
+    AbstractIOUringChannel(LinuxSocket fd) {
+        this(null, fd, false);
+    }
+
+    AbstractIOUringChannel(Channel parent, LinuxSocket fd, boolean active) {
+        super(parent);
+        this.socket = checkNotNull(fd, "fd");
+        this.active = active;
+        if (active) {
+            // Directly cache the remote and local addresses
+            // See https://github.com/netty/netty/issues/2359
+            this.local = fd.localAddress();
+            this.remote = fd.remoteAddress();
+        }
+    }
+
+    AbstractIOUringChannel(Channel parent, LinuxSocket fd, SocketAddress remote) {
+        super(parent);
+        this.socket = checkNotNull(fd, "fd");
+        this.active = true;
+        // Directly cache the remote and local addresses
+        // See https://github.com/netty/netty/issues/2359
+        this.remote = remote;
+        this.local = fd.localAddress();
+    }
+
+    static boolean isSoErrorZero(Socket fd) {
+        try {
+            return fd.getSoError() == 0;
+        } catch (IOException e) {
+            throw new ChannelException(e);
+        }
+    }
+
+    @Override
+    public final FileDescriptor fd() {
+        return socket;
+    }
+
+    @Override
+    public abstract IOUringChannelConfig config();
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public ChannelMetadata metadata() {
+        return METADATA;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return socket.isOpen();
+    }
+
+    @Override
+    protected boolean isCompatible(EventLoop loop) {
+        return loop instanceof IOUringEventLoop;
+    }
+
+    final IOUringSubmissionQueue submissionQueue() {
+        return registeredLoop.submissionQueue();
+    }
+
+    final long userData(byte op, short data) {
+        return UserData.encode(registrationId, op, data);
+    }
+
+    final boolean isIoScheduled(int bits) {
+        return (ioState & bits) != 0;
+    }
+
+    final void schedulePollIn() {
+        if (!isIoScheduled(POLL_IN_SCHEDULED | READ_SCHEDULED)) {
+            schedulePoll(POLL_IN_SCHEDULED, Native.POLLIN);
+        }
+    }
+
+    final void schedulePollOut() {
+        if (!isIoScheduled(POLL_OUT_SCHEDULED)) {
+            schedulePoll(POLL_OUT_SCHEDULED, Native.POLLOUT);
+        }
+    }
+
+    final void schedulePollRdHup() {
+        if (!isIoScheduled(POLL_RDHUP_SCHEDULED)) {
+            schedulePoll(POLL_RDHUP_SCHEDULED, Native.POLLRDHUP);
+        }
+    }
+
+    private void schedulePoll(int bit, int mask) {
+        assert eventLoop().inEventLoop();
+        ioState |= bit;
+        ioCancelled &= ~bit;
+        submissionQueue().addPoll(socket.intValue(), mask, userData(Native.IORING_OP_POLL_ADD, (short) mask));
+    }
+
+    private void cancelPoll(int bit, int mask) {
+        if (isIoScheduled(bit) && (ioCancelled & bit) == 0) {
+            ioCancelled |= bit;
+            submissionQueue().addPollRemove(userData(Native.IORING_OP_POLL_ADD, (short) mask), POLL_REMOVE_USER_DATA);
+        }
+    }
+
+    private void cancelOp(int bit, long opUserData) {
+        if (isIoScheduled(bit) && (ioCancelled & bit) == 0) {
+            ioCancelled |= bit;
+            submissionQueue().addCancel(opUserData, CANCEL_USER_DATA);
+        }
+    }
+
+    /**
+     * Submit a read operation, which is either a {@code READ}, {@code RECVMSG} or {@code ACCEPT} depending on the
+     * channel type, and return its user data.
+     */
+    abstract long scheduleRead0();
+
+    /**
+     * Submit a write operation for the flushed messages of the {@link ChannelOutboundBuffer} and return its user data,
+     * or {@code 0} if all messages were written without submitting an operation.
+     */
+    abstract long scheduleWrite0(ChannelOutboundBuffer in) throws Exception;
+
+    final void scheduleRead() {
+        if (!isIoScheduled(READ_SCHEDULED)) {
+            ioState |= READ_SCHEDULED;
+            ioCancelled &= ~READ_SCHEDULED;
+            readUserData = scheduleRead0();
+        }
+    }
+
+    /**
+     * Cancel all operations which are in flight, their completions will still be delivered.
+     */
+    private void cancelOps() {
+        cancelPoll(POLL_IN_SCHEDULED, Native.POLLIN);
+        cancelPoll(POLL_OUT_SCHEDULED, Native.POLLOUT);
+        cancelPoll(POLL_RDHUP_SCHEDULED, Native.POLLRDHUP);
+        cancelOp(READ_SCHEDULED, readUserData);
+        cancelOp(WRITE_SCHEDULED, writeUserData);
+        cancelOp(CONNECT_SCHEDULED, connectUserData);
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        active = false;
+        // Even if we allow half closed sockets we should give up on reading. Otherwise we may allow a read attempt on a
+        // socket which has not even been connected yet. This has been observed to block during unit tests.
+        inputClosedSeenErrorOnRead = true;
+        try {
+            ChannelPromise promise = connectPromise;
+            if (promise != null) {
+                // Use tryFailure() instead of setFailure() to avoid the race against cancel().
+                promise.tryFailure(new ClosedChannelException());
+                connectPromise = null;
+            }
+
+            Future<?> future = connectTimeoutFuture;
+            if (future != null) {
+                future.cancel(false);
+                connectTimeoutFuture = null;
+            }
+
+            if (registeredLoop != null && registeredLoop.inEventLoop()) {
+                cancelOps();
+                // Submit everything which is queued now, as the kernel will resolve the file descriptor during the
+                // submission. Once we closed it the same number may be reused by another channel.
+                registeredLoop.submissionQueue().submit();
+            }
+        } finally {
+            socket.close();
+            if (registeredLoop == null) {
+                releaseResourcesIfDone();
+            }
+        }
+    }
+
+    @Override
+    protected void doDisconnect() throws Exception {
+        doClose();
+    }
+
+    @Override
+    protected void doRegister() throws Exception {
+        if (ioState != 0) {
+            throw new IllegalStateException("operations of the channel are still in flight on "
+                    + registeredLoop);
+        }
+        IOUringEventLoop loop = (IOUringEventLoop) eventLoop();
+        registeredLoop = loop;
+        registrationId = loop.add(this);
+        removePending = false;
+        ioCancelled = 0;
+        if (active) {
+            activated();
+        }
+    }
+
+    @Override
+    protected void doDeregister() throws Exception {
+        if (registeredLoop == null) {
+            return;
+        }
+        if (registeredLoop.inEventLoop()) {
+            cancelOps();
+            if (ioState == 0) {
+                removeFromEventLoop();
+            } else {
+                // We will remove the channel once all the completions were received.
+                removePending = true;
+            }
+        }
+    }
+
+    private void removeFromEventLoop() {
+        registeredLoop.remove(registrationId, this);
+        registeredLoop = null;
+        removePending = false;
+        releaseResourcesIfDone();
+    }
+
+    /**
+     * Called once the channel is active and registered.
+     */
+    void activated() {
+        // NOOP
+    }
+
+    private void releaseResourcesIfDone() {
+        if (!isOpen() && ioState == 0 && !resourcesReleased) {
+            resourcesReleased = true;
+            freeResources();
+        }
+    }
+
+    /**
+     * Release the native memory which is used by the channel. Called once the channel is closed and no operations
+     * are in flight anymore.
+     */
+    void freeResources() {
+        freeRemoteAddressMemory();
+    }
+
+    private void freeRemoteAddressMemory() {
+        if (remoteAddressMemory != null) {
+            Buffer.free(remoteAddressMemory);
+            remoteAddressMemory = null;
+        }
+    }
+
+    @Override
+    protected final void doBeginRead() throws Exception {
+        // Channel.read() or ChannelHandlerContext.read() was called
+        final AbstractIOUringUnsafe unsafe = (AbstractIOUringUnsafe) unsafe();
+        unsafe.readPending = true;
+        schedulePollIn();
+    }
+
+    final boolean shouldBreakReadReady(ChannelConfig config) {
+        return socket.isInputShutdown() && (inputClosedSeenErrorOnRead || !isAllowHalfClosure(config));
+    }
+
+    private static boolean isAllowHalfClosure(ChannelConfig config) {
+        return config instanceof SocketChannelConfig &&
+                ((SocketChannelConfig) config).isAllowHalfClosure();
+    }
+
+    final void clearPollIn() {
+        // Only clear if registered with an EventLoop as otherwise
+        if (isRegistered()) {
+            final EventLoop loop = eventLoop();
+            final AbstractIOUringUnsafe unsafe = (AbstractIOUringUnsafe) unsafe();
+            if (loop.inEventLoop()) {
+                unsafe.clearPollIn0();
+            } else {
+                // schedule a task to clear the POLLIN as it is not safe to modify it directly
+                loop.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!unsafe.readPending && !config().isAutoRead()) {
+                            // Still no read triggered so clear it now
+                            unsafe.clearPollIn0();
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    @Override
+    protected final void doWrite(ChannelOutboundBuffer in) throws Exception {
+        IOException cause = writeCause;
+        if (cause != null) {
+            writeCause = null;
+            throw cause;
+        }
+        if (isIoScheduled(WRITE_SCHEDULED | POLL_OUT_SCHEDULED)) {
+            // We will continue once the operation completed.
+            return;
+        }
+        long userData = scheduleWrite0(in);
+        if (userData != 0) {
+            ioState |= WRITE_SCHEDULED;
+            ioCancelled &= ~WRITE_SCHEDULED;
+            writeUserData = userData;
+        }
+    }
+
+    @Override
+    protected abstract AbstractIOUringUnsafe newUnsafe();
+
+    /**
+     * Returns an off-heap copy of the specified {@link ByteBuf}, and releases the original one.
+     */
+    protected final ByteBuf newDirectBuffer(ByteBuf buf) {
+        return newDirectBuffer(buf, buf);
+    }
+
+    /**
+     * Returns an off-heap copy of the specified {@link ByteBuf}, and releases the specified holder.
+     * The caller must ensure that the holder releases the original {@link ByteBuf} when the holder is released by
+     * this method.
+     */
+    protected final ByteBuf newDirectBuffer(Object holder, ByteBuf buf) {
+        final int readableBytes = buf.readableBytes();
+        if (readableBytes == 0) {
+            ReferenceCountUtil.release(holder);
+            return Unpooled.EMPTY_BUFFER;
+        }
+
+        final ByteBufAllocator alloc = alloc();
+        if (alloc.isDirectBufferPooled()) {
+            return newDirectBuffer0(holder, buf, alloc, readableBytes);
+        }
+
+        final ByteBuf directBuf = ByteBufUtil.threadLocalDirectBuffer();
+        if (directBuf == null) {
+            return newDirectBuffer0(holder, buf, alloc, readableBytes);
+        }
+
+        directBuf.writeBytes(buf, buf.readerIndex(), readableBytes);
+        ReferenceCountUtil.safeRelease(holder);
+        return directBuf;
+    }
+
+    private static ByteBuf newDirectBuffer0(Object holder, ByteBuf buf, ByteBufAllocator alloc, int capacity) {
+        final ByteBuf directBuf = alloc.directBuffer(capacity);
+        directBuf.writeBytes(buf, buf.readerIndex(), capacity);
+        ReferenceCountUtil.safeRelease(holder);
+        return directBuf;
+    }
+
+    /**
+     * Returns the memory address of the given direct {@link ByteBuf}.
+     */
+    static long memoryAddress(ByteBuf buf) {
+        if (buf.hasMemoryAddress()) {
+            return buf.memoryAddress();
+        }
+        // Fallback to using JNI as we were not be able to access the address otherwise.
+        return Buffer.memoryAddress(buf.internalNioBuffer(0, buf.capacity()));
+    }
+
+    protected static void checkResolvable(InetSocketAddress addr) {
+        if (addr.isUnresolved()) {
+            throw new UnresolvedAddressException();
+        }
+    }
+
+    protected abstract class AbstractIOUringUnsafe extends AbstractUnsafe {
+        boolean readPending;
+        boolean rdHupReceived;
+
+        /**
+         * Called by the {@link IOUringEventLoop} for each completion of an operation of this channel.
+         */
+        final void handle(int res, int flags, byte op, short data) {
+            switch (op) {
+                case Native.IORING_OP_POLL_ADD:
+                    if (data == Native.POLLIN) {
+                        ioState &= ~POLL_IN_SCHEDULED;
+                        pollIn(res);
+                    } else if (data == Native.POLLOUT) {
+                        ioState &= ~POLL_OUT_SCHEDULED;
+                        pollOut(res);
+                    } else if (data == Native.POLLRDHUP) {
+                        ioState &= ~POLL_RDHUP_SCHEDULED;
+                        pollRdHup(res);
+                    }
+                    break;
+                case Native.IORING_OP_READ:
+                case Native.IORING_OP_RECVMSG:
+                case Native.IORING_OP_ACCEPT:
+                    ioState &= ~READ_SCHEDULED;
+                    readComplete(res);
+                    break;
+                case Native.IORING_OP_WRITE:
+                case Native.IORING_OP_WRITEV:
+                case Native.IORING_OP_SENDMSG:
+                    ioState &= ~WRITE_SCHEDULED;
+                    writeComplete0(res);
+                    break;
+                case Native.IORING_OP_CONNECT:
+                    ioState &= ~CONNECT_SCHEDULED;
+                    connectComplete(res);
+                    break;
+                default:
+                    break;
+            }
+            if (ioState == 0) {
+                if (removePending) {
+                    removeFromEventLoop();
+                } else {
+                    releaseResourcesIfDone();
+                }
+            }
+        }
+
+        private void pollIn(int res) {
+            if (res < 0 || !isOpen()) {
+                // Cancelled or failed, nothing to do.
+                return;
+            }
+            if (shouldBreakReadReady(config())) {
+                clearPollIn0();
+                return;
+            }
+            if (isIoScheduled(READ_SCHEDULED) || !readPending && !config().isAutoRead()) {
+                // The read() this poll was submitted for is served by the read cycle that was running when it was
+                // called from channelRead(...), so don't reset the handle of that cycle or start another one.
+                //
+                // See https://github.com/netty/netty/issues/2254
+                return;
+            }
+            recvBufAllocHandle().reset(config());
+            scheduleRead();
+        }
+
+        private void pollRdHup(int res) {
+            if (res < 0 || !isOpen()) {
+                return;
+            }
+            // This must happen before we attempt to read. This will ensure reading continues until an error occurs.
+            rdHupReceived = true;
+
+            if (isActive()) {
+                // If it is still active, we need to read as otherwise we may miss to read pending data from the
+                // underlying file descriptor.
+                if (!isIoScheduled(READ_SCHEDULED) && !shouldBreakReadReady(config())) {
+                    recvBufAllocHandle().reset(config());
+                    scheduleRead();
+                }
+            } else {
+                // Just to be safe make sure the input marked as closed.
+                shutdownInput(true);
+            }
+        }
+
+        private void pollOut(int res) {
+            if (res < 0 || !isOpen()) {
+                return;
+            }
+            if (connectPromise != null) {
+                // pending connect which is now complete so handle it.
+                finishConnect();
+            } else if (!socket.isOutputShutdown()) {
+                // directly call super.flush0() to force a flush now
+                super.flush0();
+            }
+        }
+
+        /**
+         * Called once the read operation completed.
+         */
+        abstract void readComplete(int res);
+
+        /**
+         * Called once the write operation completed, release the resources used by it and return the number of
+         * written bytes or a negative errno.
+         */
+        abstract void writeComplete(int res);
+
+        private void writeComplete0(int res) {
+            writeComplete(res);
+            if (res == Native.ERRNO_ECANCELED_NEGATIVE || !isOpen()) {
+                return;
+            }
+            if (res == Errors.ERRNO_EAGAIN_NEGATIVE || res == Errors.ERRNO_EWOULDBLOCK_NEGATIVE) {
+                // The socket is not writable atm, wait until it is.
+                schedulePollOut();
+                return;
+            }
+            if (res < 0) {
+                try {
+                    Errors.ioResult("write", res);
+                } catch (IOException e) {
+                    // Will be thrown by doWrite(...) so it is handled like all other write failures.
+                    writeCause = e;
+                }
+            }
+            flush0();
+        }
+
+        /**
+         * Called once the read cycle is done and so no other read operation will be submitted.
+         */
+        final void readCycleComplete() {
+            rdHupReceived = false;
+            if (readPending && isActive()) {
+                // Someone called read() in the meantime, so make sure we continue reading.
+                schedulePollIn();
+            }
+        }
+
+        /**
+         * Shutdown the input side of the channel.
+         */
+        void shutdownInput(boolean rdHup) {
+            if (!socket.isInputShutdown()) {
+                if (isAllowHalfClosure(config())) {
+                    try {
+                        socket.shutdown(true, false);
+                    } catch (IOException ignored) {
+                        // We attempted to shutdown and failed, which means the input has already effectively been
+                        // shutdown.
+                        fireEventAndClose(ChannelInputShutdownEvent.INSTANCE);
+                        return;
+                    } catch (NotYetConnectedException ignore) {
+                        // We attempted to shutdown and failed, which means the input has already effectively been
+                        // shutdown.
+                    }
+                    clearPollIn();
+                    pipeline().fireUserEventTriggered(ChannelInputShutdownEvent.INSTANCE);
+                } else {
+                    close(voidPromise());
+                }
+            } else if (!rdHup) {
+                inputClosedSeenErrorOnRead = true;
+                pipeline().fireUserEventTriggered(ChannelInputShutdownReadComplete.INSTANCE);
+            }
+        }
+
+        private void fireEventAndClose(Object evt) {
+            pipeline().fireUserEventTriggered(evt);
+            close(voidPromise());
+        }
+
+        @Override
+        protected final void flush0() {
+            // Flush immediately only when there's no pending write.
+            // If there's a pending write operation, the event loop will call super.flush0() later once it completed,
+            // and thus there's no need to call it now.
+            if (!isIoScheduled(WRITE_SCHEDULED | POLL_OUT_SCHEDULED)) {
+                super.flush0();
+            }
+        }
+
+        final void clearPollIn0() {
+            assert eventLoop().inEventLoop();
+            readPending = false;
+            cancelPoll(POLL_IN_SCHEDULED, Native.POLLIN);
+        }
+
+        /**
+         * Release everything that was not released yet, called by the {@link IOUringEventLoop} once it is shutdown.
+         */
+        final void releaseResources() {
+            if (!resourcesReleased) {
+                resourcesReleased = true;
+                freeResources();
+            }
+        }
+
+        @Override
+        public void connect(
+                final SocketAddress remoteAddress, final SocketAddress localAddress, final ChannelPromise promise) {
+            if (!promise.setUncancellable() || !ensureOpen(promise)) {
+                return;
+            }
+
+            try {
+                if (connectPromise != null) {
+                    throw new ConnectionPendingException();
+                }
+
+                doConnect(remoteAddress, localAddress);
+                connectPromise = promise;
+                requestedRemoteAddress = remoteAddress;
+
+                // Schedule connect timeout.
+                int connectTimeoutMillis = config().getConnectTimeoutMillis();
+                if (connectTimeoutMillis > 0) {
+                    connectTimeoutFuture = eventLoop().schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            ChannelPromise connectPromise = AbstractIOUringChannel.this.connectPromise;
+                            if (connectPromise != null && !connectPromise.isDone()
+                                    && connectPromise.tryFailure(new ConnectTimeoutException(
+                                    "connection timed out: " + remoteAddress))) {
+                                close(voidPromise());
+                            }
+                        }
+                    }, connectTimeoutMillis, TimeUnit.MILLISECONDS);
+                }
+
+                promise.addListener(new ChannelFutureListener() {
+                    @Override
+                    public void operationComplete(ChannelFuture future) throws Exception {
+                        if (future.isCancelled()) {
+                            if (connectTimeoutFuture != null) {
+                                connectTimeoutFuture.cancel(false);
+                            }
+                            connectPromise = null;
+                            close(voidPromise());
+                        }
+                    }
+                });
+            } catch (Throwable t) {
+                closeIfClosed();
+                promise.tryFailure(annotateConnectException(t, remoteAddress));
+            }
+        }
+
+        private void connectComplete(int res) {
+            freeRemoteAddressMemory();
+            if (res == Native.ERRNO_ECANCELED_NEGATIVE || connectPromise == null || !isOpen()) {
+                // Closed via cancellation and the promise has been notified already.
+                return;
+            }
+            if (res == 0) {
+                finishConnect();
+                return;
+            }
+            try {
+                if (!Errors.handleConnectErrno("connect", res)) {
+                    // The connect is still in progress, wait until the socket is writable.
+                    schedulePollOut();
+                    return;
+                }
+                finishConnect();
+            } catch (Throwable t) {
+                fulfillConnectPromise(connectPromise, annotateConnectException(t, requestedRemoteAddress));
+                connectDone();
+            }
+        }
+
+        private void fulfillConnectPromise(ChannelPromise promise, boolean wasActive) {
+            if (promise == null) {
+                // Closed via cancellation and the promise has been notified already.
+                return;
+            }
+            active = true;
+            activated();
+
+            // Get the state as trySuccess() may trigger an ChannelFutureListener that will close the Channel.
+            // We still need to ensure we call fireChannelActive() in this case.
+            boolean active = isActive();
+
+            // trySuccess() will return false if a user cancelled the connection attempt.
+            boolean promiseSet = promise.trySuccess();
+
+            // Regardless if the connection attempt was cancelled, channelActive() event should be triggered,
+            // because what happened is what happened.
+            if (!wasActive && active) {
+                pipeline().fireChannelActive();
+            }
+
+            // If a user cancelled the connection attempt, close the channel, which is followed by channelInactive().
+            if (!promiseSet) {
+                close(voidPromise());
+            }
+        }
+
+        private void fulfillConnectPromise(ChannelPromise promise, Throwable cause) {
+            if (promise == null) {
+                // Closed via cancellation and the promise has been notified already.
+                return;
+            }
+
+            // Use tryFailure() instead of setFailure() to avoid the race against cancel().
+            promise.tryFailure(cause);
+            closeIfClosed();
+        }
+
+        private void finishConnect() {
+            // Note this method is invoked by the event loop only if the connection attempt was
+            // neither cancelled nor timed out.
+
+            assert eventLoop().inEventLoop();
+
+            boolean connectStillInProgress = false;
+            try {
+                boolean wasActive = isActive();
+                if (!doFinishConnect()) {
+                    connectStillInProgress = true;
+                    return;
+                }
+                fulfillConnectPromise(connectPromise, wasActive);
+            } catch (Throwable t) {
+                fulfillConnectPromise(connectPromise, annotateConnectException(t, requestedRemoteAddress));
+            } finally {
+                if (!connectStillInProgress) {
+                    connectDone();
+                }
+            }
+        }
+
+        private void connectDone() {
+            // Check for null as the connectTimeoutFuture is only created if a connectTimeoutMillis > 0 is used
+            // See https://github.com/netty/netty/issues/1770
+            if (connectTimeoutFuture != null) {
+                connectTimeoutFuture.cancel(false);
+            }
+            connectPromise = null;
+        }
+
+        /**
+         * Finish the connect
+         */
+        private boolean doFinishConnect() throws Exception {
+            if (socket.finishConnect()) {
+                if (requestedRemoteAddress instanceof InetSocketAddress) {
+                    remote = computeRemoteAddr((InetSocketAddress) requestedRemoteAddress, socket.remoteAddress());
+                }
+                requestedRemoteAddress = null;
+                // The local address is only assigned by the kernel once the connect took place.
+                local = socket.localAddress();
+                return true;
+            }
+            schedulePollOut();
+            return false;
+        }
+    }
+
+    void resetCachedAddresses() {
+        local = socket.localAddress();
+        remote = socket.remoteAddress();
+    }
+
+    @Override
+    protected void doBind(SocketAddress local) throws Exception {
+        if (local instanceof InetSocketAddress) {
+            checkResolvable((InetSocketAddress) local);
+        }
+        socket.bind(local);
+        this.local = socket.localAddress();
+    }
+
+    /**
+     * Submit the connect operation to the remote peer, the result will be handled once it completed.
+     */
+    protected void doConnect(SocketAddress remoteAddress, SocketAddress localAddress) throws Exception {
+        if (localAddress instanceof InetSocketAddress) {
+            checkResolvable((InetSocketAddress) localAddress);
+        }
+
+        if (!(remoteAddress instanceof InetSocketAddress)) {
+            throw new UnsupportedAddressTypeException();
+        }
+        InetSocketAddress remoteSocketAddr = (InetSocketAddress) remoteAddress;
+        checkResolvable(remoteSocketAddr);
+
+        if (remote != null) {
+            // Check if already connected before trying to connect. This is needed as connect(...) will not return -1
+            // and set errno to EISCONN if a previous connect(...) attempt was setting errno to EINPROGRESS and finished
+            // later.
+            throw new AlreadyConnectedException();
+        }
+
+        if (localAddress != null) {
+            socket.bind(localAddress);
+        }
+
+        boolean success = false;
+        try {
+            remoteAddressMemory = Buffer.allocateDirectWithNativeOrder(Native.SIZEOF_SOCKADDR_STORAGE);
+            long address = Buffer.memoryAddress(remoteAddressMemory);
+            int length = SockaddrIn.write(socket.isIpv6(), address, remoteSocketAddr);
+            connectUserData = userData(Native.IORING_OP_CONNECT, (short) 0);
+            ioState |= CONNECT_SCHEDULED;
+            ioCancelled &= ~CONNECT_SCHEDULED;
+            submissionQueue().addConnect(socket.intValue(), address, length, connectUserData);
+            success = true;
+        } finally {
+            if (!success) {
+                freeRemoteAddressMemory();
+                doClose();
+            }
+        }
+        // We always need to set the localAddress even if not connected yet as the bind already took place.
+        //
+        // See https://github.com/netty/netty/issues/3463
+        local = socket.localAddress();
+    }
+
+    @Override
+    protected SocketAddress localAddress0() {
+        return local;
+    }
+
+    @Override
+    protected SocketAddress remoteAddress0() {
+        return remote;
+    }
+}
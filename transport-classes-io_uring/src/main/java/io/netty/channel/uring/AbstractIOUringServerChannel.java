@@ -0,0 +1,169 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelMetadata;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.unix.Buffer;
+import io.netty.channel.unix.Errors;
+import io.netty.util.internal.PlatformDependent;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+
+abstract class AbstractIOUringServerChannel extends AbstractIOUringChannel implements ServerChannel {
+    private static final ChannelMetadata METADATA = new ChannelMetadata(false, 16);
+
+    // Holds the sockaddr_storage followed by the socklen_t which are filled by the accept operation.
+    private final ByteBuffer acceptedAddressMemory;
+    private final long acceptedAddressMemoryAddress;
+    private final long acceptedAddressLengthMemoryAddress;
+
+    AbstractIOUringServerChannel(LinuxSocket fd, boolean active) {
+        super(null, fd, active);
+        acceptedAddressMemory = Buffer.allocateDirectWithNativeOrder(
+                Native.SIZEOF_SOCKADDR_STORAGE + Native.SIZEOF_SOCKLEN_T);
+        acceptedAddressMemoryAddress = Buffer.memoryAddress(acceptedAddressMemory);
+        acceptedAddressLengthMemoryAddress = acceptedAddressMemoryAddress + Native.SIZEOF_SOCKADDR_STORAGE;
+    }
+
+    @Override
+    public ChannelMetadata metadata() {
+        return METADATA;
+    }
+
+    @Override
+    protected InetSocketAddress remoteAddress0() {
+        return null;
+    }
+
+    @Override
+    protected AbstractIOUringUnsafe newUnsafe() {
+        return new IOUringServerChannelUnsafe();
+    }
+
+    @Override
+    long scheduleRead0() {
+        RecvByteBufAllocator.Handle allocHandle = unsafe().recvBufAllocHandle();
+        allocHandle.attemptedBytesRead(1);
+        // The length is a value-result argument, so it must be reset before each accept.
+        PlatformDependent.putInt(acceptedAddressLengthMemoryAddress, Native.SIZEOF_SOCKADDR_STORAGE);
+        long userData = userData(Native.IORING_OP_ACCEPT, (short) 0);
+        submissionQueue().addAccept(socket.intValue(), acceptedAddressMemoryAddress,
+                acceptedAddressLengthMemoryAddress, userData);
+        return userData;
+    }
+
+    @Override
+    long scheduleWrite0(ChannelOutboundBuffer in) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    protected Object filterOutboundMessage(Object msg) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    void freeResources() {
+        super.freeResources();
+        Buffer.free(acceptedAddressMemory);
+    }
+
+    /**
+     * Create the child {@link Channel} for the accepted file descriptor.
+     *
+     * @param fd        the file descriptor of the accepted connection.
+     * @param address   the memory address of the {@code sockaddr} of the remote peer.
+     */
+    abstract Channel newChildChannel(int fd, long address) throws Exception;
+
+    final class IOUringServerChannelUnsafe extends AbstractIOUringUnsafe {
+
+        @Override
+        public void connect(SocketAddress remoteAddress, SocketAddress localAddress, ChannelPromise promise) {
+            // Connect not supported by ServerChannel implementations
+            promise.setFailure(new UnsupportedOperationException());
+        }
+
+        @Override
+        void readComplete(int res) {
+            if (res == Native.ERRNO_ECANCELED_NEGATIVE || !isOpen()) {
+                if (res >= 0) {
+                    // The channel was closed while the accept was in flight, just close the accepted connection.
+                    closeAccepted(res);
+                }
+                return;
+            }
+            final RecvByteBufAllocator.Handle allocHandle = recvBufAllocHandle();
+            final ChannelPipeline pipeline = pipeline();
+            Throwable exception = null;
+            if (res >= 0) {
+                allocHandle.lastBytesRead(1);
+                allocHandle.incMessagesRead(1);
+                readPending = false;
+                try {
+                    pipeline.fireChannelRead(newChildChannel(res, acceptedAddressMemoryAddress));
+                } catch (Throwable t) {
+                    exception = t;
+                }
+                if (exception == null && allocHandle.continueReading()) {
+                    // Accept the next connection before we signal the completion of the read cycle.
+                    scheduleRead();
+                    return;
+                }
+            } else if (res == Errors.ERRNO_EAGAIN_NEGATIVE || res == Errors.ERRNO_EWOULDBLOCK_NEGATIVE) {
+                // this means everything was handled for now
+                allocHandle.lastBytesRead(-1);
+            } else {
+                allocHandle.lastBytesRead(-1);
+                exception = Errors.newIOException("accept", res);
+            }
+            allocHandle.readComplete();
+            pipeline.fireChannelReadComplete();
+
+            if (exception != null) {
+                pipeline.fireExceptionCaught(exception);
+            }
+            readCycleComplete();
+        }
+
+        @Override
+        void writeComplete(int res) {
+            // Server channels never submit writes.
+        }
+
+        private void closeAccepted(int fd) {
+            try {
+                new LinuxSocket(fd).close();
+            } catch (IOException ignore) {
+                // ignore
+            }
+        }
+    }
+
+    @Override
+    protected void doConnect(SocketAddress remoteAddress, SocketAddress localAddress) throws Exception {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,487 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelMetadata;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.EventLoop;
+import io.netty.channel.FileRegion;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.socket.DuplexChannel;
+import io.netty.channel.unix.Errors;
+import io.netty.channel.unix.IovArray;
+import io.netty.channel.unix.Limits;
+import io.netty.channel.unix.SocketWritableByteChannel;
+import io.netty.channel.unix.UnixChannelUtil;
+import io.netty.util.internal.StringUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.Executor;
+
+abstract class AbstractIOUringStreamChannel extends AbstractIOUringChannel implements DuplexChannel {
+    private static final ChannelMetadata METADATA = new ChannelMetadata(false, 16);
+    private static final String EXPECTED_TYPES =
+            " (expected: " + StringUtil.simpleClassName(ByteBuf.class) + ", " +
+                    StringUtil.simpleClassName(DefaultFileRegion.class) + ')';
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(AbstractIOUringStreamChannel.class);
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            // Calling flush0 directly to ensure we not try to flush messages that were added via write(...) in the
+            // meantime.
+            ((AbstractIOUringUnsafe) unsafe()).flush0();
+        }
+    };
+
+    // The buffer the read operation which is in flight reads into.
+    private ByteBuf readBuffer;
+    // The iovecs of the gathering write which is in flight.
+    private IovArray writeIovArray;
+    private WritableByteChannel byteChannel;
+
+    AbstractIOUringStreamChannel(LinuxSocket fd, boolean active) {
+        super(null, fd, active);
+    }
+
+    AbstractIOUringStreamChannel(Channel parent, LinuxSocket fd, SocketAddress remote) {
+        super(parent, fd, remote);
+    }
+
+    @Override
+    protected AbstractIOUringUnsafe newUnsafe() {
+        return new IOUringStreamUnsafe();
+    }
+
+    @Override
+    public ChannelMetadata metadata() {
+        return METADATA;
+    }
+
+    @Override
+    void activated() {
+        // Schedule a POLLRDHUP so we are notified once the remote peer close the connection.
+        schedulePollRdHup();
+    }
+
+    @Override
+    long scheduleRead0() {
+        final RecvByteBufAllocator.Handle allocHandle = unsafe().recvBufAllocHandle();
+        // We always need a direct buffer as the kernel will write into it while we are not in a JNI call.
+        ByteBuf byteBuf = alloc().directBuffer(allocHandle.guess());
+        allocHandle.attemptedBytesRead(byteBuf.writableBytes());
+        readBuffer = byteBuf;
+        long userData = userData(Native.IORING_OP_READ, (short) 0);
+        submissionQueue().addRead(socket.intValue(), memoryAddress(byteBuf),
+                byteBuf.writerIndex(), byteBuf.capacity(), userData);
+        return userData;
+    }
+
+    @Override
+    long scheduleWrite0(ChannelOutboundBuffer in) throws Exception {
+        int writeSpinCount = config().getWriteSpinCount();
+        for (;;) {
+            final int msgCount = in.size();
+            if (msgCount == 0) {
+                // Wrote all messages.
+                return 0;
+            }
+            Object msg = in.current();
+            if (msg instanceof ByteBuf) {
+                ByteBuf buf = (ByteBuf) msg;
+                if (msgCount > 1 || !buf.hasMemoryAddress()) {
+                    long userData = scheduleWritev(in, msgCount);
+                    if (userData != 0) {
+                        return userData;
+                    }
+                    continue;
+                }
+                int readableBytes = buf.readableBytes();
+                if (readableBytes == 0) {
+                    in.remove();
+                    continue;
+                }
+                long userData = userData(Native.IORING_OP_WRITE, (short) 0);
+                submissionQueue().addWrite(socket.intValue(), buf.memoryAddress(),
+                        buf.readerIndex(), buf.writerIndex(), userData);
+                return userData;
+            }
+            // File regions are transferred directly as the kernel has no operation which would allow to do the same.
+            final int result;
+            if (msg instanceof FileRegion) {
+                result = writeFileRegion(in, (FileRegion) msg);
+            } else {
+                // Should never reach here.
+                throw new Error();
+            }
+            if (result < 0) {
+                // The socket buffer is full, continue once the socket is writable again.
+                schedulePollOut();
+                return 0;
+            }
+            writeSpinCount -= result;
+            if (writeSpinCount <= 0) {
+                // We used our writeSpin quantum, and should try to write again later.
+                eventLoop().execute(flushTask);
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Submit a gathering write for all the flushed {@link ByteBuf}s and return its user data, or {@code 0} if the
+     * {@link ChannelOutboundBuffer} contained empty buffers only.
+     */
+    private long scheduleWritev(ChannelOutboundBuffer in, int msgCount) {
+        int iovCount = Math.min(msgCount, Limits.IOV_MAX);
+        IovArray array = new IovArray(alloc().directBuffer(iovCount * IovArray.IOV_SIZE));
+        boolean success = false;
+        try {
+            array.maxBytes(config().getMaxBytesPerGatheringWrite());
+            in.forEachFlushedMessage(array);
+            if (array.count() == 0) {
+                // The outbound buffer contained empty buffers only.
+                in.removeBytes(0);
+                return 0;
+            }
+            long userData = userData(Native.IORING_OP_WRITEV, (short) 0);
+            submissionQueue().addWritev(socket.intValue(), array.memoryAddress(0), array.count(), userData);
+            writeIovArray = array;
+            success = true;
+            return userData;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            if (!success) {
+                array.release();
+            }
+        }
+    }
+
+    /**
+     * Write a {@link FileRegion}
+     * @param in the collection which contains objects to write.
+     * @param region the {@link FileRegion} from which the bytes should be written
+     * @return {@code 0} if no data was written, {@code 1} if data was written or {@code -1} if the socket buffer is
+     * full.
+     */
+    private int writeFileRegion(ChannelOutboundBuffer in, FileRegion region) throws Exception {
+        if (region.transferred() >= region.count()) {
+            in.remove();
+            return 0;
+        }
+
+        if (byteChannel == null) {
+            byteChannel = new IOUringSocketWritableByteChannel();
+        }
+        final long flushedAmount = region.transferTo(byteChannel, region.transferred());
+        if (flushedAmount > 0) {
+            in.progress(flushedAmount);
+            if (region.transferred() >= region.count()) {
+                in.remove();
+            }
+            return 1;
+        }
+        return -1;
+    }
+
+    @Override
+    protected Object filterOutboundMessage(Object msg) {
+        if (msg instanceof ByteBuf) {
+            ByteBuf buf = (ByteBuf) msg;
+            return UnixChannelUtil.isBufferCopyNeededForWrite(buf)? newDirectBuffer(buf): buf;
+        }
+
+        if (msg instanceof FileRegion) {
+            return msg;
+        }
+
+        throw new UnsupportedOperationException(
+                "unsupported message type: " + StringUtil.simpleClassName(msg) + EXPECTED_TYPES);
+    }
+
+    @Override
+    void freeResources() {
+        super.freeResources();
+        if (readBuffer != null) {
+            readBuffer.release();
+            readBuffer = null;
+        }
+        if (writeIovArray != null) {
+            writeIovArray.release();
+            writeIovArray = null;
+        }
+    }
+
+    @Override
+    protected final void doShutdownOutput() throws Exception {
+        socket.shutdown(false, true);
+    }
+
+    private void shutdownInput0(final ChannelPromise promise) {
+        try {
+            socket.shutdown(true, false);
+            promise.setSuccess();
+        } catch (Throwable cause) {
+            promise.setFailure(cause);
+        }
+    }
+
+    @Override
+    public boolean isOutputShutdown() {
+        return socket.isOutputShutdown();
+    }
+
+    @Override
+    public boolean isInputShutdown() {
+        return socket.isInputShutdown();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return socket.isShutdown();
+    }
+
+    @Override
+    public ChannelFuture shutdownOutput() {
+        return shutdownOutput(newPromise());
+    }
+
+    @Override
+    public ChannelFuture shutdownOutput(final ChannelPromise promise) {
+        EventLoop loop = eventLoop();
+        if (loop.inEventLoop()) {
+            ((AbstractUnsafe) unsafe()).shutdownOutput(promise);
+        } else {
+            loop.execute(new Runnable() {
+                @Override
+                public void run() {
+                    ((AbstractUnsafe) unsafe()).shutdownOutput(promise);
+                }
+            });
+        }
+
+        return promise;
+    }
+
+    @Override
+    public ChannelFuture shutdownInput() {
+        return shutdownInput(newPromise());
+    }
+
+    @Override
+    public ChannelFuture shutdownInput(final ChannelPromise promise) {
+        Executor closeExecutor = ((IOUringStreamUnsafe) unsafe()).prepareToClose();
+        if (closeExecutor != null) {
+            closeExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    shutdownInput0(promise);
+                }
+            });
+        } else {
+            EventLoop loop = eventLoop();
+            if (loop.inEventLoop()) {
+                shutdownInput0(promise);
+            } else {
+                loop.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        shutdownInput0(promise);
+                    }
+                });
+            }
+        }
+        return promise;
+    }
+
+    @Override
+    public ChannelFuture shutdown() {
+        return shutdown(newPromise());
+    }
+
+    @Override
+    public ChannelFuture shutdown(final ChannelPromise promise) {
+        ChannelFuture shutdownOutputFuture = shutdownOutput();
+        if (shutdownOutputFuture.isDone()) {
+            shutdownOutputDone(shutdownOutputFuture, promise);
+        } else {
+            shutdownOutputFuture.addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(final ChannelFuture shutdownOutputFuture) throws Exception {
+                    shutdownOutputDone(shutdownOutputFuture, promise);
+                }
+            });
+        }
+        return promise;
+    }
+
+    private void shutdownOutputDone(final ChannelFuture shutdownOutputFuture, final ChannelPromise promise) {
+        ChannelFuture shutdownInputFuture = shutdownInput();
+        if (shutdownInputFuture.isDone()) {
+            shutdownDone(shutdownOutputFuture, shutdownInputFuture, promise);
+        } else {
+            shutdownInputFuture.addListener(new ChannelFutureListener() {
+                @Override
+                public void operationComplete(ChannelFuture shutdownInputFuture) throws Exception {
+                    shutdownDone(shutdownOutputFuture, shutdownInputFuture, promise);
+                }
+            });
+        }
+    }
+
+    private static void shutdownDone(ChannelFuture shutdownOutputFuture,
+                              ChannelFuture shutdownInputFuture,
+                              ChannelPromise promise) {
+        Throwable shutdownOutputCause = shutdownOutputFuture.cause();
+        Throwable shutdownInputCause = shutdownInputFuture.cause();
+        if (shutdownOutputCause != null) {
+            if (shutdownInputCause != null) {
+                logger.debug("Exception suppressed because a previous exception occurred.",
+                        shutdownInputCause);
+            }
+            promise.setFailure(shutdownOutputCause);
+        } else if (shutdownInputCause != null) {
+            promise.setFailure(shutdownInputCause);
+        } else {
+            promise.setSuccess();
+        }
+    }
+
+    class IOUringStreamUnsafe extends AbstractIOUringUnsafe {
+        // Overridden here just to be able to access this method from AbstractIOUringStreamChannel
+        @Override
+        protected Executor prepareToClose() {
+            return super.prepareToClose();
+        }
+
+        private void handleReadException(ChannelPipeline pipeline, ByteBuf byteBuf, Throwable cause, boolean close,
+                RecvByteBufAllocator.Handle allocHandle) {
+            if (byteBuf != null) {
+                if (byteBuf.isReadable()) {
+                    readPending = false;
+                    pipeline.fireChannelRead(byteBuf);
+                } else {
+                    byteBuf.release();
+                }
+            }
+            allocHandle.readComplete();
+            pipeline.fireChannelReadComplete();
+            pipeline.fireExceptionCaught(cause);
+
+            // If oom will close the read event, release connection.
+            // See https://github.com/netty/netty/issues/10434
+            if (close || cause instanceof OutOfMemoryError || cause instanceof IOException) {
+                shutdownInput(false);
+            }
+        }
+
+        @Override
+        void readComplete(int res) {
+            ByteBuf byteBuf = readBuffer;
+            readBuffer = null;
+            if (res == Native.ERRNO_ECANCELED_NEGATIVE || !isOpen()) {
+                byteBuf.release();
+                return;
+            }
+            final ChannelConfig config = config();
+            final ChannelPipeline pipeline = pipeline();
+            final RecvByteBufAllocator.Handle allocHandle = recvBufAllocHandle();
+            boolean close = false;
+            try {
+                if (res == Errors.ERRNO_EAGAIN_NEGATIVE || res == Errors.ERRNO_EWOULDBLOCK_NEGATIVE) {
+                    // Nothing left to read.
+                    byteBuf.release();
+                    byteBuf = null;
+                    allocHandle.lastBytesRead(0);
+                } else {
+                    if (res < 0) {
+                        Errors.ioResult("read", res);
+                    }
+                    if (res == 0) {
+                        // The remote peer closed the connection.
+                        byteBuf.release();
+                        byteBuf = null;
+                        allocHandle.lastBytesRead(-1);
+                        close = true;
+                        // There is nothing left to read as we received an EOF.
+                        readPending = false;
+                    } else {
+                        byteBuf.writerIndex(byteBuf.writerIndex() + res);
+                        allocHandle.lastBytesRead(res);
+                        allocHandle.incMessagesRead(1);
+                        readPending = false;
+                        pipeline.fireChannelRead(byteBuf);
+                        byteBuf = null;
+
+                        if ((allocHandle.continueReading() || rdHupReceived) && !shouldBreakReadReady(config)) {
+                            // Continue the read cycle with the next read operation.
+                            scheduleRead();
+                            return;
+                        }
+                    }
+                }
+                allocHandle.readComplete();
+                pipeline.fireChannelReadComplete();
+
+                if (close) {
+                    shutdownInput(false);
+                }
+            } catch (Throwable t) {
+                handleReadException(pipeline, byteBuf, t, close, allocHandle);
+            }
+            readCycleComplete();
+        }
+
+        @Override
+        void writeComplete(int res) {
+            if (writeIovArray != null) {
+                writeIovArray.release();
+                writeIovArray = null;
+            }
+            if (res > 0) {
+                ChannelOutboundBuffer in = outboundBuffer();
+                if (in != null) {
+                    in.removeBytes(res);
+                }
+            }
+        }
+    }
+
+    private final class IOUringSocketWritableByteChannel extends SocketWritableByteChannel {
+        IOUringSocketWritableByteChannel() {
+            super(socket);
+        }
+
+        @Override
+        protected ByteBufAllocator alloc() {
+            return AbstractIOUringStreamChannel.this.alloc();
+        }
+    }
+}
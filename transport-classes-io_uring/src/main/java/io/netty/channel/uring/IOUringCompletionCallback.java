@@ -0,0 +1,31 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+/**
+ * Callback which is notified for each entry that is reaped from the {@link IOUringCompletionQueue}.
+ */
+interface IOUringCompletionCallback {
+
+    /**
+     * Called for each completion.
+     *
+     * @param res       the result of the operation, a negative errno value on failure.
+     * @param flags     the flags of the completion.
+     * @param userData  the user data that was used when the operation was submitted.
+     */
+    void handle(int res, int flags, long userData);
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.util.internal.PlatformDependent;
+
+/**
+ * The completion queue of an io_uring instance. Completions are reaped in batches and the head is only published to
+ * the kernel once per batch.
+ */
+final class IOUringCompletionQueue {
+
+    // Offsets into struct io_uring_cqe
+    private static final int CQE_USER_DATA_FIELD = 0;
+    private static final int CQE_RES_FIELD = 8;
+    private static final int CQE_FLAGS_FIELD = 12;
+
+    private final long kHeadAddress;
+    private final long kTailAddress;
+    private final long kOverflowAddress;
+    private final long cqesAddress;
+    private final int ringMask;
+    private final int ringEntries;
+
+    private int ringHead;
+
+    IOUringCompletionQueue(long kHeadAddress, long kTailAddress, long kRingMaskAddress, long kRingEntriesAddress,
+                           long kOverflowAddress, long cqesAddress) {
+        this.kHeadAddress = kHeadAddress;
+        this.kTailAddress = kTailAddress;
+        this.kOverflowAddress = kOverflowAddress;
+        this.cqesAddress = cqesAddress;
+        ringMask = PlatformDependent.getInt(kRingMaskAddress);
+        ringEntries = PlatformDependent.getInt(kRingEntriesAddress);
+        ringHead = PlatformDependent.getIntVolatile(kHeadAddress);
+    }
+
+    /**
+     * Returns {@code true} if there are completions which were not processed yet.
+     */
+    boolean hasCompletions() {
+        return ringHead != PlatformDependent.getIntVolatile(kTailAddress);
+    }
+
+    /**
+     * Returns the number of completions the kernel could not store because the queue was full.
+     */
+    int overflow() {
+        return PlatformDependent.getIntVolatile(kOverflowAddress);
+    }
+
+    int ringEntries() {
+        return ringEntries;
+    }
+
+    /**
+     * Process all completions that are currently in the queue and return the number of processed completions.
+     */
+    int process(IOUringCompletionCallback callback) {
+        int processed = 0;
+        for (;;) {
+            int tail = PlatformDependent.getIntVolatile(kTailAddress);
+            if (ringHead == tail) {
+                return processed;
+            }
+            try {
+                // Process a full batch before we let the kernel know that the slots can be reused.
+                do {
+                    long cqeAddress = cqesAddress + (long) (ringHead & ringMask) * Native.SIZEOF_CQE;
+                    long userData = PlatformDependent.getLong(cqeAddress + CQE_USER_DATA_FIELD);
+                    int res = PlatformDependent.getInt(cqeAddress + CQE_RES_FIELD);
+                    int flags = PlatformDependent.getInt(cqeAddress + CQE_FLAGS_FIELD);
+                    ringHead++;
+                    processed++;
+                    callback.handle(res, flags, userData);
+                } while (ringHead != tail);
+            } finally {
+                PlatformDependent.putIntOrdered(kHeadAddress, ringHead);
+            }
+        }
+    }
+}
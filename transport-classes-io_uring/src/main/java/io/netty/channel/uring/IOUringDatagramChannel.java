@@ -0,0 +1,394 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.AddressedEnvelope;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelMetadata;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.DefaultAddressedEnvelope;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.DatagramPacket;
+import io.netty.channel.socket.InternetProtocolFamily;
+import io.netty.channel.unix.Errors;
+import io.netty.channel.unix.Errors.NativeIoException;
+import io.netty.util.internal.StringUtil;
+import io.netty.util.internal.UnstableApi;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.PortUnreachableException;
+import java.net.SocketAddress;
+
+import static io.netty.channel.uring.LinuxSocket.newSocketDgram;
+
+/**
+ * {@link DatagramChannel} implementation that uses io_uring to submit {@code RECVMSG} and {@code SENDMSG}
+ * operations. Multicast is not supported yet.
+ */
+@UnstableApi
+public final class IOUringDatagramChannel extends AbstractIOUringChannel implements DatagramChannel {
+    private static final ChannelMetadata METADATA = new ChannelMetadata(true, 16);
+    private static final String EXPECTED_TYPES =
+            " (expected: " + StringUtil.simpleClassName(DatagramPacket.class) + ", " +
+            StringUtil.simpleClassName(AddressedEnvelope.class) + '<' +
+            StringUtil.simpleClassName(ByteBuf.class) + ", " +
+            StringUtil.simpleClassName(InetSocketAddress.class) + ">, " +
+            StringUtil.simpleClassName(ByteBuf.class) + ')';
+
+    private final IOUringDatagramChannelConfig config;
+    private final MsgHdrMemory recvMsgHdr = new MsgHdrMemory();
+    private final MsgHdrMemory sendMsgHdr = new MsgHdrMemory();
+    // The buffer the receive operation which is in flight reads into.
+    private ByteBuf readBuffer;
+
+    public IOUringDatagramChannel() {
+        this((InternetProtocolFamily) null);
+    }
+
+    public IOUringDatagramChannel(InternetProtocolFamily family) {
+        this(family == null ? newSocketDgram() : newSocketDgram(family), false);
+    }
+
+    public IOUringDatagramChannel(int fd) {
+        this(new LinuxSocket(fd), true);
+    }
+
+    private IOUringDatagramChannel(LinuxSocket fd, boolean active) {
+        super(null, fd, active);
+        config = new IOUringDatagramChannelConfig(this);
+    }
+
+    @Override
+    public InetSocketAddress remoteAddress() {
+        return (InetSocketAddress) super.remoteAddress();
+    }
+
+    @Override
+    public InetSocketAddress localAddress() {
+        return (InetSocketAddress) super.localAddress();
+    }
+
+    @Override
+    public ChannelMetadata metadata() {
+        return METADATA;
+    }
+
+    @Override
+    public boolean isActive() {
+        return socket.isOpen() && (config.getActiveOnOpen() && isRegistered() || active);
+    }
+
+    @Override
+    public boolean isConnected() {
+        return remoteAddress0() != null;
+    }
+
+    @Override
+    public IOUringDatagramChannelConfig config() {
+        return config;
+    }
+
+    @Override
+    protected void doBind(SocketAddress localAddress) throws Exception {
+        super.doBind(localAddress);
+        active = true;
+    }
+
+    @Override
+    protected void doDisconnect() throws Exception {
+        socket.disconnect();
+        active = false;
+        resetCachedAddresses();
+    }
+
+    @Override
+    protected AbstractIOUringUnsafe newUnsafe() {
+        return new IOUringDatagramChannelUnsafe();
+    }
+
+    @Override
+    long scheduleRead0() {
+        final RecvByteBufAllocator.Handle allocHandle = unsafe().recvBufAllocHandle();
+        // We always need a direct buffer as the kernel will write into it while we are not in a JNI call.
+        ByteBuf byteBuf = alloc().directBuffer(allocHandle.guess());
+        allocHandle.attemptedBytesRead(byteBuf.writableBytes());
+        readBuffer = byteBuf;
+        long msgHdr = recvMsgHdr.prepareRecv(memoryAddress(byteBuf) + byteBuf.writerIndex(), byteBuf.writableBytes());
+        long userData = userData(Native.IORING_OP_RECVMSG, (short) 0);
+        submissionQueue().addRecvmsg(socket.intValue(), msgHdr, 0, userData);
+        return userData;
+    }
+
+    @Override
+    long scheduleWrite0(ChannelOutboundBuffer in) {
+        Object msg = in.current();
+        if (msg == null) {
+            return 0;
+        }
+        final ByteBuf data;
+        final InetSocketAddress recipient;
+        if (msg instanceof AddressedEnvelope) {
+            @SuppressWarnings("unchecked")
+            AddressedEnvelope<ByteBuf, InetSocketAddress> envelope =
+                    (AddressedEnvelope<ByteBuf, InetSocketAddress>) msg;
+            data = envelope.content();
+            recipient = envelope.recipient();
+        } else {
+            data = (ByteBuf) msg;
+            recipient = null;
+        }
+        long msgHdr = sendMsgHdr.prepareSend(socket.isIpv6(), memoryAddress(data) + data.readerIndex(),
+                data.readableBytes(), recipient);
+        long userData = userData(Native.IORING_OP_SENDMSG, (short) 0);
+        submissionQueue().addSendmsg(socket.intValue(), msgHdr, 0, userData);
+        return userData;
+    }
+
+    @Override
+    protected Object filterOutboundMessage(Object msg) {
+        if (msg instanceof DatagramPacket) {
+            DatagramPacket packet = (DatagramPacket) msg;
+            ByteBuf content = packet.content();
+            return isBufferCopyNeededForWrite(content) ?
+                    new DatagramPacket(newDirectBuffer(packet, content), packet.recipient()) : msg;
+        }
+
+        if (msg instanceof ByteBuf) {
+            ByteBuf buf = (ByteBuf) msg;
+            return isBufferCopyNeededForWrite(buf)? newDirectBuffer(buf) : buf;
+        }
+
+        if (msg instanceof AddressedEnvelope) {
+            @SuppressWarnings("unchecked")
+            AddressedEnvelope<Object, SocketAddress> e = (AddressedEnvelope<Object, SocketAddress>) msg;
+            if (e.content() instanceof ByteBuf &&
+                (e.recipient() == null || e.recipient() instanceof InetSocketAddress)) {
+
+                ByteBuf content = (ByteBuf) e.content();
+                return isBufferCopyNeededForWrite(content)?
+                        new DefaultAddressedEnvelope<ByteBuf, InetSocketAddress>(
+                            newDirectBuffer(e, content), (InetSocketAddress) e.recipient()) : e;
+            }
+        }
+
+        throw new UnsupportedOperationException(
+                "unsupported message type: " + StringUtil.simpleClassName(msg) + EXPECTED_TYPES);
+    }
+
+    private static boolean isBufferCopyNeededForWrite(ByteBuf buf) {
+        // The datagram is sent from a single memory address, so a buffer that does not expose one (like a
+        // CompositeByteBuf) needs to be copied.
+        return !buf.hasMemoryAddress();
+    }
+
+    private static IOException translateForConnected(NativeIoException e) {
+        // We need to correctly translate connect errors to match NIO behaviour.
+        if (e.expectedErr() == Errors.ERROR_ECONNREFUSED_NEGATIVE) {
+            PortUnreachableException error = new PortUnreachableException(e.getMessage());
+            error.initCause(e);
+            return error;
+        }
+        return e;
+    }
+
+    @Override
+    void freeResources() {
+        super.freeResources();
+        if (readBuffer != null) {
+            readBuffer.release();
+            readBuffer = null;
+        }
+        recvMsgHdr.release();
+        sendMsgHdr.release();
+    }
+
+    @Override
+    public ChannelFuture joinGroup(InetAddress multicastAddress) {
+        return joinGroup(multicastAddress, newPromise());
+    }
+
+    @Override
+    public ChannelFuture joinGroup(InetAddress multicastAddress, ChannelPromise promise) {
+        return multicastNotSupported(promise);
+    }
+
+    @Override
+    public ChannelFuture joinGroup(InetSocketAddress multicastAddress, NetworkInterface networkInterface) {
+        return joinGroup(multicastAddress, networkInterface, newPromise());
+    }
+
+    @Override
+    public ChannelFuture joinGroup(
+            InetSocketAddress multicastAddress, NetworkInterface networkInterface, ChannelPromise promise) {
+        return multicastNotSupported(promise);
+    }
+
+    @Override
+    public ChannelFuture joinGroup(
+            InetAddress multicastAddress, NetworkInterface networkInterface, InetAddress source) {
+        return joinGroup(multicastAddress, networkInterface, source, newPromise());
+    }
+
+    @Override
+    public ChannelFuture joinGroup(
+            InetAddress multicastAddress, NetworkInterface networkInterface, InetAddress source,
+            ChannelPromise promise) {
+        return multicastNotSupported(promise);
+    }
+
+    @Override
+    public ChannelFuture leaveGroup(InetAddress multicastAddress) {
+        return leaveGroup(multicastAddress, newPromise());
+    }
+
+    @Override
+    public ChannelFuture leaveGroup(InetAddress multicastAddress, ChannelPromise promise) {
+        return multicastNotSupported(promise);
+    }
+
+    @Override
+    public ChannelFuture leaveGroup(InetSocketAddress multicastAddress, NetworkInterface networkInterface) {
+        return leaveGroup(multicastAddress, networkInterface, newPromise());
+    }
+
+    @Override
+    public ChannelFuture leaveGroup(
+            InetSocketAddress multicastAddress, NetworkInterface networkInterface, ChannelPromise promise) {
+        return multicastNotSupported(promise);
+    }
+
+    @Override
+    public ChannelFuture leaveGroup(
+            InetAddress multicastAddress, NetworkInterface networkInterface, InetAddress source) {
+        return leaveGroup(multicastAddress, networkInterface, source, newPromise());
+    }
+
+    @Override
+    public ChannelFuture leaveGroup(
+            InetAddress multicastAddress, NetworkInterface networkInterface, InetAddress source,
+            ChannelPromise promise) {
+        return multicastNotSupported(promise);
+    }
+
+    @Override
+    public ChannelFuture block(
+            InetAddress multicastAddress, NetworkInterface networkInterface, InetAddress sourceToBlock) {
+        return block(multicastAddress, networkInterface, sourceToBlock, newPromise());
+    }
+
+    @Override
+    public ChannelFuture block(
+            InetAddress multicastAddress, NetworkInterface networkInterface, InetAddress sourceToBlock,
+            ChannelPromise promise) {
+        return multicastNotSupported(promise);
+    }
+
+    @Override
+    public ChannelFuture block(InetAddress multicastAddress, InetAddress sourceToBlock) {
+        return block(multicastAddress, sourceToBlock, newPromise());
+    }
+
+    @Override
+    public ChannelFuture block(
+            InetAddress multicastAddress, InetAddress sourceToBlock, ChannelPromise promise) {
+        return multicastNotSupported(promise);
+    }
+
+    private static ChannelFuture multicastNotSupported(ChannelPromise promise) {
+        return promise.setFailure(new UnsupportedOperationException(
+                "Multicast not supported by the io_uring transport"));
+    }
+
+    final class IOUringDatagramChannelUnsafe extends AbstractIOUringUnsafe {
+
+        @Override
+        void readComplete(int res) {
+            ByteBuf byteBuf = readBuffer;
+            readBuffer = null;
+            if (res == Native.ERRNO_ECANCELED_NEGATIVE || !isOpen()) {
+                byteBuf.release();
+                return;
+            }
+            final RecvByteBufAllocator.Handle allocHandle = recvBufAllocHandle();
+            final ChannelPipeline pipeline = pipeline();
+            Throwable exception = null;
+            try {
+                if (res == Errors.ERRNO_EAGAIN_NEGATIVE || res == Errors.ERRNO_EWOULDBLOCK_NEGATIVE) {
+                    // Nothing left to read.
+                    byteBuf.release();
+                    byteBuf = null;
+                    allocHandle.lastBytesRead(-1);
+                } else {
+                    if (res < 0) {
+                        try {
+                            Errors.ioResult("recvmsg", res);
+                        } catch (NativeIoException e) {
+                            throw isConnected() ? translateForConnected(e) : e;
+                        }
+                    }
+                    byteBuf.writerIndex(byteBuf.writerIndex() + res);
+                    allocHandle.lastBytesRead(res);
+                    allocHandle.incMessagesRead(1);
+                    InetSocketAddress sender = recvMsgHdr.sender();
+                    if (sender == null) {
+                        sender = IOUringDatagramChannel.this.remoteAddress();
+                    }
+                    readPending = false;
+                    DatagramPacket packet =
+                            new DatagramPacket(byteBuf, IOUringDatagramChannel.this.localAddress(), sender);
+                    byteBuf = null;
+                    pipeline.fireChannelRead(packet);
+
+                    if (allocHandle.continueReading()) {
+                        // Continue the read cycle with the next receive operation.
+                        scheduleRead();
+                        return;
+                    }
+                }
+            } catch (Throwable t) {
+                if (byteBuf != null) {
+                    byteBuf.release();
+                }
+                exception = t;
+            }
+            allocHandle.readComplete();
+            pipeline.fireChannelReadComplete();
+
+            if (exception != null) {
+                pipeline.fireExceptionCaught(exception);
+            }
+            readCycleComplete();
+        }
+
+        @Override
+        void writeComplete(int res) {
+            if (res >= 0) {
+                ChannelOutboundBuffer in = outboundBuffer();
+                if (in != null) {
+                    // A datagram is always written as a whole.
+                    in.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.EventLoopTaskQueueFactory;
+import io.netty.channel.SingleThreadEventLoop;
+import io.netty.channel.unix.FileDescriptor;
+import io.netty.util.collection.IntObjectHashMap;
+import io.netty.util.collection.IntObjectMap;
+import io.netty.util.concurrent.RejectedExecutionHandler;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link EventLoop} which uses io_uring under the covers. Only works on Linux!
+ * <p>
+ * All I/O of the registered channels is queued on the submission queue of the ring and submitted in batches, either
+ * once the loop has nothing else to do and waits for completions or at the end of each loop iteration. Completions
+ * are then reaped in batches and dispatched to the channels.
+ */
+final class IOUringEventLoop extends SingleThreadEventLoop implements IOUringCompletionCallback {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(IOUringEventLoop.class);
+
+    static {
+        // Ensure JNI is initialized by the time this class is loaded by this time!
+        // We use unix-common methods in this class which are backed by JNI methods.
+        IOUring.ensureAvailability();
+    }
+
+    // The registration id which is used for the operations that are issued by the event loop itself.
+    private static final int EVENT_LOOP_ID = 0;
+    private static final short EVENTFD_POLL_DATA = 1;
+    private static final long EVENTFD_POLL_USER_DATA =
+            UserData.encode(EVENT_LOOP_ID, Native.IORING_OP_POLL_ADD, EVENTFD_POLL_DATA);
+
+    private final RingBuffer ringBuffer;
+    private final IOUringSubmissionQueue submissionQueue;
+    private final IOUringCompletionQueue completionQueue;
+    private final FileDescriptor eventFd;
+    private final IntObjectMap<AbstractIOUringChannel> channels =
+            new IntObjectHashMap<AbstractIOUringChannel>(4096);
+    private int nextChannelId = EVENT_LOOP_ID + 1;
+
+    // Memory for the struct __kernel_timespec that is used by the timeout operation.
+    private final long timeoutMemoryAddress;
+    // The user data of the timeout that is currently armed or 0 if none is armed.
+    private long armedTimeoutUserData;
+    private short timeoutGeneration;
+    private long prevDeadlineNanos = NONE;
+
+    private static final long AWAKE = -1L;
+    private static final long NONE = Long.MAX_VALUE;
+
+    // nextWakeupNanos is:
+    //    AWAKE            when EL is awake
+    //    NONE             when EL is waiting with no wakeup scheduled
+    //    other value T    when EL is waiting with wakeup scheduled at time T
+    private final AtomicLong nextWakeupNanos = new AtomicLong(AWAKE);
+    private boolean pendingWakeup;
+    private volatile int ioRatio = 50;
+
+    IOUringEventLoop(EventLoopGroup parent, Executor executor, int ringSize,
+                     RejectedExecutionHandler rejectedExecutionHandler,
+                     EventLoopTaskQueueFactory taskQueueFactory, EventLoopTaskQueueFactory tailTaskQueueFactory) {
+        super(parent, executor, false, newTaskQueue(taskQueueFactory), newTaskQueue(tailTaskQueueFactory),
+                rejectedExecutionHandler);
+        RingBuffer ringBuffer = null;
+        FileDescriptor eventFd = null;
+        boolean success = false;
+        try {
+            this.ringBuffer = ringBuffer = Native.createRingBuffer(ringSize);
+            this.eventFd = eventFd = Native.newEventFd();
+            success = true;
+        } finally {
+            if (!success) {
+                if (ringBuffer != null) {
+                    try {
+                        ringBuffer.close();
+                    } catch (Exception e) {
+                        // ignore
+                    }
+                }
+                if (eventFd != null) {
+                    try {
+                        eventFd.close();
+                    } catch (Exception e) {
+                        // ignore
+                    }
+                }
+            }
+        }
+        submissionQueue = ringBuffer.submissionQueue();
+        completionQueue = ringBuffer.completionQueue();
+        timeoutMemoryAddress = PlatformDependent.allocateMemory(Native.SIZEOF_KERNEL_TIMESPEC);
+        // Watch the eventfd so we are woken up by wakeup(...).
+        submissionQueue.addPoll(eventFd.intValue(), Native.POLLIN, EVENTFD_POLL_USER_DATA);
+    }
+
+    private static Queue<Runnable> newTaskQueue(
+            EventLoopTaskQueueFactory queueFactory) {
+        if (queueFactory == null) {
+            return newTaskQueue0(DEFAULT_MAX_PENDING_TASKS);
+        }
+        return queueFactory.newTaskQueue(DEFAULT_MAX_PENDING_TASKS);
+    }
+
+    @Override
+    protected Queue<Runnable> newTaskQueue(int maxPendingTasks) {
+        return newTaskQueue0(maxPendingTasks);
+    }
+
+    private static Queue<Runnable> newTaskQueue0(int maxPendingTasks) {
+        // This event loop never calls takeTask()
+        return maxPendingTasks == Integer.MAX_VALUE ? PlatformDependent.<Runnable>newMpscQueue()
+                : PlatformDependent.<Runnable>newMpscQueue(maxPendingTasks);
+    }
+
+    /**
+     * Returns the {@link IOUringSubmissionQueue} which must be used by the channels to submit operations.
+     */
+    IOUringSubmissionQueue submissionQueue() {
+        return submissionQueue;
+    }
+
+    @Override
+    protected void wakeup(boolean inEventLoop) {
+        if (!inEventLoop && nextWakeupNanos.getAndSet(AWAKE) != AWAKE) {
+            // write to the evfd which will then complete the poll operation and so wake-up io_uring_enter(...)
+            Native.eventFdWrite(eventFd.intValue(), 1L);
+        }
+    }
+
+    @Override
+    protected boolean beforeScheduledTaskSubmitted(long deadlineNanos) {
+        // Note this is also correct for the nextWakeupNanos == -1 (AWAKE) case
+        return deadlineNanos < nextWakeupNanos.get();
+    }
+
+    @Override
+    protected boolean afterScheduledTaskSubmitted(long deadlineNanos) {
+        // Note this is also correct for the nextWakeupNanos == -1 (AWAKE) case
+        return deadlineNanos < nextWakeupNanos.get();
+    }
+
+    /**
+     * Register the given channel with this {@link EventLoop} and return the id which must be used in the user data
+     * of all operations that are submitted for it.
+     */
+    int add(AbstractIOUringChannel ch) {
+        assert inEventLoop();
+        int id;
+        do {
+            id = nextChannelId++;
+            if (id == EVENT_LOOP_ID) {
+                id = nextChannelId++;
+            }
+        } while (channels.containsKey(id));
+        channels.put(id, ch);
+        return id;
+    }
+
+    /**
+     * Remove the channel with the given id from this {@link EventLoop}. This must only be called once there are no
+     * operations in flight for the channel anymore.
+     */
+    void remove(int id, AbstractIOUringChannel ch) {
+        assert inEventLoop();
+        AbstractIOUringChannel old = channels.remove(id);
+        assert old == null || old == ch;
+    }
+
+    /**
+     * Returns the percentage of the desired amount of time spent for I/O in the event loop.
+     */
+    public int getIoRatio() {
+        return ioRatio;
+    }
+
+    /**
+     * Sets the percentage of the desired amount of time spent for I/O in the event loop.  The default value is
+     * {@code 50}, which means the event loop will try to spend the same amount of time for I/O as for non-I/O tasks.
+     */
+    public void setIoRatio(int ioRatio) {
+        if (ioRatio <= 0 || ioRatio > 100) {
+            throw new IllegalArgumentException("ioRatio: " + ioRatio + " (expected: 0 < ioRatio <= 100)");
+        }
+        this.ioRatio = ioRatio;
+    }
+
+    @Override
+    public int registeredChannels() {
+        return channels.size();
+    }
+
+    @Override
+    protected void run() {
+        for (;;) {
+            try {
+                if (!hasTasks() && !completionQueue.hasCompletions()) {
+                    long curDeadlineNanos = nextScheduledTaskDeadlineNanos();
+                    if (curDeadlineNanos == -1L) {
+                        curDeadlineNanos = NONE; // nothing on the calendar
+                    }
+                    nextWakeupNanos.set(curDeadlineNanos);
+                    try {
+                        if (!hasTasks()) {
+                            if (curDeadlineNanos != prevDeadlineNanos) {
+                                // The timeout needs to be re-armed or disarmed
+                                updateTimeout(curDeadlineNanos);
+                            }
+                            // Submit everything that was queued and wait for at least one completion.
+                            submissionQueue.submitAndWait();
+                        }
+                    } finally {
+                        // Try get() first to avoid much more expensive CAS in the case we
+                        // were woken via the wakeup() method (submitted task)
+                        if (nextWakeupNanos.get() == AWAKE || nextWakeupNanos.getAndSet(AWAKE) == AWAKE) {
+                            pendingWakeup = true;
+                        }
+                    }
+                }
+
+                startIteration();
+                final int ioRatio = this.ioRatio;
+                if (ioRatio == 100) {
+                    try {
+                        completionQueue.process(this);
+                    } finally {
+                        // Ensure we always run tasks.
+                        runAllTasks();
+                    }
+                } else {
+                    final long ioStartTime = System.nanoTime();
+                    int processed = 0;
+                    try {
+                        processed = completionQueue.process(this);
+                    } finally {
+                        // Ensure we always run tasks.
+                        if (processed > 0) {
+                            final long ioTime = System.nanoTime() - ioStartTime;
+                            runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
+                        } else {
+                            runAllTasks(0); // This will run the minimum number of tasks
+                        }
+                    }
+                }
+                // Submit everything that was queued while processing the completions and running the tasks.
+                submissionQueue.submit();
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable t) {
+                handleLoopException(t);
+            } finally {
+                // Always handle shutdown even if the loop processing threw an exception.
+                try {
+                    if (isShuttingDown()) {
+                        closeAll();
+                        if (confirmShutdown()) {
+                            break;
+                        }
+                    }
+                } catch (Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    handleLoopException(t);
+                }
+            }
+        }
+    }
+
+    private void updateTimeout(long deadlineNanos) {
+        if (armedTimeoutUserData != 0) {
+            submissionQueue.addTimeoutRemove(armedTimeoutUserData,
+                    UserData.encode(EVENT_LOOP_ID, Native.IORING_OP_TIMEOUT_REMOVE, (short) 0));
+            armedTimeoutUserData = 0;
+        }
+        if (deadlineNanos != NONE) {
+            long delayNanos = deadlineToDelayNanos(deadlineNanos);
+            PlatformDependent.putLong(timeoutMemoryAddress, delayNanos / TimeUnit.SECONDS.toNanos(1));
+            PlatformDependent.putLong(timeoutMemoryAddress + 8, delayNanos % TimeUnit.SECONDS.toNanos(1));
+            // Use a new generation so we can tell apart the completion of a removed timeout from the armed one.
+            armedTimeoutUserData = UserData.encode(EVENT_LOOP_ID, Native.IORING_OP_TIMEOUT, ++timeoutGeneration);
+            submissionQueue.addTimeout(timeoutMemoryAddress, armedTimeoutUserData);
+        }
+        prevDeadlineNanos = deadlineNanos;
+    }
+
+    @Override
+    public void handle(int res, int flags, long userData) {
+        int id = UserData.decodeId(userData);
+        byte op = UserData.decodeOp(userData);
+        if (id == EVENT_LOOP_ID) {
+            handleEventLoopCompletion(res, op, userData);
+            return;
+        }
+        AbstractIOUringChannel ch = channels.get(id);
+        if (ch != null) {
+            ((AbstractIOUringChannel.AbstractIOUringUnsafe) ch.unsafe()).handle(
+                    res, flags, op, UserData.decodeData(userData));
+        }
+        // else the channel was already removed, nothing left to do.
+    }
+
+    private void handleEventLoopCompletion(int res, byte op, long userData) {
+        if (userData == EVENTFD_POLL_USER_DATA) {
+            pendingWakeup = false;
+            // Consume the value and re-arm the poll, the eventfd is non-blocking so this will never block.
+            Native.eventFdRead(eventFd.intValue());
+            if (eventFd.isOpen()) {
+                submissionQueue.addPoll(eventFd.intValue(), Native.POLLIN, EVENTFD_POLL_USER_DATA);
+            }
+        } else if (op == Native.IORING_OP_TIMEOUT && userData == armedTimeoutUserData) {
+            // The armed timeout fired (or was cancelled by the kernel), make sure we arm a new one if needed.
+            armedTimeoutUserData = 0;
+            prevDeadlineNanos = NONE;
+        }
+        // Completions of TIMEOUT_REMOVE and removed timeouts need no handling.
+    }
+
+    /**
+     * Visible only for testing!
+     */
+    void handleLoopException(Throwable t) {
+        logger.warn("Unexpected exception in the io_uring loop.", t);
+
+        // Prevent possible consecutive immediate failures that lead to
+        // excessive CPU consumption.
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            // Ignore.
+        }
+    }
+
+    private void closeAll() {
+        // Using the intermediate collection to prevent ConcurrentModificationException.
+        // In the `close()` method, the channel is deleted from `channels` map.
+        AbstractIOUringChannel[] localChannels = channels.values().toArray(new AbstractIOUringChannel[0]);
+
+        for (AbstractIOUringChannel ch: localChannels) {
+            ch.unsafe().close(ch.unsafe().voidPromise());
+        }
+    }
+
+    @Override
+    protected void cleanup() {
+        try {
+            // Ensure any in-flight wakeup writes have been performed prior to closing eventFd.
+            if (pendingWakeup) {
+                try {
+                    updateTimeout(nanoTime() + TimeUnit.SECONDS.toNanos(1));
+                    while (pendingWakeup && armedTimeoutUserData != 0) {
+                        submissionQueue.submitAndWait();
+                        completionQueue.process(this);
+                    }
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+            try {
+                eventFd.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close the event fd.", e);
+            }
+            try {
+                // Reap what is left so the channels can release the memory of their completed operations.
+                submissionQueue.submit();
+                completionQueue.process(this);
+            } catch (Throwable t) {
+                logger.warn("Failed to process the remaining completions.", t);
+            }
+            try {
+                ringBuffer.close();
+            } catch (Exception e) {
+                logger.warn("Failed to close the io_uring ring.", e);
+            }
+        } finally {
+            // release native memory
+            for (AbstractIOUringChannel ch: channels.values()) {
+                ((AbstractIOUringChannel.AbstractIOUringUnsafe) ch.unsafe()).releaseResources();
+            }
+            channels.clear();
+            PlatformDependent.freeMemory(timeoutMemoryAddress);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.channel.unix.Errors;
+import io.netty.util.internal.PlatformDependent;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+
+import static io.netty.channel.unix.Errors.ERRNO_EAGAIN_NEGATIVE;
+
+/**
+ * The submission queue of an io_uring instance.
+ * <p>
+ * Entries are only written to the shared memory and made visible to the kernel once {@link #submit()} or
+ * {@link #submitAndWait()} is called, which allows to batch many operations into a single {@code io_uring_enter}
+ * call. If the ring is full the entries are kept on the heap until there is space again, so enqueuing never fails.
+ */
+final class IOUringSubmissionQueue {
+
+    // Offsets into struct io_uring_sqe
+    private static final int SQE_OP_CODE_FIELD = 0;
+    private static final int SQE_FLAGS_FIELD = 1;
+    private static final int SQE_IOPRIO_FIELD = 2;
+    private static final int SQE_FD_FIELD = 4;
+    private static final int SQE_OFFSET_FIELD = 8;
+    private static final int SQE_ADDRESS_FIELD = 16;
+    private static final int SQE_LEN_FIELD = 24;
+    private static final int SQE_RW_FLAGS_FIELD = 28;
+    private static final int SQE_USER_DATA_FIELD = 32;
+    private static final int SQE_PAD_FIELD = 40;
+    private static final int SQE_PAD_LENGTH = 24;
+
+    private final long kHeadAddress;
+    private final long kTailAddress;
+    private final long kFlagsAddress;
+    private final long kDroppedAddress;
+    private final long sqesAddress;
+    private final int ringEntries;
+    private final int ringMask;
+    private final int ringFd;
+
+    // Entries which could not be placed into the ring yet as it was full.
+    private final ArrayDeque<long[]> overflow = new ArrayDeque<long[]>();
+
+    private int head;
+    private int tail;
+
+    IOUringSubmissionQueue(long kHeadAddress, long kTailAddress, long kRingMaskAddress, long kRingEntriesAddress,
+                           long kFlagsAddress, long kDroppedAddress, long sqesAddress, int ringFd) {
+        this.kHeadAddress = kHeadAddress;
+        this.kTailAddress = kTailAddress;
+        this.kFlagsAddress = kFlagsAddress;
+        this.kDroppedAddress = kDroppedAddress;
+        this.sqesAddress = sqesAddress;
+        this.ringFd = ringFd;
+        ringMask = PlatformDependent.getInt(kRingMaskAddress);
+        ringEntries = PlatformDependent.getInt(kRingEntriesAddress);
+        head = PlatformDependent.getIntVolatile(kHeadAddress);
+        tail = PlatformDependent.getIntVolatile(kTailAddress);
+    }
+
+    long sqesAddress() {
+        return sqesAddress;
+    }
+
+    int sqesSize() {
+        return ringEntries * Native.SIZEOF_SQE;
+    }
+
+    int ringEntries() {
+        return ringEntries;
+    }
+
+    /**
+     * Returns the number of entries which are queued but were not submitted to the kernel yet.
+     */
+    int pending() {
+        return tail - head + overflow.size();
+    }
+
+    int flags() {
+        return PlatformDependent.getIntVolatile(kFlagsAddress);
+    }
+
+    int dropped() {
+        return PlatformDependent.getIntVolatile(kDroppedAddress);
+    }
+
+    private void enqueue(byte op, int fd, long address, int length, long offset, int rwFlags, long userData) {
+        if (overflow.isEmpty() && tail - head < ringEntries) {
+            writeSqe(op, fd, address, length, offset, rwFlags, userData);
+        } else {
+            overflow.add(new long[] { op, fd, address, length, offset, rwFlags, userData });
+        }
+    }
+
+    private void writeSqe(byte op, int fd, long address, int length, long offset, int rwFlags, long userData) {
+        long sqe = sqesAddress + (long) (tail++ & ringMask) * Native.SIZEOF_SQE;
+        PlatformDependent.putByte(sqe + SQE_OP_CODE_FIELD, op);
+        PlatformDependent.putByte(sqe + SQE_FLAGS_FIELD, (byte) 0);
+        PlatformDependent.putShort(sqe + SQE_IOPRIO_FIELD, (short) 0);
+        PlatformDependent.putInt(sqe + SQE_FD_FIELD, fd);
+        PlatformDependent.putLong(sqe + SQE_OFFSET_FIELD, offset);
+        PlatformDependent.putLong(sqe + SQE_ADDRESS_FIELD, address);
+        PlatformDependent.putInt(sqe + SQE_LEN_FIELD, length);
+        PlatformDependent.putInt(sqe + SQE_RW_FLAGS_FIELD, rwFlags);
+        PlatformDependent.putLong(sqe + SQE_USER_DATA_FIELD, userData);
+        PlatformDependent.setMemory(sqe + SQE_PAD_FIELD, SQE_PAD_LENGTH, (byte) 0);
+    }
+
+    private void drainOverflow() {
+        long[] entry;
+        while (tail - head < ringEntries && (entry = overflow.poll()) != null) {
+            writeSqe((byte) entry[0], (int) entry[1], entry[2], (int) entry[3], entry[4], (int) entry[5], entry[6]);
+        }
+    }
+
+    void addNop(long userData) {
+        enqueue(Native.IORING_OP_NOP, -1, 0, 0, 0, 0, userData);
+    }
+
+    void addRead(int fd, long bufferAddress, int pos, int limit, long userData) {
+        enqueue(Native.IORING_OP_READ, fd, bufferAddress + pos, limit - pos, 0, 0, userData);
+    }
+
+    void addWrite(int fd, long bufferAddress, int pos, int limit, long userData) {
+        enqueue(Native.IORING_OP_WRITE, fd, bufferAddress + pos, limit - pos, 0, 0, userData);
+    }
+
+    void addWritev(int fd, long iovecArrayAddress, int length, long userData) {
+        enqueue(Native.IORING_OP_WRITEV, fd, iovecArrayAddress, length, 0, 0, userData);
+    }
+
+    void addPoll(int fd, int pollMask, long userData) {
+        enqueue(Native.IORING_OP_POLL_ADD, fd, 0, 0, 0, pollMask, userData);
+    }
+
+    void addPollRemove(long pollUserData, long userData) {
+        enqueue(Native.IORING_OP_POLL_REMOVE, -1, pollUserData, 0, 0, 0, userData);
+    }
+
+    void addAccept(int fd, long addressAddress, long addressLengthAddress, long userData) {
+        enqueue(Native.IORING_OP_ACCEPT, fd, addressAddress, 0, addressLengthAddress,
+                Native.SOCK_NONBLOCK | Native.SOCK_CLOEXEC, userData);
+    }
+
+    void addConnect(int fd, long socketAddress, int socketAddressLength, long userData) {
+        enqueue(Native.IORING_OP_CONNECT, fd, socketAddress, 0, socketAddressLength, 0, userData);
+    }
+
+    void addSendmsg(int fd, long msgHdrAddress, int flags, long userData) {
+        enqueue(Native.IORING_OP_SENDMSG, fd, msgHdrAddress, 1, 0, flags, userData);
+    }
+
+    void addRecvmsg(int fd, long msgHdrAddress, int flags, long userData) {
+        enqueue(Native.IORING_OP_RECVMSG, fd, msgHdrAddress, 1, 0, flags, userData);
+    }
+
+    void addTimeout(long timespecAddress, long userData) {
+        enqueue(Native.IORING_OP_TIMEOUT, -1, timespecAddress, 1, 0, 0, userData);
+    }
+
+    void addTimeoutRemove(long timeoutUserData, long userData) {
+        enqueue(Native.IORING_OP_TIMEOUT_REMOVE, -1, timeoutUserData, 0, 0, 0, userData);
+    }
+
+    void addCancel(long targetUserData, long userData) {
+        enqueue(Native.IORING_OP_ASYNC_CANCEL, -1, targetUserData, 0, 0, 0, userData);
+    }
+
+    /**
+     * Submit all pending entries to the kernel without waiting for completions.
+     *
+     * @return the number of submitted entries.
+     */
+    int submit() throws IOException {
+        return submit(0, 0);
+    }
+
+    /**
+     * Submit all pending entries to the kernel and wait until there is at least one completion.
+     *
+     * @return the number of submitted entries.
+     */
+    int submitAndWait() throws IOException {
+        return submit(1, Native.IORING_ENTER_GETEVENTS);
+    }
+
+    private int submit(int minComplete, int flags) throws IOException {
+        int submitted = 0;
+        for (;;) {
+            int toSubmit = tail - head;
+            if (toSubmit == 0 && minComplete == 0) {
+                return submitted;
+            }
+            // Publish the tail, this needs a store-release as the kernel will read the entries after it sees it.
+            PlatformDependent.putIntOrdered(kTailAddress, tail);
+            int ret = Native.ioUringEnter(ringFd, toSubmit, minComplete, flags);
+            head = PlatformDependent.getIntVolatile(kHeadAddress);
+            if (ret < 0) {
+                if (ret == Native.ERRNO_EBUSY_NEGATIVE || ret == ERRNO_EAGAIN_NEGATIVE) {
+                    // The kernel could not consume the entries, most likely because the completion queue overflowed.
+                    // The entries stay queued and are submitted again once the completions were reaped.
+                    return submitted;
+                }
+                throw Errors.newIOException("io_uring_enter", ret);
+            }
+            submitted += ret;
+            if (overflow.isEmpty() || ret == 0) {
+                return submitted;
+            }
+            drainOverflow();
+            // We already waited (if requested), now just flush what was left over.
+            minComplete = 0;
+            flags = 0;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.channel.unix.Buffer;
+import io.netty.util.internal.PlatformDependent;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+
+/**
+ * Native memory which holds a {@code struct msghdr} with a single {@code struct iovec} and the
+ * {@code struct sockaddr_storage} that is used as {@code msg_name}. It is used by {@code SENDMSG} and
+ * {@code RECVMSG} and so must stay untouched until the operation completed.
+ */
+final class MsgHdrMemory {
+    private static final int ADDRESS_SIZE = Buffer.addressSize();
+
+    private final ByteBuffer memory;
+    private final long msgHdrAddress;
+    private final long iovAddress;
+    private final long sockAddress;
+
+    MsgHdrMemory() {
+        memory = Buffer.allocateDirectWithNativeOrder(
+                Native.SIZEOF_MSGHDR + Native.SIZEOF_IOVEC + Native.SIZEOF_SOCKADDR_STORAGE);
+        msgHdrAddress = Buffer.memoryAddress(memory);
+        iovAddress = msgHdrAddress + Native.SIZEOF_MSGHDR;
+        sockAddress = iovAddress + Native.SIZEOF_IOVEC;
+    }
+
+    /**
+     * Prepare the {@code msghdr} for a {@code RECVMSG} into the given memory region.
+     */
+    long prepareRecv(long bufferAddress, int length) {
+        write(bufferAddress, length, Native.SIZEOF_SOCKADDR_STORAGE);
+        return msgHdrAddress;
+    }
+
+    /**
+     * Prepare the {@code msghdr} for a {@code SENDMSG} of the given memory region. If {@code recipient} is
+     * {@code null} the datagram is sent to the address the socket is connected to.
+     */
+    long prepareSend(boolean ipv6, long bufferAddress, int length, InetSocketAddress recipient) {
+        int sockAddressLength = 0;
+        if (recipient != null) {
+            sockAddressLength = SockaddrIn.write(ipv6, sockAddress, recipient);
+        }
+        write(bufferAddress, length, sockAddressLength);
+        return msgHdrAddress;
+    }
+
+    /**
+     * Returns the sender of the datagram that was received by the last {@code RECVMSG}, or {@code null} if the
+     * kernel did not fill in an address.
+     */
+    InetSocketAddress sender() {
+        int length = PlatformDependent.getInt(msgHdrAddress + Native.MSGHDR_OFFSETOF_MSG_NAMELEN);
+        return length == 0 ? null : SockaddrIn.read(sockAddress);
+    }
+
+    private void write(long bufferAddress, int length, int sockAddressLength) {
+        PlatformDependent.setMemory(msgHdrAddress, Native.SIZEOF_MSGHDR, (byte) 0);
+        if (ADDRESS_SIZE == 8) {
+            PlatformDependent.putLong(iovAddress, bufferAddress);
+            PlatformDependent.putLong(iovAddress + ADDRESS_SIZE, length);
+            PlatformDependent.putLong(msgHdrAddress + Native.MSGHDR_OFFSETOF_MSG_IOV, iovAddress);
+            PlatformDependent.putLong(msgHdrAddress + Native.MSGHDR_OFFSETOF_MSG_IOVLEN, 1);
+            if (sockAddressLength != 0) {
+                PlatformDependent.putLong(msgHdrAddress + Native.MSGHDR_OFFSETOF_MSG_NAME, sockAddress);
+            }
+        } else {
+            assert ADDRESS_SIZE == 4;
+            PlatformDependent.putInt(iovAddress, (int) bufferAddress);
+            PlatformDependent.putInt(iovAddress + ADDRESS_SIZE, length);
+            PlatformDependent.putInt(msgHdrAddress + Native.MSGHDR_OFFSETOF_MSG_IOV, (int) iovAddress);
+            PlatformDependent.putInt(msgHdrAddress + Native.MSGHDR_OFFSETOF_MSG_IOVLEN, 1);
+            if (sockAddressLength != 0) {
+                PlatformDependent.putInt(msgHdrAddress + Native.MSGHDR_OFFSETOF_MSG_NAME, (int) sockAddress);
+            }
+        }
+        PlatformDependent.putInt(msgHdrAddress + Native.MSGHDR_OFFSETOF_MSG_NAMELEN, sockAddressLength);
+    }
+
+    void release() {
+        Buffer.free(memory);
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.channel.unix.FileDescriptor;
+import io.netty.channel.unix.Unix;
+import io.netty.util.internal.NativeLibraryLoader;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.ThrowableUtil;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.Selector;
+
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.afInet;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.afInet6;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.ebusy;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.ecanceled;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.enoent;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.etime;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.kernelVersion;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.msghdrOffsetofMsgIov;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.msghdrOffsetofMsgIovlen;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.msghdrOffsetofMsgName;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.msghdrOffsetofMsgNamelen;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.pollerr;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.pollhup;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.pollin;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.pollout;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.pollrdhup;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sizeofCqe;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sizeofIovec;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sizeofKernelTimespec;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sizeofMsghdr;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sizeofSockaddrIn;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sizeofSockaddrIn6;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sizeofSockaddrStorage;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sizeofSocklenT;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sizeofSqe;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sockCloexec;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sockNonblock;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sockaddrIn6OffsetofSin6Addr;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sockaddrIn6OffsetofSin6Flowinfo;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sockaddrIn6OffsetofSin6Port;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sockaddrIn6OffsetofSin6ScopeId;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sockaddrInOffsetofSinAddr;
+import static io.netty.channel.uring.NativeStaticallyReferencedJniMethods.sockaddrInOffsetofSinPort;
+
+/**
+ * Native helper methods
+ * <p><strong>Internal usage only!</strong>
+ * <p>Static members which call JNI methods must be defined in {@link NativeStaticallyReferencedJniMethods}.
+ */
+final class Native {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(Native.class);
+
+    static {
+        Selector selector = null;
+        try {
+            // We call Selector.open() as this will under the hood cause IOUtil to be loaded.
+            // This is a workaround for a possible classloader deadlock that could happen otherwise:
+            //
+            // See https://github.com/netty/netty/issues/10187
+            selector = Selector.open();
+        } catch (IOException ignore) {
+            // Just ignore
+        }
+
+        try {
+            // First, try calling a side-effect free JNI method to see if the library was already
+            // loaded by the application.
+            sizeofSqe();
+        } catch (UnsatisfiedLinkError ignore) {
+            // The library was not previously loaded, load it now.
+            loadNativeLibrary();
+        } finally {
+            try {
+                if (selector != null) {
+                    selector.close();
+                }
+            } catch (IOException ignore) {
+                // Just ignore
+            }
+        }
+        Unix.registerInternal(new Runnable() {
+            @Override
+            public void run() {
+                registerUnix();
+            }
+        });
+    }
+
+    private static native int registerUnix();
+
+    static final int DEFAULT_RING_SIZE = 4096;
+
+    // Poll events
+    static final int POLLIN = pollin();
+    static final int POLLOUT = pollout();
+    static final int POLLRDHUP = pollrdhup();
+    static final int POLLERR = pollerr();
+    static final int POLLHUP = pollhup();
+
+    // Negative errno values which are used by the io_uring completions
+    static final int ERRNO_ETIME_NEGATIVE = -etime();
+    static final int ERRNO_ECANCELED_NEGATIVE = -ecanceled();
+    static final int ERRNO_ENOENT_NEGATIVE = -enoent();
+    static final int ERRNO_EBUSY_NEGATIVE = -ebusy();
+
+    // Socket address and message layout
+    static final int AF_INET = afInet();
+    static final int AF_INET6 = afInet6();
+    static final int SOCK_NONBLOCK = sockNonblock();
+    static final int SOCK_CLOEXEC = sockCloexec();
+    static final int SIZEOF_SOCKADDR_IN = sizeofSockaddrIn();
+    static final int SIZEOF_SOCKADDR_IN6 = sizeofSockaddrIn6();
+    static final int SIZEOF_SOCKADDR_STORAGE = sizeofSockaddrStorage();
+    static final int SOCKADDR_IN_OFFSETOF_SIN_PORT = sockaddrInOffsetofSinPort();
+    static final int SOCKADDR_IN_OFFSETOF_SIN_ADDR = sockaddrInOffsetofSinAddr();
+    static final int SOCKADDR_IN6_OFFSETOF_SIN6_PORT = sockaddrIn6OffsetofSin6Port();
+    static final int SOCKADDR_IN6_OFFSETOF_SIN6_FLOWINFO = sockaddrIn6OffsetofSin6Flowinfo();
+    static final int SOCKADDR_IN6_OFFSETOF_SIN6_ADDR = sockaddrIn6OffsetofSin6Addr();
+    static final int SOCKADDR_IN6_OFFSETOF_SIN6_SCOPE_ID = sockaddrIn6OffsetofSin6ScopeId();
+    static final int SIZEOF_SOCKLEN_T = sizeofSocklenT();
+    static final int SIZEOF_IOVEC = sizeofIovec();
+    static final int SIZEOF_MSGHDR = sizeofMsghdr();
+    static final int MSGHDR_OFFSETOF_MSG_NAME = msghdrOffsetofMsgName();
+    static final int MSGHDR_OFFSETOF_MSG_NAMELEN = msghdrOffsetofMsgNamelen();
+    static final int MSGHDR_OFFSETOF_MSG_IOV = msghdrOffsetofMsgIov();
+    static final int MSGHDR_OFFSETOF_MSG_IOVLEN = msghdrOffsetofMsgIovlen();
+    static final int SIZEOF_KERNEL_TIMESPEC = sizeofKernelTimespec();
+    static final int SIZEOF_SQE = sizeofSqe();
+    static final int SIZEOF_CQE = sizeofCqe();
+
+    // The io_uring opcodes are part of the kernel ABI and so will never change.
+    static final byte IORING_OP_NOP = 0;
+    static final byte IORING_OP_WRITEV = 2;
+    static final byte IORING_OP_POLL_ADD = 6;
+    static final byte IORING_OP_POLL_REMOVE = 7;
+    static final byte IORING_OP_SENDMSG = 9;
+    static final byte IORING_OP_RECVMSG = 10;
+    static final byte IORING_OP_TIMEOUT = 11;
+    static final byte IORING_OP_TIMEOUT_REMOVE = 12;
+    static final byte IORING_OP_ACCEPT = 13;
+    static final byte IORING_OP_ASYNC_CANCEL = 14;
+    static final byte IORING_OP_CONNECT = 16;
+    static final byte IORING_OP_READ = 22;
+    static final byte IORING_OP_WRITE = 23;
+
+    static final int IORING_ENTER_GETEVENTS = 1;
+
+    /**
+     * All the operations that are used by this transport, the kernel must support all of them.
+     */
+    private static final int[] REQUIRED_OPS = {
+            IORING_OP_WRITEV, IORING_OP_POLL_ADD, IORING_OP_POLL_REMOVE, IORING_OP_SENDMSG, IORING_OP_RECVMSG,
+            IORING_OP_TIMEOUT, IORING_OP_TIMEOUT_REMOVE, IORING_OP_ACCEPT, IORING_OP_ASYNC_CANCEL,
+            IORING_OP_CONNECT, IORING_OP_READ, IORING_OP_WRITE
+    };
+
+    static final String KERNEL_VERSION = kernelVersion();
+
+    static RingBuffer createRingBuffer() {
+        return createRingBuffer(DEFAULT_RING_SIZE);
+    }
+
+    static RingBuffer createRingBuffer(int ringSize) {
+        long[] values = ioUringSetup(ringSize);
+        assert values.length == RingBuffer.INFO_LENGTH;
+        return new RingBuffer(values);
+    }
+
+    /**
+     * Check that all the io_uring operations used by this transport are supported by the kernel.
+     */
+    static void checkAllOpsSupported(int ringFd) {
+        if (!ioUringProbe(ringFd, REQUIRED_OPS)) {
+            throw new UnsupportedOperationException(
+                    "Not all required io_uring operations are supported by the kernel (" + KERNEL_VERSION + ')');
+        }
+    }
+
+    static FileDescriptor newEventFd() {
+        return new FileDescriptor(eventFd());
+    }
+
+    private static native long[] ioUringSetup(int entries);
+    static native int ioUringEnter(int ringFd, int toSubmit, int minComplete, int flags);
+    static native void ioUringExit(long sqRingAddress, int sqRingSize, long cqRingAddress, int cqRingSize,
+                                   long sqesAddress, int sqesSize, int ringFd);
+    private static native boolean ioUringProbe(int ringFd, int[] ops);
+
+    private static native int eventFd();
+    static native void eventFdWrite(int fd, long value);
+    static native void eventFdRead(int fd);
+
+    private static void loadNativeLibrary() {
+        String name = PlatformDependent.normalizedOs();
+        if (!"linux".equals(name)) {
+            throw new IllegalStateException("Only supported on Linux");
+        }
+        String staticLibName = "netty_transport_native_io_uring";
+        String sharedLibName = staticLibName + '_' + PlatformDependent.normalizedArch();
+        ClassLoader cl = PlatformDependent.getClassLoader(Native.class);
+        try {
+            NativeLibraryLoader.load(sharedLibName, cl);
+        } catch (UnsatisfiedLinkError e1) {
+            try {
+                NativeLibraryLoader.load(staticLibName, cl);
+                logger.debug("Failed to load {}", sharedLibName, e1);
+            } catch (UnsatisfiedLinkError e2) {
+                ThrowableUtil.addSuppressed(e1, e2);
+                throw e1;
+            }
+        }
+    }
+
+    private Native() {
+        // utility
+    }
+}
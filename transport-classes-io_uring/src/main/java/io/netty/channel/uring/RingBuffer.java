@@ -0,0 +1,94 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+/**
+ * The submission and completion queue of an io_uring instance, mapped into our address space.
+ */
+final class RingBuffer {
+    // The layout of the long[] that is returned by Native.ioUringSetup(...), keep in sync with netty_io_uring_native.c
+    static final int INFO_LENGTH = 19;
+    private static final int SQ_HEAD = 0;
+    private static final int SQ_TAIL = 1;
+    private static final int SQ_RING_MASK = 2;
+    private static final int SQ_RING_ENTRIES = 3;
+    private static final int SQ_FLAGS = 4;
+    private static final int SQ_DROPPED = 5;
+    private static final int SQES = 6;
+    private static final int SQ_RING = 7;
+    private static final int SQ_RING_SIZE = 8;
+    private static final int CQ_HEAD = 9;
+    private static final int CQ_TAIL = 10;
+    private static final int CQ_RING_MASK = 11;
+    private static final int CQ_RING_ENTRIES = 12;
+    private static final int CQ_OVERFLOW = 13;
+    private static final int CQES = 14;
+    private static final int CQ_RING = 15;
+    private static final int CQ_RING_SIZE = 16;
+    private static final int RING_FD = 17;
+    private static final int FEATURES = 18;
+
+    private final IOUringSubmissionQueue submissionQueue;
+    private final IOUringCompletionQueue completionQueue;
+    private final long sqRingAddress;
+    private final int sqRingSize;
+    private final long cqRingAddress;
+    private final int cqRingSize;
+    private final int features;
+    private final int ringFd;
+    private boolean closed;
+
+    RingBuffer(long[] info) {
+        ringFd = (int) info[RING_FD];
+        features = (int) info[FEATURES];
+        sqRingAddress = info[SQ_RING];
+        sqRingSize = (int) info[SQ_RING_SIZE];
+        cqRingAddress = info[CQ_RING];
+        cqRingSize = (int) info[CQ_RING_SIZE];
+        submissionQueue = new IOUringSubmissionQueue(info[SQ_HEAD], info[SQ_TAIL], info[SQ_RING_MASK],
+                info[SQ_RING_ENTRIES], info[SQ_FLAGS], info[SQ_DROPPED], info[SQES], ringFd);
+        completionQueue = new IOUringCompletionQueue(info[CQ_HEAD], info[CQ_TAIL], info[CQ_RING_MASK],
+                info[CQ_RING_ENTRIES], info[CQ_OVERFLOW], info[CQES]);
+    }
+
+    int fd() {
+        return ringFd;
+    }
+
+    int features() {
+        return features;
+    }
+
+    IOUringSubmissionQueue submissionQueue() {
+        return submissionQueue;
+    }
+
+    IOUringCompletionQueue completionQueue() {
+        return completionQueue;
+    }
+
+    /**
+     * Unmap the queues and close the ring. All operations that are still in flight are cancelled by the kernel.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        Native.ioUringExit(sqRingAddress, sqRingSize, cqRingAddress, cqRingSize,
+                submissionQueue.sqesAddress(), submissionQueue.sqesSize(), ringFd);
+    }
+}
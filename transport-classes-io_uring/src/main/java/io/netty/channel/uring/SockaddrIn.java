@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+import io.netty.util.internal.PlatformDependent;
+
+import java.net.Inet4Address;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Encodes and decodes {@code struct sockaddr_in} and {@code struct sockaddr_in6} in native memory, which is needed
+ * for the operations which take or return a socket address.
+ */
+final class SockaddrIn {
+    private static final byte[] IPV4_MAPPED_IPV6_PREFIX = {
+            0, 0, 0, 0, 0, 0, 0, 0, 0, 0, (byte) 0xff, (byte) 0xff };
+
+    private SockaddrIn() { }
+
+    /**
+     * Write the given address to the memory and return the length of the written structure. If {@code ipv6} is
+     * {@code true} a {@code sockaddr_in6} is always written, using an IPv4-mapped address if needed.
+     */
+    static int write(boolean ipv6, long memory, InetSocketAddress address) {
+        InetAddress addr = address.getAddress();
+        if (ipv6) {
+            PlatformDependent.setMemory(memory, Native.SIZEOF_SOCKADDR_IN6, (byte) 0);
+            PlatformDependent.putShort(memory, (short) Native.AF_INET6);
+            writePort(memory + Native.SOCKADDR_IN6_OFFSETOF_SIN6_PORT, address.getPort());
+            long addrAddress = memory + Native.SOCKADDR_IN6_OFFSETOF_SIN6_ADDR;
+            byte[] bytes = addr.getAddress();
+            if (addr instanceof Inet6Address) {
+                PlatformDependent.copyMemory(bytes, 0, addrAddress, bytes.length);
+                PlatformDependent.putInt(memory + Native.SOCKADDR_IN6_OFFSETOF_SIN6_SCOPE_ID,
+                        ((Inet6Address) addr).getScopeId());
+            } else {
+                PlatformDependent.copyMemory(IPV4_MAPPED_IPV6_PREFIX, 0, addrAddress,
+                        IPV4_MAPPED_IPV6_PREFIX.length);
+                PlatformDependent.copyMemory(bytes, 0, addrAddress + IPV4_MAPPED_IPV6_PREFIX.length, bytes.length);
+            }
+            return Native.SIZEOF_SOCKADDR_IN6;
+        }
+        if (!(addr instanceof Inet4Address)) {
+            throw new IllegalArgumentException("Can not use an IPv6 address with an IPv4 socket: " + address);
+        }
+        PlatformDependent.setMemory(memory, Native.SIZEOF_SOCKADDR_IN, (byte) 0);
+        PlatformDependent.putShort(memory, (short) Native.AF_INET);
+        writePort(memory + Native.SOCKADDR_IN_OFFSETOF_SIN_PORT, address.getPort());
+        byte[] bytes = addr.getAddress();
+        PlatformDependent.copyMemory(bytes, 0, memory + Native.SOCKADDR_IN_OFFSETOF_SIN_ADDR, bytes.length);
+        return Native.SIZEOF_SOCKADDR_IN;
+    }
+
+    /**
+     * Read the {@code sockaddr_in} or {@code sockaddr_in6} that is stored in the memory. IPv4-mapped IPv6 addresses
+     * are returned as {@link Inet4Address}.
+     */
+    static InetSocketAddress read(long memory) {
+        int family = PlatformDependent.getShort(memory);
+        try {
+            if (family == Native.AF_INET6) {
+                int port = readPort(memory + Native.SOCKADDR_IN6_OFFSETOF_SIN6_PORT);
+                long addrAddress = memory + Native.SOCKADDR_IN6_OFFSETOF_SIN6_ADDR;
+                if (isIpv4Mapped(addrAddress)) {
+                    byte[] bytes = new byte[4];
+                    PlatformDependent.copyMemory(addrAddress + IPV4_MAPPED_IPV6_PREFIX.length, bytes, 0, 4);
+                    return new InetSocketAddress(InetAddress.getByAddress(bytes), port);
+                }
+                byte[] bytes = new byte[16];
+                PlatformDependent.copyMemory(addrAddress, bytes, 0, 16);
+                int scopeId = PlatformDependent.getInt(memory + Native.SOCKADDR_IN6_OFFSETOF_SIN6_SCOPE_ID);
+                return new InetSocketAddress(Inet6Address.getByAddress(null, bytes, scopeId), port);
+            }
+            if (family == Native.AF_INET) {
+                int port = readPort(memory + Native.SOCKADDR_IN_OFFSETOF_SIN_PORT);
+                byte[] bytes = new byte[4];
+                PlatformDependent.copyMemory(memory + Native.SOCKADDR_IN_OFFSETOF_SIN_ADDR, bytes, 0, 4);
+                return new InetSocketAddress(InetAddress.getByAddress(bytes), port);
+            }
+        } catch (UnknownHostException e) {
+            // Should never happen as we always pass a byte[] of a valid length.
+            throw new IllegalStateException(e);
+        }
+        return null;
+    }
+
+    private static boolean isIpv4Mapped(long addrAddress) {
+        for (int i = 0; i < IPV4_MAPPED_IPV6_PREFIX.length; i++) {
+            if (PlatformDependent.getByte(addrAddress + i) != IPV4_MAPPED_IPV6_PREFIX[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Ports are stored in network byte order.
+    private static void writePort(long address, int port) {
+        PlatformDependent.putByte(address, (byte) (port >>> 8));
+        PlatformDependent.putByte(address + 1, (byte) port);
+    }
+
+    private static int readPort(long address) {
+        return (PlatformDependent.getByte(address) & 0xFF) << 8 | PlatformDependent.getByte(address + 1) & 0xFF;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.uring;
+
+/**
+ * Helper to encode and decode the {@code user_data} that is attached to each submission and returned with its
+ * completion.
+ * <p>
+ * The upper 32 bits contain the id that the channel was given when it was registered with the
+ * {@link IOUringEventLoop}, followed by the opcode of the operation and 16 bits of operation specific data. Using the
+ * registration id instead of the file descriptor ensures that a completion can never be delivered to another channel
+ * which reused the same file descriptor.
+ */
+final class UserData {
+
+    private UserData() { }
+
+    static long encode(int id, byte op, short data) {
+        return ((long) id << 32) | ((op & 0xFFL) << 16) | (data & 0xFFFFL);
+    }
+
+    static int decodeId(long userData) {
+        return (int) (userData >>> 32);
+    }
+
+    static byte decodeOp(long userData) {
+        return (byte) (userData >>> 16);
+    }
+
+    static short decodeData(long userData) {
+        return (short) userData;
+    }
+}
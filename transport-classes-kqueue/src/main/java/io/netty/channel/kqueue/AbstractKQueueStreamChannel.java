@@ -526,7 +526,7 @@ public abstract class AbstractKQueueStreamChannel extends AbstractKQueueChannel
                 do {
                     // we use a direct buffer here as the native implementations only be able
                     // to handle direct buffers.
-                    byteBuf = allocHandle.allocate(allocator);
+                    byteBuf = allocHandle.allocateShared(allocator);
                     allocHandle.lastBytesRead(doReadBytes(byteBuf));
                     if (allocHandle.lastBytesRead() <= 0) {
                         // nothing was read, release the buffer.
@@ -541,6 +541,7 @@ public abstract class AbstractKQueueStreamChannel extends AbstractKQueueChannel
                     }
                     allocHandle.incMessagesRead(1);
                     readPending = false;
+                    byteBuf = allocHandle.received(byteBuf);
                     pipeline.fireChannelRead(byteBuf);
                     byteBuf = null;
 
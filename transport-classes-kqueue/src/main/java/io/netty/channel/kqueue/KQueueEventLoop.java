@@ -144,7 +144,8 @@ final class KQueueEventLoop extends SingleThreadEventLoop {
 
     @Override
     protected void wakeup(boolean inEventLoop) {
-        if (!inEventLoop && WAKEN_UP_UPDATER.compareAndSet(this, 0, 1)) {
+        // Check before the CAS so producers do not contend on wakenUp while a wakeup is pending already.
+        if (!inEventLoop && wakenUp == 0 && WAKEN_UP_UPDATER.compareAndSet(this, 0, 1)) {
             wakeup();
         }
     }
@@ -189,6 +190,10 @@ final class KQueueEventLoop extends SingleThreadEventLoop {
                 // we later attempt to delete the filters from kqueue.
                 assert filter != Native.EVFILT_USER ||
                         (filter == Native.EVFILT_USER && fd == KQUEUE_WAKE_UP_IDENT);
+                if (filter == Native.EVFILT_USER && (flags & Native.EV_ERROR) == 0) {
+                    // Only count the wakeup if kqueueWait actually returned because of the user event.
+                    reportWakeup();
+                }
                 continue;
             }
 
@@ -272,11 +277,17 @@ final class KQueueEventLoop extends SingleThreadEventLoop {
                     default:
                 }
 
+                startIteration();
                 final int ioRatio = this.ioRatio;
                 if (ioRatio == 100) {
                     try {
                         if (strategy > 0) {
-                            processReady(strategy);
+                            final long ioStartTime = System.nanoTime();
+                            try {
+                                processReady(strategy);
+                            } finally {
+                                reportIo(System.nanoTime() - ioStartTime, strategy);
+                            }
                         }
                     } finally {
                         runAllTasks();
@@ -290,6 +301,9 @@ final class KQueueEventLoop extends SingleThreadEventLoop {
                         }
                     } finally {
                         final long ioTime = System.nanoTime() - ioStartTime;
+                        if (strategy > 0) {
+                            reportIo(ioTime, strategy);
+                        }
                         runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
                     }
                 }
@@ -20,6 +20,7 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.ChannelConfig;
 import io.netty.channel.RecvByteBufAllocator.DelegatingHandle;
 import io.netty.channel.RecvByteBufAllocator.ExtendedHandle;
+import io.netty.channel.RecvByteBufAllocator.SharedBufferHandle;
 import io.netty.channel.unix.PreferredDirectByteBufAllocator;
 import io.netty.util.UncheckedBooleanSupplier;
 
@@ -63,6 +64,27 @@ final class KQueueRecvByteAllocatorHandle extends DelegatingHandle implements Ex
                 delegate().allocate(preferredDirectByteBufAllocator);
     }
 
+    /**
+     * Same as {@link #allocate(ByteBufAllocator)}, but returns the shared buffer of a
+     * {@link io.netty.channel.SharedRecvByteBufAllocator} if it is used. The buffer must be passed through
+     * {@link #received(ByteBuf)} before it is passed through the pipeline.
+     */
+    ByteBuf allocateShared(ByteBufAllocator alloc) {
+        if (overrideGuess || !(delegate() instanceof SharedBufferHandle)) {
+            return allocate(alloc);
+        }
+        preferredDirectByteBufAllocator.updateAllocator(alloc);
+        return ((SharedBufferHandle) delegate()).allocateShared(preferredDirectByteBufAllocator);
+    }
+
+    /**
+     * Returns the buffer which is passed through the pipeline after bytes were read into a buffer returned by
+     * {@link #allocateShared(ByteBufAllocator)}.
+     */
+    ByteBuf received(ByteBuf byteBuf) {
+        return delegate() instanceof SharedBufferHandle ? ((SharedBufferHandle) delegate()).received(byteBuf) : byteBuf;
+    }
+
     @Override
     public void lastBytesRead(int bytes) {
         numberBytesPending = bytes < 0 ? 0 : max(0, numberBytesPending - bytes);
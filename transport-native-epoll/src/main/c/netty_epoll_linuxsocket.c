@@ -27,7 +27,10 @@
 #include <netinet/in.h>
 #include <netinet/udp.h> // SOL_UDP
 #include <sys/sendfile.h>
+#include <fcntl.h>
 #include <linux/tcp.h> // TCP_NOTSENT_LOWAT is a linux specific define
+#include <linux/errqueue.h> // sock_extended_err
+#include <linux/filter.h> // sock_filter, sock_fprog
 #include "netty_epoll_linuxsocket.h"
 #include "netty_unix_errors.h"
 #include "netty_unix_filedescriptor.h"
@@ -62,6 +65,50 @@
 #define UDP_GRO 104
 #endif
 
+// SO_ZEROCOPY and MSG_ZEROCOPY are defined in linux 4.14. We define these here so older kernels can compile.
+#ifndef SO_ZEROCOPY
+#define SO_ZEROCOPY 60
+#endif
+
+#ifndef MSG_ZEROCOPY
+#define MSG_ZEROCOPY 0x4000000
+#endif
+
+#ifndef SO_EE_ORIGIN_ZEROCOPY
+#define SO_EE_ORIGIN_ZEROCOPY 5
+#endif
+
+#ifndef SO_EE_CODE_ZEROCOPY_COPIED
+#define SO_EE_CODE_ZEROCOPY_COPIED 1
+#endif
+
+// TCP_ULP, SOL_TLS and TLS_TX are defined in linux 4.13. We define these here so older kernels can compile.
+#ifndef TCP_ULP
+#define TCP_ULP 31
+#endif
+
+#ifndef SOL_TLS
+#define SOL_TLS 282
+#endif
+
+#ifndef TLS_TX
+#define TLS_TX 1
+#endif
+
+#ifndef TLS_SET_RECORD_TYPE
+#define TLS_SET_RECORD_TYPE 1
+#endif
+
+// SO_INCOMING_CPU is defined in linux 3.19 and SO_ATTACH_REUSEPORT_CBPF in linux 4.5. We define these here so older
+// kernels can compile.
+#ifndef SO_INCOMING_CPU
+#define SO_INCOMING_CPU 49
+#endif
+
+#ifndef SO_ATTACH_REUSEPORT_CBPF
+#define SO_ATTACH_REUSEPORT_CBPF 51
+#endif
+
 static jclass peerCredentialsClass = NULL;
 static jmethodID peerCredentialsMethodId = NULL;
 
@@ -627,6 +674,76 @@ static void netty_epoll_linuxsocket_setUdpGro(JNIEnv* env, jclass clazz, jint fd
     netty_unix_socket_setOption(env, fd, SOL_UDP, UDP_GRO, &optval, sizeof(optval));
 }
 
+static jint netty_epoll_linuxsocket_isSoZeroCopy(JNIEnv* env, jclass clazz, jint fd) {
+     int optval;
+     if (netty_unix_socket_getOption(env, fd, SOL_SOCKET, SO_ZEROCOPY, &optval, sizeof(optval)) == -1) {
+         return -1;
+     }
+     return optval;
+}
+
+static void netty_epoll_linuxsocket_setSoZeroCopy(JNIEnv* env, jclass clazz, jint fd, jint optval) {
+    netty_unix_socket_setOption(env, fd, SOL_SOCKET, SO_ZEROCOPY, &optval, sizeof(optval));
+}
+
+// Returns the number of bytes sent, 0 if the kernel could not pin the pages (ENOBUFS) and so the caller should
+// fallback to a copying write, or the negative errno.
+static jint netty_epoll_linuxsocket_sendAddressZeroCopy(JNIEnv* env, jclass clazz, jint fd, jlong address, jint pos, jint limit) {
+    ssize_t res;
+    int err;
+    do {
+        res = send(fd, (void*) (intptr_t) (address + pos), (size_t) (limit - pos), MSG_ZEROCOPY);
+        // keep on writing if it was interrupted
+    } while (res == -1 && ((err = errno) == EINTR));
+
+    if (res < 0) {
+        return err == ENOBUFS ? 0 : -err;
+    }
+    return (jint) res;
+}
+
+// Reads one message from the error queue. Returns 1 if it was a MSG_ZEROCOPY completion, in which case the range
+// of completed sends and whether the kernel copied the data are stored in the given array, 0 if it was another
+// message and the negative errno otherwise.
+static jint netty_epoll_linuxsocket_recvZeroCopyCompletion(JNIEnv* env, jclass clazz, jint fd, jintArray completion) {
+    char control[CMSG_SPACE(sizeof(struct sock_extended_err) + sizeof(struct sockaddr_storage))];
+    struct msghdr msg;
+    struct cmsghdr* cmsg;
+    struct sock_extended_err* serr;
+    jint values[3];
+    int res;
+    int err;
+
+    memset(&msg, 0, sizeof(msg));
+    msg.msg_control = control;
+    msg.msg_controllen = sizeof(control);
+
+    do {
+        res = recvmsg(fd, &msg, MSG_ERRQUEUE);
+        // Keep on reading if we was interrupted
+    } while (res == -1 && ((err = errno) == EINTR));
+
+    if (res < 0) {
+        return -err;
+    }
+
+    for (cmsg = CMSG_FIRSTHDR(&msg); cmsg != NULL; cmsg = CMSG_NXTHDR(&msg, cmsg)) {
+        if ((cmsg->cmsg_level == SOL_IP && cmsg->cmsg_type == IP_RECVERR) ||
+                (cmsg->cmsg_level == SOL_IPV6 && cmsg->cmsg_type == IPV6_RECVERR)) {
+            serr = (struct sock_extended_err*) CMSG_DATA(cmsg);
+            if (serr->ee_errno != 0 || serr->ee_origin != SO_EE_ORIGIN_ZEROCOPY) {
+                continue;
+            }
+            values[0] = (jint) serr->ee_info;
+            values[1] = (jint) serr->ee_data;
+            values[2] = (serr->ee_code & SO_EE_CODE_ZEROCOPY_COPIED) != 0 ? 1 : 0;
+            (*env)->SetIntArrayRegion(env, completion, 0, 3, values);
+            return 1;
+        }
+    }
+    return 0;
+}
+
 
 static jlong netty_epoll_linuxsocket_sendFile(JNIEnv* env, jclass clazz, jint fd, jobject fileRegion, jlong base_off, jlong off, jlong len) {
     jobject fileChannel = (*env)->GetObjectField(env, fileRegion, fileChannelFieldId);
@@ -661,6 +778,133 @@ static jlong netty_epoll_linuxsocket_sendFile(JNIEnv* env, jclass clazz, jint fd
     return res;
 }
 
+static void netty_epoll_linuxsocket_setTcpUlpTls(JNIEnv* env, jclass clazz, jint fd) {
+    netty_unix_socket_setOption(env, fd, IPPROTO_TCP, TCP_ULP, "tls", sizeof("tls"));
+}
+
+static void netty_epoll_linuxsocket_setTlsTx(JNIEnv* env, jclass clazz, jint fd, jbyteArray cryptoInfo) {
+    // The size of the biggest struct tls12_crypto_info_* that is supported.
+    jbyte info[64];
+    jsize len = (*env)->GetArrayLength(env, cryptoInfo);
+    if (len > (jsize) sizeof(info)) {
+        netty_unix_errors_throwRuntimeException(env, "cryptoInfo too big");
+        return;
+    }
+    (*env)->GetByteArrayRegion(env, cryptoInfo, 0, len, info);
+    netty_unix_socket_setOption(env, fd, SOL_TLS, TLS_TX, info, (socklen_t) len);
+}
+
+// Sends the data as a single TLS record of the given type, for sockets that have TLS_TX configured.
+static jint netty_epoll_linuxsocket_sendTlsRecord(JNIEnv* env, jclass clazz, jint fd, jint recordType, jbyteArray data) {
+    char control[CMSG_SPACE(sizeof(unsigned char))];
+    jbyte buf[16];
+    struct msghdr msg;
+    struct iovec iov;
+    struct cmsghdr* cmsg;
+    jsize len = (*env)->GetArrayLength(env, data);
+    ssize_t res;
+    int err;
+
+    if (len > (jsize) sizeof(buf)) {
+        netty_unix_errors_throwRuntimeException(env, "data too big");
+        return -1;
+    }
+    (*env)->GetByteArrayRegion(env, data, 0, len, buf);
+
+    memset(&msg, 0, sizeof(msg));
+    memset(control, 0, sizeof(control));
+    iov.iov_base = buf;
+    iov.iov_len = (size_t) len;
+    msg.msg_iov = &iov;
+    msg.msg_iovlen = 1;
+    msg.msg_control = control;
+    msg.msg_controllen = sizeof(control);
+
+    cmsg = CMSG_FIRSTHDR(&msg);
+    cmsg->cmsg_level = SOL_TLS;
+    cmsg->cmsg_type = TLS_SET_RECORD_TYPE;
+    cmsg->cmsg_len = CMSG_LEN(sizeof(unsigned char));
+    *((unsigned char*) CMSG_DATA(cmsg)) = (unsigned char) recordType;
+
+    do {
+        res = sendmsg(fd, &msg, 0);
+        // keep on writing if it was interrupted
+    } while (res == -1 && ((err = errno) == EINTR));
+
+    if (res < 0) {
+        return -err;
+    }
+    return (jint) res;
+}
+
+static jint netty_epoll_linuxsocket_getSoIncomingCpu(JNIEnv* env, jclass clazz, jint fd) {
+     int optval;
+     if (netty_unix_socket_getOption(env, fd, SOL_SOCKET, SO_INCOMING_CPU, &optval, sizeof(optval)) == -1) {
+         return -1;
+     }
+     return optval;
+}
+
+static void netty_epoll_linuxsocket_setSoIncomingCpu(JNIEnv* env, jclass clazz, jint fd, jint optval) {
+    netty_unix_socket_setOption(env, fd, SOL_SOCKET, SO_INCOMING_CPU, &optval, sizeof(optval));
+}
+
+// Attaches a classic BPF program to the SO_REUSEPORT group of the socket which selects the socket by the id of the
+// CPU that received the packet. indexByCpu[cpu] holds the index of the socket in the group or -1 if connections
+// received on this CPU should be distributed by the default hash.
+static void netty_epoll_linuxsocket_attachReusePortCpuFilter(JNIEnv* env, jclass clazz, jint fd, jintArray indexByCpu) {
+    jsize cpus = (*env)->GetArrayLength(env, indexByCpu);
+    jint* indexes;
+    struct sock_filter* code;
+    struct sock_fprog prog;
+    int len = 0;
+    int i;
+
+    if (cpus <= 0 || cpus > (BPF_MAXINSNS - 2) / 2) {
+        netty_unix_errors_throwRuntimeException(env, "too many cpus");
+        return;
+    }
+    indexes = (*env)->GetIntArrayElements(env, indexByCpu, NULL);
+    if (indexes == NULL) {
+        // We may have an OOME here, so just return.
+        return;
+    }
+    code = calloc((size_t) (2 * cpus + 2), sizeof(struct sock_filter));
+    if (code == NULL) {
+        (*env)->ReleaseIntArrayElements(env, indexByCpu, indexes, JNI_ABORT);
+        netty_unix_errors_throwOutOfMemoryError(env);
+        return;
+    }
+
+    // A = id of the CPU that processes the packet
+    code[len++] = (struct sock_filter) BPF_STMT(BPF_LD | BPF_W | BPF_ABS, SKF_AD_OFF + SKF_AD_CPU);
+    for (i = 0; i < cpus; i++) {
+        if (indexes[i] < 0) {
+            continue;
+        }
+        // if (A == i) return indexes[i]
+        code[len++] = (struct sock_filter) BPF_JUMP(BPF_JMP | BPF_JEQ | BPF_K, (__u32) i, 0, 1);
+        code[len++] = (struct sock_filter) BPF_STMT(BPF_RET | BPF_K, (__u32) indexes[i]);
+    }
+    // An index that is out of range makes the kernel fallback to the hash based selection.
+    code[len++] = (struct sock_filter) BPF_STMT(BPF_RET | BPF_K, 0xffffffff);
+    (*env)->ReleaseIntArrayElements(env, indexByCpu, indexes, JNI_ABORT);
+
+    prog.len = (unsigned short) len;
+    prog.filter = code;
+    netty_unix_socket_setOption(env, fd, SOL_SOCKET, SO_ATTACH_REUSEPORT_CBPF, &prog, sizeof(prog));
+    free(code);
+}
+
+// Duplicates the file descriptor. Returns the new file descriptor or the negative errno.
+static jint netty_epoll_linuxsocket_dup(JNIEnv* env, jclass clazz, jint fd) {
+    int res = fcntl(fd, F_DUPFD_CLOEXEC, 0);
+    if (res < 0) {
+        return -errno;
+    }
+    return res;
+}
+
 // JNI Registered Methods End
 
 // JNI Method Registration Table Begin
@@ -703,7 +947,18 @@ static const JNINativeMethod fixed_method_table[] = {
   { "leaveGroup", "(IZ[B[BII)V", (void *) netty_epoll_linuxsocket_leaveGroup },
   { "leaveSsmGroup", "(IZ[B[BII[B)V", (void *) netty_epoll_linuxsocket_leaveSsmGroup },
   { "isUdpGro", "(I)I", (void *) netty_epoll_linuxsocket_isUdpGro },
-  { "setUdpGro", "(II)V", (void *) netty_epoll_linuxsocket_setUdpGro }
+  { "setUdpGro", "(II)V", (void *) netty_epoll_linuxsocket_setUdpGro },
+  { "isSoZeroCopy", "(I)I", (void *) netty_epoll_linuxsocket_isSoZeroCopy },
+  { "setSoZeroCopy", "(II)V", (void *) netty_epoll_linuxsocket_setSoZeroCopy },
+  { "sendAddressZeroCopy", "(IJII)I", (void *) netty_epoll_linuxsocket_sendAddressZeroCopy },
+  { "recvZeroCopyCompletion", "(I[I)I", (void *) netty_epoll_linuxsocket_recvZeroCopyCompletion },
+  { "setTcpUlpTls", "(I)V", (void *) netty_epoll_linuxsocket_setTcpUlpTls },
+  { "setTlsTx", "(I[B)V", (void *) netty_epoll_linuxsocket_setTlsTx },
+  { "sendTlsRecord", "(II[B)I", (void *) netty_epoll_linuxsocket_sendTlsRecord },
+  { "getSoIncomingCpu", "(I)I", (void *) netty_epoll_linuxsocket_getSoIncomingCpu },
+  { "setSoIncomingCpu", "(II)V", (void *) netty_epoll_linuxsocket_setSoIncomingCpu },
+  { "attachReusePortCpuFilter", "(I[I)V", (void *) netty_epoll_linuxsocket_attachReusePortCpuFilter },
+  { "dup", "(I)I", (void *) netty_epoll_linuxsocket_dup }
 
   // "sendFile" has a dynamic signature
 };
@@ -36,6 +36,7 @@
 #include <inttypes.h>
 #include <link.h>
 #include <time.h>
+#include <sched.h>
 // Needed to be able to use syscalls directly and so not depend on newer GLIBC versions
 #include <linux/net.h>
 #include <sys/syscall.h>
@@ -76,6 +77,11 @@
 #define UDP_GRO 104
 #endif
 
+// EPOLLEXCLUSIVE is defined in linux 4.5. We define this here so older kernels can compile.
+#ifndef EPOLLEXCLUSIVE
+#define EPOLLEXCLUSIVE (1u << 28)
+#endif
+
 #ifdef IP_RECVORIGDSTADDR
 #if !defined(SOL_IP) && defined(IPPROTO_IP)
 #define SOL_IP IPPROTO_IP
@@ -621,6 +627,10 @@ static jint netty_epoll_native_epollerr(JNIEnv* env, jclass clazz) {
     return EPOLLERR;
 }
 
+static jint netty_epoll_native_epollexclusive(JNIEnv* env, jclass clazz) {
+    return EPOLLEXCLUSIVE;
+}
+
 static jint netty_epoll_native_sizeofEpollEvent(JNIEnv* env, jclass clazz) {
     return sizeof(struct epoll_event);
 }
@@ -649,6 +659,47 @@ static jint netty_epoll_native_splice0(JNIEnv* env, jclass clazz, jint fd, jlong
     return (jint) res;
 }
 
+// Binds the calling thread to the given CPU. Returns 0 on success and the negative errno otherwise.
+static jint netty_epoll_native_setCurrentThreadAffinity0(JNIEnv* env, jclass clazz, jint cpu) {
+    cpu_set_t set;
+    if (cpu < 0 || cpu >= CPU_SETSIZE) {
+        return -EINVAL;
+    }
+    CPU_ZERO(&set);
+    CPU_SET(cpu, &set);
+    if (sched_setaffinity(0, sizeof(set), &set) == -1) {
+        return -errno;
+    }
+    return 0;
+}
+
+// Returns the ids of the CPUs the calling thread is allowed to run on.
+static jintArray netty_epoll_native_currentThreadAffinity0(JNIEnv* env, jclass clazz) {
+    cpu_set_t set;
+    jint cpus[CPU_SETSIZE];
+    jintArray array;
+    int count = 0;
+    int i;
+
+    CPU_ZERO(&set);
+    if (sched_getaffinity(0, sizeof(set), &set) == -1) {
+        netty_unix_errors_throwChannelExceptionErrorNo(env, "sched_getaffinity() failed: ", errno);
+        return NULL;
+    }
+    for (i = 0; i < CPU_SETSIZE; i++) {
+        if (CPU_ISSET(i, &set)) {
+            cpus[count++] = i;
+        }
+    }
+    array = (*env)->NewIntArray(env, count);
+    if (array == NULL) {
+        // We may have an OOME here, so just return.
+        return NULL;
+    }
+    (*env)->SetIntArrayRegion(env, array, 0, count, cpus);
+    return array;
+}
+
 static jint netty_epoll_native_tcpMd5SigMaxKeyLen(JNIEnv* env, jclass clazz) {
     struct tcp_md5sig md5sig;
 
@@ -674,6 +725,7 @@ static const JNINativeMethod statically_referenced_fixed_method_table[] = {
   { "epollout", "()I", (void *) netty_epoll_native_epollout },
   { "epollrdhup", "()I", (void *) netty_epoll_native_epollrdhup },
   { "epollerr", "()I", (void *) netty_epoll_native_epollerr },
+  { "epollexclusive", "()I", (void *) netty_epoll_native_epollexclusive },
   { "tcpMd5SigMaxKeyLen", "()I", (void *) netty_epoll_native_tcpMd5SigMaxKeyLen },
   { "isSupportingSendmmsg", "()Z", (void *) netty_epoll_native_isSupportingSendmmsg },
   { "isSupportingRecvmmsg", "()Z", (void *) netty_epoll_native_isSupportingRecvmmsg },
@@ -699,6 +751,8 @@ static const JNINativeMethod fixed_method_table[] = {
   { "splice0", "(IJIJJ)I", (void *) netty_epoll_native_splice0 },
   { "isSupportingUdpSegment", "()Z", (void *) netty_epoll_native_isSupportingUdpSegment },
   { "registerUnix", "()I", (void *) netty_epoll_native_registerUnix },
+  { "setCurrentThreadAffinity0", "(I)I", (void *) netty_epoll_native_setCurrentThreadAffinity0 },
+  { "currentThreadAffinity0", "()[I", (void *) netty_epoll_native_currentThreadAffinity0 },
 
 };
 static const jint fixed_method_table_size = sizeof(fixed_method_table) / sizeof(fixed_method_table[0]);
@@ -16,9 +16,14 @@
 package io.netty.channel.epoll;
 
 import io.netty.testsuite.transport.AbstractSingleThreadEventLoopTest;
+import io.netty.channel.AdaptiveBusyPollSelectStrategyFactory;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.DefaultSelectStrategyFactory;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.EventLoopMetric;
 import io.netty.channel.ServerChannel;
 import io.netty.channel.socket.ServerSocketChannel;
 import io.netty.channel.unix.FileDescriptor;
@@ -27,8 +32,11 @@ import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.RejectedExecutionHandlers;
 import io.netty.util.concurrent.ThreadPerTaskExecutor;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
@@ -181,4 +189,54 @@ public class EpollEventLoopTest extends AbstractSingleThreadEventLoopTest {
             timerFd.close();
         }
     }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testAdaptiveBusyPoll() throws Exception {
+        EpollEventLoopGroup group = new EpollEventLoopGroup(1, new DefaultThreadFactory("ioPool"),
+                new AdaptiveBusyPollSelectStrategyFactory(1, TimeUnit.MILLISECONDS));
+        final EpollEventLoop loop = (EpollEventLoop) group.next();
+        try {
+            EventLoopMetric metric = loop.metric();
+            Runnable noop = new Runnable() {
+                @Override
+                public void run() {
+                }
+            };
+            loop.submit(noop).sync();
+            Thread.sleep(100);
+            // The wait is reported once the loop was woken up again.
+            loop.submit(noop).sync();
+            assertTrue(metric.blockNanos() > 0);
+
+            // Tasks arrive faster than the maximum spin, so the loop starts to poll before it blocks.
+            for (int i = 0; i < 10000; i++) {
+                loop.submit(noop).sync();
+            }
+            assertTrue(metric.spinNanos() > 0);
+
+            // The loop is still working, so I/O is served.
+            Channel channel = new EpollServerSocketChannel();
+            channel.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                    ((Channel) msg).unsafe().closeForcibly();
+                }
+            });
+            loop.register(channel).sync();
+            channel.bind(new InetSocketAddress(0)).sync();
+            SocketChannel socket = SocketChannel.open();
+            try {
+                socket.connect(channel.localAddress());
+                while (metric.selectedKeys() == 0) {
+                    Thread.sleep(10);
+                }
+            } finally {
+                socket.close();
+                channel.close().sync();
+            }
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
 }
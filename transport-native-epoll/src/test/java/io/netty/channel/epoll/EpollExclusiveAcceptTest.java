@@ -0,0 +1,137 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.util.NetUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EpollExclusiveAcceptTest {
+
+    private EpollEventLoopGroup group;
+
+    @BeforeEach
+    public void setUp() {
+        group = new EpollEventLoopGroup(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        group.shutdownGracefully();
+    }
+
+    @Test
+    public void testAccept() throws Exception {
+        testAccept(true);
+    }
+
+    @Test
+    public void testAcceptWithoutAutoRead() throws Exception {
+        testAccept(false);
+    }
+
+    private void testAccept(boolean autoRead) throws Exception {
+        final int connections = 16;
+        final CountDownLatch latch = new CountDownLatch(connections);
+        Channel server = new ServerBootstrap()
+                .group(group)
+                .channel(EpollServerSocketChannel.class)
+                .option(EpollChannelOption.EPOLL_EXCLUSIVE, true)
+                .option(ChannelOption.AUTO_READ, autoRead)
+                .handler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) {
+                        ctx.fireChannelActive();
+                        ctx.read();
+                    }
+
+                    @Override
+                    public void channelReadComplete(ChannelHandlerContext ctx) {
+                        ctx.fireChannelReadComplete();
+                        ctx.read();
+                    }
+                })
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) {
+                        latch.countDown();
+                    }
+                })
+                .bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+        int port = ((InetSocketAddress) server.localAddress()).getPort();
+        assertTrue(((EpollServerSocketChannel) server).config().isEpollExclusive());
+
+        Socket[] sockets = new Socket[connections];
+        try {
+            for (int i = 0; i < connections; i++) {
+                sockets[i] = new Socket(NetUtil.LOCALHOST, port);
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } finally {
+            for (Socket socket: sockets) {
+                if (socket != null) {
+                    socket.close();
+                }
+            }
+            server.close().sync();
+        }
+        assertFalse(server.isOpen());
+
+        // The duplicated file descriptors must not keep the port in use.
+        Channel rebound = new ServerBootstrap()
+                .group(group)
+                .channel(EpollServerSocketChannel.class)
+                .childHandler(new ChannelInboundHandlerAdapter())
+                .bind(new InetSocketAddress(NetUtil.LOCALHOST, port)).sync().channel();
+        rebound.close().sync();
+    }
+
+    @Test
+    public void testCanNotChangeWhenBound() throws Exception {
+        final EpollServerSocketChannel server = (EpollServerSocketChannel) new ServerBootstrap()
+                .group(group)
+                .channel(EpollServerSocketChannel.class)
+                .childHandler(new ChannelInboundHandlerAdapter())
+                .bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+        try {
+            assertFalse(server.config().isEpollExclusive());
+            assertThrows(IllegalStateException.class, new Executable() {
+                @Override
+                public void execute() {
+                    server.config().setEpollExclusive(true);
+                }
+            });
+        } finally {
+            server.close().sync();
+        }
+    }
+}
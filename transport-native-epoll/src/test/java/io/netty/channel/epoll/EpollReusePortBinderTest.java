@@ -0,0 +1,143 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.util.NetUtil;
+import io.netty.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EpollReusePortBinderTest {
+
+    private EpollEventLoopGroup group;
+
+    @BeforeEach
+    public void setUp() {
+        Epoll.ensureAvailability();
+        group = new EpollEventLoopGroup(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        group.shutdownGracefully();
+    }
+
+    @Test
+    public void testIndexByCpu() {
+        assertArrayEquals(new int[] { 0, 1, 2 }, EpollReusePortBinder.indexByCpu(new int[] { 0, 1, 2 }));
+        assertArrayEquals(new int[] { -1, 0, -1, 1 }, EpollReusePortBinder.indexByCpu(new int[] { 1, 3 }));
+        // More sockets than CPUs.
+        assertArrayEquals(new int[] { 0, 1 }, EpollReusePortBinder.indexByCpu(new int[] { 0, 1, 0, 1 }));
+    }
+
+    @Test
+    public void testRejectsNonEpollGroup() {
+        final ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(new DefaultEventLoopGroup(1))
+                .childHandler(new ChannelInboundHandlerAdapter());
+        try {
+            assertThrows(IllegalArgumentException.class, new Executable() {
+                @Override
+                public void execute() {
+                    EpollReusePortBinder.bind(bootstrap, new InetSocketAddress(0));
+                }
+            });
+        } finally {
+            bootstrap.config().group().shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testBindReusePortBpf() throws Throwable {
+        testBind(EpollReusePortBinder.Steering.REUSEPORT_BPF);
+    }
+
+    @Test
+    public void testBindIncomingCpu() throws Throwable {
+        testBind(EpollReusePortBinder.Steering.INCOMING_CPU);
+    }
+
+    private void testBind(EpollReusePortBinder.Steering steering) throws Throwable {
+        final int connections = 8;
+        final CountDownLatch latch = new CountDownLatch(connections);
+        final Queue<Channel> accepted = new LinkedBlockingQueue<Channel>();
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(group)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) {
+                        accepted.add(ctx.channel());
+                        latch.countDown();
+                    }
+                });
+        Future<List<Channel>> future = EpollReusePortBinder.bind(
+                bootstrap, new InetSocketAddress(NetUtil.LOCALHOST, 0), steering).sync();
+        List<Channel> channels = future.getNow();
+        try {
+            assertEquals(2, channels.size());
+            int port = ((InetSocketAddress) channels.get(0).localAddress()).getPort();
+            assertFalse(channels.get(0).eventLoop() == channels.get(1).eventLoop());
+            for (Channel channel: channels) {
+                assertEquals(port, ((InetSocketAddress) channel.localAddress()).getPort());
+                assertTrue(((EpollServerSocketChannel) channel).config().isReusePort());
+            }
+
+            Socket[] sockets = new Socket[connections];
+            try {
+                for (int i = 0; i < connections; i++) {
+                    sockets[i] = new Socket(NetUtil.LOCALHOST, port);
+                }
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+            } finally {
+                for (Socket socket: sockets) {
+                    if (socket != null) {
+                        socket.close();
+                    }
+                }
+            }
+            for (Channel child: accepted) {
+                // The connection must be processed on the EventLoop of the server channel that accepted it.
+                assertSame(child.parent().eventLoop(), child.eventLoop());
+            }
+        } finally {
+            for (Channel channel: channels) {
+                channel.close().sync();
+            }
+        }
+    }
+}
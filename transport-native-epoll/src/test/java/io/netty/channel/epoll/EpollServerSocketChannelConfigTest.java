@@ -81,6 +81,13 @@ public class EpollServerSocketChannelConfigTest {
         assertTrue(ch.config().isFreeBind());
     }
 
+    @Test
+    public void testIncomingCpu() {
+        ch.config().setIncomingCpu(0);
+        assertEquals(0, ch.config().getIncomingCpu());
+        assertEquals(0, (int) ch.config().getOption(EpollChannelOption.SO_INCOMING_CPU));
+    }
+
     @Test
     public void getGetOptions() {
         Map<ChannelOption<?>, Object> map = ch.config().getOptions();
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.shm.SharedMemoryAddress;
+import io.netty.channel.shm.SharedMemoryChannel;
+import io.netty.channel.shm.SharedMemoryChannelOption;
+import io.netty.channel.shm.SharedMemoryServerChannel;
+import io.netty.util.internal.PlatformDependent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 20000, unit = TimeUnit.MILLISECONDS)
+public class EpollSharedMemoryChannelTest {
+    // Polling this rarely would make the tests time out, so they only pass if the doorbell works.
+    private static final int MAX_POLL_INTERVAL_MICROS = Integer.MAX_VALUE;
+
+    private EpollEventLoopGroup group;
+    private SharedMemoryAddress address;
+
+    @BeforeEach
+    public void setUp() {
+        group = new EpollEventLoopGroup(2);
+        address = new SharedMemoryAddress(new File(PlatformDependent.tmpdir(),
+                "netty-shm-test-" + Long.toHexString(PlatformDependent.threadLocalRandom().nextLong())));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        group.shutdownGracefully().syncUninterruptibly();
+        File[] files = address.directory().listFiles();
+        if (files != null) {
+            for (File file: files) {
+                file.delete();
+            }
+        }
+        address.directory().delete();
+    }
+
+    @Test
+    public void testEchoWithDoorbell() throws Exception {
+        Channel server = bindEchoServer(EpollSharedMemoryServerChannel.class, true);
+        try {
+            assertTrue(new File(address.directory(), EpollSharedMemoryServerChannel.BELL_FILE).exists());
+            testEcho(EpollSharedMemoryChannel.class, true);
+        } finally {
+            server.close().sync();
+        }
+        // The socket file was removed.
+        assertEquals(0, address.directory().list().length);
+    }
+
+    @Test
+    public void testEchoWithoutDoorbellOnServer() throws Exception {
+        Channel server = bindEchoServer(SharedMemoryServerChannel.class, false);
+        try {
+            testEcho(EpollSharedMemoryChannel.class, false);
+        } finally {
+            server.close().sync();
+        }
+    }
+
+    @Test
+    public void testEchoWithoutDoorbellOnClient() throws Exception {
+        Channel server = bindEchoServer(EpollSharedMemoryServerChannel.class, false);
+        try {
+            testEcho(SharedMemoryChannel.class, false);
+        } finally {
+            server.close().sync();
+        }
+    }
+
+    private void testEcho(Class<? extends SharedMemoryChannel> channelClass, boolean doorbell) throws Exception {
+        final ByteBuf received = Unpooled.buffer();
+        final AtomicReference<CountDownLatch> done = new AtomicReference<CountDownLatch>();
+        final AtomicReference<Integer> expected = new AtomicReference<Integer>();
+        Bootstrap bootstrap = new Bootstrap()
+                .group(group)
+                .channel(channelClass)
+                // A ring smaller than the data, so both sides have to wait for each other.
+                .option(SharedMemoryChannelOption.RING_CAPACITY, 64 * 1024)
+                .handler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ByteBuf buf = (ByteBuf) msg;
+                        received.writeBytes(buf);
+                        buf.release();
+                        if (received.readableBytes() == expected.get()) {
+                            done.get().countDown();
+                        }
+                    }
+                });
+        if (doorbell) {
+            bootstrap.option(SharedMemoryChannelOption.POLL_SPIN_MICROS, 0)
+                    .option(SharedMemoryChannelOption.MAX_POLL_INTERVAL_MICROS, MAX_POLL_INTERVAL_MICROS);
+        }
+        Channel client = bootstrap.connect(address).sync().channel();
+        try {
+            Random random = new Random();
+            for (int round = 0; round < 3; round++) {
+                byte[] data = new byte[1024 * 1024 >> round];
+                random.nextBytes(data);
+                expected.set(data.length);
+                done.set(new CountDownLatch(1));
+                for (int i = 0; i < data.length; i += 4096) {
+                    client.write(Unpooled.wrappedBuffer(data, i, Math.min(4096, data.length - i)));
+                }
+                client.flush();
+                assertTrue(done.get().await(5, TimeUnit.SECONDS));
+                byte[] echoed = new byte[data.length];
+                received.readBytes(echoed);
+                received.clear();
+                assertArrayEquals(data, echoed);
+                // Let both sides go idle.
+                Thread.sleep(100);
+            }
+        } finally {
+            received.release();
+            client.close().sync();
+        }
+    }
+
+    private Channel bindEchoServer(Class<? extends ServerChannel> channelClass, boolean doorbell)
+            throws InterruptedException {
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .group(group)
+                .channel(channelClass)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ctx.writeAndFlush(msg);
+                    }
+                });
+        if (doorbell) {
+            bootstrap.childOption(SharedMemoryChannelOption.POLL_SPIN_MICROS, 0)
+                    .childOption(SharedMemoryChannelOption.MAX_POLL_INTERVAL_MICROS, MAX_POLL_INTERVAL_MICROS);
+        }
+        return bootstrap.bind(address).sync().channel();
+    }
+}
@@ -140,6 +140,31 @@ public class EpollSocketChannelConfigTest {
         assertTrue(ch.config().isTcpQuickAck());
     }
 
+    @Test
+    public void testMsgZeroCopyThreshold() {
+        assertEquals(-1, ch.config().getMsgZeroCopyThreshold());
+        try {
+            ch.config().setMsgZeroCopyThreshold(16384);
+        } catch (ChannelException e) {
+            throw new TestAbortedException("assumeNoException", e);
+        }
+        assertEquals(16384, ch.config().getMsgZeroCopyThreshold());
+        assertEquals(16384, (int) ch.config().getOption(EpollChannelOption.MSG_ZEROCOPY_THRESHOLD));
+        ch.config().setMsgZeroCopyThreshold(-1);
+        assertEquals(-1, ch.config().getMsgZeroCopyThreshold());
+        assertEquals(0, ch.zeroCopyMetric().sends());
+    }
+
+    @Test
+    public void testInvalidMsgZeroCopyThreshold() {
+        assertThrows(IllegalArgumentException.class, new Executable() {
+            @Override
+            public void execute() {
+                ch.config().setMsgZeroCopyThreshold(-2);
+            }
+        });
+    }
+
     // For this test to pass, we are relying on the sockets file descriptor not being reused after the socket is closed.
     // This is inherently racy, so we allow getSoLinger to throw ChannelException a few of times, but eventually we do
     // want to see a ClosedChannelException for the test to pass.
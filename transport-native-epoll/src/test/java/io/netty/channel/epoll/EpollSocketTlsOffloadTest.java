@@ -0,0 +1,205 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.DefaultFileRegion;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslHandshakeCompletionEvent;
+import io.netty.handler.ssl.SslProtocols;
+import io.netty.handler.ssl.SslProvider;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.handler.ssl.util.SelfSignedCertificate;
+import io.netty.util.NetUtil;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Promise;
+import io.netty.util.internal.PlatformDependent;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class EpollSocketTlsOffloadTest {
+    private static final Random random = new Random();
+    private static EventLoopGroup group;
+
+    @BeforeAll
+    public static void beforeClass() {
+        group = new EpollEventLoopGroup(2);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        group.shutdownGracefully();
+    }
+
+    @Test
+    @Timeout(value = 30000, unit = TimeUnit.MILLISECONDS)
+    public void testAesGcm128() throws Throwable {
+        testTlsOffload("TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256");
+    }
+
+    @Test
+    @Timeout(value = 30000, unit = TimeUnit.MILLISECONDS)
+    public void testAesGcm256() throws Throwable {
+        testTlsOffload("TLS_ECDHE_RSA_WITH_AES_256_GCM_SHA384");
+    }
+
+    @Test
+    @Timeout(value = 30000, unit = TimeUnit.MILLISECONDS)
+    public void testChaCha20Poly1305() throws Throwable {
+        testTlsOffload("TLS_ECDHE_RSA_WITH_CHACHA20_POLY1305_SHA256");
+    }
+
+    private static void testTlsOffload(String cipherSuite) throws Throwable {
+        assumeTrue(OpenSsl.isAvailable());
+        assumeTrue(OpenSsl.isCipherSuiteAvailable(cipherSuite));
+
+        SelfSignedCertificate ssc = new SelfSignedCertificate();
+        final SslContext serverContext = SslContextBuilder.forServer(ssc.certificate(), ssc.privateKey())
+                .sslProvider(SslProvider.OPENSSL)
+                .protocols(SslProtocols.TLS_v1_2)
+                .ciphers(Collections.singletonList(cipherSuite))
+                .build();
+        final SslContext clientContext = SslContextBuilder.forClient()
+                .trustManager(InsecureTrustManagerFactory.INSTANCE)
+                .sslProvider(SslProvider.OPENSSL)
+                .protocols(SslProtocols.TLS_v1_2)
+                .ciphers(Collections.singletonList(cipherSuite))
+                .build();
+
+        final byte[] data = new byte[64 * 1024];
+        random.nextBytes(data);
+        final File file = newTempFile(data);
+        final byte[] expected = new byte[data.length * 2];
+        System.arraycopy(data, 0, expected, 0, data.length);
+        System.arraycopy(data, 0, expected, data.length, data.length);
+
+        Channel sc = null;
+        Channel cc = null;
+        try {
+            sc = new ServerBootstrap()
+                    .group(group)
+                    .channel(EpollServerSocketChannel.class)
+                    .childHandler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            final SslHandler sslHandler = serverContext.newHandler(ch.alloc());
+                            sslHandler.setTlsTxOffloadEnabled(true);
+                            ch.pipeline().addLast(sslHandler);
+                            ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                                @Override
+                                public void userEventTriggered(ChannelHandlerContext ctx, Object evt) {
+                                    if (evt == SslHandshakeCompletionEvent.SUCCESS) {
+                                        ctx.write(Unpooled.wrappedBuffer(data));
+                                        // FileRegions can only be written once the channel does the encryption,
+                                        // otherwise we fallback to write the bytes.
+                                        if (sslHandler.isTlsTxOffloaded()) {
+                                            ctx.writeAndFlush(new DefaultFileRegion(file, 0, data.length));
+                                        } else {
+                                            ctx.writeAndFlush(Unpooled.wrappedBuffer(data));
+                                        }
+                                    }
+                                    ctx.fireUserEventTriggered(evt);
+                                }
+                            });
+                        }
+                    })
+                    .bind(new InetSocketAddress(NetUtil.LOCALHOST4, 0)).sync().channel();
+
+            final Promise<byte[]> received = group.next().newPromise();
+            cc = new Bootstrap()
+                    .group(group)
+                    .channel(EpollSocketChannel.class)
+                    .handler(new ChannelInitializer<Channel>() {
+                        @Override
+                        protected void initChannel(Channel ch) {
+                            ch.pipeline().addLast(clientContext.newHandler(ch.alloc()));
+                            ch.pipeline().addLast(new SimpleChannelInboundHandler<ByteBuf>() {
+                                private final ByteBuf buffer = Unpooled.buffer(expected.length);
+
+                                @Override
+                                protected void channelRead0(ChannelHandlerContext ctx, ByteBuf msg) {
+                                    buffer.writeBytes(msg);
+                                    if (buffer.readableBytes() == expected.length) {
+                                        byte[] bytes = new byte[expected.length];
+                                        buffer.readBytes(bytes);
+                                        received.trySuccess(bytes);
+                                    }
+                                }
+
+                                @Override
+                                public void channelInactive(ChannelHandlerContext ctx) {
+                                    ReferenceCountUtil.release(buffer);
+                                    ctx.fireChannelInactive();
+                                }
+
+                                @Override
+                                public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+                                    received.tryFailure(cause);
+                                }
+                            });
+                        }
+                    })
+                    .connect(sc.localAddress()).sync().channel();
+
+            assertArrayEquals(expected, received.sync().getNow());
+        } finally {
+            if (cc != null) {
+                cc.close().sync();
+            }
+            if (sc != null) {
+                sc.close().sync();
+            }
+            file.delete();
+            ssc.delete();
+        }
+    }
+
+    private static File newTempFile(byte[] data) throws Exception {
+        File file = PlatformDependent.createTempFile("netty-", ".tmp", null);
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(data);
+        } finally {
+            out.close();
+        }
+        return file;
+    }
+}
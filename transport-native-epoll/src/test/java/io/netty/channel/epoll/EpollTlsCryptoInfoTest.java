@@ -0,0 +1,65 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class EpollTlsCryptoInfoTest {
+
+    @Test
+    public void testAesGcm128() {
+        byte[] info = EpollTlsCryptoInfo.newCryptoInfo(
+                "TLSv1.2", "TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256", new byte[16], new byte[4], 1);
+        // struct tls12_crypto_info_aes_gcm_128
+        assertEquals(40, info.length);
+        ByteBuffer buffer = ByteBuffer.wrap(info).order(ByteOrder.nativeOrder());
+        assertEquals(0x0303, buffer.getShort());
+        assertEquals(51, buffer.getShort());
+        assertEquals(1, ByteBuffer.wrap(info, info.length - 8, 8).getLong());
+    }
+
+    @Test
+    public void testAesGcm256() {
+        byte[] info = EpollTlsCryptoInfo.newCryptoInfo(
+                "TLSv1.2", "TLS_ECDHE_RSA_WITH_AES_256_GCM_SHA384", new byte[32], new byte[4], 1);
+        // struct tls12_crypto_info_aes_gcm_256
+        assertEquals(56, info.length);
+    }
+
+    @Test
+    public void testChaCha20Poly1305() {
+        byte[] info = EpollTlsCryptoInfo.newCryptoInfo(
+                "TLSv1.2", "TLS_ECDHE_RSA_WITH_CHACHA20_POLY1305_SHA256", new byte[32], new byte[12], 1);
+        // struct tls12_crypto_info_chacha20_poly1305
+        assertEquals(56, info.length);
+    }
+
+    @Test
+    public void testUnsupported() {
+        assertNull(EpollTlsCryptoInfo.newCryptoInfo(
+                "TLSv1.3", "TLS_AES_128_GCM_SHA256", new byte[16], new byte[4], 1));
+        assertNull(EpollTlsCryptoInfo.newCryptoInfo(
+                "TLSv1.2", "TLS_ECDHE_RSA_WITH_AES_128_CBC_SHA", new byte[16], new byte[16], 1));
+        assertNull(EpollTlsCryptoInfo.newCryptoInfo(
+                "TLSv1.2", "TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256", new byte[32], new byte[4], 1));
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.epoll;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelException;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.NetUtil;
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.concurrent.Promise;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class EpollZeroCopyWriteTest {
+    private static final Random random = new Random();
+    private static final List<Channel> childChannels = new CopyOnWriteArrayList<Channel>();
+    private static EventLoopGroup group;
+
+    @BeforeAll
+    public static void beforeClass() {
+        group = new EpollEventLoopGroup(2);
+    }
+
+    @AfterAll
+    public static void afterClass() {
+        group.shutdownGracefully();
+    }
+
+    @Test
+    @Timeout(value = 30000, unit = TimeUnit.MILLISECONDS)
+    public void testWriteReleasesBuffersOnCompletion() throws Throwable {
+        final int writes = 16;
+        final byte[] data = new byte[writes * 64 * 1024];
+        random.nextBytes(data);
+
+        final Promise<byte[]> received = group.next().newPromise();
+        Channel sc = null;
+        Channel cc = null;
+        try {
+            sc = newServer(received, data.length, true);
+            cc = newClient(sc);
+
+            final List<ByteBuf> buffers = new ArrayList<ByteBuf>();
+            final List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
+            final AtomicInteger releasedBeforeNotified = new AtomicInteger();
+            int chunk = data.length / writes;
+            for (int i = 0; i < writes; i++) {
+                final ByteBuf buf = Unpooled.directBuffer(chunk).writeBytes(data, i * chunk, chunk);
+                buffers.add(buf);
+                ChannelFuture future = cc.write(buf);
+                future.addListener(new ChannelFutureListener() {
+                    @Override
+                    public void operationComplete(ChannelFuture future) {
+                        // The promise must only be notified once the kernel does not reference the memory anymore.
+                        if (buf.refCnt() == 0) {
+                            releasedBeforeNotified.incrementAndGet();
+                        }
+                    }
+                });
+                futures.add(future);
+            }
+            cc.flush();
+
+            assertArrayEquals(data, received.sync().getNow());
+            for (ChannelFuture future: futures) {
+                future.sync();
+            }
+            assertEquals(writes, releasedBeforeNotified.get());
+            for (ByteBuf buf: buffers) {
+                assertEquals(0, buf.refCnt());
+            }
+
+            EpollZeroCopyMetric metric = ((EpollSocketChannel) cc).zeroCopyMetric();
+            assumeTrue(metric.sends() > 0, "The kernel could not pin the memory of any write");
+            assertEquals(metric.sends(), metric.completions());
+            assertEquals(0, metric.pendingBuffers());
+        } finally {
+            close(cc);
+            close(sc);
+            childChannels.clear();
+        }
+    }
+
+    @Test
+    @Timeout(value = 30000, unit = TimeUnit.MILLISECONDS)
+    public void testCloseKeepsBuffersUntilCompletion() throws Throwable {
+        final int writes = 64;
+        final int chunk = 64 * 1024;
+
+        Channel sc = null;
+        Channel cc = null;
+        try {
+            // Do not read on the server side, so the data that does not fit into the socket buffers stays pinned.
+            sc = newServer(null, -1, false);
+            cc = newClient(sc);
+
+            List<ByteBuf> buffers = new ArrayList<ByteBuf>();
+            final List<ChannelFuture> futures = new ArrayList<ChannelFuture>();
+            for (int i = 0; i < writes; i++) {
+                ByteBuf buf = Unpooled.directBuffer(chunk).writeZero(chunk);
+                buffers.add(buf);
+                futures.add(cc.write(buf));
+            }
+            cc.flush();
+
+            EpollZeroCopyMetric metric = ((EpollSocketChannel) cc).zeroCopyMetric();
+            waitForSends(metric);
+            cc.close().sync();
+
+            // The writes that were not done yet are failed from within the EventLoop after the channel was closed.
+            final List<ChannelFuture> pending = cc.eventLoop().submit(new Callable<List<ChannelFuture>>() {
+                @Override
+                public List<ChannelFuture> call() {
+                    List<ChannelFuture> pending = new ArrayList<ChannelFuture>();
+                    for (ChannelFuture future: futures) {
+                        if (!future.isDone()) {
+                            pending.add(future);
+                        }
+                    }
+                    return pending;
+                }
+            }).sync().getNow();
+            assumeTrue(metric.pendingBuffers() > 0, "All completions arrived before the channel was closed");
+            assertFalse(pending.isEmpty());
+
+            // Start reading, so the remaining data is sent and the completions are signaled to the closed channel.
+            for (Channel child: childChannels) {
+                child.config().setAutoRead(true);
+            }
+            for (ChannelFuture future: pending) {
+                future.sync();
+            }
+            for (ChannelFuture future: futures) {
+                future.await();
+            }
+            // A partially written buffer is kept by a write without a promise.
+            while (metric.pendingBuffers() != 0) {
+                Thread.sleep(10);
+            }
+            for (ByteBuf buf: buffers) {
+                assertEquals(0, buf.refCnt());
+            }
+            assertEquals(metric.sends(), metric.completions());
+        } finally {
+            close(cc);
+            close(sc);
+            childChannels.clear();
+        }
+    }
+
+    private static void waitForSends(EpollZeroCopyMetric metric) throws InterruptedException {
+        // Wait until the socket buffers are full, so no more writes are done.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        long sends;
+        do {
+            sends = metric.sends();
+            Thread.sleep(50);
+        } while (sends != metric.sends() && System.nanoTime() < deadline);
+    }
+
+    private static Channel newServer(final Promise<byte[]> received, final int expected, boolean autoRead)
+            throws InterruptedException {
+        return new ServerBootstrap()
+                .group(group)
+                .channel(EpollServerSocketChannel.class)
+                // Set on the server socket so it limits the window the accepted sockets advertise.
+                .option(ChannelOption.SO_RCVBUF, 64 * 1024)
+                .childOption(ChannelOption.AUTO_READ, autoRead)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    private final ByteBuf buffer = Unpooled.buffer();
+
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) {
+                        childChannels.add(ctx.channel());
+                        ctx.fireChannelActive();
+                    }
+
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        try {
+                            if (expected >= 0) {
+                                buffer.writeBytes((ByteBuf) msg);
+                                if (buffer.readableBytes() == expected) {
+                                    byte[] bytes = new byte[expected];
+                                    buffer.readBytes(bytes);
+                                    received.trySuccess(bytes);
+                                }
+                            }
+                        } finally {
+                            ReferenceCountUtil.release(msg);
+                        }
+                    }
+
+                    @Override
+                    public void channelInactive(ChannelHandlerContext ctx) {
+                        buffer.release();
+                        ctx.fireChannelInactive();
+                    }
+
+                    @Override
+                    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+                        if (received != null) {
+                            received.tryFailure(cause);
+                        }
+                    }
+                })
+                .bind(new InetSocketAddress(NetUtil.LOCALHOST4, 0)).sync().channel();
+    }
+
+    private static Channel newClient(Channel sc) throws InterruptedException {
+        Channel cc = new Bootstrap()
+                .group(group)
+                .channel(EpollSocketChannel.class)
+                .option(ChannelOption.SO_SNDBUF, 64 * 1024)
+                .handler(new ChannelInboundHandlerAdapter())
+                .connect(sc.localAddress()).sync().channel();
+        try {
+            ((EpollSocketChannel) cc).config().setMsgZeroCopyThreshold(0);
+        } catch (ChannelException e) {
+            cc.close().sync();
+            assumeTrue(false, "SO_ZEROCOPY is not supported: " + e);
+        }
+        return cc;
+    }
+
+    private static void close(Channel channel) throws InterruptedException {
+        if (channel != null) {
+            channel.close().sync();
+        }
+    }
+}
@@ -0,0 +1,549 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+#define _GNU_SOURCE
+#include <jni.h>
+#include <stdint.h>
+#include <stdlib.h>
+#include <string.h>
+#include <errno.h>
+#include <poll.h>
+#include <sys/eventfd.h>
+#include <sys/mman.h>
+#include <sys/socket.h>
+#include <sys/types.h>
+#include <sys/uio.h>
+#include <sys/utsname.h>
+#include <netinet/in.h>
+#include <stddef.h>
+#include <unistd.h>
+#include <time.h>
+// Needed to be able to use syscalls directly and so not depend on newer GLIBC versions
+#include <sys/syscall.h>
+
+#include "netty_io_uring.h"
+#include "netty_unix_errors.h"
+#include "netty_unix_jni.h"
+#include "netty_unix_util.h"
+#include "netty_unix.h"
+
+// Add define if NETTY_BUILD_STATIC is defined so it is picked up in netty_jni_util.c
+#ifdef NETTY_BUILD_STATIC
+#define NETTY_JNI_UTIL_BUILD_STATIC
+#endif
+
+#define STATICALLY_CLASSNAME "io/netty/channel/uring/NativeStaticallyReferencedJniMethods"
+#define NATIVE_CLASSNAME "io/netty/channel/uring/Native"
+
+// POLLRDHUP is only defined when _GNU_SOURCE is used, define it here so we can compile everywhere.
+#ifndef POLLRDHUP
+#define POLLRDHUP 0x2000
+#endif
+
+// The number of entries in the long[] that is returned by ioUringSetup(...). Keep in sync with RingBuffer.java.
+#define RING_BUFFER_INFO_LENGTH 19
+
+static const char* staticPackagePrefix = NULL;
+static int register_unix_called = 0;
+
+// util methods
+static int sys_io_uring_setup(uint32_t entries, struct netty_io_uring_params* p) {
+    return (int) syscall(__NR_io_uring_setup, entries, p);
+}
+
+static int sys_io_uring_enter(int fd, unsigned to_submit, unsigned min_complete, unsigned flags) {
+    return (int) syscall(__NR_io_uring_enter, fd, to_submit, min_complete, flags, NULL, 0);
+}
+
+static int sys_io_uring_register(int fd, unsigned opcode, const void* arg, unsigned nr_args) {
+    return (int) syscall(__NR_io_uring_register, fd, opcode, arg, nr_args);
+}
+
+// JNI Registered Methods Begin
+static jlongArray netty_io_uring_native_ioUringSetup(JNIEnv* env, jclass clazz, jint entries) {
+    struct netty_io_uring_params p;
+    memset(&p, 0, sizeof(p));
+
+    int ringFd = sys_io_uring_setup((uint32_t) entries, &p);
+    if (ringFd < 0) {
+        netty_unix_errors_throwChannelExceptionErrorNo(env, "io_uring_setup() failed: ", errno);
+        return NULL;
+    }
+
+    size_t sqRingSize = p.sq_off.array + p.sq_entries * sizeof(uint32_t);
+    size_t cqRingSize = p.cq_off.cqes + p.cq_entries * sizeof(struct netty_io_uring_cqe);
+    size_t sqesSize = p.sq_entries * sizeof(struct netty_io_uring_sqe);
+
+    if ((p.features & NETTY_IORING_FEAT_SINGLE_MMAP) != 0) {
+        if (cqRingSize > sqRingSize) {
+            sqRingSize = cqRingSize;
+        }
+        cqRingSize = sqRingSize;
+    }
+
+    void* sqRing = mmap(NULL, sqRingSize, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, ringFd,
+                        NETTY_IORING_OFF_SQ_RING);
+    if (sqRing == MAP_FAILED) {
+        int err = errno;
+        close(ringFd);
+        netty_unix_errors_throwChannelExceptionErrorNo(env, "mmap() of the submission queue failed: ", err);
+        return NULL;
+    }
+
+    void* cqRing;
+    if ((p.features & NETTY_IORING_FEAT_SINGLE_MMAP) != 0) {
+        cqRing = sqRing;
+    } else {
+        cqRing = mmap(NULL, cqRingSize, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, ringFd,
+                      NETTY_IORING_OFF_CQ_RING);
+        if (cqRing == MAP_FAILED) {
+            int err = errno;
+            munmap(sqRing, sqRingSize);
+            close(ringFd);
+            netty_unix_errors_throwChannelExceptionErrorNo(env, "mmap() of the completion queue failed: ", err);
+            return NULL;
+        }
+    }
+
+    void* sqes = mmap(NULL, sqesSize, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE, ringFd,
+                      NETTY_IORING_OFF_SQES);
+    if (sqes == MAP_FAILED) {
+        int err = errno;
+        if (cqRing != sqRing) {
+            munmap(cqRing, cqRingSize);
+        }
+        munmap(sqRing, sqRingSize);
+        close(ringFd);
+        netty_unix_errors_throwChannelExceptionErrorNo(env, "mmap() of the submission queue entries failed: ", err);
+        return NULL;
+    }
+
+    // We always use the submission queue entries in order so we can fill the index array once and never touch it
+    // again.
+    uint32_t* sqArray = (uint32_t*) ((char*) sqRing + p.sq_off.array);
+    uint32_t i;
+    for (i = 0; i < p.sq_entries; i++) {
+        sqArray[i] = i;
+    }
+
+    jlong info[RING_BUFFER_INFO_LENGTH] = {
+        (jlong) ((char*) sqRing + p.sq_off.head),
+        (jlong) ((char*) sqRing + p.sq_off.tail),
+        (jlong) ((char*) sqRing + p.sq_off.ring_mask),
+        (jlong) ((char*) sqRing + p.sq_off.ring_entries),
+        (jlong) ((char*) sqRing + p.sq_off.flags),
+        (jlong) ((char*) sqRing + p.sq_off.dropped),
+        (jlong) sqes,
+        (jlong) sqRing,
+        (jlong) sqRingSize,
+        (jlong) ((char*) cqRing + p.cq_off.head),
+        (jlong) ((char*) cqRing + p.cq_off.tail),
+        (jlong) ((char*) cqRing + p.cq_off.ring_mask),
+        (jlong) ((char*) cqRing + p.cq_off.ring_entries),
+        (jlong) ((char*) cqRing + p.cq_off.overflow),
+        (jlong) ((char*) cqRing + p.cq_off.cqes),
+        (jlong) cqRing,
+        (jlong) cqRingSize,
+        (jlong) ringFd,
+        (jlong) p.features
+    };
+
+    jlongArray array = (*env)->NewLongArray(env, RING_BUFFER_INFO_LENGTH);
+    if (array == NULL) {
+        // This will put an OOME on the stack
+        munmap(sqes, sqesSize);
+        if (cqRing != sqRing) {
+            munmap(cqRing, cqRingSize);
+        }
+        munmap(sqRing, sqRingSize);
+        close(ringFd);
+        return NULL;
+    }
+    (*env)->SetLongArrayRegion(env, array, 0, RING_BUFFER_INFO_LENGTH, info);
+    return array;
+}
+
+static jint netty_io_uring_native_ioUringEnter(JNIEnv* env, jclass clazz, jint ringFd, jint toSubmit,
+                                               jint minComplete, jint flags) {
+    int res;
+    int err;
+    do {
+        res = sys_io_uring_enter(ringFd, (unsigned) toSubmit, (unsigned) minComplete, (unsigned) flags);
+        // keep on entering if it was interrupted
+    } while (res < 0 && ((err = errno) == EINTR));
+
+    if (res < 0) {
+        return -err;
+    }
+    return (jint) res;
+}
+
+static void netty_io_uring_native_ioUringExit(JNIEnv* env, jclass clazz, jlong sqRing, jint sqRingSize,
+                                              jlong cqRing, jint cqRingSize, jlong sqes, jint sqesSize,
+                                              jint ringFd) {
+    munmap((void*) sqes, (size_t) sqesSize);
+    if (cqRing != sqRing) {
+        munmap((void*) cqRing, (size_t) cqRingSize);
+    }
+    munmap((void*) sqRing, (size_t) sqRingSize);
+    if (close(ringFd) < 0) {
+        netty_unix_errors_throwChannelExceptionErrorNo(env, "close() of the ring failed: ", errno);
+    }
+}
+
+static jboolean netty_io_uring_native_ioUringProbe(JNIEnv* env, jclass clazz, jint ringFd, jintArray ops) {
+    // The kernel supports at most 256 ops.
+    size_t len = sizeof(struct netty_io_uring_probe) + 256 * sizeof(struct netty_io_uring_probe_op);
+    struct netty_io_uring_probe* probe = calloc(1, len);
+    if (probe == NULL) {
+        netty_unix_errors_throwOutOfMemoryError(env);
+        return JNI_FALSE;
+    }
+
+    if (sys_io_uring_register(ringFd, NETTY_IORING_REGISTER_PROBE, probe, 256) < 0) {
+        free(probe);
+        return JNI_FALSE;
+    }
+
+    jsize opsLen = (*env)->GetArrayLength(env, ops);
+    jint* opsElements = (*env)->GetIntArrayElements(env, ops, NULL);
+    if (opsElements == NULL) {
+        free(probe);
+        return JNI_FALSE;
+    }
+
+    jboolean supported = JNI_TRUE;
+    jsize i;
+    for (i = 0; i < opsLen; i++) {
+        jint op = opsElements[i];
+        if (op < 0 || op > probe->last_op || (probe->ops[op].flags & NETTY_IO_URING_OP_SUPPORTED) == 0) {
+            supported = JNI_FALSE;
+            break;
+        }
+    }
+    (*env)->ReleaseIntArrayElements(env, ops, opsElements, JNI_ABORT);
+    free(probe);
+    return supported;
+}
+
+static jint netty_io_uring_native_eventFd(JNIEnv* env, jclass clazz) {
+    jint eventFD = eventfd(0, EFD_CLOEXEC | EFD_NONBLOCK);
+
+    if (eventFD < 0) {
+        netty_unix_errors_throwChannelExceptionErrorNo(env, "eventfd() failed: ", errno);
+    }
+    return eventFD;
+}
+
+static void netty_io_uring_native_eventFdWrite(JNIEnv* env, jclass clazz, jint fd, jlong value) {
+    uint64_t val;
+
+    for (;;) {
+        jint ret = eventfd_write(fd, (eventfd_t) value);
+
+        if (ret < 0) {
+            // We need to read before we can write again, let's try to read and then write again and if this
+            // fails we will bail out.
+            //
+            // See https://man7.org/linux/man-pages/man2/eventfd.2.html.
+            if (errno == EAGAIN) {
+                if (eventfd_read(fd, &val) == 0 || errno == EAGAIN) {
+                    // Try again
+                    continue;
+                }
+                netty_unix_errors_throwChannelExceptionErrorNo(env, "eventfd_read(...) failed: ", errno);
+            } else {
+                netty_unix_errors_throwChannelExceptionErrorNo(env, "eventfd_write(...) failed: ", errno);
+            }
+        }
+        break;
+    }
+}
+
+static void netty_io_uring_native_eventFdRead(JNIEnv* env, jclass clazz, jint fd) {
+    uint64_t eventfd_t;
+
+    // The eventfd is non-blocking so EAGAIN just means that someone else consumed the value already.
+    if (eventfd_read(fd, &eventfd_t) != 0 && errno != EAGAIN) {
+        // something is serious wrong
+        netty_unix_errors_throwRuntimeException(env, "eventfd_read() failed");
+    }
+}
+
+static jstring netty_io_uring_native_kernelVersion(JNIEnv* env, jclass clazz) {
+    struct utsname name;
+
+    int res = uname(&name);
+    if (res == 0) {
+        return (*env)->NewStringUTF(env, name.release);
+    }
+    netty_unix_errors_throwRuntimeExceptionErrorNo(env, "uname() failed: ", errno);
+    return NULL;
+}
+
+static jint netty_io_uring_native_pollin(JNIEnv* env, jclass clazz) {
+    return POLLIN;
+}
+
+static jint netty_io_uring_native_pollout(JNIEnv* env, jclass clazz) {
+    return POLLOUT;
+}
+
+static jint netty_io_uring_native_pollrdhup(JNIEnv* env, jclass clazz) {
+    return POLLRDHUP;
+}
+
+static jint netty_io_uring_native_pollerr(JNIEnv* env, jclass clazz) {
+    return POLLERR;
+}
+
+static jint netty_io_uring_native_pollhup(JNIEnv* env, jclass clazz) {
+    return POLLHUP;
+}
+
+static jint netty_io_uring_native_etime(JNIEnv* env, jclass clazz) {
+    return ETIME;
+}
+
+static jint netty_io_uring_native_ecanceled(JNIEnv* env, jclass clazz) {
+    return ECANCELED;
+}
+
+static jint netty_io_uring_native_ebusy(JNIEnv* env, jclass clazz) {
+    return EBUSY;
+}
+
+static jint netty_io_uring_native_enoent(JNIEnv* env, jclass clazz) {
+    return ENOENT;
+}
+
+static jint netty_io_uring_native_afInet(JNIEnv* env, jclass clazz) {
+    return AF_INET;
+}
+
+static jint netty_io_uring_native_afInet6(JNIEnv* env, jclass clazz) {
+    return AF_INET6;
+}
+
+static jint netty_io_uring_native_sockNonblock(JNIEnv* env, jclass clazz) {
+    return SOCK_NONBLOCK;
+}
+
+static jint netty_io_uring_native_sockCloexec(JNIEnv* env, jclass clazz) {
+    return SOCK_CLOEXEC;
+}
+
+static jint netty_io_uring_native_sizeofSockaddrIn(JNIEnv* env, jclass clazz) {
+    return sizeof(struct sockaddr_in);
+}
+
+static jint netty_io_uring_native_sizeofSockaddrIn6(JNIEnv* env, jclass clazz) {
+    return sizeof(struct sockaddr_in6);
+}
+
+static jint netty_io_uring_native_sizeofSockaddrStorage(JNIEnv* env, jclass clazz) {
+    return sizeof(struct sockaddr_storage);
+}
+
+static jint netty_io_uring_native_sockaddrInOffsetofSinPort(JNIEnv* env, jclass clazz) {
+    return offsetof(struct sockaddr_in, sin_port);
+}
+
+static jint netty_io_uring_native_sockaddrInOffsetofSinAddr(JNIEnv* env, jclass clazz) {
+    return offsetof(struct sockaddr_in, sin_addr);
+}
+
+static jint netty_io_uring_native_sockaddrIn6OffsetofSin6Port(JNIEnv* env, jclass clazz) {
+    return offsetof(struct sockaddr_in6, sin6_port);
+}
+
+static jint netty_io_uring_native_sockaddrIn6OffsetofSin6Flowinfo(JNIEnv* env, jclass clazz) {
+    return offsetof(struct sockaddr_in6, sin6_flowinfo);
+}
+
+static jint netty_io_uring_native_sockaddrIn6OffsetofSin6Addr(JNIEnv* env, jclass clazz) {
+    return offsetof(struct sockaddr_in6, sin6_addr);
+}
+
+static jint netty_io_uring_native_sockaddrIn6OffsetofSin6ScopeId(JNIEnv* env, jclass clazz) {
+    return offsetof(struct sockaddr_in6, sin6_scope_id);
+}
+
+static jint netty_io_uring_native_sizeofSocklenT(JNIEnv* env, jclass clazz) {
+    return sizeof(socklen_t);
+}
+
+static jint netty_io_uring_native_sizeofIovec(JNIEnv* env, jclass clazz) {
+    return sizeof(struct iovec);
+}
+
+static jint netty_io_uring_native_sizeofMsghdr(JNIEnv* env, jclass clazz) {
+    return sizeof(struct msghdr);
+}
+
+static jint netty_io_uring_native_msghdrOffsetofMsgName(JNIEnv* env, jclass clazz) {
+    return offsetof(struct msghdr, msg_name);
+}
+
+static jint netty_io_uring_native_msghdrOffsetofMsgNamelen(JNIEnv* env, jclass clazz) {
+    return offsetof(struct msghdr, msg_namelen);
+}
+
+static jint netty_io_uring_native_msghdrOffsetofMsgIov(JNIEnv* env, jclass clazz) {
+    return offsetof(struct msghdr, msg_iov);
+}
+
+static jint netty_io_uring_native_msghdrOffsetofMsgIovlen(JNIEnv* env, jclass clazz) {
+    return offsetof(struct msghdr, msg_iovlen);
+}
+
+static jint netty_io_uring_native_sizeofKernelTimespec(JNIEnv* env, jclass clazz) {
+    // struct __kernel_timespec is always two 64 bit values, independent of the architecture.
+    return 2 * sizeof(int64_t);
+}
+
+static jint netty_io_uring_native_sizeofSqe(JNIEnv* env, jclass clazz) {
+    return sizeof(struct netty_io_uring_sqe);
+}
+
+static jint netty_io_uring_native_sizeofCqe(JNIEnv* env, jclass clazz) {
+    return sizeof(struct netty_io_uring_cqe);
+}
+
+static jint netty_io_uring_native_registerUnix(JNIEnv* env, jclass clazz) {
+    register_unix_called = 1;
+    return netty_unix_register(env, staticPackagePrefix);
+}
+
+// JNI Registered Methods End
+
+// JNI Method Registration Table Begin
+static const JNINativeMethod statically_referenced_fixed_method_table[] = {
+  { "pollin", "()I", (void *) netty_io_uring_native_pollin },
+  { "pollout", "()I", (void *) netty_io_uring_native_pollout },
+  { "pollrdhup", "()I", (void *) netty_io_uring_native_pollrdhup },
+  { "pollerr", "()I", (void *) netty_io_uring_native_pollerr },
+  { "pollhup", "()I", (void *) netty_io_uring_native_pollhup },
+  { "etime", "()I", (void *) netty_io_uring_native_etime },
+  { "ecanceled", "()I", (void *) netty_io_uring_native_ecanceled },
+  { "ebusy", "()I", (void *) netty_io_uring_native_ebusy },
+  { "enoent", "()I", (void *) netty_io_uring_native_enoent },
+  { "afInet", "()I", (void *) netty_io_uring_native_afInet },
+  { "afInet6", "()I", (void *) netty_io_uring_native_afInet6 },
+  { "sockNonblock", "()I", (void *) netty_io_uring_native_sockNonblock },
+  { "sockCloexec", "()I", (void *) netty_io_uring_native_sockCloexec },
+  { "sizeofSockaddrIn", "()I", (void *) netty_io_uring_native_sizeofSockaddrIn },
+  { "sizeofSockaddrIn6", "()I", (void *) netty_io_uring_native_sizeofSockaddrIn6 },
+  { "sizeofSockaddrStorage", "()I", (void *) netty_io_uring_native_sizeofSockaddrStorage },
+  { "sockaddrInOffsetofSinPort", "()I", (void *) netty_io_uring_native_sockaddrInOffsetofSinPort },
+  { "sockaddrInOffsetofSinAddr", "()I", (void *) netty_io_uring_native_sockaddrInOffsetofSinAddr },
+  { "sockaddrIn6OffsetofSin6Port", "()I", (void *) netty_io_uring_native_sockaddrIn6OffsetofSin6Port },
+  { "sockaddrIn6OffsetofSin6Flowinfo", "()I", (void *) netty_io_uring_native_sockaddrIn6OffsetofSin6Flowinfo },
+  { "sockaddrIn6OffsetofSin6Addr", "()I", (void *) netty_io_uring_native_sockaddrIn6OffsetofSin6Addr },
+  { "sockaddrIn6OffsetofSin6ScopeId", "()I", (void *) netty_io_uring_native_sockaddrIn6OffsetofSin6ScopeId },
+  { "sizeofSocklenT", "()I", (void *) netty_io_uring_native_sizeofSocklenT },
+  { "sizeofIovec", "()I", (void *) netty_io_uring_native_sizeofIovec },
+  { "sizeofMsghdr", "()I", (void *) netty_io_uring_native_sizeofMsghdr },
+  { "msghdrOffsetofMsgName", "()I", (void *) netty_io_uring_native_msghdrOffsetofMsgName },
+  { "msghdrOffsetofMsgNamelen", "()I", (void *) netty_io_uring_native_msghdrOffsetofMsgNamelen },
+  { "msghdrOffsetofMsgIov", "()I", (void *) netty_io_uring_native_msghdrOffsetofMsgIov },
+  { "msghdrOffsetofMsgIovlen", "()I", (void *) netty_io_uring_native_msghdrOffsetofMsgIovlen },
+  { "sizeofKernelTimespec", "()I", (void *) netty_io_uring_native_sizeofKernelTimespec },
+  { "sizeofSqe", "()I", (void *) netty_io_uring_native_sizeofSqe },
+  { "sizeofCqe", "()I", (void *) netty_io_uring_native_sizeofCqe },
+  { "kernelVersion", "()Ljava/lang/String;", (void *) netty_io_uring_native_kernelVersion }
+};
+static const jint statically_referenced_fixed_method_table_size = sizeof(statically_referenced_fixed_method_table) / sizeof(statically_referenced_fixed_method_table[0]);
+static const JNINativeMethod fixed_method_table[] = {
+  { "ioUringSetup", "(I)[J", (void *) netty_io_uring_native_ioUringSetup },
+  { "ioUringEnter", "(IIII)I", (void *) netty_io_uring_native_ioUringEnter },
+  { "ioUringExit", "(JIJIJII)V", (void *) netty_io_uring_native_ioUringExit },
+  { "ioUringProbe", "(I[I)Z", (void *) netty_io_uring_native_ioUringProbe },
+  { "eventFd", "()I", (void *) netty_io_uring_native_eventFd },
+  { "eventFdWrite", "(IJ)V", (void *) netty_io_uring_native_eventFdWrite },
+  { "eventFdRead", "(I)V", (void *) netty_io_uring_native_eventFdRead },
+  { "registerUnix", "()I", (void *) netty_io_uring_native_registerUnix }
+};
+static const jint fixed_method_table_size = sizeof(fixed_method_table) / sizeof(fixed_method_table[0]);
+// JNI Method Registration Table End
+
+static jint netty_io_uring_native_JNI_OnLoad(JNIEnv* env, const char* packagePrefix) {
+    int staticallyRegistered = 0;
+
+    // We must register the statically referenced methods first!
+    if (netty_jni_util_register_natives(env,
+            packagePrefix,
+            STATICALLY_CLASSNAME,
+            statically_referenced_fixed_method_table,
+            statically_referenced_fixed_method_table_size) != 0) {
+        goto error;
+    }
+    staticallyRegistered = 1;
+
+    // Register the methods which are not referenced by static member variables
+    if (netty_jni_util_register_natives(env,
+            packagePrefix,
+            NATIVE_CLASSNAME,
+            fixed_method_table,
+            fixed_method_table_size) != 0) {
+        goto error;
+    }
+
+    staticPackagePrefix = packagePrefix;
+    return NETTY_JNI_UTIL_JNI_VERSION;
+error:
+    if (staticallyRegistered == 1) {
+        netty_jni_util_unregister_natives(env, packagePrefix, STATICALLY_CLASSNAME);
+    }
+    return JNI_ERR;
+}
+
+static void netty_io_uring_native_JNI_OnUnload(JNIEnv* env) {
+    if (register_unix_called == 1) {
+        register_unix_called = 0;
+        netty_unix_unregister(env, staticPackagePrefix);
+    }
+
+    netty_jni_util_unregister_natives(env, staticPackagePrefix, STATICALLY_CLASSNAME);
+    netty_jni_util_unregister_natives(env, staticPackagePrefix, NATIVE_CLASSNAME);
+
+    if (staticPackagePrefix != NULL) {
+        free((void *) staticPackagePrefix);
+        staticPackagePrefix = NULL;
+    }
+}
+
+// We build with -fvisibility=hidden so ensure we mark everything that needs to be visible with JNIEXPORT
+// https://mail.openjdk.java.net/pipermail/core-libs-dev/2013-February/014549.html
+
+// Invoked by the JVM when statically linked
+JNIEXPORT jint JNI_OnLoad_netty_transport_native_io_uring(JavaVM* vm, void* reserved) {
+    return netty_jni_util_JNI_OnLoad(vm, reserved, "netty_transport_native_io_uring", netty_io_uring_native_JNI_OnLoad);
+}
+
+// Invoked by the JVM when statically linked
+JNIEXPORT void JNI_OnUnload_netty_transport_native_io_uring(JavaVM* vm, void* reserved) {
+    netty_jni_util_JNI_OnUnload(vm, reserved, netty_io_uring_native_JNI_OnUnload);
+}
+
+#ifndef NETTY_BUILD_STATIC
+JNIEXPORT jint JNI_OnLoad(JavaVM* vm, void* reserved) {
+    return netty_jni_util_JNI_OnLoad(vm, reserved, "netty_transport_native_io_uring", netty_io_uring_native_JNI_OnLoad);
+}
+
+JNIEXPORT void JNI_OnUnload(JavaVM* vm, void* reserved) {
+    netty_jni_util_JNI_OnUnload(vm, reserved, netty_io_uring_native_JNI_OnUnload);
+}
+#endif /* NETTY_BUILD_STATIC */
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.unix.tests;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.ReservedChunkMemoryProvider;
+import io.netty.channel.unix.Buffer;
+import io.netty.channel.unix.MmapChunkMemoryProvider;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public abstract class MmapChunkMemoryProviderTest {
+
+    @Test
+    public void testAllocateAndFree() {
+        testAllocateAndFree(new MmapChunkMemoryProvider(false));
+    }
+
+    @Test
+    public void testAllocateAndFreeHugePages() {
+        testAllocateAndFree(new MmapChunkMemoryProvider(true));
+    }
+
+    private static void testAllocateAndFree(MmapChunkMemoryProvider provider) {
+        ByteBuffer memory = provider.allocate(1024 * 1024);
+        assertTrue(memory.isDirect());
+        assertEquals(1024 * 1024, memory.capacity());
+        memory.putLong(0, 1).putLong(memory.capacity() - 8, 2);
+        assertEquals(1, memory.getLong(0));
+        assertEquals(2, memory.getLong(memory.capacity() - 8));
+        provider.free(memory);
+    }
+
+    @Test
+    public void testAlignment() {
+        int alignment = 2 * 1024 * 1024;
+        MmapChunkMemoryProvider provider = new MmapChunkMemoryProvider(true, alignment);
+        ByteBuffer memory = provider.allocate(4096);
+        try {
+            assertEquals(0, Buffer.memoryAddress(memory) & alignment - 1);
+        } finally {
+            provider.free(memory);
+        }
+    }
+
+    @Test
+    public void testPooledByteBufAllocator() {
+        int pageSize = 8192;
+        int maxOrder = 9;
+        ReservedChunkMemoryProvider provider = new ReservedChunkMemoryProvider(
+                new MmapChunkMemoryProvider(true), pageSize << maxOrder, 2);
+        PooledByteBufAllocator allocator = new PooledByteBufAllocator(true, 0, 1, pageSize, maxOrder,
+                0, 0, false, 0, 0, provider);
+        ByteBuf buf = allocator.directBuffer(1024);
+        assertEquals(1, provider.numFreeChunks());
+        buf.writeLong(42);
+        assertEquals(42, buf.readLong());
+        buf.release();
+    }
+}
@@ -13,9 +13,15 @@
  * License for the specific language governing permissions and limitations
  * under the License.
  */
+#include <errno.h>
+#include <stdint.h>
+#include <sys/mman.h>
+#include <unistd.h>
+
 #include "netty_unix_jni.h"
 #include "netty_unix_util.h"
 #include "netty_unix_buffer.h"
+#include "netty_unix_errors.h"
 #include "netty_jni_util.h"
 
 #define BUFFER_CLASSNAME "io/netty/channel/unix/Buffer"
@@ -29,12 +35,55 @@ static jint netty_unix_buffer_addressSize0(JNIEnv* env, jclass clazz) {
    return (jint) sizeof(int*);
 }
 
+static jobject netty_unix_buffer_mmapAnonymous0(JNIEnv* env, jclass clazz, jint size, jint alignment, jboolean hugePages) {
+    size_t length = (size_t) size;
+    size_t mapLength = length + (size_t) alignment;
+    uint8_t* mapped = mmap(NULL, mapLength, PROT_READ | PROT_WRITE, MAP_PRIVATE | MAP_ANON, -1, 0);
+    if (mapped == MAP_FAILED) {
+        netty_unix_errors_throwIOExceptionErrorNo(env, "mmap() failed: ", errno);
+        return NULL;
+    }
+    uint8_t* start = mapped;
+    if (alignment > 0) {
+        // Map more than needed and give back what is in front of and behind the aligned region.
+        size_t pageSize = (size_t) sysconf(_SC_PAGESIZE);
+        size_t pageAlignedLength = (length + pageSize - 1) & ~(pageSize - 1);
+        start = (uint8_t*) (((uintptr_t) mapped + alignment - 1) & ~((uintptr_t) alignment - 1));
+        if (start != mapped) {
+            munmap(mapped, start - mapped);
+        }
+        if (start + pageAlignedLength < mapped + mapLength) {
+            munmap(start + pageAlignedLength, (mapped + mapLength) - (start + pageAlignedLength));
+        }
+    }
+#ifdef MADV_HUGEPAGE
+    if (hugePages == JNI_TRUE) {
+        // This is only a hint, it fails if transparent huge pages are not supported by the kernel.
+        madvise(start, length, MADV_HUGEPAGE);
+    }
+#endif
+    jobject buffer = (*env)->NewDirectByteBuffer(env, start, (jlong) length);
+    if (buffer == NULL) {
+        munmap(start, length);
+    }
+    return buffer;
+}
+
+static jint netty_unix_buffer_munmap0(JNIEnv* env, jclass clazz, jlong address, jint size) {
+    if (munmap((void*) (intptr_t) address, (size_t) size) == -1) {
+        return -errno;
+    }
+    return 0;
+}
+
 // JNI Registered Methods End
 
 // JNI Method Registration Table Begin
 static const JNINativeMethod statically_referenced_fixed_method_table[] = {
   { "memoryAddress0", "(Ljava/nio/ByteBuffer;)J", (void *) netty_unix_buffer_memoryAddress0 },
-  { "addressSize0", "()I", (void *) netty_unix_buffer_addressSize0 }
+  { "addressSize0", "()I", (void *) netty_unix_buffer_addressSize0 },
+  { "mmapAnonymous0", "(IIZ)Ljava/nio/ByteBuffer;", (void *) netty_unix_buffer_mmapAnonymous0 },
+  { "munmap0", "(JI)I", (void *) netty_unix_buffer_munmap0 }
 };
 static const jint statically_referenced_fixed_method_table_size = sizeof(statically_referenced_fixed_method_table) / sizeof(statically_referenced_fixed_method_table[0]);
 // JNI Method Registration Table End
@@ -18,6 +18,7 @@ package io.netty.channel.unix;
 import io.netty.util.internal.PlatformDependent;
 import io.netty.util.internal.UnstableApi;
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
@@ -62,7 +63,29 @@ public final class Buffer {
         return addressSize0();
     }
 
+    /**
+     * Returns a new {@link ByteBuffer} which is backed by an anonymous private mapping of {@code size} bytes that
+     * starts at a multiple of {@code alignment}, or of the page size if {@code alignment} is {@code 0}.
+     * The {@link ByteBuffer} must be released via {@link #munmap(ByteBuffer)}.
+     */
+    static ByteBuffer mmapAnonymous(int size, int alignment, boolean hugePages) throws IOException {
+        return mmapAnonymous0(size, alignment, hugePages);
+    }
+
+    /**
+     * Unmap the memory of a {@link ByteBuffer} which was returned by {@link #mmapAnonymous(int, int, boolean)}.
+     */
+    static void munmap(ByteBuffer buffer) throws IOException {
+        int res = munmap0(memoryAddress(buffer), buffer.capacity());
+        if (res < 0) {
+            throw Errors.newIOException("munmap", res);
+        }
+    }
+
     // If Unsafe can not be used we will need to do JNI calls.
     private static native int addressSize0();
     private static native long memoryAddress0(ByteBuffer buffer);
+
+    private static native ByteBuffer mmapAnonymous0(int size, int alignment, boolean hugePages) throws IOException;
+    private static native int munmap0(long address, int size);
 }
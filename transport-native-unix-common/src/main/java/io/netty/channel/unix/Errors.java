@@ -119,7 +119,14 @@ public final class Errors {
         }
     }
 
-    static boolean handleConnectErrno(String method, int err) throws IOException {
+    /**
+     * Handle the result of a non-blocking connect.
+     * @param method The native method name which caused the errno.
+     * @param err the negative value of the errno.
+     * @return {@code false} if the connect is still in progress, otherwise an exception is thrown.
+     * @throws IOException The errno translated into an exception.
+     */
+    public static boolean handleConnectErrno(String method, int err) throws IOException {
         if (err == ERRNO_EINPROGRESS_NEGATIVE || err == ERROR_EALREADY_NEGATIVE) {
             // connect not complete yet need to wait for EPOLLOUT event.
             // EALREADY has been observed when using tcp fast open on centos8.
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.unix;
+
+import io.netty.buffer.ChunkMemoryProvider;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ChunkMemoryProvider} which maps the memory of each chunk with {@code mmap}. When huge pages are used the
+ * mappings are aligned to the size of a huge page and are marked with {@code MADV_HUGEPAGE}, so the kernel can back
+ * them with transparent huge pages, which reduces the TLB misses when accessing the buffers of a
+ * {@link PooledByteBufAllocator}.
+ * <p>
+ * The native library of the transport must be loaded before this class is used. The mapped memory is not counted
+ * as direct memory of the JVM.
+ */
+@UnstableApi
+public final class MmapChunkMemoryProvider implements ChunkMemoryProvider {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(MmapChunkMemoryProvider.class);
+    private static final String HUGE_PAGE_SIZE_FILE = "/sys/kernel/mm/transparent_hugepage/hpage_pmd_size";
+    private static final int DEFAULT_HUGE_PAGE_SIZE = 2 * 1024 * 1024;
+
+    private final int alignment;
+    private final boolean hugePages;
+
+    /**
+     * Creates a new instance which uses huge pages with the huge page size of the system.
+     */
+    public MmapChunkMemoryProvider() {
+        this(true);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param hugePages {@code true} if the kernel should back the chunks with transparent huge pages.
+     */
+    public MmapChunkMemoryProvider(boolean hugePages) {
+        this(hugePages, hugePages ? hugePageSize() : 0);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param hugePages {@code true} if the kernel should back the chunks with transparent huge pages.
+     * @param alignment the alignment of the chunks, which must be a power of two and should be the huge page size
+     *                  if huge pages are used, or {@code 0} to align them to the page size.
+     */
+    public MmapChunkMemoryProvider(boolean hugePages, int alignment) {
+        ObjectUtil.checkPositiveOrZero(alignment, "alignment");
+        if ((alignment & alignment - 1) != 0) {
+            throw new IllegalArgumentException("alignment: " + alignment + " (expected: power of two)");
+        }
+        this.hugePages = hugePages;
+        this.alignment = alignment;
+    }
+
+    /**
+     * Returns the size of the transparent huge pages of the system.
+     */
+    static int hugePageSize() {
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new FileReader(HUGE_PAGE_SIZE_FILE));
+            return Integer.parseInt(reader.readLine().trim());
+        } catch (Exception e) {
+            logger.debug("Failed to read {}, using {}", HUGE_PAGE_SIZE_FILE, DEFAULT_HUGE_PAGE_SIZE, e);
+            return DEFAULT_HUGE_PAGE_SIZE;
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException ignore) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    @Override
+    public ByteBuffer allocate(int capacity) {
+        try {
+            return Buffer.mmapAnonymous(capacity, alignment, hugePages);
+        } catch (IOException e) {
+            OutOfMemoryError error = new OutOfMemoryError("failed to map " + capacity + " byte(s)");
+            error.initCause(e);
+            throw error;
+        }
+    }
+
+    @Override
+    public void free(ByteBuffer memory) {
+        try {
+            Buffer.munmap(memory);
+        } catch (IOException e) {
+            logger.warn("Failed to unmap {} byte(s)", memory.capacity(), e);
+        }
+    }
+}
@@ -449,6 +449,8 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
         private volatile ChannelOutboundBuffer outboundBuffer = new ChannelOutboundBuffer(AbstractChannel.this);
         private RecvByteBufAllocator.Handle recvHandle;
         private boolean inFlush0;
+        // true if the flush was deferred to the end of the current event loop iteration
+        private boolean flushDeferred;
         /** true if the channel has never been registered, false otherwise */
         private boolean neverRegistered = true;
 
@@ -570,14 +572,19 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
                     if (firstRegistration) {
                         //todo 在pipeline中传播ChannelActive的行为，跟进去
                         pipeline.fireChannelActive();
-                    } else if (config().isAutoRead()) {
-                        // This channel was registered before and autoRead() is set. This means we need to begin read
-                        // again so that we process inbound data.
-                        //
-                        // See https://github.com/netty/netty/issues/4805
-
-                        //todo 可以接受客户端的数据了
-                        beginRead();
+                    } else {
+                        if (config().isAutoRead()) {
+                            // This channel was registered before and autoRead() is set. This means we need to begin
+                            // read again so that we process inbound data.
+                            //
+                            // See https://github.com/netty/netty/issues/4805
+
+                            //todo 可以接受客户端的数据了
+                            beginRead();
+                        }
+                        // Write what was flushed but not written yet, the new EventLoop does not wait for the
+                        // channel to become writable.
+                        flush0();
                     }
                 }
             } catch (Throwable t) {
@@ -962,10 +969,46 @@ public abstract class AbstractChannel extends DefaultAttributeMap implements Cha
             }
             //todo 添加刷新标志，设置写状态
             outboundBuffer.addFlush();
+            if (flushDeferred) {
+                // The event loop will flush at the end of its current iteration.
+                return;
+            }
+            EventLoop eventLoop = AbstractChannel.this.eventLoop;
+            ChannelConfig config = config();
+            if (eventLoop instanceof SingleThreadEventLoop && config instanceof DefaultChannelConfig &&
+                    ((DefaultChannelConfig) config).isConsolidateFlushes() &&
+                    ((SingleThreadEventLoop) eventLoop).deferFlush(this)) {
+                flushDeferred = true;
+                return;
+            }
             //todo 遍历buffer队列，过滤byteBuf
             flush0();
         }
 
+        /**
+         * Called by the {@link SingleThreadEventLoop} at the end of the iteration in which {@link #flush()} was
+         * deferred. Never throws, so the deferred flushes of the other channels are still run.
+         */
+        final void runDeferredFlush() {
+            flushDeferred = false;
+            try {
+                EventLoop eventLoop = eventLoop();
+                if (eventLoop.inEventLoop()) {
+                    flush0();
+                } else {
+                    // The channel was registered with another EventLoop in the meantime.
+                    eventLoop.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            flush0();
+                        }
+                    });
+                }
+            } catch (Throwable t) {
+                logger.warn("A deferred flush raised an exception. Channel: {}", AbstractChannel.this, t);
+            }
+        }
+
         @SuppressWarnings("deprecation")
         protected void flush0() {
             if (inFlush0) {
@@ -99,6 +99,9 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
     // There is no need to make this volatile as at worse it will just create a few more instances then needed.
     private Tasks invokeTasks;
 
+    // Histograms of the thread which last invoked this context while the ChannelHandlerProfiler was enabled.
+    ChannelHandlerProfiler.HandlerHistograms profile;
+
     private volatile int handlerState = INIT;
 
     AbstractChannelHandlerContext(DefaultChannelPipeline pipeline, EventExecutor executor,
@@ -151,7 +154,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeChannelRegistered();
         } else {
-            executor.execute(new Runnable() {
+            execute(next, executor, new Runnable() {
                 @Override
                 public void run() {
                     next.invokeChannelRegistered();
@@ -183,7 +186,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeChannelUnregistered();
         } else {
-            executor.execute(new Runnable() {
+            execute(next, executor, new Runnable() {
                 @Override
                 public void run() {
                     next.invokeChannelUnregistered();
@@ -215,7 +218,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeChannelActive();
         } else {
-            executor.execute(new Runnable() {
+            execute(next, executor, new Runnable() {
                 @Override
                 public void run() {
                     next.invokeChannelActive();
@@ -247,7 +250,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeChannelInactive();
         } else {
-            executor.execute(new Runnable() {
+            execute(next, executor, new Runnable() {
                 @Override
                 public void run() {
                     next.invokeChannelInactive();
@@ -281,7 +284,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             next.invokeExceptionCaught(cause);
         } else {
             try {
-                executor.execute(new Runnable() {
+                execute(next, executor, new Runnable() {
                     @Override
                     public void run() {
                         next.invokeExceptionCaught(cause);
@@ -331,7 +334,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeUserEventTriggered(event);
         } else {
-            executor.execute(new Runnable() {
+            execute(next, executor, new Runnable() {
                 @Override
                 public void run() {
                     next.invokeUserEventTriggered(event);
@@ -364,7 +367,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeChannelRead(m);
         } else {
-            executor.execute(new Runnable() {
+            execute(next, executor, new Runnable() {
                 @Override
                 public void run() {
                     next.invokeChannelRead(m);
@@ -375,10 +378,18 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
 
     private void invokeChannelRead(Object msg) {
         if (invokeHandler()) {
+            final ChannelHandlerProfiler.Recorder recorder = ChannelHandlerProfiler.recorder();
+            if (recorder != null) {
+                recorder.enter();
+            }
             try {
                 ((ChannelInboundHandler) handler()).channelRead(this, msg);
             } catch (Throwable t) {
                 invokeExceptionCaught(t);
+            } finally {
+                if (recorder != null) {
+                    recorder.exit(this, ChannelHandlerProfiler.Operation.CHANNEL_READ);
+                }
             }
         } else {
             fireChannelRead(msg);
@@ -400,7 +411,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             if (tasks == null) {
                 next.invokeTasks = tasks = new Tasks(next);
             }
-            executor.execute(tasks.invokeChannelReadCompleteTask);
+            execute(next, executor, tasks.invokeChannelReadCompleteTask);
         }
     }
 
@@ -431,7 +442,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             if (tasks == null) {
                 next.invokeTasks = tasks = new Tasks(next);
             }
-            executor.execute(tasks.invokeChannelWritableStateChangedTask);
+            execute(next, executor, tasks.invokeChannelWritableStateChangedTask);
         }
     }
 
@@ -490,7 +501,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeBind(localAddress, promise);
         } else {
-            safeExecute(executor, new Runnable() {
+            safeExecute(next, executor, new Runnable() {
                 @Override
                 public void run() {
                     next.invokeBind(localAddress, promise);
@@ -532,7 +543,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeConnect(remoteAddress, localAddress, promise);
         } else {
-            safeExecute(executor, new Runnable() {
+            safeExecute(next, executor, new Runnable() {
                 @Override
                 public void run() {
                     next.invokeConnect(remoteAddress, localAddress, promise);
@@ -571,7 +582,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeDisconnect(promise);
         } else {
-            safeExecute(executor, new Runnable() {
+            safeExecute(next, executor, new Runnable() {
                 @Override
                 public void run() {
                     next.invokeDisconnect(promise);
@@ -605,7 +616,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeClose(promise);
         } else {
-            safeExecute(executor, new Runnable() {
+            safeExecute(next, executor, new Runnable() {
                 @Override
                 public void run() {
                     next.invokeClose(promise);
@@ -640,7 +651,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         if (executor.inEventLoop()) {
             next.invokeDeregister(promise);
         } else {
-            safeExecute(executor, new Runnable() {
+            safeExecute(next, executor, new Runnable() {
                 @Override
                 public void run() {
                     next.invokeDeregister(promise);
@@ -674,7 +685,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             if (tasks == null) {
                 next.invokeTasks = tasks = new Tasks(next);
             }
-            executor.execute(tasks.invokeReadTask);
+            execute(next, executor, tasks.invokeReadTask);
         }
 
         return this;
@@ -713,10 +724,18 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
     }
 
     private void invokeWrite0(Object msg, ChannelPromise promise) {
+        final ChannelHandlerProfiler.Recorder recorder = ChannelHandlerProfiler.recorder();
+        if (recorder != null) {
+            recorder.enter();
+        }
         try {
             ((ChannelOutboundHandler) handler()).write(this, msg, promise);
         } catch (Throwable t) {
             notifyOutboundHandlerException(t, promise);
+        } finally {
+            if (recorder != null) {
+                recorder.exit(this, ChannelHandlerProfiler.Operation.WRITE);
+            }
         }
     }
 
@@ -731,7 +750,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             if (tasks == null) {
                 next.invokeTasks = tasks = new Tasks(next);
             }
-            safeExecute(executor, tasks.invokeFlushTask, channel().voidPromise(), null, false);
+            safeExecute(next, executor, tasks.invokeFlushTask, channel().voidPromise(), null, false);
         }
 
         return this;
@@ -746,10 +765,18 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
     }
 
     private void invokeFlush0() {
+        final ChannelHandlerProfiler.Recorder recorder = ChannelHandlerProfiler.recorder();
+        if (recorder != null) {
+            recorder.enter();
+        }
         try {
             ((ChannelOutboundHandler) handler()).flush(this);
         } catch (Throwable t) {
             invokeExceptionCaught(t);
+        } finally {
+            if (recorder != null) {
+                recorder.exit(this, ChannelHandlerProfiler.Operation.FLUSH);
+            }
         }
     }
 
@@ -793,7 +820,7 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
             }
         } else {
             final WriteTask task = WriteTask.newInstance(next, m, promise, flush);
-            if (!safeExecute(executor, task, promise, m, !flush)) {
+            if (!safeExecute(next, executor, task, promise, m, !flush)) {
                 // We failed to submit the WriteTask. We need to cancel it so we decrement the pending bytes
                 // and put it back in the Recycler for re-use later.
                 //
@@ -980,14 +1007,10 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         return channel().hasAttr(key);
     }
 
-    private static boolean safeExecute(EventExecutor executor, Runnable runnable,
+    private static boolean safeExecute(AbstractChannelHandlerContext next, EventExecutor executor, Runnable runnable,
             ChannelPromise promise, Object msg, boolean lazy) {
         try {
-            if (lazy && executor instanceof AbstractEventExecutor) {
-                ((AbstractEventExecutor) executor).lazyExecute(runnable);
-            } else {
-                executor.execute(runnable);
-            }
+            execute(next, executor, runnable, lazy);
             return true;
         } catch (Throwable cause) {
             try {
@@ -1001,6 +1024,44 @@ abstract class AbstractChannelHandlerContext implements ChannelHandlerContext, R
         }
     }
 
+    private static void execute(AbstractChannelHandlerContext next, EventExecutor executor, Runnable runnable) {
+        execute(next, executor, runnable, false);
+    }
+
+    /**
+     * Submits a task for {@code next} to its {@link EventExecutor}, which is not the calling thread. While the
+     * {@link Channel} is moved to another {@link EventLoop} by the {@link ChannelMigration} the task is held back
+     * until the new {@link EventLoop} took over, so it neither runs concurrently with nor before the tasks which were
+     * submitted to the old one.
+     */
+    private static void execute(AbstractChannelHandlerContext next, EventExecutor executor, Runnable runnable,
+                                boolean lazy) {
+        if (next.executor != null) {
+            submit(executor, runnable, lazy);
+            return;
+        }
+        DefaultChannelPipeline pipeline = next.pipeline;
+        pipeline.beginSubmit();
+        try {
+            ChannelMigration.Gate gate = pipeline.migrationGate;
+            if (gate == null || !gate.offer(runnable)) {
+                // Look up the EventLoop again as the channel may have been migrated since, the ChannelMigration
+                // waits for this submission before it hands the channel over to the next one.
+                submit(next.executor(), runnable, lazy);
+            }
+        } finally {
+            pipeline.endSubmit();
+        }
+    }
+
+    private static void submit(EventExecutor executor, Runnable runnable, boolean lazy) {
+        if (lazy && executor instanceof AbstractEventExecutor) {
+            ((AbstractEventExecutor) executor).lazyExecute(runnable);
+        } else {
+            executor.execute(runnable);
+        }
+    }
+
     @Override
     public String toHintString() {
         return '\'' + name + "' will handle the message from this point.";
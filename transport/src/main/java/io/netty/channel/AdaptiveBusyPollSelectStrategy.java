@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.IntSupplier;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SelectStrategy} created by the {@link AdaptiveBusyPollSelectStrategyFactory}, which returns
+ * {@link #BUSY_WAIT} as long as the spin budget of its {@link EventLoop} is not {@code 0}. The {@link EventLoop}
+ * then polls for I/O without blocking until something is ready, a task is submitted or the budget is spent, and
+ * blocks afterwards.
+ * <p>
+ * The budget adapts to how long the {@link EventLoop} waits for work, which the {@link EventLoop} reports with
+ * {@link #waited(long)}. If the work arrived while it polled, the budget is kept. If it arrived later but within
+ * the maximum budget, the budget grows to catch it next time. If it arrived after the maximum budget, the budget
+ * is halved, down to {@code 0}, so an idle {@link EventLoop} does not poll at all.
+ * <p>
+ * An instance belongs to a single {@link EventLoop} and must only be used by its thread.
+ */
+@UnstableApi
+public final class AdaptiveBusyPollSelectStrategy implements SelectStrategy {
+    // Budget the EventLoop starts polling with once it waited less than the maximum.
+    private static final long GROW_START_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private final long maxSpinNanos;
+    private final long growStartNanos;
+    private long spinBudgetNanos;
+
+    AdaptiveBusyPollSelectStrategy(long maxSpinNanos) {
+        this.maxSpinNanos = maxSpinNanos;
+        growStartNanos = Math.min(GROW_START_NANOS, maxSpinNanos);
+    }
+
+    @Override
+    public int calculateStrategy(IntSupplier selectSupplier, boolean hasTasks) throws Exception {
+        if (hasTasks) {
+            return selectSupplier.get();
+        }
+        return spinBudgetNanos > 0 ? BUSY_WAIT : SELECT;
+    }
+
+    /**
+     * Returns the longest time the {@link EventLoop} should poll before it blocks, in nanoseconds.
+     */
+    public long spinBudgetNanos() {
+        return spinBudgetNanos;
+    }
+
+    /**
+     * Reports that the {@link EventLoop} waited the given time, polling and blocking, until I/O was ready or a
+     * task was submitted.
+     */
+    public void waited(long waitNanos) {
+        long budgetNanos = spinBudgetNanos;
+        if (waitNanos <= budgetNanos) {
+            // Polling paid off.
+            return;
+        }
+        if (waitNanos <= maxSpinNanos) {
+            spinBudgetNanos = Math.min(maxSpinNanos, Math.max(growStartNanos, budgetNanos << 1));
+        } else {
+            budgetNanos >>= 1;
+            spinBudgetNanos = budgetNanos < growStartNanos ? 0 : budgetNanos;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory of {@link AdaptiveBusyPollSelectStrategy}s, which let an {@link EventLoop} poll for I/O without blocking
+ * for a while before it blocks, to save the cost of being woken up when the next event follows closely.
+ * <p>
+ * Supported by {@link io.netty.channel.nio.NioEventLoop} and {@code EpollEventLoop}, other {@link EventLoop}s
+ * either block right away or busy-wait without a limit. With epoll it can be combined with the
+ * {@code EpollChannelOption.SO_BUSY_POLL} option to also poll the network device while polling for events.
+ */
+@UnstableApi
+public final class AdaptiveBusyPollSelectStrategyFactory implements SelectStrategyFactory {
+    private final long maxSpinNanos;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxSpin   the longest an {@link EventLoop} polls before it blocks. It only polls that long while its
+     *                  events and tasks arrive at least that often, and does not poll at all while idle.
+     * @param unit      the {@link TimeUnit} of {@code maxSpin}.
+     */
+    public AdaptiveBusyPollSelectStrategyFactory(long maxSpin, TimeUnit unit) {
+        maxSpinNanos = ObjectUtil.checkNotNull(unit, "unit").toNanos(ObjectUtil.checkPositive(maxSpin, "maxSpin"));
+    }
+
+    @Override
+    public SelectStrategy newSelectStrategy() {
+        // The strategy keeps the spin budget of its EventLoop.
+        return new AdaptiveBusyPollSelectStrategy(maxSpinNanos);
+    }
+}
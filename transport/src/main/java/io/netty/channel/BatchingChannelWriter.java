@@ -0,0 +1,185 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.ReferenceCountUtil;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PendingWrite;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.Queue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Writes messages to a {@link Channel} from threads outside of its {@link EventLoop}, like the threads of a
+ * business-logic executor, in batches.
+ * <p>
+ * Calling {@link Channel#writeAndFlush(Object)} from outside of the {@link EventLoop} submits a task and may wake
+ * up the {@link EventLoop} for every message. A {@link BatchingChannelWriter} instead adds the messages to a queue
+ * and only submits a task if none is pending already, so all messages written by any thread until the task runs are
+ * written by that one task, followed by a single {@link Channel#flush()}.
+ * <p>
+ * Messages written by the same thread are written in order, while the order of messages written by different
+ * threads is undefined, like for {@link Channel#writeAndFlush(Object)}. A {@link BatchingChannelWriter} is usually
+ * created once per {@link Channel} and shared by all threads that write to it.
+ */
+@UnstableApi
+public final class BatchingChannelWriter {
+    private static final AtomicIntegerFieldUpdater<BatchingChannelWriter> SCHEDULED_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(BatchingChannelWriter.class, "scheduled");
+    private static final int DEFAULT_MAX_BATCH_SIZE = 1024;
+
+    private final Channel channel;
+    private final int maxBatchSize;
+    // Holds messages written with the void promise as is and PendingWrites for the others.
+    private final Queue<Object> pending = PlatformDependent.newMpscQueue();
+    private final Runnable writeTask = new Runnable() {
+        @Override
+        public void run() {
+            writePending();
+        }
+    };
+    // 1 while the writeTask is submitted or running, 0 otherwise.
+    private volatile int scheduled;
+
+    /**
+     * Creates a new instance which writes to the given {@link Channel}.
+     */
+    public BatchingChannelWriter(Channel channel) {
+        this(channel, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /**
+     * Creates a new instance which writes to the given {@link Channel} and flushes at least every
+     * {@code maxBatchSize} messages, after which the {@link EventLoop} runs its other tasks and I/O before it writes
+     * the next batch.
+     */
+    public BatchingChannelWriter(Channel channel, int maxBatchSize) {
+        this.channel = ObjectUtil.checkNotNull(channel, "channel");
+        this.maxBatchSize = ObjectUtil.checkPositive(maxBatchSize, "maxBatchSize");
+    }
+
+    /**
+     * Returns the {@link Channel} this writer writes to.
+     */
+    public Channel channel() {
+        return channel;
+    }
+
+    /**
+     * Writes and flushes the given message, without a way to be notified of the result, like
+     * {@link Channel#writeAndFlush(Object, ChannelPromise)} with the {@link Channel#voidPromise()}.
+     */
+    public void write(Object msg) {
+        enqueue(ObjectUtil.checkNotNull(msg, "msg"));
+    }
+
+    /**
+     * Writes and flushes the given message and notifies the given {@link ChannelPromise} once done.
+     */
+    public ChannelFuture write(Object msg, ChannelPromise promise) {
+        ObjectUtil.checkNotNull(msg, "msg");
+        ObjectUtil.checkNotNull(promise, "promise");
+        if (promise.isVoid()) {
+            enqueue(msg);
+        } else {
+            enqueue(PendingWrite.newInstance(msg, promise));
+        }
+        return promise;
+    }
+
+    private void enqueue(Object msg) {
+        pending.offer(msg);
+        // Only the producer which flips the flag submits the task, every other producer piggybacks on it.
+        if (scheduled == 0 && SCHEDULED_UPDATER.compareAndSet(this, 0, 1)) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        try {
+            channel.eventLoop().execute(writeTask);
+        } catch (RejectedExecutionException e) {
+            reject(e);
+            throw e;
+        }
+    }
+
+    private void reject(Throwable cause) {
+        for (;;) {
+            // Drain while still owning the flag, as this makes us the only consumer of the queue.
+            failPending(cause);
+            scheduled = 0;
+            // A producer may have added a message while we were draining, in which case it did not submit a task.
+            if (pending.isEmpty() || !SCHEDULED_UPDATER.compareAndSet(this, 0, 1)) {
+                return;
+            }
+        }
+    }
+
+    private void writePending() {
+        for (;;) {
+            int written = 0;
+            Object msg;
+            while (written < maxBatchSize && (msg = pending.poll()) != null) {
+                write0(msg);
+                written++;
+            }
+            if (written > 0) {
+                channel.flush();
+            }
+            if (written == maxBatchSize && !pending.isEmpty()) {
+                // Let the EventLoop do something else before the next batch.
+                try {
+                    channel.eventLoop().execute(writeTask);
+                } catch (RejectedExecutionException e) {
+                    reject(e);
+                }
+                return;
+            }
+            scheduled = 0;
+            // A producer may have added a message after the last poll but before the flag was reset, in which case it
+            // did not submit a task.
+            if (pending.isEmpty() || !SCHEDULED_UPDATER.compareAndSet(this, 0, 1)) {
+                return;
+            }
+        }
+    }
+
+    private void write0(Object msg) {
+        if (msg instanceof PendingWrite) {
+            PendingWrite pendingWrite = (PendingWrite) msg;
+            Object m = pendingWrite.msg();
+            ChannelPromise promise = (ChannelPromise) pendingWrite.recycleAndGet();
+            channel.write(m, promise);
+        } else {
+            channel.write(msg, channel.voidPromise());
+        }
+    }
+
+    private void failPending(Throwable cause) {
+        Object msg;
+        while ((msg = pending.poll()) != null) {
+            if (msg instanceof PendingWrite) {
+                ((PendingWrite) msg).failAndRecycle(cause);
+            } else {
+                ReferenceCountUtil.release(msg);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.channel.ChannelHandlerProfiler.Operation;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
+
+import static io.netty.channel.ChannelHandlerProfiler.BUCKETS;
+import static io.netty.channel.ChannelHandlerProfiler.SLOTS_PER_OPERATION;
+
+/**
+ * A snapshot of the invocations of a {@link ChannelHandler} recorded by the {@link ChannelHandlerProfiler}. The
+ * times are bucketed by powers of two, so percentiles are accurate to a factor of two.
+ */
+@UnstableApi
+public final class ChannelHandlerProfile {
+    final long[] slots;
+
+    ChannelHandlerProfile(long[] slots) {
+        this.slots = slots;
+    }
+
+    /**
+     * Returns the number of recorded invocations of the given {@link Operation}.
+     */
+    public long count(Operation operation) {
+        int offset = offset(operation);
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += slots[offset + i];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total time the recorded invocations of the given {@link Operation} took, in nanoseconds.
+     */
+    public long totalNanos(Operation operation) {
+        return slots[offset(operation) + BUCKETS];
+    }
+
+    /**
+     * Returns an upper bound of the time the given percentage of the recorded invocations of the given
+     * {@link Operation} took at most, in nanoseconds, or {@code 0} if none was recorded.
+     *
+     * @param percentile a value between {@code 0} and {@code 100}, for example {@code 99} for the p99 latency.
+     */
+    public long percentileNanos(Operation operation, double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile: " + percentile + " (expected: 0-100)");
+        }
+        long count = count(operation);
+        if (count == 0) {
+            return 0;
+        }
+        // The rank of the value, starting at 1.
+        long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        int offset = offset(operation);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += slots[offset + i];
+            if (seen >= rank) {
+                // Largest value with i significant bits.
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << i) - 1;
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    private static int offset(Operation operation) {
+        return ObjectUtil.checkNotNull(operation, "operation").ordinal() * SLOTS_PER_OPERATION;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder buf = new StringBuilder(128).append("ChannelHandlerProfile(");
+        for (Operation operation: Operation.values()) {
+            if (operation.ordinal() > 0) {
+                buf.append("; ");
+            }
+            buf.append(operation).append(": ").append(count(operation))
+               .append(" in ").append(totalNanos(operation)).append("ns, p99 <= ")
+               .append(percentileNanos(operation, 99)).append("ns");
+        }
+        return buf.append(')').toString();
+    }
+}
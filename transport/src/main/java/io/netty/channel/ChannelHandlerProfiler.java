@@ -0,0 +1,298 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records how often and how long the {@link ChannelHandler}s of all {@link DefaultChannelPipeline}s are invoked for
+ * {@link ChannelInboundHandler#channelRead(ChannelHandlerContext, Object)},
+ * {@link ChannelOutboundHandler#write(ChannelHandlerContext, Object, ChannelPromise)} and
+ * {@link ChannelOutboundHandler#flush(ChannelHandlerContext)}, to find the handler which is responsible for a
+ * latency regression.
+ * <p>
+ * Recording is disabled by default and can be switched on and off at any time with {@link #enable()} and
+ * {@link #disable()}. While it is disabled an invocation only costs a volatile read. The time recorded for an
+ * invocation excludes the time spent in the handlers it passed the event on to synchronously, so it is the time
+ * spent in the handler itself.
+ * <p>
+ * Each thread records into its own log2 histograms without any synchronization. When a thread is gone its
+ * histograms are folded into those of the retired threads. {@link #snapshotByName()} and
+ * {@link #snapshotByType()} aggregate them over all the threads and {@link Channel}s, by the name the handlers
+ * were added to the {@link ChannelPipeline} with or by their type. The recorded values are never reset, so the
+ * latency of a period is the difference between two snapshots.
+ */
+@UnstableApi
+public final class ChannelHandlerProfiler {
+
+    /**
+     * The {@link ChannelHandler} operations which are recorded.
+     */
+    public enum Operation {
+        CHANNEL_READ,
+        WRITE,
+        FLUSH
+    }
+
+    // One bucket per power of two nanoseconds, bucket i holds the values of i significant bits.
+    static final int BUCKETS = 64;
+    // The buckets of an operation followed by the sum of its values.
+    static final int SLOTS_PER_OPERATION = BUCKETS + 1;
+    private static final Operation[] OPERATIONS = Operation.values();
+
+    private static volatile boolean enabled;
+
+    // Guarded by RECORDERS, so a snapshot sees the values of a retired thread either in its recorder or in RETIRED.
+    private static final List<Recorder> RECORDERS = new ArrayList<Recorder>();
+    private static final Map<HandlerKey, HandlerHistograms> RETIRED = new HashMap<HandlerKey, HandlerHistograms>();
+    private static final FastThreadLocal<Recorder> RECORDER = new FastThreadLocal<Recorder>() {
+        @Override
+        protected Recorder initialValue() {
+            Recorder recorder = new Recorder();
+            synchronized (RECORDERS) {
+                RECORDERS.add(recorder);
+            }
+            return recorder;
+        }
+
+        @Override
+        protected void onRemoval(Recorder recorder) {
+            retire(recorder);
+        }
+    };
+
+    private ChannelHandlerProfiler() { }
+
+    /**
+     * Starts recording the invocations of all {@link ChannelHandler}s.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    /**
+     * Stops recording. What was recorded so far is kept.
+     */
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Returns {@code true} if the invocations of the {@link ChannelHandler}s are recorded.
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns what was recorded so far, aggregated by the name of the {@link ChannelHandler}s.
+     */
+    public static Map<String, ChannelHandlerProfile> snapshotByName() {
+        Map<String, ChannelHandlerProfile> profiles = new HashMap<String, ChannelHandlerProfile>();
+        synchronized (RECORDERS) {
+            for (Recorder recorder: RECORDERS) {
+                for (HandlerHistograms histograms: recorder.histograms.values()) {
+                    merge(profiles, histograms.name, histograms);
+                }
+            }
+            for (HandlerHistograms histograms: RETIRED.values()) {
+                merge(profiles, histograms.name, histograms);
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * Returns what was recorded so far, aggregated by the type of the {@link ChannelHandler}s.
+     */
+    public static Map<Class<? extends ChannelHandler>, ChannelHandlerProfile> snapshotByType() {
+        Map<Class<? extends ChannelHandler>, ChannelHandlerProfile> profiles =
+                new HashMap<Class<? extends ChannelHandler>, ChannelHandlerProfile>();
+        synchronized (RECORDERS) {
+            for (Recorder recorder: RECORDERS) {
+                for (HandlerHistograms histograms: recorder.histograms.values()) {
+                    merge(profiles, histograms.type, histograms);
+                }
+            }
+            for (HandlerHistograms histograms: RETIRED.values()) {
+                merge(profiles, histograms.type, histograms);
+            }
+        }
+        return profiles;
+    }
+
+    /**
+     * Unregisters the {@link Recorder} of a thread which is gone and keeps what it recorded in {@link #RETIRED}, so
+     * the recorders do not pile up while the snapshots still never go backwards.
+     */
+    static void retire(Recorder recorder) {
+        synchronized (RECORDERS) {
+            if (!RECORDERS.remove(recorder)) {
+                return;
+            }
+            for (Map.Entry<HandlerKey, HandlerHistograms> entry: recorder.histograms.entrySet()) {
+                HandlerKey key = entry.getKey();
+                HandlerHistograms retired = RETIRED.get(key);
+                if (retired == null) {
+                    retired = new HandlerHistograms(null, key.type, key.name);
+                    RETIRED.put(key, retired);
+                }
+                entry.getValue().addTo(retired);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of threads which have a {@link Recorder} that was not retired yet.
+     */
+    static int numRecorders() {
+        synchronized (RECORDERS) {
+            return RECORDERS.size();
+        }
+    }
+
+    private static <K> void merge(Map<K, ChannelHandlerProfile> profiles, K key, HandlerHistograms histograms) {
+        ChannelHandlerProfile profile = profiles.get(key);
+        if (profile == null) {
+            profile = new ChannelHandlerProfile(new long[OPERATIONS.length * SLOTS_PER_OPERATION]);
+            profiles.put(key, profile);
+        }
+        histograms.addTo(profile.slots);
+    }
+
+    /**
+     * Returns the {@link Recorder} of the current thread, or {@code null} if recording is disabled.
+     */
+    static Recorder recorder() {
+        return enabled ? RECORDER.get() : null;
+    }
+
+    /**
+     * Records the invocations of one thread. Invocations nest when a handler passes an event on synchronously, so
+     * the time of the nested invocations is tracked on a stack to be subtracted from the outer one.
+     */
+    static final class Recorder {
+        final ConcurrentMap<HandlerKey, HandlerHistograms> histograms = PlatformDependent.newConcurrentHashMap();
+        private long[] startNanos = new long[16];
+        private long[] nestedNanos = new long[16];
+        private int depth;
+
+        void enter() {
+            if (depth == startNanos.length) {
+                startNanos = Arrays.copyOf(startNanos, depth << 1);
+                nestedNanos = Arrays.copyOf(nestedNanos, depth << 1);
+            }
+            nestedNanos[depth] = 0;
+            startNanos[depth++] = System.nanoTime();
+        }
+
+        void exit(AbstractChannelHandlerContext ctx, Operation operation) {
+            long elapsedNanos = System.nanoTime() - startNanos[--depth];
+            if (depth > 0) {
+                nestedNanos[depth - 1] += elapsedNanos;
+            }
+            histograms(ctx).record(operation, Math.max(0, elapsedNanos - nestedNanos[depth]));
+        }
+
+        private HandlerHistograms histograms(AbstractChannelHandlerContext ctx) {
+            HandlerHistograms histograms = ctx.profile;
+            if (histograms == null || histograms.recorder != this) {
+                HandlerKey key = new HandlerKey(ctx.handler().getClass(), ctx.name());
+                histograms = this.histograms.get(key);
+                if (histograms == null) {
+                    histograms = new HandlerHistograms(this, key.type, key.name);
+                    this.histograms.put(key, histograms);
+                }
+                // The context is usually invoked by the same thread, so cache the histograms of that thread.
+                ctx.profile = histograms;
+            }
+            return histograms;
+        }
+    }
+
+    static final class HandlerKey {
+        final Class<? extends ChannelHandler> type;
+        final String name;
+
+        HandlerKey(Class<? extends ChannelHandler> type, String name) {
+            this.type = type;
+            this.name = name;
+        }
+
+        @Override
+        public int hashCode() {
+            return type.hashCode() * 31 + name.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof HandlerKey)) {
+                return false;
+            }
+            HandlerKey other = (HandlerKey) o;
+            return type == other.type && name.equals(other.name);
+        }
+    }
+
+    /**
+     * The histograms of one {@link ChannelHandler} type and name, only written by the thread of its
+     * {@link Recorder}, or while holding the lock of {@link #RECORDERS} for the retired ones.
+     */
+    static final class HandlerHistograms {
+        final Recorder recorder;
+        final Class<? extends ChannelHandler> type;
+        final String name;
+        private final AtomicLongArray slots = new AtomicLongArray(OPERATIONS.length * SLOTS_PER_OPERATION);
+
+        HandlerHistograms(Recorder recorder, Class<? extends ChannelHandler> type, String name) {
+            this.recorder = recorder;
+            this.type = ObjectUtil.checkNotNull(type, "type");
+            this.name = name;
+        }
+
+        void record(Operation operation, long nanos) {
+            int offset = operation.ordinal() * SLOTS_PER_OPERATION;
+            int bucket = offset + BUCKETS - Long.numberOfLeadingZeros(nanos);
+            int sum = offset + BUCKETS;
+            // Single writer, so there is no need for an atomic increment.
+            slots.lazySet(bucket, slots.get(bucket) + 1);
+            slots.lazySet(sum, slots.get(sum) + nanos);
+        }
+
+        void addTo(long[] target) {
+            for (int i = 0; i < target.length; i++) {
+                target[i] += slots.get(i);
+            }
+        }
+
+        void addTo(HandlerHistograms target) {
+            for (int i = 0; i < slots.length(); i++) {
+                target.slots.lazySet(i, target.slots.get(i) + slots.get(i));
+            }
+        }
+    }
+}
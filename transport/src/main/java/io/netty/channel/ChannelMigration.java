@@ -0,0 +1,251 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+
+/**
+ * Moves a registered {@link Channel} and its {@link ChannelPipeline} to another {@link EventLoop} of the same
+ * {@link EventLoopGroup} without closing it.
+ * <p>
+ * The {@link Channel} is deregistered from its current {@link EventLoop} and registered with the new one, so the
+ * {@link ChannelPipeline} sees a {@code channelUnregistered} followed by a {@code channelRegistered} event but no
+ * {@code channelInactive} / {@code channelActive}. Messages that were written and flushed but not written to the
+ * transport yet are written once the {@link Channel} is registered with the new {@link EventLoop}, and a read that
+ * was requested is kept when the transport supports it.
+ * <p>
+ * Operations which other threads invoke on the {@link ChannelPipeline} while the {@link Channel} is migrated, like
+ * a {@link Channel#writeAndFlush(Object)}, are held back until the new {@link EventLoop} took over. They run there
+ * in the order they were invoked, after everything that was submitted to the old {@link EventLoop} before, so the
+ * {@link ChannelPipeline} is never used by both {@link EventLoop}s at the same time. Operations invoked by a timer
+ * which still fires on the old {@link EventLoop} are passed on to the new one in the same way. The state that such a
+ * timer touches directly is not, so handlers which schedule timers through {@link ChannelHandlerContext#executor()},
+ * like the {@code IdleStateHandler}, should check {@link EventLoop#inEventLoop()} when they fire and hand over to the
+ * new {@link EventLoop} if needed.
+ */
+@UnstableApi
+public final class ChannelMigration {
+
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(ChannelMigration.class);
+
+    private ChannelMigration() { }
+
+    /**
+     * Moves the given {@link Channel} to the given {@link EventLoop}.
+     *
+     * @return the {@link ChannelFuture} which is notified once the {@link Channel} is registered with {@code target}.
+     */
+    public static ChannelFuture migrate(Channel channel, EventLoop target) {
+        return migrate(channel, target, checkNotNull(channel, "channel").newPromise());
+    }
+
+    /**
+     * Moves the given {@link Channel} to the given {@link EventLoop} and notifies the given {@link ChannelPromise}
+     * once it is registered with {@code target}.
+     */
+    public static ChannelFuture migrate(final Channel channel, final EventLoop target, final ChannelPromise promise) {
+        checkNotNull(channel, "channel");
+        checkNotNull(target, "target");
+        checkNotNull(promise, "promise");
+        if (promise.channel() != channel) {
+            throw new IllegalArgumentException("promise belongs to another channel");
+        }
+        if (!channel.isRegistered()) {
+            promise.setFailure(new IllegalStateException("channel not registered: " + channel));
+            return promise;
+        }
+        final EventLoop current = channel.eventLoop();
+        if (target.parent() != current.parent()) {
+            promise.setFailure(new IllegalArgumentException(
+                    "target does not belong to the EventLoopGroup of the channel: " + target));
+            return promise;
+        }
+        if (current.inEventLoop()) {
+            migrate0(channel, target, promise);
+        } else {
+            current.execute(new Runnable() {
+                @Override
+                public void run() {
+                    migrate0(channel, target, promise);
+                }
+            });
+        }
+        return promise;
+    }
+
+    private static void migrate0(final Channel channel, final EventLoop target, final ChannelPromise promise) {
+        final EventLoop current = channel.eventLoop();
+        if (!current.inEventLoop()) {
+            // Migrated by someone else since this task was submitted.
+            migrate(channel, target, promise);
+            return;
+        }
+        if (!channel.isOpen()) {
+            promise.setFailure(new ClosedChannelException());
+            return;
+        }
+        if (current == target) {
+            promise.setSuccess();
+            return;
+        }
+        final Gate gate;
+        if (channel.pipeline() instanceof DefaultChannelPipeline) {
+            DefaultChannelPipeline pipeline = (DefaultChannelPipeline) channel.pipeline();
+            if (pipeline.migrationGate != null) {
+                promise.setFailure(new IllegalStateException("channel is migrated already: " + channel));
+                return;
+            }
+            gate = new Gate(pipeline);
+            pipeline.migrationGate = gate;
+        } else {
+            gate = null;
+        }
+        channel.deregister().addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                if (!future.isSuccess()) {
+                    release(gate);
+                    promise.setFailure(future.cause());
+                    return;
+                }
+                // Everything which was submitted to the current EventLoop before the gate was in place ran by now,
+                // except for the tasks of threads which were submitting just then.
+                handOver(channel, current, target, gate, promise);
+            }
+        });
+    }
+
+    private static void handOver(final Channel channel, final EventLoop current, final EventLoop target,
+                                 final Gate gate, final ChannelPromise promise) {
+        try {
+            if (gate != null && gate.pipeline.isSubmitting()) {
+                // Check again once the submitting threads had a chance to finish.
+                current.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        handOver(channel, current, target, gate, promise);
+                    }
+                });
+            } else {
+                // Let the tasks which were submitted so far run first.
+                current.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        register(channel, target, gate, promise);
+                    }
+                });
+            }
+        } catch (Throwable cause) {
+            release(gate);
+            promise.setFailure(cause);
+        }
+    }
+
+    private static void register(Channel channel, EventLoop target, final Gate gate, final ChannelPromise promise) {
+        if (!channel.isOpen()) {
+            release(gate);
+            promise.setFailure(new ClosedChannelException());
+            return;
+        }
+        ChannelPromise registered = channel.newPromise();
+        registered.addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                // Notified by the EventLoop which owns the channel now, which is the old one if the registration
+                // failed. Run what was held back once the registration completed.
+                try {
+                    future.channel().eventLoop().execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            release(gate);
+                        }
+                    });
+                } catch (Throwable cause) {
+                    release(gate);
+                }
+                if (future.isSuccess()) {
+                    promise.setSuccess();
+                } else {
+                    promise.setFailure(future.cause());
+                }
+            }
+        });
+        channel.unsafe().register(target, registered);
+    }
+
+    private static void release(Gate gate) {
+        if (gate != null) {
+            gate.release();
+        }
+    }
+
+    /**
+     * Holds back the tasks which other threads submit for a {@link ChannelPipeline} while its {@link Channel} is
+     * migrated, see {@link AbstractChannelHandlerContext}.
+     */
+    static final class Gate {
+        private final DefaultChannelPipeline pipeline;
+        private final Queue<Runnable> tasks = new ArrayDeque<Runnable>();
+        private boolean released;
+
+        Gate(DefaultChannelPipeline pipeline) {
+            this.pipeline = pipeline;
+        }
+
+        /**
+         * Holds back the given task, or returns {@code false} if the migration completed and it must be submitted to
+         * the {@link EventLoop} of the {@link Channel}.
+         */
+        synchronized boolean offer(Runnable task) {
+            if (released) {
+                return false;
+            }
+            tasks.add(task);
+            return true;
+        }
+
+        /**
+         * Runs the tasks which were held back in order and lets the following ones pass. Must be called from the
+         * {@link EventLoop} which owns the {@link Channel}.
+         */
+        void release() {
+            for (;;) {
+                Runnable task;
+                synchronized (this) {
+                    task = tasks.poll();
+                    if (task == null) {
+                        released = true;
+                        pipeline.migrationGate = null;
+                        return;
+                    }
+                }
+                try {
+                    task.run();
+                } catch (Throwable t) {
+                    logger.warn("A task raised an exception. Task: {}", task, t);
+                }
+            }
+        }
+    }
+}
@@ -19,6 +19,7 @@ import io.netty.buffer.ByteBufAllocator;
 import io.netty.util.AbstractConstant;
 import io.netty.util.ConstantPool;
 import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
 
 import java.net.InetAddress;
 import java.net.NetworkInterface;
@@ -113,6 +114,14 @@ public class ChannelOption<T> extends AbstractConstant<ChannelOption<T>> {
      */
     public static final ChannelOption<Boolean> AUTO_CLOSE   = valueOf("AUTO_CLOSE");
 
+    /**
+     * If {@code true} then the flushes of the {@link Channel} are consolidated by its {@link EventLoop} if it was
+     * configured via {@link SingleThreadEventLoop#setConsolidateFlushes(boolean)}. Set it to {@code false} for
+     * channels which must write on each flush. The default value is {@code true}.
+     */
+    @UnstableApi
+    public static final ChannelOption<Boolean> CONSOLIDATE_FLUSHES = valueOf("CONSOLIDATE_FLUSHES");
+
     public static final ChannelOption<Boolean> SO_BROADCAST = valueOf("SO_BROADCAST");
     public static final ChannelOption<Boolean> SO_KEEPALIVE = valueOf("SO_KEEPALIVE");
     public static final ChannelOption<Integer> SO_SNDBUF    = valueOf("SO_SNDBUF");
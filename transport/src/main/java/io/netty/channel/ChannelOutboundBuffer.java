@@ -22,12 +22,14 @@ import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.util.ReferenceCountUtil;
 import io.netty.util.concurrent.FastThreadLocal;
 import io.netty.util.internal.InternalThreadLocalMap;
+import io.netty.util.internal.MathUtil;
 import io.netty.util.internal.ObjectPool;
 import io.netty.util.internal.ObjectPool.Handle;
 import io.netty.util.internal.ObjectPool.ObjectCreator;
 import io.netty.util.internal.ObjectUtil;
 import io.netty.util.internal.PromiseNotificationUtil;
 import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.UnstableApi;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
@@ -54,14 +56,22 @@ import static java.lang.Math.min;
 public final class ChannelOutboundBuffer {
     // Assuming a 64-bit JVM:
     //  - 16 bytes object header
-    //  - 6 reference fields
+    //  - 5 reference fields
     //  - 2 long fields
     //  - 2 int fields
     //  - 1 boolean field
+    //  - 1 reference in the entries array
     //  - padding
     static final int CHANNEL_OUTBOUND_BUFFER_ENTRY_OVERHEAD =
             SystemPropertyUtil.getInt("io.netty.transport.outboundBufferEntrySizeOverhead", 96);
 
+    static final int INITIAL_CAPACITY = 16;
+
+    // The entries array is replaced by a new one of INITIAL_CAPACITY once the buffer is empty again if it grew
+    // beyond this, so a burst of writes does not keep a large array alive for the lifetime of the channel.
+    private static final int MAX_RETAINED_CAPACITY = MathUtil.safeFindNextPositivePowerOfTwo(Math.max(INITIAL_CAPACITY,
+            SystemPropertyUtil.getInt("io.netty.transport.outboundBufferMaxRetainedCapacity", 1024)));
+
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(ChannelOutboundBuffer.class);
 
     private static final FastThreadLocal<ByteBuffer[]> NIO_BUFFERS = new FastThreadLocal<ByteBuffer[]>() {
@@ -73,16 +83,20 @@ public final class ChannelOutboundBuffer {
 
     private final Channel channel;
 
-    // Entry(flushedEntry) --> ... Entry(unflushedEntry) --> ... Entry(tailEntry)
+    // entries[head] --> ... entries[head + flushed] --> ... entries[head + flushed + unflushed - 1]
     //
-    // The Entry that is the first in the linked-list structure that was flushed
-    private Entry flushedEntry;
-    // The Entry which is the first unflushed in the linked-list structure
-    private Entry unflushedEntry;
-    // The Entry which represents the tail of the buffer
-    private Entry tailEntry;
+    // The pending entries are stored in a ring whose capacity is always a power of two, the flushed entries come
+    // first followed by the unflushed ones. All indexes are masked with entries.length - 1.
+    private Entry[] entries = new Entry[INITIAL_CAPACITY];
+    // The index of the first flushed entry
+    private int head;
     // The number of flushed entries that are not written yet
     private int flushed;
+    // The number of entries that were added after the last flush
+    private int unflushed;
+
+    // Reused by removeBytes(long) to notify the promises of all the entries it removed at once.
+    private ChannelPromise[] completedPromises;
 
     private int nioBufferCount;
     private long nioBufferSize;
@@ -113,16 +127,13 @@ public final class ChannelOutboundBuffer {
      */
     public void addMessage(Object msg, int size, ChannelPromise promise) {
         Entry entry = Entry.newInstance(msg, size, total(msg), promise);
-        if (tailEntry == null) {
-            flushedEntry = null;
-        } else {
-            Entry tail = tailEntry;
-            tail.next = entry;
-        }
-        tailEntry = entry;
-        if (unflushedEntry == null) {
-            unflushedEntry = entry;
+        int count = flushed + unflushed;
+        Entry[] entries = this.entries;
+        if (count == entries.length) {
+            entries = grow();
         }
+        entries[(head + count) & (entries.length - 1)] = entry;
+        unflushed++;
 
         // increment pending bytes after adding message to the unflushed arrays.
         // See https://github.com/netty/netty/issues/1619
@@ -138,25 +149,38 @@ public final class ChannelOutboundBuffer {
         // where added in the meantime.
         //
         // See https://github.com/netty/netty/issues/2577
-        Entry entry = unflushedEntry;
-        if (entry != null) {
-            if (flushedEntry == null) {
-                // there is no flushedEntry yet, so start with the entry
-                flushedEntry = entry;
+        //
+        // The fields are read again on each iteration as messages may be added while a cancelled entry is released,
+        // which are then flushed as well.
+        while (unflushed != 0) {
+            Entry entry = entries[(head + flushed) & (entries.length - 1)];
+            flushed ++;
+            unflushed --;
+            if (!entry.promise.setUncancellable()) {
+                // Was cancelled so make sure we free up memory and notify about the freed bytes
+                int pending = entry.cancel();
+                decrementPendingOutboundBytes(pending, false, true);
             }
-            do {
-                flushed ++;
-                if (!entry.promise.setUncancellable()) {
-                    // Was cancelled so make sure we free up memory and notify about the freed bytes
-                    int pending = entry.cancel();
-                    decrementPendingOutboundBytes(pending, false, true);
-                }
-                entry = entry.next;
-            } while (entry != null);
+        }
+    }
 
-            // All flushed so reset unflushedEntry
-            unflushedEntry = null;
+    private Entry[] grow() {
+        Entry[] oldEntries = entries;
+        int capacity = oldEntries.length;
+        if (capacity << 1 < 0) {
+            throw new IllegalStateException("Too many pending messages, capacity: " + capacity);
         }
+        // The ring is full, so copy it in order starting with the head.
+        Entry[] newEntries = new Entry[capacity << 1];
+        int start = head;
+        System.arraycopy(oldEntries, start, newEntries, 0, capacity - start);
+        System.arraycopy(oldEntries, 0, newEntries, capacity - start, start);
+        head = 0;
+        return entries = newEntries;
+    }
+
+    private Entry flushedEntry() {
+        return flushed == 0 ? null : entries[head];
     }
 
     /**
@@ -214,7 +238,7 @@ public final class ChannelOutboundBuffer {
      * Return the current message to write or {@code null} if nothing was flushed before and so is ready to be written.
      */
     public Object current() {
-        Entry entry = flushedEntry;
+        Entry entry = flushedEntry();
         if (entry == null) {
             return null;
         }
@@ -227,7 +251,7 @@ public final class ChannelOutboundBuffer {
      * @return {@code 0} if nothing was flushed before for the current message or there is no current message
      */
     public long currentProgress() {
-        Entry entry = flushedEntry;
+        Entry entry = flushedEntry();
         if (entry == null) {
             return 0;
         }
@@ -238,7 +262,7 @@ public final class ChannelOutboundBuffer {
      * Notify the {@link ChannelPromise} of the current message about writing progress.
      */
     public void progress(long amount) {
-        Entry e = flushedEntry;
+        Entry e = flushedEntry();
         assert e != null;
         ChannelPromise p = e.promise;
         long progress = e.progress + amount;
@@ -254,7 +278,47 @@ public final class ChannelOutboundBuffer {
      * messages are ready to be handled.
      */
     public boolean remove() {
-        Entry e = flushedEntry;
+        return removeSuccess(true);
+    }
+
+    /**
+     * Same as {@link #remove()} except that the current message is not released, as the caller transferred its
+     * ownership to someone else, for example to the peer of a {@link io.netty.channel.local.LocalChannel}.
+     */
+    @UnstableApi
+    public boolean removeTransferred() {
+        return removeSuccess(false);
+    }
+
+    /**
+     * Same as {@link #removeTransferred()} except that the {@link ChannelPromise} of the current message is not
+     * notified either. It is returned instead, so the caller can notify it once it is done with the message. Returns
+     * {@code null} if no flushed message exists or if the current message was cancelled.
+     */
+    @UnstableApi
+    public ChannelPromise removeDeferred() {
+        Entry e = flushedEntry();
+        if (e == null) {
+            clearNioBuffers();
+            return null;
+        }
+        ChannelPromise promise = e.cancelled ? null : e.promise;
+        int size = e.pendingSize;
+
+        removeFlushedEntry();
+
+        if (promise != null) {
+            decrementPendingOutboundBytes(size, false, true);
+        }
+
+        // recycle the entry
+        e.recycle();
+
+        return promise;
+    }
+
+    private boolean removeSuccess(boolean release) {
+        Entry e = flushedEntry();
         if (e == null) {
             clearNioBuffers();
             return false;
@@ -264,11 +328,13 @@ public final class ChannelOutboundBuffer {
         ChannelPromise promise = e.promise;
         int size = e.pendingSize;
 
-        removeEntry(e);
+        removeFlushedEntry();
 
         if (!e.cancelled) {
             // only release message, notify and decrement if it was not canceled before.
-            ReferenceCountUtil.safeRelease(msg);
+            if (release) {
+                ReferenceCountUtil.safeRelease(msg);
+            }
             safeSuccess(promise);
             decrementPendingOutboundBytes(size, false, true);
         }
@@ -289,7 +355,7 @@ public final class ChannelOutboundBuffer {
     }
 
     private boolean remove0(Throwable cause, boolean notifyWritability) {
-        Entry e = flushedEntry;
+        Entry e = flushedEntry();
         if (e == null) {
             clearNioBuffers();
             return false;
@@ -299,7 +365,7 @@ public final class ChannelOutboundBuffer {
         ChannelPromise promise = e.promise;
         int size = e.pendingSize;
 
-        removeEntry(e);
+        removeFlushedEntry();
 
         if (!e.cancelled) {
             // only release message, fail and decrement if it was not canceled before.
@@ -315,16 +381,18 @@ public final class ChannelOutboundBuffer {
         return true;
     }
 
-    private void removeEntry(Entry e) {
-        if (-- flushed == 0) {
+    // Removes the entry at the head from the ring. This must be done before any promise is notified, as a listener
+    // may add a message which then can take the slot.
+    private void removeFlushedEntry() {
+        Entry[] entries = this.entries;
+        entries[head] = null;
+        head = (head + 1) & (entries.length - 1);
+        if (-- flushed == 0 && unflushed == 0) {
             // processed everything
-            flushedEntry = null;
-            if (e == tailEntry) {
-                tailEntry = null;
-                unflushedEntry = null;
+            head = 0;
+            if (entries.length > MAX_RETAINED_CAPACITY) {
+                this.entries = new Entry[INITIAL_CAPACITY];
             }
-        } else {
-            flushedEntry = e.next;
         }
     }
 
@@ -333,29 +401,67 @@ public final class ChannelOutboundBuffer {
      * This operation assumes all messages in this buffer is {@link ByteBuf}.
      */
     public void removeBytes(long writtenBytes) {
-        for (;;) {
-            Object msg = current();
-            if (!(msg instanceof ByteBuf)) {
-                assert writtenBytes == 0;
-                break;
-            }
+        // The fully written messages are removed and released first, while the pending bytes are decremented and the
+        // promises are notified once for all of them afterwards. The array is taken so it is not shared with a
+        // listener that writes and flushes again.
+        ChannelPromise[] promises = completedPromises;
+        completedPromises = null;
+        int completed = 0;
+        long completedSize = 0;
+        try {
+            for (;;) {
+                Entry e = flushedEntry();
+                if (e == null || !(e.msg instanceof ByteBuf)) {
+                    assert writtenBytes == 0;
+                    break;
+                }
 
-            final ByteBuf buf = (ByteBuf) msg;
-            final int readerIndex = buf.readerIndex();
-            final int readableBytes = buf.writerIndex() - readerIndex;
+                final ByteBuf buf = (ByteBuf) e.msg;
+                final int readerIndex = buf.readerIndex();
+                final int readableBytes = buf.writerIndex() - readerIndex;
 
-            if (readableBytes <= writtenBytes) {
-                if (writtenBytes != 0) {
-                    progress(readableBytes);
-                    writtenBytes -= readableBytes;
+                if (readableBytes <= writtenBytes) {
+                    if (writtenBytes != 0) {
+                        progress(readableBytes);
+                        writtenBytes -= readableBytes;
+                    }
+                    if (e != flushedEntry()) {
+                        // A progress listener removed the entry already.
+                        continue;
+                    }
+                    if (promises == null) {
+                        promises = new ChannelPromise[flushed];
+                    } else if (completed == promises.length) {
+                        promises = Arrays.copyOf(promises, completed + flushed);
+                    }
+                    removeFlushedEntry();
+                    if (!e.cancelled) {
+                        ReferenceCountUtil.safeRelease(buf);
+                        promises[completed++] = e.promise;
+                        completedSize += e.pendingSize;
+                    }
+                    e.recycle();
+                } else { // readableBytes > writtenBytes
+                    if (writtenBytes != 0) {
+                        buf.readerIndex(readerIndex + (int) writtenBytes);
+                        progress(writtenBytes);
+                    }
+                    break;
                 }
-                remove();
-            } else { // readableBytes > writtenBytes
-                if (writtenBytes != 0) {
-                    buf.readerIndex(readerIndex + (int) writtenBytes);
-                    progress(writtenBytes);
+            }
+        } finally {
+            if (completed != 0) {
+                decrementPendingOutboundBytes(completedSize, false, false);
+                for (int i = 0; i < completed; i++) {
+                    safeSuccess(promises[i]);
+                    promises[i] = null;
+                }
+                if (totalPendingSize < channel.config().getWriteBufferLowWaterMark()) {
+                    setWritable(false);
                 }
-                break;
+            }
+            if (promises != null && promises.length <= MAX_RETAINED_CAPACITY) {
+                completedPromises = promises;
             }
         }
         clearNioBuffers();
@@ -406,8 +512,15 @@ public final class ChannelOutboundBuffer {
         int nioBufferCount = 0;
         final InternalThreadLocalMap threadLocalMap = InternalThreadLocalMap.get();
         ByteBuffer[] nioBuffers = NIO_BUFFERS.get(threadLocalMap);
-        Entry entry = flushedEntry;
-        while (isFlushedEntry(entry) && entry.msg instanceof ByteBuf) {
+        final Entry[] entries = this.entries;
+        final int mask = entries.length - 1;
+        final int head = this.head;
+        final int flushed = this.flushed;
+        for (int i = 0; i < flushed; i++) {
+            Entry entry = entries[(head + i) & mask];
+            if (!(entry.msg instanceof ByteBuf)) {
+                break;
+            }
             if (!entry.cancelled) {
                 ByteBuf buf = (ByteBuf) entry.msg;
                 final int readerIndex = buf.readerIndex();
@@ -457,7 +570,6 @@ public final class ChannelOutboundBuffer {
                     }
                 }
             }
-            entry = entry.next;
         }
         this.nioBufferCount = nioBufferCount;
         this.nioBufferSize = nioBufferSize;
@@ -689,8 +801,14 @@ public final class ChannelOutboundBuffer {
 
         // Release all unflushed messages.
         try {
-            Entry e = unflushedEntry;
-            while (e != null) {
+            while (unflushed != 0) {
+                Entry[] entries = this.entries;
+                int index = (head + flushed) & (entries.length - 1);
+                Entry e = entries[index];
+                entries[index] = null;
+                head = (index + 1) & (entries.length - 1);
+                unflushed --;
+
                 // Just decrease; do not trigger any events via decrementPendingOutboundBytes()
                 int size = e.pendingSize;
                 TOTAL_PENDING_SIZE_UPDATER.addAndGet(this, -size);
@@ -699,8 +817,9 @@ public final class ChannelOutboundBuffer {
                     ReferenceCountUtil.safeRelease(e.msg);
                     safeFail(e.promise, cause);
                 }
-                e = e.recycleAndGetNext();
+                e.recycle();
             }
+            head = 0;
         } finally {
             inFail = false;
         }
@@ -770,23 +889,15 @@ public final class ChannelOutboundBuffer {
     public void forEachFlushedMessage(MessageProcessor processor) throws Exception {
         ObjectUtil.checkNotNull(processor, "processor");
 
-        Entry entry = flushedEntry;
-        if (entry == null) {
-            return;
-        }
-
-        do {
+        // The fields are read again on each iteration as the processor may write.
+        for (int i = 0; i < flushed; i++) {
+            Entry entry = entries[(head + i) & (entries.length - 1)];
             if (!entry.cancelled) {
                 if (!processor.processMessage(entry.msg)) {
                     return;
                 }
             }
-            entry = entry.next;
-        } while (isFlushedEntry(entry));
-    }
-
-    private boolean isFlushedEntry(Entry e) {
-        return e != null && e != unflushedEntry;
+        }
     }
 
     public interface MessageProcessor {
@@ -806,7 +917,6 @@ public final class ChannelOutboundBuffer {
         });
 
         private final Handle<Entry> handle;
-        Entry next;
         Object msg;
         ByteBuffer[] bufs;
         ByteBuffer buf;
@@ -850,7 +960,6 @@ public final class ChannelOutboundBuffer {
         }
 
         void recycle() {
-            next = null;
             bufs = null;
             buf = null;
             msg = null;
@@ -862,11 +971,5 @@ public final class ChannelOutboundBuffer {
             cancelled = false;
             handle.recycle(this);
         }
-
-        Entry recycleAndGetNext() {
-            Entry next = this.next;
-            recycle();
-            return next;
-        }
     }
 }
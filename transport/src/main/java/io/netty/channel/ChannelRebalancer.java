@@ -0,0 +1,204 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.GlobalEventExecutor;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the number of messages the {@link Channel}s of an {@link EventLoopGroup} read and moves a busy
+ * {@link Channel} from the busiest to the idlest {@link EventLoop} with {@link ChannelMigration} when they drift
+ * apart.
+ * <p>
+ * Only the {@link Channel}s which have the handler returned by {@link #newHandler()} in their
+ * {@link ChannelPipeline} are taken into account, usually by adding it from the child handler of a
+ * {@link io.netty.bootstrap.ServerBootstrap}. Every interval the messages read by each of them since the last check
+ * are summed up per {@link EventLoop}. If the busiest {@link EventLoop} read more than {@code 1 + imbalanceRatio}
+ * times as much as the idlest one, the busiest of its {@link Channel}s whose move narrows the gap is migrated. At
+ * most one {@link Channel} is moved per interval, so the effect of a move is measured before the next one.
+ */
+@UnstableApi
+public final class ChannelRebalancer {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(ChannelRebalancer.class);
+
+    private final EventLoopGroup group;
+    private final double imbalanceRatio;
+    private final Set<RebalancingHandler> handlers =
+            Collections.newSetFromMap(PlatformDependent.<RebalancingHandler, Boolean>newConcurrentHashMap());
+    private final ScheduledFuture<?> checkFuture;
+
+    /**
+     * Creates a new instance which checks the {@link EventLoop}s of the given {@link EventLoopGroup} at the given
+     * interval.
+     *
+     * @param group             the {@link EventLoopGroup} whose {@link Channel}s are moved.
+     * @param interval          the interval between two checks.
+     * @param unit              the {@link TimeUnit} of {@code interval}.
+     * @param imbalanceRatio    how much more the busiest {@link EventLoop} must read than the idlest one, relative
+     *                          to it, before a {@link Channel} is moved.
+     */
+    public ChannelRebalancer(EventLoopGroup group, long interval, TimeUnit unit, double imbalanceRatio) {
+        this.group = ObjectUtil.checkNotNull(group, "group");
+        ObjectUtil.checkPositive(interval, "interval");
+        ObjectUtil.checkNotNull(unit, "unit");
+        this.imbalanceRatio = ObjectUtil.checkPositiveOrZero(imbalanceRatio, "imbalanceRatio");
+        checkFuture = GlobalEventExecutor.INSTANCE.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    rebalance();
+                } catch (Throwable t) {
+                    logger.warn("Failed to rebalance the channels of {}", ChannelRebalancer.this.group, t);
+                }
+            }
+        }, interval, interval, unit);
+    }
+
+    /**
+     * Returns a new {@link ChannelHandler} which must be added to the {@link ChannelPipeline} of each
+     * {@link Channel} that should be balanced. The returned handler can not be shared.
+     */
+    public ChannelHandler newHandler() {
+        return new RebalancingHandler();
+    }
+
+    /**
+     * Stops checking the {@link EventLoop}s. {@link Channel}s which are being moved right now are still moved.
+     */
+    public void close() {
+        checkFuture.cancel(false);
+        handlers.clear();
+    }
+
+    /**
+     * Runs one check and returns the {@link Channel} which is being moved, or {@code null} if the
+     * {@link EventLoop}s are balanced.
+     */
+    Channel rebalance() {
+        Map<EventExecutor, long[]> loadByLoop = new IdentityHashMap<EventExecutor, long[]>();
+        for (EventExecutor executor: group) {
+            loadByLoop.put(executor, new long[1]);
+        }
+        for (RebalancingHandler handler: handlers) {
+            long read = handler.read;
+            handler.delta = read - handler.lastRead;
+            handler.lastRead = read;
+            long[] load = loadByLoop.get(handler.channel.eventLoop());
+            if (load != null) {
+                load[0] += handler.delta;
+            }
+        }
+
+        EventExecutor busiest = null;
+        EventExecutor idlest = null;
+        long max = Long.MIN_VALUE;
+        long min = Long.MAX_VALUE;
+        for (Map.Entry<EventExecutor, long[]> e: loadByLoop.entrySet()) {
+            long load = e.getValue()[0];
+            if (load > max) {
+                max = load;
+                busiest = e.getKey();
+            }
+            if (load < min) {
+                min = load;
+                idlest = e.getKey();
+            }
+        }
+        if (busiest == null || busiest == idlest || max <= min * (1 + imbalanceRatio)) {
+            return null;
+        }
+
+        // Moving a channel which read d messages changes the gap from (max - min) to |max - min - 2d|, so only a
+        // channel which read less than the gap narrows it.
+        long gap = max - min;
+        RebalancingHandler candidate = null;
+        for (RebalancingHandler handler: handlers) {
+            if (!handler.migrating && handler.delta > 0 && handler.delta < gap &&
+                    handler.channel.eventLoop() == busiest &&
+                    (candidate == null || handler.delta > candidate.delta)) {
+                candidate = handler;
+            }
+        }
+        if (candidate == null) {
+            return null;
+        }
+        final RebalancingHandler handler = candidate;
+        handler.migrating = true;
+        ChannelMigration.migrate(handler.channel, (EventLoop) idlest).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                handler.migrating = false;
+                if (!future.isSuccess() && future.channel().isOpen()) {
+                    logger.debug("Failed to move {}", future.channel(), future.cause());
+                }
+            }
+        });
+        return handler.channel;
+    }
+
+    private final class RebalancingHandler extends ChannelInboundHandlerAdapter {
+        // Only written by the EventLoop of the channel.
+        volatile long read;
+        // Only accessed by the check.
+        long lastRead;
+        long delta;
+        volatile boolean migrating;
+        Channel channel;
+
+        @Override
+        public void handlerAdded(ChannelHandlerContext ctx) {
+            channel = ctx.channel();
+            if (channel.isActive()) {
+                handlers.add(this);
+            }
+        }
+
+        @Override
+        public void handlerRemoved(ChannelHandlerContext ctx) {
+            handlers.remove(this);
+        }
+
+        @Override
+        public void channelActive(ChannelHandlerContext ctx) throws Exception {
+            handlers.add(this);
+            ctx.fireChannelActive();
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            handlers.remove(this);
+            ctx.fireChannelInactive();
+        }
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            read++;
+            ctx.fireChannelRead(msg);
+        }
+    }
+}
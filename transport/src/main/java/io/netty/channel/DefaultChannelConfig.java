@@ -17,6 +17,7 @@ package io.netty.channel;
 
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.UnstableApi;
 
 import java.util.IdentityHashMap;
 import java.util.Map;
@@ -27,6 +28,7 @@ import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import static io.netty.channel.ChannelOption.ALLOCATOR;
 import static io.netty.channel.ChannelOption.AUTO_CLOSE;
 import static io.netty.channel.ChannelOption.AUTO_READ;
+import static io.netty.channel.ChannelOption.CONSOLIDATE_FLUSHES;
 import static io.netty.channel.ChannelOption.CONNECT_TIMEOUT_MILLIS;
 import static io.netty.channel.ChannelOption.MAX_MESSAGES_PER_READ;
 import static io.netty.channel.ChannelOption.MAX_MESSAGES_PER_WRITE;
@@ -68,6 +70,7 @@ public class DefaultChannelConfig implements ChannelConfig {
     @SuppressWarnings("FieldMayBeFinal")
     private volatile int autoRead = 1;
     private volatile boolean autoClose = true;
+    private volatile boolean consolidateFlushes = true;
     private volatile WriteBufferWaterMark writeBufferWaterMark = WriteBufferWaterMark.DEFAULT;
     private volatile boolean pinEventExecutor = true;
 
@@ -88,7 +91,7 @@ public class DefaultChannelConfig implements ChannelConfig {
                 CONNECT_TIMEOUT_MILLIS, MAX_MESSAGES_PER_READ, WRITE_SPIN_COUNT,
                 ALLOCATOR, AUTO_READ, AUTO_CLOSE, RCVBUF_ALLOCATOR, WRITE_BUFFER_HIGH_WATER_MARK,
                 WRITE_BUFFER_LOW_WATER_MARK, WRITE_BUFFER_WATER_MARK, MESSAGE_SIZE_ESTIMATOR,
-                SINGLE_EVENTEXECUTOR_PER_GROUP, MAX_MESSAGES_PER_WRITE);
+                SINGLE_EVENTEXECUTOR_PER_GROUP, MAX_MESSAGES_PER_WRITE, CONSOLIDATE_FLUSHES);
     }
 
     protected Map<ChannelOption<?>, Object> getOptions(
@@ -161,6 +164,9 @@ public class DefaultChannelConfig implements ChannelConfig {
         if (option == MAX_MESSAGES_PER_WRITE) {
             return (T) Integer.valueOf(getMaxMessagesPerWrite());
         }
+        if (option == CONSOLIDATE_FLUSHES) {
+            return (T) Boolean.valueOf(isConsolidateFlushes());
+        }
         return null;
     }
 
@@ -195,6 +201,8 @@ public class DefaultChannelConfig implements ChannelConfig {
             setPinEventExecutorPerGroup((Boolean) value);
         } else if (option == MAX_MESSAGES_PER_WRITE) {
             setMaxMessagesPerWrite((Integer) value);
+        } else if (option == CONSOLIDATE_FLUSHES) {
+            setConsolidateFlushes((Boolean) value);
         } else {
             return false;
         }
@@ -362,6 +370,27 @@ public class DefaultChannelConfig implements ChannelConfig {
         return this;
     }
 
+    /**
+     * Returns {@code true} if the flushes of the {@link Channel} may be consolidated by its {@link EventLoop}.
+     *
+     * @see ChannelOption#CONSOLIDATE_FLUSHES
+     */
+    @UnstableApi
+    public boolean isConsolidateFlushes() {
+        return consolidateFlushes;
+    }
+
+    /**
+     * Set if the flushes of the {@link Channel} may be consolidated by its {@link EventLoop}.
+     *
+     * @see ChannelOption#CONSOLIDATE_FLUSHES
+     */
+    @UnstableApi
+    public ChannelConfig setConsolidateFlushes(boolean consolidateFlushes) {
+        this.consolidateFlushes = consolidateFlushes;
+        return this;
+    }
+
     @Override
     public int getWriteBufferHighWaterMark() {
         return writeBufferWaterMark.high();
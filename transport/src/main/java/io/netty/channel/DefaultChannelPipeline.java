@@ -37,6 +37,7 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.WeakHashMap;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
@@ -65,6 +66,8 @@ public class DefaultChannelPipeline implements ChannelPipeline {
     private static final AtomicReferenceFieldUpdater<DefaultChannelPipeline, MessageSizeEstimator.Handle> ESTIMATOR =
             AtomicReferenceFieldUpdater.newUpdater(
                     DefaultChannelPipeline.class, MessageSizeEstimator.Handle.class, "estimatorHandle");
+    private static final AtomicIntegerFieldUpdater<DefaultChannelPipeline> SUBMITTING_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(DefaultChannelPipeline.class, "submitting");
 
     //ͷ
     final AbstractChannelHandlerContext head;
@@ -85,6 +88,11 @@ public class DefaultChannelPipeline implements ChannelPipeline {
     private volatile MessageSizeEstimator.Handle estimatorHandle;
     private boolean firstRegistration = true;
 
+    // Holds back the tasks submitted from other threads while the channel is migrated, see ChannelMigration.
+    volatile ChannelMigration.Gate migrationGate;
+    // Number of threads which are submitting a task for a handler to the EventLoop of the channel right now.
+    private volatile int submitting;
+
     /**
      * This is the head of a linked list that is processed by {@link #callHandlerAddedForAllHandlers()} and so process
      * all the pending {@link #callHandlerAdded0(AbstractChannelHandlerContext)}.
@@ -124,6 +132,22 @@ public class DefaultChannelPipeline implements ChannelPipeline {
         return handle;
     }
 
+    /**
+     * Marks the start of the submission of a task from another thread to the {@link EventLoop} of the channel, which
+     * the {@link ChannelMigration} waits for before it hands the channel over to another {@link EventLoop}.
+     */
+    final void beginSubmit() {
+        SUBMITTING_UPDATER.incrementAndGet(this);
+    }
+
+    final void endSubmit() {
+        SUBMITTING_UPDATER.decrementAndGet(this);
+    }
+
+    final boolean isSubmitting() {
+        return submitting != 0;
+    }
+
     final Object touch(Object msg, AbstractChannelHandlerContext next) {
         return touch ? ReferenceCountUtil.touch(msg, next) : msg;
     }
@@ -51,9 +51,12 @@ public class DefaultEventLoop extends SingleThreadEventLoop {
         for (;;) {
             Runnable task = takeTask();
             if (task != null) {
+                startIteration();
                 runTask(task);
                 updateLastExecutionTime();
             }
+            // Each task is an iteration of this event loop.
+            afterRunningAllTasks();
 
             if (confirmShutdown()) {
                 break;
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.internal.StringUtil;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/**
+ * {@link EventLoopMetric} of a {@link SingleThreadEventLoop}. The counters are only written by the
+ * {@link EventLoop} thread, so they are updated with {@code lazySet} instead of atomic operations.
+ */
+final class DefaultEventLoopMetric implements EventLoopMetric {
+    private static final AtomicLongFieldUpdater<DefaultEventLoopMetric> ITERATIONS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(DefaultEventLoopMetric.class, "iterations");
+    private static final AtomicLongFieldUpdater<DefaultEventLoopMetric> LAST_ITERATION_NANOS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(DefaultEventLoopMetric.class, "lastIterationNanos");
+    private static final AtomicLongFieldUpdater<DefaultEventLoopMetric> ITERATION_NANOS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(DefaultEventLoopMetric.class, "iterationNanos");
+    private static final AtomicLongFieldUpdater<DefaultEventLoopMetric> IO_NANOS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(DefaultEventLoopMetric.class, "ioNanos");
+    private static final AtomicLongFieldUpdater<DefaultEventLoopMetric> TASK_NANOS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(DefaultEventLoopMetric.class, "taskNanos");
+    private static final AtomicLongFieldUpdater<DefaultEventLoopMetric> WAKEUPS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(DefaultEventLoopMetric.class, "wakeups");
+    private static final AtomicLongFieldUpdater<DefaultEventLoopMetric> SPIN_NANOS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(DefaultEventLoopMetric.class, "spinNanos");
+    private static final AtomicLongFieldUpdater<DefaultEventLoopMetric> BLOCK_NANOS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(DefaultEventLoopMetric.class, "blockNanos");
+    private static final AtomicLongFieldUpdater<DefaultEventLoopMetric> SELECTED_KEYS_UPDATER =
+            AtomicLongFieldUpdater.newUpdater(DefaultEventLoopMetric.class, "selectedKeys");
+    private static final AtomicIntegerFieldUpdater<DefaultEventLoopMetric> SCHEDULED_TASKS_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(DefaultEventLoopMetric.class, "scheduledTasks");
+
+    private final SingleThreadEventLoop eventLoop;
+
+    private volatile long iterations;
+    private volatile long lastIterationNanos;
+    private volatile long iterationNanos;
+    private volatile long ioNanos;
+    private volatile long taskNanos;
+    private volatile long wakeups;
+    private volatile long spinNanos;
+    private volatile long blockNanos;
+    private volatile long selectedKeys;
+    private volatile int scheduledTasks;
+
+    // I/O time of the current iteration, only accessed from the EventLoop thread.
+    private long currentIoNanos;
+
+    DefaultEventLoopMetric(SingleThreadEventLoop eventLoop) {
+        this.eventLoop = eventLoop;
+    }
+
+    void ioProcessed(long ioNanos, int selectedKeys) {
+        currentIoNanos += ioNanos;
+        IO_NANOS_UPDATER.lazySet(this, this.ioNanos + ioNanos);
+        SELECTED_KEYS_UPDATER.lazySet(this, this.selectedKeys + selectedKeys);
+    }
+
+    void wokenUp() {
+        WAKEUPS_UPDATER.lazySet(this, wakeups + 1);
+    }
+
+    void waited(long spinNanos, long blockNanos) {
+        if (spinNanos != 0) {
+            SPIN_NANOS_UPDATER.lazySet(this, this.spinNanos + spinNanos);
+        }
+        if (blockNanos != 0) {
+            BLOCK_NANOS_UPDATER.lazySet(this, this.blockNanos + blockNanos);
+        }
+    }
+
+    void iterationCompleted(long iterationNanos, int scheduledTasks) {
+        long ioNanos = currentIoNanos;
+        currentIoNanos = 0;
+        ITERATIONS_UPDATER.lazySet(this, iterations + 1);
+        LAST_ITERATION_NANOS_UPDATER.lazySet(this, iterationNanos);
+        ITERATION_NANOS_UPDATER.lazySet(this, this.iterationNanos + iterationNanos);
+        TASK_NANOS_UPDATER.lazySet(this, taskNanos + Math.max(0, iterationNanos - ioNanos));
+        SCHEDULED_TASKS_UPDATER.lazySet(this, scheduledTasks);
+    }
+
+    @Override
+    public long iterations() {
+        return iterations;
+    }
+
+    @Override
+    public long lastIterationNanos() {
+        return lastIterationNanos;
+    }
+
+    @Override
+    public long iterationNanos() {
+        return iterationNanos;
+    }
+
+    @Override
+    public long ioNanos() {
+        return ioNanos;
+    }
+
+    @Override
+    public long taskNanos() {
+        return taskNanos;
+    }
+
+    @Override
+    public long wakeups() {
+        return wakeups;
+    }
+
+    @Override
+    public long spinNanos() {
+        return spinNanos;
+    }
+
+    @Override
+    public long blockNanos() {
+        return blockNanos;
+    }
+
+    @Override
+    public long selectedKeys() {
+        return selectedKeys;
+    }
+
+    @Override
+    public int pendingTasks() {
+        return eventLoop.pendingTasks();
+    }
+
+    @Override
+    public int scheduledTasks() {
+        return scheduledTasks;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(256)
+                .append(StringUtil.simpleClassName(this))
+                .append("(iterations: ").append(iterations())
+                .append("; lastIterationNanos: ").append(lastIterationNanos())
+                .append("; iterationNanos: ").append(iterationNanos())
+                .append("; ioNanos: ").append(ioNanos())
+                .append("; taskNanos: ").append(taskNanos())
+                .append("; wakeups: ").append(wakeups())
+                .append("; spinNanos: ").append(spinNanos())
+                .append("; blockNanos: ").append(blockNanos())
+                .append("; selectedKeys: ").append(selectedKeys())
+                .append("; pendingTasks: ").append(pendingTasks())
+                .append("; scheduledTasks: ").append(scheduledTasks())
+                .append(')').toString();
+    }
+}
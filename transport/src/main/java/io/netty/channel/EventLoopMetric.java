@@ -0,0 +1,90 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * Runtime metrics of an {@link EventLoop}. All the counters only ever increase since the {@link EventLoop} was
+ * started, so rates and averages are computed from the difference between two samples, for example the share of
+ * time spent on I/O as {@code ioNanos / (ioNanos + taskNanos)}.
+ * <p>
+ * The values are updated by the {@link EventLoop} thread without any synchronization and can be read from any
+ * thread, but the values of different methods are not guaranteed to be consistent with each other.
+ */
+@UnstableApi
+public interface EventLoopMetric {
+    /**
+     * Returns the number of iterations the {@link EventLoop} completed, each of them being one wait for I/O or
+     * tasks followed by processing what was ready.
+     */
+    long iterations();
+
+    /**
+     * Returns how long the last completed iteration took to process I/O and tasks, in nanoseconds.
+     */
+    long lastIterationNanos();
+
+    /**
+     * Returns the time spent processing I/O and tasks, in nanoseconds. Waiting for I/O or tasks is not included.
+     */
+    long iterationNanos();
+
+    /**
+     * Returns the part of {@link #iterationNanos()} which was spent processing I/O, which is always {@code 0} for an
+     * {@link EventLoop} which does not do any I/O, like {@link DefaultEventLoop}.
+     */
+    long ioNanos();
+
+    /**
+     * Returns the part of {@link #iterationNanos()} which was spent running tasks.
+     */
+    long taskNanos();
+
+    /**
+     * Returns the number of times the {@link EventLoop} was woken up by another thread while waiting for I/O, for
+     * example because a task was submitted. Always {@code 0} for an {@link EventLoop} which does not do any I/O.
+     */
+    long wakeups();
+
+    /**
+     * Returns the time spent polling for I/O without blocking while waiting for I/O or tasks, in nanoseconds, which
+     * is only done with a busy-polling {@link SelectStrategy} like the {@link AdaptiveBusyPollSelectStrategy}.
+     */
+    long spinNanos();
+
+    /**
+     * Returns the time spent blocked while waiting for I/O or tasks, in nanoseconds. Always {@code 0} for an
+     * {@link EventLoop} which does not report it.
+     */
+    long blockNanos();
+
+    /**
+     * Returns the number of I/O events the {@link EventLoop} selected, for example the number of ready
+     * {@link java.nio.channels.SelectionKey}s. Divide it by {@link #iterations()} for the average per select.
+     */
+    long selectedKeys();
+
+    /**
+     * Returns the number of tasks waiting to be run right now.
+     */
+    int pendingTasks();
+
+    /**
+     * Returns the number of scheduled tasks at the end of the last iteration.
+     */
+    int scheduledTasks();
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorChooserFactory;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.UnstableApi;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link EventExecutorChooserFactory} which picks the least loaded of two randomly chosen {@link EventExecutor}s,
+ * instead of going round-robin like {@link io.netty.util.concurrent.DefaultEventExecutorChooserFactory}. This keeps
+ * long-lived busy {@link Channel}s from piling up on the same {@link EventLoop}s.
+ * <p>
+ * The load of a {@link SingleThreadEventLoop} is the sum of its {@link SingleThreadEventLoop#registeredChannels()},
+ * its {@link SingleThreadEventLoop#pendingTasks()} and its {@link SingleThreadEventLoop#iterationLatencyNanos()}
+ * in units of 10 microseconds. Comparing only two {@link EventExecutor}s avoids sending all the {@link Channel}s to
+ * the same {@link EventLoop} before their registration shows up in its load.
+ * <p>
+ * Use it with the constructor of the {@link MultithreadEventLoopGroup} which is used as child group of a
+ * {@link io.netty.bootstrap.ServerBootstrap} to balance the accepted {@link Channel}s.
+ */
+@UnstableApi
+public final class LoadAwareEventExecutorChooserFactory implements EventExecutorChooserFactory {
+
+    // Iteration latency which counts as much as one registered channel or pending task.
+    private static final long LATENCY_UNIT_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    public static final LoadAwareEventExecutorChooserFactory INSTANCE = new LoadAwareEventExecutorChooserFactory();
+
+    private LoadAwareEventExecutorChooserFactory() { }
+
+    @Override
+    public EventExecutorChooser newChooser(EventExecutor[] executors) {
+        return new LoadAwareEventExecutorChooser(executors);
+    }
+
+    /**
+     * Returns the load of the given {@link EventExecutor}, a higher value meaning it is busier.
+     */
+    static long load(EventExecutor executor) {
+        if (executor instanceof SingleThreadEventLoop) {
+            SingleThreadEventLoop loop = (SingleThreadEventLoop) executor;
+            return Math.max(0, loop.registeredChannels()) + loop.pendingTasks() +
+                    loop.iterationLatencyNanos() / LATENCY_UNIT_NANOS;
+        }
+        if (executor instanceof SingleThreadEventExecutor) {
+            return ((SingleThreadEventExecutor) executor).pendingTasks();
+        }
+        return 0;
+    }
+
+    private static final class LoadAwareEventExecutorChooser implements EventExecutorChooser {
+        private final EventExecutor[] executors;
+
+        LoadAwareEventExecutorChooser(EventExecutor[] executors) {
+            this.executors = executors;
+            for (EventExecutor executor: executors) {
+                if (executor instanceof SingleThreadEventLoop) {
+                    // The iteration latency is part of the load, so the loops need to time their iterations.
+                    ((SingleThreadEventLoop) executor).trackIterations();
+                }
+            }
+        }
+
+        @Override
+        public EventExecutor next() {
+            if (executors.length == 1) {
+                return executors[0];
+            }
+            Random random = PlatformDependent.threadLocalRandom();
+            int first = random.nextInt(executors.length);
+            int second = random.nextInt(executors.length - 1);
+            if (second >= first) {
+                second++;
+            }
+            EventExecutor a = executors[first];
+            EventExecutor b = executors[second];
+            return load(a) <= load(b) ? a : b;
+        }
+    }
+}
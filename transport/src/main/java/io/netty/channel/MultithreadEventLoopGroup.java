@@ -17,9 +17,11 @@ package io.netty.channel;
 
 import io.netty.util.NettyRuntime;
 import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.EventExecutor;
 import io.netty.util.concurrent.EventExecutorChooserFactory;
 import io.netty.util.concurrent.MultithreadEventExecutorGroup;
 import io.netty.util.internal.SystemPropertyUtil;
+import io.netty.util.internal.UnstableApi;
 import io.netty.util.internal.logging.InternalLogger;
 import io.netty.util.internal.logging.InternalLoggerFactory;
 
@@ -92,6 +94,20 @@ public abstract class MultithreadEventLoopGroup extends MultithreadEventExecutor
         return next().register(channel);
     }
 
+    /**
+     * Enables or disables the consolidation of flushes in the child event loops.
+     *
+     * @see SingleThreadEventLoop#setConsolidateFlushes(boolean)
+     */
+    @UnstableApi
+    public void setConsolidateFlushes(boolean consolidateFlushes) {
+        for (EventExecutor e: this) {
+            if (e instanceof SingleThreadEventLoop) {
+                ((SingleThreadEventLoop) e).setConsolidateFlushes(consolidateFlushes);
+            }
+        }
+    }
+
     @Override
     public ChannelFuture register(ChannelPromise promise) {
         return next().register(promise);
@@ -117,6 +117,29 @@ public interface RecvByteBufAllocator {
         boolean continueReading(UncheckedBooleanSupplier maybeMoreDataSupplier);
     }
 
+    /**
+     * A {@link Handle} which can read into a buffer that is shared by all the channels of an {@link EventLoop}.
+     * Transports which read synchronously call {@link #allocateShared(ByteBufAllocator)} instead of
+     * {@link #allocate(ByteBufAllocator)} and pass the buffer through {@link #received(ByteBuf)} once the bytes were
+     * read into it, before it is passed through the {@link ChannelPipeline}.
+     */
+    @SuppressWarnings("deprecation")
+    @UnstableApi
+    interface SharedBufferHandle extends ExtendedHandle {
+        /**
+         * Returns a buffer to read into, which may be shared and so must not be used once
+         * {@link #received(ByteBuf)} returned. The buffer must be released if nothing was read into it.
+         */
+        ByteBuf allocateShared(ByteBufAllocator alloc);
+
+        /**
+         * Called once bytes were read into a buffer returned by {@link #allocateShared(ByteBufAllocator)}.
+         * Returns the buffer which is passed through the {@link ChannelPipeline}, which is a copy of the received
+         * bytes if the given buffer is shared.
+         */
+        ByteBuf received(ByteBuf byteBuf);
+    }
+
     /**
      * A {@link Handle} which delegates all call to some other {@link Handle}.
      */
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.UncheckedBooleanSupplier;
+import io.netty.util.concurrent.FastThreadLocal;
+import io.netty.util.internal.UnstableApi;
+
+import static io.netty.util.internal.ObjectUtil.checkNotNull;
+import static io.netty.util.internal.ObjectUtil.checkPositive;
+
+/**
+ * The {@link RecvByteBufAllocator} which reads into one large buffer that is shared by all the channels of an
+ * {@link EventLoop} and copies the bytes that were received into a buffer of the same size before they are passed
+ * through the {@link ChannelPipeline}. Connections which are mostly idle and only receive a few bytes at a time
+ * then do not pin a buffer sized by a guess, which is also kept around by decoders that wait for more bytes.
+ * <p>
+ * A read which fills the whole shared buffer switches the channel to the {@link MaxMessagesRecvByteBufAllocator}
+ * that is used for each channel, as copying does not pay off for busy connections. The channel switches back once a
+ * read did not fill the buffer it got from there.
+ * <p>
+ * The shared buffer is only used by transports which support {@link SharedBufferHandle}, which are the NIO, epoll
+ * and kqueue stream transports. It is kept per thread, so the same {@link SharedRecvByteBufAllocator} can be used
+ * by all the channels.
+ */
+@UnstableApi
+public class SharedRecvByteBufAllocator implements MaxMessagesRecvByteBufAllocator {
+
+    static final int DEFAULT_SHARED_BUFFER_SIZE = 65536;
+
+    private static final FastThreadLocal<ByteBuf> SHARED_BUFFER = new FastThreadLocal<ByteBuf>() {
+        @Override
+        protected void onRemoval(ByteBuf buffer) {
+            if (buffer != null) {
+                buffer.release();
+            }
+        }
+    };
+
+    private final MaxMessagesRecvByteBufAllocator perChannel;
+    private final int sharedBufferSize;
+
+    /**
+     * Creates a new instance which uses a shared buffer of 64 KiB and an {@link AdaptiveRecvByteBufAllocator} for
+     * busy channels.
+     */
+    public SharedRecvByteBufAllocator() {
+        this(new AdaptiveRecvByteBufAllocator(), DEFAULT_SHARED_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates a new instance.
+     *
+     * @param perChannel the {@link MaxMessagesRecvByteBufAllocator} which is used for busy channels and for
+     *                   transports which do not support the shared buffer.
+     * @param sharedBufferSize the size of the buffer which is shared by the channels of an {@link EventLoop}.
+     */
+    public SharedRecvByteBufAllocator(MaxMessagesRecvByteBufAllocator perChannel, int sharedBufferSize) {
+        this.perChannel = checkNotNull(perChannel, "perChannel");
+        this.sharedBufferSize = checkPositive(sharedBufferSize, "sharedBufferSize");
+    }
+
+    @Override
+    public int maxMessagesPerRead() {
+        return perChannel.maxMessagesPerRead();
+    }
+
+    @Override
+    public SharedRecvByteBufAllocator maxMessagesPerRead(int maxMessagesPerRead) {
+        perChannel.maxMessagesPerRead(maxMessagesPerRead);
+        return this;
+    }
+
+    @SuppressWarnings("deprecation")
+    @Override
+    public Handle newHandle() {
+        return new SharedHandle(perChannel.newHandle(), sharedBufferSize);
+    }
+
+    private static ByteBuf sharedBuffer(ByteBufAllocator alloc, int size) {
+        ByteBuf buffer = SHARED_BUFFER.get();
+        if (buffer == null || buffer.capacity() < size) {
+            if (buffer != null) {
+                buffer.release();
+            }
+            // Native transports can only read into direct buffers.
+            buffer = alloc.directBuffer(size, size);
+            SHARED_BUFFER.set(buffer);
+        }
+        return buffer;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static final class SharedHandle extends DelegatingHandle implements SharedBufferHandle {
+        private final int sharedBufferSize;
+        private ByteBufAllocator alloc;
+        private boolean busy;
+
+        SharedHandle(Handle delegate, int sharedBufferSize) {
+            super(delegate);
+            this.sharedBufferSize = sharedBufferSize;
+        }
+
+        @Override
+        public ByteBuf allocateShared(ByteBufAllocator alloc) {
+            if (busy) {
+                return allocate(alloc);
+            }
+            this.alloc = alloc;
+            ByteBuf shared = sharedBuffer(alloc, sharedBufferSize);
+            // The transport releases the buffer if nothing was read into it, and received(...) releases it after
+            // copying, so the shared buffer itself is never freed by a read.
+            return shared.clear().retain();
+        }
+
+        @Override
+        public ByteBuf received(ByteBuf byteBuf) {
+            if (byteBuf != SHARED_BUFFER.get()) {
+                // Go back to the shared buffer once the channel does not fill the buffers it gets anymore.
+                busy = !byteBuf.isWritable();
+                return byteBuf;
+            }
+            try {
+                busy = !byteBuf.isWritable();
+                return alloc.ioBuffer(byteBuf.readableBytes()).writeBytes(byteBuf);
+            } finally {
+                byteBuf.release();
+            }
+        }
+
+        @Override
+        public boolean continueReading(UncheckedBooleanSupplier maybeMoreDataSupplier) {
+            Handle delegate = delegate();
+            return delegate instanceof ExtendedHandle ?
+                    ((ExtendedHandle) delegate).continueReading(maybeMoreDataSupplier) : delegate.continueReading();
+        }
+    }
+}
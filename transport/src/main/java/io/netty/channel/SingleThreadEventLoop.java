@@ -22,6 +22,8 @@ import io.netty.util.internal.ObjectUtil;
 import io.netty.util.internal.SystemPropertyUtil;
 import io.netty.util.internal.UnstableApi;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadFactory;
@@ -30,13 +32,34 @@ import java.util.concurrent.ThreadFactory;
  * Abstract base class for {@link EventLoop}s that execute all its submitted tasks in a single thread.
  *
  */
-public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor implements EventLoop {
+public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor
+        implements EventLoop, EventLoopMetricProvider {
 
     protected static final int DEFAULT_MAX_PENDING_TASKS = Math.max(16,
             SystemPropertyUtil.getInt("io.netty.eventLoop.maxPendingTasks", Integer.MAX_VALUE));
 
     private final Queue<Runnable> tailTasks;
 
+    // Iterations are only timed once something consumes the timings, see trackIterations().
+    private volatile boolean trackIterations;
+    // Start of the current iteration, only valid while iterationRunning is true. Only written from the EventLoop thread.
+    private volatile long iterationStartNanos;
+    private volatile boolean iterationRunning;
+    private volatile long iterationLatencyNanos;
+    private final DefaultEventLoopMetric metric = new DefaultEventLoopMetric(this);
+
+    private volatile boolean consolidateFlushes;
+    // Only accessed from the EventLoop thread.
+    private final List<AbstractChannel.AbstractUnsafe> deferredFlushes =
+            new ArrayList<AbstractChannel.AbstractUnsafe>();
+    private boolean flushDeferredTaskScheduled;
+    private final Runnable flushDeferredTask = new Runnable() {
+        @Override
+        public void run() {
+            runDeferredFlushes();
+        }
+    };
+
     protected SingleThreadEventLoop(EventLoopGroup parent, ThreadFactory threadFactory, boolean addTaskWakesUp) {
         this(parent, threadFactory, addTaskWakesUp, DEFAULT_MAX_PENDING_TASKS, RejectedExecutionHandlers.reject());
     }
@@ -130,9 +153,168 @@ public abstract class SingleThreadEventLoop extends SingleThreadEventExecutor im
         return tailTasks.remove(ObjectUtil.checkNotNull(task, "task"));
     }
 
+    /**
+     * Returns {@code true} if the flushes of the {@link Channel}s registered with this {@link EventLoop} are
+     * consolidated.
+     *
+     * @see #setConsolidateFlushes(boolean)
+     */
+    @UnstableApi
+    public boolean isConsolidateFlushes() {
+        return consolidateFlushes;
+    }
+
+    /**
+     * If {@code true}, a flush of a {@link Channel} registered with this {@link EventLoop} only marks the messages
+     * written so far as flushed. The messages are written to the transport once per {@link Channel} at the end of the
+     * current {@code eventloop} iteration, after all the I/O events and tasks were processed, so writes done while
+     * handling different events of the same iteration are batched without any change to the
+     * {@link ChannelPipeline}. {@link Channel}s for which {@link ChannelOption#CONSOLIDATE_FLUSHES} is set to
+     * {@code false} are still written on each flush. The default value is {@code false}.
+     */
+    @UnstableApi
+    public void setConsolidateFlushes(boolean consolidateFlushes) {
+        this.consolidateFlushes = consolidateFlushes;
+    }
+
+    /**
+     * Defers the flush of the given {@link Channel} to the end of the current {@code eventloop} iteration.
+     *
+     * @return {@code true} if the flush was deferred, {@code false} if it must be done right away.
+     */
+    final boolean deferFlush(AbstractChannel.AbstractUnsafe unsafe) {
+        assert inEventLoop();
+        if (!consolidateFlushes || isShuttingDown()) {
+            return false;
+        }
+        if (!flushDeferredTaskScheduled) {
+            if (!tailTasks.offer(flushDeferredTask)) {
+                return false;
+            }
+            flushDeferredTaskScheduled = true;
+        }
+        deferredFlushes.add(unsafe);
+        return true;
+    }
+
+    private void runDeferredFlushes() {
+        List<AbstractChannel.AbstractUnsafe> deferredFlushes = this.deferredFlushes;
+        try {
+            // Flushing may trigger events that flush other channels, which are then added to the list and flushed as
+            // part of this loop.
+            for (int i = 0; i < deferredFlushes.size(); i++) {
+                deferredFlushes.get(i).runDeferredFlush();
+            }
+        } finally {
+            deferredFlushes.clear();
+            flushDeferredTaskScheduled = false;
+        }
+    }
+
     @Override
     protected void afterRunningAllTasks() {
         runAllTasksFrom(tailTasks);
+        if (iterationRunning) {
+            iterationRunning = false;
+            long latencyNanos = System.nanoTime() - iterationStartNanos;
+            long averageNanos = iterationLatencyNanos;
+            // Moving average which gives the last iteration a weight of 1/8.
+            iterationLatencyNanos = averageNanos + (latencyNanos - averageNanos >> 3);
+            metric.iterationCompleted(latencyNanos, scheduledTaskCount());
+        }
+    }
+
+    /**
+     * Reports that the current iteration spent the given time processing the given number of I/O events, which is
+     * used by the {@link #metric()}. Must be called from the {@link EventLoop} thread. Does nothing unless
+     * {@link #isTrackingIterations()}.
+     */
+    @UnstableApi
+    protected final void reportIo(long ioNanos, int selectedKeys) {
+        if (trackIterations) {
+            metric.ioProcessed(ioNanos, selectedKeys);
+        }
+    }
+
+    /**
+     * Reports that this {@link EventLoop} was woken up by another thread while waiting for I/O, which is used by the
+     * {@link #metric()}. Must be called from the {@link EventLoop} thread.
+     */
+    @UnstableApi
+    protected final void reportWakeup() {
+        metric.wokenUp();
+    }
+
+    /**
+     * Reports that this {@link EventLoop} spent the given time polling for I/O without blocking and blocked for the
+     * given time while waiting for I/O or tasks, which is used by the {@link #metric()}. Must be called from the
+     * {@link EventLoop} thread. Does nothing unless {@link #isTrackingIterations()}.
+     */
+    @UnstableApi
+    protected final void reportWait(long spinNanos, long blockNanos) {
+        if (trackIterations) {
+            metric.waited(spinNanos, blockNanos);
+        }
+    }
+
+    /**
+     * Returns the {@link EventLoopMetric} of this {@link EventLoop}. Iterations are only recorded if the
+     * implementation calls {@link #startIteration()}, and I/O only if it calls {@link #reportIo(long, int)}.
+     * As timing the iterations is not free, they are only recorded once this method was called for the first time.
+     */
+    @UnstableApi
+    @Override
+    public EventLoopMetric metric() {
+        trackIterations();
+        return metric;
+    }
+
+    /**
+     * Starts timing the iterations of this {@link EventLoop}, which is done by {@link #metric()} and by the
+     * {@link LoadAwareEventExecutorChooserFactory}. Until then {@link #startIteration()} costs only a volatile read.
+     */
+    final void trackIterations() {
+        if (!trackIterations) {
+            trackIterations = true;
+        }
+    }
+
+    /**
+     * Returns {@code true} once the iterations of this {@link EventLoop} are timed, see {@link #trackIterations()}.
+     * Until then the implementations should not measure the time they spend on I/O or waiting for it, as
+     * {@link #reportIo(long, int)} and {@link #reportWait(long, long)} would discard it.
+     */
+    @UnstableApi
+    protected final boolean isTrackingIterations() {
+        return trackIterations;
+    }
+
+    /**
+     * Marks the start of an iteration of this {@link EventLoop}, which is called by the implementations once they
+     * stopped waiting for I/O or tasks. The iteration ends with {@link #afterRunningAllTasks()}.
+     */
+    @UnstableApi
+    protected final void startIteration() {
+        if (trackIterations) {
+            iterationStartNanos = System.nanoTime();
+            iterationRunning = true;
+        }
+    }
+
+    /**
+     * Returns the moving average of the time the last iterations of this {@link EventLoop} took to process I/O and
+     * tasks, in nanoseconds, or the time the current iteration is running for if it is longer, so a stuck
+     * {@link EventLoop} does not look idle. Waiting for I/O or tasks is not included. Returns {@code 0} if the
+     * implementation does not call {@link #startIteration()}, or if the iterations are not timed because neither
+     * {@link #metric()} nor the {@link LoadAwareEventExecutorChooserFactory} is used.
+     */
+    @UnstableApi
+    public long iterationLatencyNanos() {
+        long averageNanos = iterationLatencyNanos;
+        if (!iterationRunning) {
+            return averageNanos;
+        }
+        return Math.max(averageNanos, System.nanoTime() - iterationStartNanos);
     }
 
     @Override
@@ -24,10 +24,12 @@ import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
 import io.netty.channel.DefaultChannelConfig;
 import io.netty.channel.EventLoop;
+import io.netty.channel.MessageSizeEstimator;
 import io.netty.channel.PreferHeapByteBufAllocator;
 import io.netty.channel.RecvByteBufAllocator;
 import io.netty.channel.SingleThreadEventLoop;
 import io.netty.util.ReferenceCountUtil;
+import io.netty.util.UncheckedBooleanSupplier;
 import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.SingleThreadEventExecutor;
 import io.netty.util.internal.InternalThreadLocalMap;
@@ -42,6 +44,7 @@ import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ConnectionPendingException;
 import java.nio.channels.NotYetConnectedException;
 import java.util.Queue;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
@@ -52,14 +55,17 @@ public class LocalChannel extends AbstractChannel {
     @SuppressWarnings({ "rawtypes" })
     private static final AtomicReferenceFieldUpdater<LocalChannel, Future> FINISH_READ_FUTURE_UPDATER =
             AtomicReferenceFieldUpdater.newUpdater(LocalChannel.class, Future.class, "finishReadFuture");
+    private static final AtomicIntegerFieldUpdater<LocalChannel> FINISH_READ_SCHEDULED_UPDATER =
+            AtomicIntegerFieldUpdater.newUpdater(LocalChannel.class, "finishReadScheduled");
     private static final ChannelMetadata METADATA = new ChannelMetadata(false);
     private static final int MAX_READER_STACK_DEPTH = 8;
+    private static final int INBOUND_BUFFER_CHUNK_SIZE = 128;
 
     private enum State { OPEN, BOUND, CONNECTED, CLOSED }
 
     private final ChannelConfig config = new DefaultChannelConfig(this);
-    // To further optimize this we could write our own SPSC queue.
-    final Queue<Object> inboundBuffer = PlatformDependent.newSpscQueue();
+    // Backed by arrays, so adding a message does not allocate.
+    final Queue<Object> inboundBuffer = PlatformDependent.newChunkedSpscQueue(INBOUND_BUFFER_CHUNK_SIZE);
     private final Runnable readTask = new Runnable() {
         @Override
         public void run() {
@@ -70,6 +76,23 @@ public class LocalChannel extends AbstractChannel {
         }
     };
 
+    // Reads everything the peer wrote until it runs, however many flushes that were.
+    private final Runnable finishReadTask = new Runnable() {
+        @Override
+        public void run() {
+            // Reset before reading, so the peer schedules the task again for anything it writes from now on.
+            finishReadScheduled = 0;
+            finishRead();
+        }
+    };
+
+    private final UncheckedBooleanSupplier inboundBufferNotEmpty = new UncheckedBooleanSupplier() {
+        @Override
+        public boolean get() {
+            return !inboundBuffer.isEmpty();
+        }
+    };
+
     private final Runnable shutdownHook = new Runnable() {
         @Override
         public void run() {
@@ -85,6 +108,7 @@ public class LocalChannel extends AbstractChannel {
     private volatile boolean readInProgress;
     private volatile boolean writeInProgress;
     private volatile Future<?> finishReadFuture;
+    private volatile int finishReadScheduled;
 
     public LocalChannel() {
         super(null);
@@ -291,17 +315,29 @@ public class LocalChannel extends AbstractChannel {
         RecvByteBufAllocator.Handle handle = unsafe().recvBufAllocHandle();
         handle.reset(config());
         ChannelPipeline pipeline = pipeline();
+        MessageSizeEstimator.Handle estimatorHandle = config().getMessageSizeEstimator().newHandle();
         do {
             Object received = inboundBuffer.poll();
             if (received == null) {
                 break;
             }
+            handle.incMessagesRead(1);
+            // Nothing is read into a buffer, so report the size of the message. Otherwise continueReading() would
+            // always stop after the first one.
+            handle.lastBytesRead(Math.max(1, estimatorHandle.size(received)));
             pipeline.fireChannelRead(received);
-        } while (handle.continueReading());
+        } while (continueReading(handle));
 
         pipeline.fireChannelReadComplete();
     }
 
+    private boolean continueReading(RecvByteBufAllocator.Handle handle) {
+        // There may be more data as long as the inbound buffer is not empty.
+        return handle instanceof RecvByteBufAllocator.ExtendedHandle ?
+                ((RecvByteBufAllocator.ExtendedHandle) handle).continueReading(inboundBufferNotEmpty) :
+                handle.continueReading();
+    }
+
     @Override
     protected void doBeginRead() throws Exception {
         if (readInProgress) {
@@ -361,8 +397,10 @@ public class LocalChannel extends AbstractChannel {
                     // It is possible the peer could have closed while we are writing, and in this case we should
                     // simulate real socket behavior and ensure the write operation is failed.
                     if (peer.state == State.CONNECTED) {
-                        peer.inboundBuffer.add(ReferenceCountUtil.retain(msg));
-                        in.remove();
+                        // Hand the message over to the peer instead of retaining it here and releasing it when
+                        // it is removed.
+                        peer.inboundBuffer.add(msg);
+                        in.removeTransferred();
                     } else {
                         if (exception == null) {
                             exception = new ClosedChannelException();
@@ -388,26 +426,22 @@ public class LocalChannel extends AbstractChannel {
     private void finishPeerRead(final LocalChannel peer) {
         // If the peer is also writing, then we must schedule the event on the event loop to preserve read order.
         if (peer.eventLoop() == eventLoop() && !peer.writeInProgress) {
-            finishPeerRead0(peer);
+            // Deliver the messages of this flush right away.
+            peer.finishRead();
         } else {
             runFinishPeerReadTask(peer);
         }
     }
 
     private void runFinishPeerReadTask(final LocalChannel peer) {
-        // If the peer is writing, we must wait until after reads are completed for that peer before we can read. So
-        // we keep track of the task, and coordinate later that our read can't happen until the peer is done.
-        final Runnable finishPeerReadTask = new Runnable() {
-            @Override
-            public void run() {
-                finishPeerRead0(peer);
-            }
-        };
         try {
             if (peer.writeInProgress) {
-                peer.finishReadFuture = peer.eventLoop().submit(finishPeerReadTask);
+                // If the peer is writing, we must wait until after reads are completed for that peer before we can
+                // read. So we keep track of the task, and coordinate later that our read can't happen until the peer
+                // is done.
+                peer.finishReadFuture = peer.eventLoop().submit(peer.finishReadTask);
             } else {
-                peer.eventLoop().execute(finishPeerReadTask);
+                peer.scheduleFinishRead();
             }
         } catch (Throwable cause) {
             logger.warn("Closing Local channels {}-{} because exception occurred!", this, peer, cause);
@@ -427,22 +461,35 @@ public class LocalChannel extends AbstractChannel {
         }
     }
 
-    private void finishPeerRead0(LocalChannel peer) {
-        Future<?> peerFinishReadFuture = peer.finishReadFuture;
-        if (peerFinishReadFuture != null) {
-            if (!peerFinishReadFuture.isDone()) {
-                runFinishPeerReadTask(peer);
+    private void scheduleFinishRead() {
+        // Only submit the task if it is not pending already, so all flushes of the peer until it runs are read at
+        // once. Always use the CAS, which also orders it after adding the messages to the inboundBuffer.
+        if (FINISH_READ_SCHEDULED_UPDATER.compareAndSet(this, 0, 1)) {
+            try {
+                eventLoop().execute(finishReadTask);
+            } catch (RuntimeException e) {
+                finishReadScheduled = 0;
+                throw e;
+            }
+        }
+    }
+
+    private void finishRead() {
+        Future<?> finishReadFuture = this.finishReadFuture;
+        if (finishReadFuture != null) {
+            if (!finishReadFuture.isDone()) {
+                scheduleFinishRead();
                 return;
             } else {
                 // Lazy unset to make sure we don't prematurely unset it while scheduling a new task.
-                FINISH_READ_FUTURE_UPDATER.compareAndSet(peer, peerFinishReadFuture, null);
+                FINISH_READ_FUTURE_UPDATER.compareAndSet(this, finishReadFuture, null);
             }
         }
         // We should only set readInProgress to false if there is any data that was read as otherwise we may miss to
         // forward data later on.
-        if (peer.readInProgress && !peer.inboundBuffer.isEmpty()) {
-            peer.readInProgress = false;
-            peer.readInbound();
+        if (readInProgress && !inboundBuffer.isEmpty()) {
+            readInProgress = false;
+            readInbound();
         }
     }
 
@@ -141,13 +141,17 @@ public abstract class AbstractNioByteChannel extends AbstractNioChannel {
             final ChannelPipeline pipeline = pipeline();
             final ByteBufAllocator allocator = config.getAllocator();
             final RecvByteBufAllocator.Handle allocHandle = recvBufAllocHandle();
+            final RecvByteBufAllocator.SharedBufferHandle sharedHandle =
+                    allocHandle instanceof RecvByteBufAllocator.SharedBufferHandle ?
+                            (RecvByteBufAllocator.SharedBufferHandle) allocHandle : null;
             allocHandle.reset(config);
 
             ByteBuf byteBuf = null;
             boolean close = false;
             try {
                 do {
-                    byteBuf = allocHandle.allocate(allocator);
+                    byteBuf = sharedHandle != null ? sharedHandle.allocateShared(allocator) :
+                            allocHandle.allocate(allocator);
                     allocHandle.lastBytesRead(doReadBytes(byteBuf));
                     if (allocHandle.lastBytesRead() <= 0) {
                         // nothing was read. release the buffer.
@@ -163,6 +167,9 @@ public abstract class AbstractNioByteChannel extends AbstractNioChannel {
 
                     allocHandle.incMessagesRead(1);
                     readPending = false;
+                    if (sharedHandle != null) {
+                        byteBuf = sharedHandle.received(byteBuf);
+                    }
                     pipeline.fireChannelRead(byteBuf);
                     byteBuf = null;
                 } while (allocHandle.continueReading());
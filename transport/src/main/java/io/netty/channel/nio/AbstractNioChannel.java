@@ -394,7 +394,9 @@ public abstract class AbstractNioChannel extends AbstractChannel {
                 //todo seleorǰchannel attachment, ʹ
                 //todo һ this , Ƿʱ, NioServerSocketChannel   ǿͻ NioSocketChannel
                 //todo ĿǰΪֹ, Ȼע,κ¼
-                selectionKey = javaChannel().register(eventLoop().unwrappedSelector(), 0, this);
+                // Keep reading if a read was requested before the channel was deregistered from another EventLoop.
+                selectionKey = javaChannel().register(
+                        eventLoop().unwrappedSelector(), readPending ? readInterestOp : 0, this);
                 return;
             } catch (CancelledKeyException e) {
                 if (!selected) {
@@ -15,6 +15,7 @@
  */
 package io.netty.channel.nio;
 
+import io.netty.channel.AdaptiveBusyPollSelectStrategy;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
 import io.netty.channel.EventLoop;
@@ -138,6 +139,8 @@ public final class NioEventLoop extends SingleThreadEventLoop {
     private final AtomicLong nextWakeupNanos = new AtomicLong(AWAKE);
 
     private final SelectStrategy selectStrategy;
+    // Same as selectStrategy if it adapts its spin budget to the waits of this EventLoop, null otherwise.
+    private final AdaptiveBusyPollSelectStrategy adaptiveSelectStrategy;
 
     private volatile int ioRatio = 50;
     private int cancelledKeys;
@@ -156,6 +159,8 @@ public final class NioEventLoop extends SingleThreadEventLoop {
         this.provider = ObjectUtil.checkNotNull(selectorProvider, "selectorProvider");
         //todo selectorԣEvenLoopGroupʱʼ
         this.selectStrategy = ObjectUtil.checkNotNull(strategy, "selectStrategy");
+        adaptiveSelectStrategy = strategy instanceof AdaptiveBusyPollSelectStrategy ?
+                (AdaptiveBusyPollSelectStrategy) strategy : null;
 
         //todo ȡSelectorѡ
         final SelectorTuple selectorTuple = openSelector();
@@ -479,6 +484,8 @@ public final class NioEventLoop extends SingleThreadEventLoop {
         for (;;) {
             try {
                 int strategy;
+                // Start of the busy-poll which preceded the blocking select, 0 if there was none.
+                long spinStartNanos = 0;
                 try {
                     //todo ĬõĻҪôselect.selectNow()ҪôSelectStrategy.SELECT
                     strategy = selectStrategy.calculateStrategy(selectNowSupplier, hasTasks());
@@ -487,7 +494,14 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                         continue;
 
                     case SelectStrategy.BUSY_WAIT:
-                        // fall-through to SELECT since the busy-wait is not supported with NIO
+                        if (adaptiveSelectStrategy != null) {
+                            spinStartNanos = System.nanoTime();
+                            strategy = busyPoll(spinStartNanos);
+                            if (strategy > 0 || hasTasks()) {
+                                break;
+                            }
+                        }
+                        // fall-through to SELECT since the unbounded busy-wait is not supported with NIO
 
                     case SelectStrategy.SELECT:
                         //todo ѯIO¼ȴ¼ķĴǴܵĸȤ¼鿴
@@ -498,9 +512,18 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                         nextWakeupNanos.set(curDeadlineNanos);
                         try {
                             if (!hasTasks()) {
+                                // Only time the wait if the adaptive strategy or the metric consumes it.
+                                final boolean timeWait = adaptiveSelectStrategy != null || isTrackingIterations();
+                                final long blockStartNanos = timeWait ? System.nanoTime() : 0;
                                 strategy = select(curDeadlineNanos);
+                                if (timeWait) {
+                                    blocked(spinStartNanos != 0 ? spinStartNanos : blockStartNanos, blockStartNanos);
+                                }
                             }
                         } finally {
+                            if (nextWakeupNanos.get() == AWAKE) {
+                                reportWakeup();
+                            }
                             // This update is just to help block unnecessary selector wakeups
                             // so use of lazySet is ok (no race condition)
                             nextWakeupNanos.lazySet(AWAKE);
@@ -517,6 +540,7 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                     continue;
                 }
 
+                startIteration();
                 selectCnt++;
                 cancelledKeys = 0;
                 needsToSelectAgain = false;
@@ -526,8 +550,16 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                 if (ioRatio == 100) {
                     try {
                         if (strategy > 0) {
-                            //todo ĸȤ¼,IOselectedKeysȥ
-                            processSelectedKeys();
+                            final boolean timeIo = isTrackingIterations();
+                            final long ioStartTime = timeIo ? System.nanoTime() : 0;
+                            try {
+                                //todo ĸȤ¼,IOselectedKeysȥ
+                                processSelectedKeys();
+                            } finally {
+                                if (timeIo) {
+                                    reportIo(System.nanoTime() - ioStartTime, strategy);
+                                }
+                            }
                         }
                     } finally {
                         // Ensure we always run tasks.
@@ -546,6 +578,7 @@ public final class NioEventLoop extends SingleThreadEventLoop {
                         //todo ݴIO¼ʱrunAllTasksִܳioTimeʱ
                         //todo һıȥпһ´νд
                         final long ioTime = System.nanoTime() - ioStartTime;
+                        reportIo(ioTime, strategy);
                         ranTasks = runAllTasks(ioTime * (100 - ioRatio) / ioRatio);
                     }
                 } else {
@@ -844,7 +877,8 @@ public final class NioEventLoop extends SingleThreadEventLoop {
 
     @Override
     protected void wakeup(boolean inEventLoop) {
-        if (!inEventLoop && nextWakeupNanos.getAndSet(AWAKE) != AWAKE) {
+        // Check before the getAndSet so producers do not contend on nextWakeupNanos while the loop is awake.
+        if (!inEventLoop && nextWakeupNanos.get() != AWAKE && nextWakeupNanos.getAndSet(AWAKE) != AWAKE) {
             selector.wakeup();
         }
     }
@@ -878,6 +912,32 @@ public final class NioEventLoop extends SingleThreadEventLoop {
         return timeoutMillis <= 0 ? selector.selectNow() : selector.select(timeoutMillis);
     }
 
+    /**
+     * Polls for I/O without blocking until something is ready, a task was submitted or the spin budget is spent.
+     */
+    private int busyPoll(long startNanos) throws IOException {
+        final long deadlineNanos = startNanos + adaptiveSelectStrategy.spinBudgetNanos();
+        int ready;
+        long nowNanos;
+        do {
+            ready = selectNow();
+            nowNanos = System.nanoTime();
+        } while (ready == 0 && !hasTasks() && nowNanos - deadlineNanos < 0);
+        reportWait(nowNanos - startNanos, 0);
+        if (ready > 0 || hasTasks()) {
+            adaptiveSelectStrategy.waited(nowNanos - startNanos);
+        }
+        return ready;
+    }
+
+    private void blocked(long waitStartNanos, long blockStartNanos) {
+        final long nowNanos = System.nanoTime();
+        reportWait(0, nowNanos - blockStartNanos);
+        if (adaptiveSelectStrategy != null) {
+            adaptiveSelectStrategy.waited(nowNanos - waitStartNanos);
+        }
+    }
+
     private void selectAgain() {
         needsToSelectAgain = false;
         try {
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.util.internal.ObjectUtil;
+import io.netty.util.internal.SystemPropertyUtil;
+
+import java.io.File;
+import java.net.SocketAddress;
+
+/**
+ * An endpoint in the shared memory transport, which is a directory that holds the ring files of all connections to
+ * the {@link SharedMemoryServerChannel} that is bound to it. By default the directory is created in {@code /dev/shm},
+ * so the files are backed by memory, which can be changed with the {@code io.netty.shm.directory} system property.
+ */
+public final class SharedMemoryAddress extends SocketAddress implements Comparable<SharedMemoryAddress> {
+
+    private static final long serialVersionUID = -3290520218553245366L;
+
+    private static final File DEFAULT_DIRECTORY = new File(SystemPropertyUtil.get("io.netty.shm.directory",
+            new File("/dev/shm").isDirectory() ? "/dev/shm" : SystemPropertyUtil.get("java.io.tmpdir", ".")));
+
+    private final File directory;
+
+    /**
+     * Creates a new instance for the directory with the given name in the default directory.
+     */
+    public SharedMemoryAddress(String name) {
+        this(new File(DEFAULT_DIRECTORY, ObjectUtil.checkNonEmptyAfterTrim(name, "name")));
+    }
+
+    /**
+     * Creates a new instance for the given directory.
+     */
+    public SharedMemoryAddress(File directory) {
+        this.directory = ObjectUtil.checkNotNull(directory, "directory").getAbsoluteFile();
+    }
+
+    /**
+     * Returns the directory of this address.
+     */
+    public File directory() {
+        return directory;
+    }
+
+    @Override
+    public int hashCode() {
+        return directory.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof SharedMemoryAddress)) {
+            return false;
+        }
+
+        return directory.equals(((SharedMemoryAddress) o).directory);
+    }
+
+    @Override
+    public int compareTo(SharedMemoryAddress o) {
+        return directory.compareTo(o.directory);
+    }
+
+    @Override
+    public String toString() {
+        return "shm:" + directory.getPath();
+    }
+}
@@ -0,0 +1,642 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.AbstractChannel;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelMetadata;
+import io.netty.channel.ChannelOutboundBuffer;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+import io.netty.channel.ConnectTimeoutException;
+import io.netty.channel.EventLoop;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.SingleThreadEventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import io.netty.util.internal.PlatformDependent;
+import io.netty.util.internal.StringUtil;
+import io.netty.util.internal.UnstableApi;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.AlreadyConnectedException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ConnectionPendingException;
+import java.nio.channels.UnsupportedAddressTypeException;
+import java.util.concurrent.TimeUnit;
+
+import static io.netty.util.internal.ObjectUtil.checkPositiveOrZero;
+
+/**
+ * A {@link Channel} of the shared memory transport, which exchanges bytes with its peer, that may live in another
+ * process on the same host, through two {@link SharedMemoryRing}s in memory-mapped files. Written {@link ByteBuf}s
+ * are copied straight into the ring of the peer, or encoded in place through {@link #claimOutbound(int)}, and read
+ * {@link ByteBuf}s are filled straight from it, so the bytes never pass through the kernel.
+ * <p>
+ * Each {@link SharedMemoryChannel} polls its rings from its {@link EventLoop} on every run of the {@link EventLoop}
+ * while data flows and for {@link SharedMemoryChannelOption#POLL_SPIN_MICROS} after that. Then it waits for the
+ * {@link SharedMemoryDoorbell} of the connection if it has one which can be used with its {@link EventLoop}, like
+ * the one of the epoll transport. Otherwise it keeps polling with an exponentially increasing delay of up to
+ * {@link SharedMemoryChannelOption#MAX_POLL_INTERVAL_MICROS}.
+ * <p>
+ * Only {@link ByteBuf}s can be written. Needs {@code sun.misc.Unsafe} to access the shared memory.
+ */
+public class SharedMemoryChannel extends AbstractChannel {
+    static final String CLIENT_TO_SERVER_SUFFIX = ".c2s";
+    static final String SERVER_TO_CLIENT_SUFFIX = ".s2c";
+    static final String CONNECT_SUFFIX = ".syn";
+
+    private static final ChannelMetadata METADATA = new ChannelMetadata(false, 16);
+    private static final String EXPECTED_TYPES = " (expected: " + StringUtil.simpleClassName(ByteBuf.class) + ')';
+    private static final long MIN_POLL_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(10);
+
+    private enum State { OPEN, CONNECTED, CLOSED }
+
+    private final SharedMemoryChannelConfig config = new SharedMemoryChannelConfig(this);
+    private final Runnable pollTask = new Runnable() {
+        @Override
+        public void run() {
+            if (isPolledByCurrentThread()) {
+                pollScheduled = false;
+                poll();
+            }
+        }
+    };
+    private final Runnable delayedPollTask = new Runnable() {
+        @Override
+        public void run() {
+            if (isPolledByCurrentThread()) {
+                delayedPoll = null;
+                poll();
+            }
+        }
+    };
+    private final Runnable shutdownHook = new Runnable() {
+        @Override
+        public void run() {
+            unsafe().close(unsafe().voidPromise());
+        }
+    };
+
+    private volatile State state;
+    private volatile SharedMemoryAddress localAddress;
+    private volatile SharedMemoryAddress remoteAddress;
+
+    // Only accessed from the EventLoop once connected.
+    private SharedMemoryRing inbound;
+    private SharedMemoryRing outbound;
+    private SharedMemoryDoorbell doorbell;
+    private boolean doorbellRegistered;
+    private SharedMemoryRingByteBuf claim;
+    private File connectFile;
+    private ChannelPromise connectPromise;
+    private long connectDeadlineNanos;
+    private boolean readPending;
+    private boolean writePending;
+    private boolean pollScheduled;
+    private ScheduledFuture<?> delayedPoll;
+    private long lastProgressNanos;
+    private long pollIntervalNanos;
+
+    public SharedMemoryChannel() {
+        super(null);
+        ensureUnsafe();
+        state = State.OPEN;
+    }
+
+    SharedMemoryChannel(SharedMemoryServerChannel parent, SharedMemoryRing inbound, SharedMemoryRing outbound,
+                        SharedMemoryDoorbell doorbell, SharedMemoryAddress remoteAddress) {
+        super(parent);
+        this.inbound = inbound;
+        this.outbound = outbound;
+        this.doorbell = doorbell;
+        localAddress = parent.localAddress();
+        this.remoteAddress = remoteAddress;
+        state = State.CONNECTED;
+    }
+
+    static void ensureUnsafe() {
+        if (!PlatformDependent.hasUnsafe()) {
+            throw new UnsupportedOperationException("the shared memory transport needs sun.misc.Unsafe",
+                    PlatformDependent.getUnsafeUnavailabilityCause());
+        }
+    }
+
+    @Override
+    public ChannelMetadata metadata() {
+        return METADATA;
+    }
+
+    @Override
+    public SharedMemoryChannelConfig config() {
+        return config;
+    }
+
+    @Override
+    public SharedMemoryServerChannel parent() {
+        return (SharedMemoryServerChannel) super.parent();
+    }
+
+    @Override
+    public SharedMemoryAddress localAddress() {
+        return (SharedMemoryAddress) super.localAddress();
+    }
+
+    @Override
+    public SharedMemoryAddress remoteAddress() {
+        return (SharedMemoryAddress) super.remoteAddress();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    @Override
+    public boolean isActive() {
+        return state == State.CONNECTED;
+    }
+
+    @Override
+    protected AbstractUnsafe newUnsafe() {
+        return new SharedMemoryUnsafe();
+    }
+
+    @Override
+    protected boolean isCompatible(EventLoop loop) {
+        return loop instanceof SingleThreadEventLoop;
+    }
+
+    @Override
+    protected SocketAddress localAddress0() {
+        return localAddress;
+    }
+
+    @Override
+    protected SocketAddress remoteAddress0() {
+        return remoteAddress;
+    }
+
+    /**
+     * Returns a {@link ByteBuf} whose memory is the free space of the ring this channel writes to, so a message can be
+     * encoded in place, or {@code null} if there are less than {@code minCapacity} contiguous free bytes or other
+     * bytes still wait to be written. Writing it as the next message publishes its readable bytes without copying
+     * them, releasing it without writing it gives the space back.
+     * <p>
+     * It must only be filled from the {@link EventLoop} of this channel, and this method returns {@code null} when
+     * called from elsewhere. If another message is written first or its capacity changes, its bytes are moved out of
+     * the ring and it is written like any other {@link ByteBuf}.
+     */
+    @UnstableApi
+    public ByteBuf claimOutbound(int minCapacity) {
+        checkPositiveOrZero(minCapacity, "minCapacity");
+        if (!isRegistered() || !eventLoop().inEventLoop() || state != State.CONNECTED || outbound.isClosed()) {
+            return null;
+        }
+        if (claim != null && claim.refCnt() > 0) {
+            return null;
+        }
+        claim = null;
+        ChannelOutboundBuffer outboundBuffer = unsafe().outboundBuffer();
+        if (outboundBuffer == null || outboundBuffer.totalPendingWriteBytes() != 0) {
+            return null;
+        }
+        ByteBuffer claimed = outbound.claim();
+        if (claimed.remaining() < Math.max(1, minCapacity)) {
+            return null;
+        }
+        return claim = new SharedMemoryRingByteBuf(config.getAllocator(), claimed);
+    }
+
+    /**
+     * Returns the {@link SharedMemoryDoorbell} this channel and the {@link SharedMemoryServerChannel} bound to the
+     * given address use for the new connection with the given id, or {@code null} if there is none, which is the
+     * default. Called from the {@link EventLoop} once both rings were created, so it can tell the server about the
+     * connection without waiting for it to look for the connect file, which is not created then.
+     */
+    @UnstableApi
+    protected SharedMemoryDoorbell connectDoorbell(SharedMemoryAddress remoteAddress, long id) {
+        return null;
+    }
+
+    @Override
+    protected void doRegister() throws Exception {
+        ((SingleThreadEventExecutor) eventLoop()).addShutdownHook(shutdownHook);
+        if (doorbell != null && state != State.CLOSED) {
+            doorbellRegistered = doorbell.register(this);
+        }
+        if (state == State.CONNECTED || connectPromise != null) {
+            // Registered with another EventLoop while the rings were polled by the old one.
+            pollNow();
+        }
+    }
+
+    @Override
+    protected void doDeregister() throws Exception {
+        ((SingleThreadEventExecutor) eventLoop()).removeShutdownHook(shutdownHook);
+        cancelPoll();
+        deregisterDoorbell();
+    }
+
+    @Override
+    protected void doBind(SocketAddress localAddress) throws Exception {
+        throw new UnsupportedOperationException(
+                "a SharedMemoryChannel cannot be bound, its local address is assigned when it connects");
+    }
+
+    @Override
+    protected void doDisconnect() throws Exception {
+        doClose();
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        State oldState = state;
+        state = State.CLOSED;
+        if (oldState == State.CLOSED) {
+            return;
+        }
+        if (isRegistered()) {
+            cancelPoll();
+            deregisterDoorbell();
+        }
+        ChannelPromise promise = connectPromise;
+        if (promise != null) {
+            // Use tryFailure() instead of setFailure() to avoid the race against cancel().
+            promise.tryFailure(new ClosedChannelException());
+            connectPromise = null;
+        }
+        if (connectFile != null) {
+            connectFile.delete();
+            connectFile = null;
+        }
+        if (claim != null) {
+            if (claim.refCnt() > 0) {
+                // It may still be filled, so it must not use the ring once it is unmapped.
+                claim.moveOutOfRing();
+            }
+            claim = null;
+        }
+        if (inbound != null) {
+            // Tell the peer, which reads all bytes written so far before it closes too.
+            inbound.close();
+            outbound.close();
+            if (doorbell != null) {
+                ringDoorbell();
+            }
+            // Both sides delete the files as either of them may be gone already.
+            inbound.release(true);
+            outbound.release(true);
+            inbound = null;
+            outbound = null;
+        }
+        if (doorbell != null) {
+            try {
+                doorbell.close();
+            } finally {
+                doorbell = null;
+            }
+        }
+    }
+
+    @Override
+    protected void doBeginRead() throws Exception {
+        readPending = true;
+        if (state == State.CONNECTED) {
+            pollNow();
+        }
+    }
+
+    @Override
+    protected Object filterOutboundMessage(Object msg) {
+        if (msg instanceof ByteBuf) {
+            if (claim != null && msg != claim) {
+                // The claimed space is where the bytes of this message go.
+                if (claim.refCnt() > 0) {
+                    claim.moveOutOfRing();
+                }
+                claim = null;
+            }
+            return msg;
+        }
+        throw new UnsupportedOperationException(
+                "unsupported message type: " + StringUtil.simpleClassName(msg) + EXPECTED_TYPES);
+    }
+
+    @Override
+    protected void doWrite(ChannelOutboundBuffer in) throws Exception {
+        if (outbound.isClosed()) {
+            throw new ClosedChannelException();
+        }
+        for (;;) {
+            ByteBuf buf = (ByteBuf) in.current();
+            if (buf == null) {
+                writePending = false;
+                return;
+            }
+            int readableBytes = buf.readableBytes();
+            int written;
+            if (buf == claim && claim.isInRing()) {
+                // Nothing was written since it was claimed, so the bytes are already where they need to be.
+                claim = null;
+                buf.discardReadBytes();
+                outbound.commit(readableBytes);
+                written = readableBytes;
+            } else {
+                written = outbound.write(buf);
+            }
+            in.removeBytes(written);
+            if (written > 0 && doorbell != null && outbound.takeReaderWaiting()) {
+                ringDoorbell();
+            }
+            if (written < readableBytes) {
+                // The ring is full, so retry once the peer read some bytes.
+                writePending = true;
+                pollNow();
+                return;
+            }
+        }
+    }
+
+    private boolean isPolledByCurrentThread() {
+        // A poll task of an EventLoop this channel was deregistered from must not touch the rings anymore.
+        return isRegistered() && eventLoop().inEventLoop();
+    }
+
+    private void poll() {
+        if (state == State.CLOSED) {
+            return;
+        }
+        if (connectPromise != null) {
+            pollConnect();
+            return;
+        }
+        if (state != State.CONNECTED) {
+            return;
+        }
+
+        boolean progress = false;
+        if (writePending && outbound.writableBytes() > 0) {
+            progress = true;
+            ((SharedMemoryUnsafe) unsafe()).forceFlush();
+        }
+        if (state == State.CONNECTED && readPending && inbound.readableBytes() > 0) {
+            progress = true;
+            readInbound();
+        }
+        if (state != State.CONNECTED) {
+            return;
+        }
+        if (inbound.isClosed() && inbound.readableBytes() == 0) {
+            // The peer closed and all of its bytes were read.
+            unsafe().close(unsafe().voidPromise());
+            return;
+        }
+        if (progress) {
+            pollNow();
+        } else {
+            pollLater();
+        }
+    }
+
+    private void readInbound() {
+        readPending = false;
+        SharedMemoryChannelConfig config = config();
+        ChannelPipeline pipeline = pipeline();
+        ByteBufAllocator allocator = config.getAllocator();
+        RecvByteBufAllocator.Handle allocHandle = unsafe().recvBufAllocHandle();
+        allocHandle.reset(config);
+
+        ByteBuf byteBuf = null;
+        try {
+            do {
+                byteBuf = allocHandle.allocate(allocator);
+                allocHandle.attemptedBytesRead(byteBuf.writableBytes());
+                allocHandle.lastBytesRead(inbound.read(byteBuf));
+                if (allocHandle.lastBytesRead() <= 0) {
+                    byteBuf.release();
+                    byteBuf = null;
+                    break;
+                }
+                if (doorbell != null && inbound.takeWriterWaiting()) {
+                    ringDoorbell();
+                }
+                allocHandle.incMessagesRead(1);
+                pipeline.fireChannelRead(byteBuf);
+                byteBuf = null;
+                // The channel may have been closed by a handler, which unmapped the rings.
+            } while (state == State.CONNECTED && allocHandle.continueReading());
+
+            allocHandle.readComplete();
+            pipeline.fireChannelReadComplete();
+        } catch (Throwable cause) {
+            if (byteBuf != null) {
+                byteBuf.release();
+            }
+            allocHandle.readComplete();
+            pipeline.fireChannelReadComplete();
+            pipeline.fireExceptionCaught(cause);
+        }
+    }
+
+    private void pollConnect() {
+        ChannelPromise promise = connectPromise;
+        if (inbound.isAccepted()) {
+            connectPromise = null;
+            connectFile = null;
+            state = State.CONNECTED;
+            if (promise.trySuccess()) {
+                pipeline().fireChannelActive();
+            }
+            if (state == State.CONNECTED) {
+                pollNow();
+            }
+            return;
+        }
+
+        Exception cause = null;
+        try {
+            if (inbound.isClosed() || !SharedMemoryServerChannel.isBound(remoteAddress.directory())) {
+                cause = new ConnectException("connection refused: " + remoteAddress);
+            } else if (System.nanoTime() - connectDeadlineNanos >= 0) {
+                cause = new ConnectTimeoutException("connection timed out: " + remoteAddress);
+            }
+        } catch (IOException e) {
+            cause = e;
+        }
+        if (cause != null) {
+            connectPromise = null;
+            promise.tryFailure(cause);
+            unsafe().close(unsafe().voidPromise());
+        } else {
+            pollLater();
+        }
+    }
+
+    private void pollNow() {
+        lastProgressNanos = System.nanoTime();
+        pollIntervalNanos = 0;
+        if (!pollScheduled) {
+            pollScheduled = true;
+            eventLoop().execute(pollTask);
+        }
+    }
+
+    private void pollLater() {
+        if (pollScheduled || delayedPoll != null) {
+            return;
+        }
+        if (System.nanoTime() - lastProgressNanos < TimeUnit.MICROSECONDS.toNanos(config.getPollSpinMicros())) {
+            // Still spinning, so poll again once the EventLoop ran its other tasks and I/O.
+            pollScheduled = true;
+            eventLoop().execute(pollTask);
+        } else if (doorbellRegistered && state == State.CONNECTED) {
+            // Wait for the doorbell, which the peer rings once it read or wrote bytes or closed. Check once more after
+            // asking for it though, as the peer may have done so before it saw that we are waiting.
+            if (readPending) {
+                inbound.waitForReadable();
+            }
+            if (writePending) {
+                outbound.waitForWritable();
+            }
+            if (readPending && inbound.readableBytes() > 0 || writePending && outbound.writableBytes() > 0 ||
+                    inbound.isClosed()) {
+                pollNow();
+            }
+        } else {
+            long maxPollIntervalNanos = TimeUnit.MICROSECONDS.toNanos(config.getMaxPollIntervalMicros());
+            pollIntervalNanos = Math.min(maxPollIntervalNanos,
+                    pollIntervalNanos == 0 ? MIN_POLL_INTERVAL_NANOS : pollIntervalNanos << 1);
+            delayedPoll = eventLoop().schedule(delayedPollTask, pollIntervalNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void rang() {
+        if (isPolledByCurrentThread()) {
+            pollNow();
+        }
+    }
+
+    private void ringDoorbell() {
+        try {
+            doorbell.ring();
+        } catch (IOException e) {
+            pipeline().fireExceptionCaught(e);
+        }
+    }
+
+    private void deregisterDoorbell() throws IOException {
+        if (doorbellRegistered) {
+            doorbellRegistered = false;
+            doorbell.deregister();
+        }
+    }
+
+    private void cancelPoll() {
+        ScheduledFuture<?> delayedPoll = this.delayedPoll;
+        if (delayedPoll != null) {
+            delayedPoll.cancel(false);
+            this.delayedPoll = null;
+        }
+        // A pending pollTask does nothing once the channel is closed or deregistered, see isPolledByCurrentThread().
+        pollScheduled = false;
+    }
+
+    private final class SharedMemoryUnsafe extends AbstractUnsafe {
+
+        @Override
+        public void connect(SocketAddress remoteAddress, SocketAddress localAddress, ChannelPromise promise) {
+            if (!promise.setUncancellable() || !ensureOpen(promise)) {
+                return;
+            }
+
+            if (state == State.CONNECTED) {
+                Exception cause = new AlreadyConnectedException();
+                safeSetFailure(promise, cause);
+                pipeline().fireExceptionCaught(cause);
+                return;
+            }
+
+            if (connectPromise != null) {
+                throw new ConnectionPendingException();
+            }
+
+            if (!(remoteAddress instanceof SharedMemoryAddress)) {
+                safeSetFailure(promise, new UnsupportedAddressTypeException());
+                return;
+            }
+
+            try {
+                doConnect((SharedMemoryAddress) remoteAddress);
+            } catch (Throwable t) {
+                safeSetFailure(promise, t);
+                close(voidPromise());
+                return;
+            }
+            connectPromise = promise;
+            connectDeadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.getConnectTimeoutMillis());
+            pollNow();
+        }
+
+        void forceFlush() {
+            super.flush0();
+        }
+    }
+
+    private void doConnect(SharedMemoryAddress remoteAddress) throws IOException {
+        File directory = remoteAddress.directory();
+        if (!SharedMemoryServerChannel.isBound(directory)) {
+            throw new ConnectException("connection refused: " + remoteAddress);
+        }
+        long id = PlatformDependent.threadLocalRandom().nextLong() & Long.MAX_VALUE;
+        String name = Long.toHexString(id);
+        int capacity = config.getRingCapacity();
+        SharedMemoryRing outbound =
+                SharedMemoryRing.create(new File(directory, name + CLIENT_TO_SERVER_SUFFIX), capacity);
+        SharedMemoryRing inbound;
+        try {
+            inbound = SharedMemoryRing.create(new File(directory, name + SERVER_TO_CLIENT_SUFFIX), capacity);
+        } catch (IOException e) {
+            outbound.release(true);
+            throw e;
+        }
+        this.inbound = inbound;
+        this.outbound = outbound;
+        this.remoteAddress = remoteAddress;
+        localAddress = new SharedMemoryAddress(new File(directory, name));
+
+        SharedMemoryDoorbell doorbell = connectDoorbell(remoteAddress, id);
+        if (doorbell != null) {
+            // The server was told about the connection already. Closing deletes the rings and closes the doorbell.
+            this.doorbell = doorbell;
+            doorbellRegistered = doorbell.register(this);
+            return;
+        }
+
+        // Created last, as the server takes it as the signal that both rings are ready. Closing deletes the rings.
+        File connectFile = new File(directory, name + CONNECT_SUFFIX);
+        if (!connectFile.createNewFile()) {
+            throw new IOException("file exists already: " + connectFile);
+        }
+        this.connectFile = connectFile;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.channel.ChannelOption;
+import io.netty.channel.DefaultChannelConfig;
+import io.netty.util.internal.ObjectUtil;
+
+import java.util.Map;
+
+import static io.netty.channel.shm.SharedMemoryChannelOption.MAX_POLL_INTERVAL_MICROS;
+import static io.netty.channel.shm.SharedMemoryChannelOption.POLL_SPIN_MICROS;
+import static io.netty.channel.shm.SharedMemoryChannelOption.RING_CAPACITY;
+
+/**
+ * The {@link io.netty.channel.ChannelConfig} of a {@link SharedMemoryChannel}.
+ */
+public final class SharedMemoryChannelConfig extends DefaultChannelConfig {
+    private volatile int ringCapacity = 1024 * 1024;
+    private volatile int pollSpinMicros = 50;
+    private volatile int maxPollIntervalMicros = 100000;
+
+    SharedMemoryChannelConfig(SharedMemoryChannel channel) {
+        super(channel);
+    }
+
+    @Override
+    public Map<ChannelOption<?>, Object> getOptions() {
+        return getOptions(super.getOptions(), RING_CAPACITY, POLL_SPIN_MICROS, MAX_POLL_INTERVAL_MICROS);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T getOption(ChannelOption<T> option) {
+        if (option == RING_CAPACITY) {
+            return (T) Integer.valueOf(getRingCapacity());
+        }
+        if (option == POLL_SPIN_MICROS) {
+            return (T) Integer.valueOf(getPollSpinMicros());
+        }
+        if (option == MAX_POLL_INTERVAL_MICROS) {
+            return (T) Integer.valueOf(getMaxPollIntervalMicros());
+        }
+        return super.getOption(option);
+    }
+
+    @Override
+    public <T> boolean setOption(ChannelOption<T> option, T value) {
+        validate(option, value);
+
+        if (option == RING_CAPACITY) {
+            setRingCapacity((Integer) value);
+        } else if (option == POLL_SPIN_MICROS) {
+            setPollSpinMicros((Integer) value);
+        } else if (option == MAX_POLL_INTERVAL_MICROS) {
+            setMaxPollIntervalMicros((Integer) value);
+        } else {
+            return super.setOption(option, value);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the {@link SharedMemoryChannelOption#RING_CAPACITY} option.
+     */
+    public int getRingCapacity() {
+        return ringCapacity;
+    }
+
+    /**
+     * Sets the {@link SharedMemoryChannelOption#RING_CAPACITY} option, which is only used when connecting.
+     */
+    public SharedMemoryChannelConfig setRingCapacity(int ringCapacity) {
+        if (ringCapacity < SharedMemoryRing.MIN_CAPACITY || ringCapacity > SharedMemoryRing.MAX_CAPACITY ||
+                (ringCapacity & ringCapacity - 1) != 0) {
+            throw new IllegalArgumentException("ringCapacity: " + ringCapacity + " (expected: a power of two in " +
+                    "the range [" + SharedMemoryRing.MIN_CAPACITY + ", " + SharedMemoryRing.MAX_CAPACITY + "])");
+        }
+        this.ringCapacity = ringCapacity;
+        return this;
+    }
+
+    /**
+     * Returns the {@link SharedMemoryChannelOption#POLL_SPIN_MICROS} option.
+     */
+    public int getPollSpinMicros() {
+        return pollSpinMicros;
+    }
+
+    /**
+     * Sets the {@link SharedMemoryChannelOption#POLL_SPIN_MICROS} option.
+     */
+    public SharedMemoryChannelConfig setPollSpinMicros(int pollSpinMicros) {
+        this.pollSpinMicros = ObjectUtil.checkPositiveOrZero(pollSpinMicros, "pollSpinMicros");
+        return this;
+    }
+
+    /**
+     * Returns the {@link SharedMemoryChannelOption#MAX_POLL_INTERVAL_MICROS} option.
+     */
+    public int getMaxPollIntervalMicros() {
+        return maxPollIntervalMicros;
+    }
+
+    /**
+     * Sets the {@link SharedMemoryChannelOption#MAX_POLL_INTERVAL_MICROS} option.
+     */
+    public SharedMemoryChannelConfig setMaxPollIntervalMicros(int maxPollIntervalMicros) {
+        this.maxPollIntervalMicros = ObjectUtil.checkPositive(maxPollIntervalMicros, "maxPollIntervalMicros");
+        return this;
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.channel.ChannelOption;
+
+/**
+ * {@link ChannelOption}s of the {@link SharedMemoryChannel}.
+ */
+public final class SharedMemoryChannelOption<T> extends ChannelOption<T> {
+
+    /**
+     * The capacity in bytes of each of the two rings a {@link SharedMemoryChannel} creates when it connects, which
+     * must be a power of two. The {@link SharedMemoryServerChannel} uses the rings created by the connecting side.
+     */
+    public static final ChannelOption<Integer> RING_CAPACITY =
+            valueOf(SharedMemoryChannelOption.class, "RING_CAPACITY");
+
+    /**
+     * How long a {@link SharedMemoryChannel} keeps polling its rings on every run of its
+     * {@link io.netty.channel.EventLoop} once nothing happened anymore, in microseconds, before it waits for its
+     * {@link SharedMemoryDoorbell} or, if it has none, polls less often.
+     */
+    public static final ChannelOption<Integer> POLL_SPIN_MICROS =
+            valueOf(SharedMemoryChannelOption.class, "POLL_SPIN_MICROS");
+
+    /**
+     * The maximum delay between two polls of the rings of an idle {@link SharedMemoryChannel} without a
+     * {@link SharedMemoryDoorbell}, in microseconds,
+     * which is the worst case latency of a message that arrives when the channel was idle for long. The default of
+     * {@code 100000} keeps idle channels from waking up their {@link io.netty.channel.EventLoop} all the time, lower
+     * it if the first message after an idle period must arrive faster.
+     */
+    public static final ChannelOption<Integer> MAX_POLL_INTERVAL_MICROS =
+            valueOf(SharedMemoryChannelOption.class, "MAX_POLL_INTERVAL_MICROS");
+
+    @SuppressWarnings({ "unused", "deprecation" })
+    private SharedMemoryChannelOption() {
+        super(null);
+    }
+}
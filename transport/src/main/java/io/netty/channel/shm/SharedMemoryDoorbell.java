@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.internal.UnstableApi;
+
+import java.io.IOException;
+
+/**
+ * Wakes up the peer of a {@link SharedMemoryChannel} once there is something to read or space to write in one of
+ * their rings, so neither side needs to poll the rings of an idle connection. Each side listens on its own doorbell
+ * and rings the one of its peer, which it got when the connection was established.
+ * <p>
+ * There is no portable way for a JVM to wait for another process, so the {@link SharedMemoryChannel} itself has no
+ * doorbell and polls instead. A native transport provides one by overriding
+ * {@link SharedMemoryChannel#connectDoorbell(SharedMemoryAddress, long)} and accepting connections through
+ * {@link SharedMemoryServerChannel#accept(long, SharedMemoryDoorbell)}.
+ */
+@UnstableApi
+public abstract class SharedMemoryDoorbell {
+    private SharedMemoryChannel channel;
+
+    /**
+     * Wakes up the peer. May be called from any thread, no matter if this doorbell is registered or not.
+     */
+    protected abstract void ring() throws IOException;
+
+    /**
+     * Starts listening on the given {@link EventLoop}, from which it is called, and returns {@code false} if this
+     * doorbell cannot be used with it, in which case the {@link SharedMemoryChannel} polls its rings instead.
+     */
+    protected abstract boolean doRegister(EventLoop loop) throws IOException;
+
+    /**
+     * Stops listening on the {@link EventLoop} this doorbell was registered with, from which it is called.
+     */
+    protected abstract void doDeregister() throws IOException;
+
+    /**
+     * Releases all resources of this doorbell, which is not registered anymore.
+     */
+    protected abstract void close() throws IOException;
+
+    /**
+     * Must be called from the {@link EventLoop} this doorbell was registered with once the peer rang.
+     */
+    protected final void rang() {
+        SharedMemoryChannel channel = this.channel;
+        if (channel != null) {
+            channel.rang();
+        }
+    }
+
+    boolean register(SharedMemoryChannel channel) throws IOException {
+        if (!doRegister(channel.eventLoop())) {
+            return false;
+        }
+        this.channel = channel;
+        return true;
+    }
+
+    void deregister() throws IOException {
+        channel = null;
+        doDeregister();
+    }
+}
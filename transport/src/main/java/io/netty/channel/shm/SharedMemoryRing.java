@@ -0,0 +1,302 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.util.internal.PlatformDependent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A single-producer single-consumer byte ring in a memory-mapped file, which is shared by two processes. One side
+ * only writes to it and the other side only reads from it, so it carries the bytes of one direction of a
+ * {@link SharedMemoryChannel} connection.
+ * <p>
+ * The file starts with a header which holds the capacity, the accepted and closed flags and the waiting flags,
+ * followed by the write and read indices on their own cache lines and the data. The indices are ever-increasing
+ * (wrapping) byte counts, so the ring holds {@code writeIndex - readIndex} readable bytes which start at
+ * {@code readIndex & (capacity - 1)}.
+ * <p>
+ * A side which does not want to poll the ring anymore sets its waiting flag and checks the ring once more before it
+ * sleeps. The other side checks the flag after it moved its index and rings the doorbell of the sleeping side if it
+ * was set. Both the flags and the indices are accessed with volatile semantics, so one of the two always sees the
+ * other.
+ */
+final class SharedMemoryRing {
+    static final int MIN_CAPACITY = 4096;
+    static final int MAX_CAPACITY = 1 << 30;
+
+    private static final int MAGIC = 0x4E534852; // NSHR
+    private static final int MAGIC_OFFSET = 0;
+    private static final int CAPACITY_OFFSET = 4;
+    // Set to 1 by the side which accepted the connection, so the connecting side knows it was accepted.
+    private static final int ACCEPTED_OFFSET = 8;
+    // Set to 1 by the side which closed the connection. Both flags are only ever set, so racing writes do not matter.
+    private static final int CLOSED_OFFSET = 12;
+    // Set to 1 by the reading side before it waits for readable bytes, cleared by the writing side once it rang.
+    private static final int READER_WAITING_OFFSET = 16;
+    // Set to 1 by the writing side before it waits for writable bytes, cleared by the reading side once it rang.
+    private static final int WRITER_WAITING_OFFSET = 20;
+    private static final int WRITE_INDEX_OFFSET = 64;
+    private static final int READ_INDEX_OFFSET = 128;
+    private static final int HEADER_SIZE = 192;
+
+    private final File file;
+    private final MappedByteBuffer mapped;
+    private final long address;
+    private final int capacity;
+    private final int mask;
+    // A view of the data which is only used by the thread of this side.
+    private final ByteBuffer data;
+    // The index which is owned by this side, so it does not need to read it from the shared memory.
+    private int index;
+
+    private SharedMemoryRing(File file, MappedByteBuffer mapped) {
+        this.file = file;
+        this.mapped = mapped;
+        address = PlatformDependent.directBufferAddress(mapped);
+        capacity = PlatformDependent.getInt(address + CAPACITY_OFFSET);
+        mask = capacity - 1;
+        ByteBuffer duplicate = mapped.duplicate();
+        duplicate.position(HEADER_SIZE);
+        data = duplicate.slice();
+    }
+
+    /**
+     * Creates a new ring file with the given capacity, which must be a power of two, and maps it.
+     */
+    static SharedMemoryRing create(File file, int capacity) throws IOException {
+        if (capacity < MIN_CAPACITY || capacity > MAX_CAPACITY || (capacity & capacity - 1) != 0) {
+            throw new IllegalArgumentException("capacity: " + capacity +
+                    " (expected: a power of two in the range [" + MIN_CAPACITY + ", " + MAX_CAPACITY + "])");
+        }
+        if (!file.createNewFile()) {
+            throw new IOException("file exists already: " + file);
+        }
+        MappedByteBuffer mapped = map(file, HEADER_SIZE + capacity);
+        long address = PlatformDependent.directBufferAddress(mapped);
+        PlatformDependent.putInt(address + CAPACITY_OFFSET, capacity);
+        // Publish the magic last, so the other side never sees a partially initialized header.
+        PlatformDependent.putIntOrdered(address + MAGIC_OFFSET, MAGIC);
+        return new SharedMemoryRing(file, mapped);
+    }
+
+    /**
+     * Maps an existing ring file which was created by {@link #create(File, int)}.
+     */
+    static SharedMemoryRing open(File file) throws IOException {
+        long length = file.length();
+        if (length <= HEADER_SIZE) {
+            throw new IOException("not a ring file: " + file);
+        }
+        MappedByteBuffer mapped = map(file, (int) Math.min(length, HEADER_SIZE + MAX_CAPACITY));
+        long address = PlatformDependent.directBufferAddress(mapped);
+        if (PlatformDependent.getIntVolatile(address + MAGIC_OFFSET) != MAGIC ||
+                PlatformDependent.getInt(address + CAPACITY_OFFSET) + HEADER_SIZE != length) {
+            PlatformDependent.freeDirectBuffer(mapped);
+            throw new IOException("not a ring file: " + file);
+        }
+        return new SharedMemoryRing(file, mapped);
+    }
+
+    private static MappedByteBuffer map(File file, int size) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            // The mapping stays valid once the file was closed.
+            return raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            raf.close();
+        }
+    }
+
+    File file() {
+        return file;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    boolean isAccepted() {
+        return PlatformDependent.getIntVolatile(address + ACCEPTED_OFFSET) != 0;
+    }
+
+    boolean isClosed() {
+        return PlatformDependent.getIntVolatile(address + CLOSED_OFFSET) != 0;
+    }
+
+    /**
+     * Marks the ring as accepted. Must only be called by the side which accepted the connection.
+     */
+    void accept() {
+        PlatformDependent.putIntOrdered(address + ACCEPTED_OFFSET, 1);
+    }
+
+    /**
+     * Marks the ring as closed, which is never undone. Both sides may call it at any time.
+     */
+    void close() {
+        PlatformDependent.putIntOrdered(address + CLOSED_OFFSET, 1);
+    }
+
+    /**
+     * Returns the number of bytes which can be read right now. Must only be called by the reading side.
+     */
+    int readableBytes() {
+        return PlatformDependent.getIntVolatile(address + WRITE_INDEX_OFFSET) - index;
+    }
+
+    /**
+     * Returns the number of bytes which can be written right now. Must only be called by the writing side.
+     */
+    int writableBytes() {
+        return capacity - (index - PlatformDependent.getIntVolatile(address + READ_INDEX_OFFSET));
+    }
+
+    /**
+     * Asks the writing side to ring once it wrote bytes. Must only be called by the reading side, which must check
+     * {@link #readableBytes()} afterwards as bytes may have been written before.
+     */
+    void waitForReadable() {
+        PlatformDependent.putIntVolatile(address + READER_WAITING_OFFSET, 1);
+    }
+
+    /**
+     * Asks the reading side to ring once it read bytes. Must only be called by the writing side, which must check
+     * {@link #writableBytes()} afterwards as bytes may have been read before.
+     */
+    void waitForWritable() {
+        PlatformDependent.putIntVolatile(address + WRITER_WAITING_OFFSET, 1);
+    }
+
+    /**
+     * Returns {@code true} and clears the flag if the reading side waits for readable bytes, in which case the
+     * caller must ring. Must only be called by the writing side after it wrote bytes.
+     */
+    boolean takeReaderWaiting() {
+        return takeWaiting(address + READER_WAITING_OFFSET);
+    }
+
+    /**
+     * Returns {@code true} and clears the flag if the writing side waits for writable bytes, in which case the
+     * caller must ring. Must only be called by the reading side after it read bytes.
+     */
+    boolean takeWriterWaiting() {
+        return takeWaiting(address + WRITER_WAITING_OFFSET);
+    }
+
+    private static boolean takeWaiting(long flagAddress) {
+        if (PlatformDependent.getIntVolatile(flagAddress) == 0) {
+            return false;
+        }
+        // If the other side sets the flag again before it is cleared here it still gets the ring which follows.
+        PlatformDependent.putIntOrdered(flagAddress, 0);
+        return true;
+    }
+
+    /**
+     * Returns a view of the writable bytes which directly follow the written ones, up to the end of the ring, so they
+     * can be filled in place and then published by {@link #commit(int)} without copying them. Must only be called by
+     * the writing side.
+     */
+    ByteBuffer claim() {
+        int offset = index & mask;
+        int length = Math.min(writableBytes(), capacity - offset);
+        ByteBuffer claimed = data.duplicate();
+        claimed.clear().position(offset).limit(offset + length);
+        return claimed.slice();
+    }
+
+    /**
+     * Publishes the given number of bytes, which were filled in place through {@link #claim()}. Must only be called
+     * by the writing side.
+     */
+    void commit(int length) {
+        index += length;
+        PlatformDependent.putIntVolatile(address + WRITE_INDEX_OFFSET, index);
+    }
+
+    /**
+     * Returns the address of the byte which is written next. Must only be called by the writing side.
+     */
+    long writeAddress() {
+        return address + HEADER_SIZE + (index & mask);
+    }
+
+    /**
+     * Copies as many readable bytes of the given {@link ByteBuf} into the ring as fit and returns their number,
+     * without changing the {@code readerIndex} of the {@link ByteBuf}. Must only be called by the writing side.
+     */
+    int write(ByteBuf src) {
+        int length = Math.min(src.readableBytes(), writableBytes());
+        if (length == 0) {
+            return 0;
+        }
+        int offset = index & mask;
+        int first = Math.min(length, capacity - offset);
+        int srcIndex = src.readerIndex();
+        data.clear().position(offset).limit(offset + first);
+        src.getBytes(srcIndex, data);
+        if (first < length) {
+            // Wrap around.
+            data.clear().limit(length - first);
+            src.getBytes(srcIndex + first, data);
+        }
+        // Publish the bytes to the reading side.
+        commit(length);
+        return length;
+    }
+
+    /**
+     * Copies as many readable bytes of the ring into the given {@link ByteBuf} as fit into its writable bytes, which
+     * increases its {@code writerIndex}, and returns their number. Must only be called by the reading side.
+     */
+    int read(ByteBuf dst) {
+        int length = Math.min(readableBytes(), dst.writableBytes());
+        if (length == 0) {
+            return 0;
+        }
+        int offset = index & mask;
+        int first = Math.min(length, capacity - offset);
+        data.clear().position(offset).limit(offset + first);
+        dst.writeBytes(data);
+        if (first < length) {
+            // Wrap around.
+            data.clear().limit(length - first);
+            dst.writeBytes(data);
+        }
+        index += length;
+        // Hand the space back to the writing side.
+        PlatformDependent.putIntVolatile(address + READ_INDEX_OFFSET, index);
+        return length;
+    }
+
+    /**
+     * Unmaps the ring, after which it must not be used anymore, and deletes its file if requested. The other side
+     * keeps its own mapping, so it can still read all the bytes which were written before.
+     */
+    void release(boolean delete) {
+        PlatformDependent.freeDirectBuffer(mapped);
+        if (delete) {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledUnsafeDirectByteBuf;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link ByteBuf} whose memory is free space of a {@link SharedMemoryRing}, see
+ * {@link SharedMemoryChannel#claimOutbound(int)}. Like any {@link UnpooledUnsafeDirectByteBuf} which wraps a
+ * {@link ByteBuffer}, it moves its bytes into newly allocated memory once its capacity changes, after which it does not
+ * use the ring anymore.
+ */
+final class SharedMemoryRingByteBuf extends UnpooledUnsafeDirectByteBuf {
+    private final long ringAddress;
+
+    SharedMemoryRingByteBuf(ByteBufAllocator alloc, ByteBuffer claimed) {
+        // Growing beyond the claimed space is fine, it just moves the bytes out of the ring.
+        super(alloc, claimed, Integer.MAX_VALUE);
+        ringAddress = memoryAddress();
+        // Wrapping treats the claimed space as readable bytes.
+        clear();
+    }
+
+    /**
+     * Returns {@code true} if the bytes of this buffer are still in the ring. Must only be called while it is not
+     * released.
+     */
+    boolean isInRing() {
+        return memoryAddress() == ringAddress;
+    }
+
+    /**
+     * Moves the bytes of this buffer out of the ring, so the ring may be written or unmapped while it is still used.
+     */
+    void moveOutOfRing() {
+        if (isInRing()) {
+            capacity(capacity() + 1);
+        }
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.channel.AbstractServerChannel;
+import io.netty.channel.ChannelConfig;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.DefaultChannelConfig;
+import io.netty.channel.EventLoop;
+import io.netty.channel.RecvByteBufAllocator;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.ServerChannelRecvByteBufAllocator;
+import io.netty.channel.SingleThreadEventLoop;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.netty.util.concurrent.SingleThreadEventExecutor;
+import io.netty.util.internal.EmptyArrays;
+import io.netty.util.internal.UnstableApi;
+import io.netty.util.internal.logging.InternalLogger;
+import io.netty.util.internal.logging.InternalLoggerFactory;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.BindException;
+import java.net.SocketAddress;
+import java.nio.channels.FileLock;
+import java.nio.channels.UnsupportedAddressTypeException;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link ServerChannel} for the shared memory transport, which accepts {@link SharedMemoryChannel}s of the same or
+ * other processes on the same host.
+ * <p>
+ * Binding creates the directory of the {@link SharedMemoryAddress} and holds a lock on a file in it, so only one
+ * process at a time can be bound to it. A connecting {@link SharedMemoryChannel} creates its two ring files in that
+ * directory followed by a connect file, which the {@link SharedMemoryServerChannel} looks for every
+ * {@value #MIN_ACCEPT_INTERVAL_MILLIS} milliseconds after it accepted a connection. While nobody connects the delay
+ * doubles up to {@value #MAX_ACCEPT_INTERVAL_MILLIS} milliseconds, so an idle {@link SharedMemoryServerChannel}
+ * rarely lists its directory. A native transport may tell it about new connections right away instead, see
+ * {@link #accept(long, SharedMemoryDoorbell)}.
+ */
+public class SharedMemoryServerChannel extends AbstractServerChannel {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(SharedMemoryServerChannel.class);
+    private static final String LOCK_FILE = "lock";
+    private static final long MIN_ACCEPT_INTERVAL_MILLIS = 10;
+    private static final long MAX_ACCEPT_INTERVAL_MILLIS = 500;
+
+    // The lock file has two regions. Binding takes an exclusive lock on the first one, so only one process can be
+    // bound, and then on the second one, which connecting channels probe with a shared lock. Keeping them apart
+    // means a probe never makes a concurrent bind fail.
+    private static final long BIND_LOCK_POSITION = 0;
+    private static final long BOUND_LOCK_POSITION = 1;
+
+    // Directories bound by this process. Closing any file descriptor of the lock file releases all locks the process
+    // holds on it, so the lock file of a directory bound by this process must not be opened by a probe. Also guards
+    // the probes and binds of this process against each other.
+    private static final Set<String> BOUND_DIRECTORIES = new HashSet<String>();
+
+    private final ChannelConfig config =
+            new DefaultChannelConfig(this, new ServerChannelRecvByteBufAllocator()) { };
+    private final Queue<Object> inboundBuffer = new ArrayDeque<Object>();
+    private final Runnable acceptTask = new Runnable() {
+        @Override
+        public void run() {
+            accept();
+        }
+    };
+    private final Runnable shutdownHook = new Runnable() {
+        @Override
+        public void run() {
+            unsafe().close(unsafe().voidPromise());
+        }
+    };
+
+    private volatile int state; // 0 - open, 1 - active, 2 - closed
+    private volatile SharedMemoryAddress localAddress;
+    private boolean acceptInProgress;
+    private RandomAccessFile lockFile;
+    private FileLock bindLock;
+    private FileLock boundLock;
+    private ScheduledFuture<?> acceptFuture;
+    private long acceptIntervalMillis = MIN_ACCEPT_INTERVAL_MILLIS;
+
+    public SharedMemoryServerChannel() {
+        SharedMemoryChannel.ensureUnsafe();
+    }
+
+    /**
+     * Returns {@code true} if a {@link SharedMemoryServerChannel} of this or another process is bound to the given
+     * directory. A lock file left behind by a process which died is not locked anymore, so it does not count.
+     */
+    static boolean isBound(File directory) throws IOException {
+        synchronized (BOUND_DIRECTORIES) {
+            if (BOUND_DIRECTORIES.contains(directory.getAbsolutePath())) {
+                return true;
+            }
+            File file = new File(directory, LOCK_FILE);
+            if (!file.exists()) {
+                return false;
+            }
+            RandomAccessFile lockFile;
+            try {
+                lockFile = new RandomAccessFile(file, "r");
+            } catch (FileNotFoundException e) {
+                // Deleted by a closing server in the meantime.
+                return false;
+            }
+            try {
+                FileLock lock = lockFile.getChannel().tryLock(BOUND_LOCK_POSITION, 1, true);
+                if (lock == null) {
+                    return true;
+                }
+                lock.release();
+                return false;
+            } finally {
+                lockFile.close();
+            }
+        }
+    }
+
+    @Override
+    public ChannelConfig config() {
+        return config;
+    }
+
+    @Override
+    public SharedMemoryAddress localAddress() {
+        return (SharedMemoryAddress) super.localAddress();
+    }
+
+    @Override
+    public SharedMemoryAddress remoteAddress() {
+        return (SharedMemoryAddress) super.remoteAddress();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return state < 2;
+    }
+
+    @Override
+    public boolean isActive() {
+        return state == 1;
+    }
+
+    @Override
+    protected boolean isCompatible(EventLoop loop) {
+        return loop instanceof SingleThreadEventLoop;
+    }
+
+    @Override
+    protected SocketAddress localAddress0() {
+        return localAddress;
+    }
+
+    @Override
+    protected void doRegister() throws Exception {
+        ((SingleThreadEventExecutor) eventLoop()).addShutdownHook(shutdownHook);
+        if (state == 1) {
+            scheduleAccept();
+        }
+    }
+
+    @Override
+    protected void doBind(SocketAddress localAddress) throws Exception {
+        if (!(localAddress instanceof SharedMemoryAddress)) {
+            throw new UnsupportedAddressTypeException();
+        }
+        SharedMemoryAddress address = (SharedMemoryAddress) localAddress;
+        File directory = address.directory();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("failed to create directory: " + directory);
+        }
+        synchronized (BOUND_DIRECTORIES) {
+            if (BOUND_DIRECTORIES.contains(directory.getAbsolutePath())) {
+                throw new BindException("address already in use: " + address);
+            }
+            RandomAccessFile lockFile = new RandomAccessFile(new File(directory, LOCK_FILE), "rw");
+            try {
+                FileLock bindLock = lockFile.getChannel().tryLock(BIND_LOCK_POSITION, 1, false);
+                if (bindLock == null) {
+                    throw new BindException("address already in use: " + address);
+                }
+                // Probes only hold their shared lock for a moment, so wait for them.
+                boundLock = lockFile.getChannel().lock(BOUND_LOCK_POSITION, 1, false);
+                this.bindLock = bindLock;
+                this.lockFile = lockFile;
+            } finally {
+                if (this.lockFile == null) {
+                    lockFile.close();
+                }
+            }
+            BOUND_DIRECTORIES.add(directory.getAbsolutePath());
+        }
+        this.localAddress = address;
+
+        // Remove what was left behind by processes which did not close their channels.
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file: files) {
+                if (!LOCK_FILE.equals(file.getName())) {
+                    file.delete();
+                }
+            }
+        }
+        state = 1;
+        scheduleAccept();
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (state <= 1) {
+            // Update all internal state before the closeFuture is notified.
+            state = 2;
+            if (acceptFuture != null) {
+                acceptFuture.cancel(false);
+                acceptFuture = null;
+            }
+            if (lockFile != null) {
+                // Delete the file first, so connecting channels fail right away.
+                File directory = localAddress.directory();
+                synchronized (BOUND_DIRECTORIES) {
+                    new File(directory, LOCK_FILE).delete();
+                    try {
+                        boundLock.release();
+                        bindLock.release();
+                    } finally {
+                        lockFile.close();
+                        BOUND_DIRECTORIES.remove(directory.getAbsolutePath());
+                    }
+                }
+                boundLock = null;
+                bindLock = null;
+                lockFile = null;
+                localAddress = null;
+            }
+        }
+        Object child;
+        while ((child = inboundBuffer.poll()) != null) {
+            ((SharedMemoryChannel) child).unsafe().closeForcibly();
+        }
+    }
+
+    @Override
+    protected void doDeregister() throws Exception {
+        ((SingleThreadEventExecutor) eventLoop()).removeShutdownHook(shutdownHook);
+        if (acceptFuture != null) {
+            acceptFuture.cancel(false);
+            acceptFuture = null;
+        }
+    }
+
+    @Override
+    protected void doBeginRead() throws Exception {
+        if (acceptInProgress) {
+            return;
+        }
+
+        if (inboundBuffer.isEmpty()) {
+            acceptInProgress = true;
+            return;
+        }
+
+        readInbound();
+    }
+
+    private void scheduleAccept() {
+        acceptFuture = eventLoop().schedule(acceptTask, acceptIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void accept() {
+        acceptFuture = null;
+        if (state != 1) {
+            return;
+        }
+        boolean accepted = false;
+        File directory = localAddress.directory();
+        String[] names = directory.list();
+        if (names == null) {
+            names = EmptyArrays.EMPTY_STRINGS;
+        }
+        for (String name: names) {
+            if (!name.endsWith(SharedMemoryChannel.CONNECT_SUFFIX) || !new File(directory, name).delete()) {
+                continue;
+            }
+            accepted |= accept(
+                    name.substring(0, name.length() - SharedMemoryChannel.CONNECT_SUFFIX.length()), null);
+        }
+        // Back off while nobody connects.
+        acceptIntervalMillis = accepted ? MIN_ACCEPT_INTERVAL_MILLIS :
+                Math.min(MAX_ACCEPT_INTERVAL_MILLIS, acceptIntervalMillis << 1);
+        readInboundIfRequested();
+        if (state == 1 && isRegistered()) {
+            scheduleAccept();
+        }
+    }
+
+    /**
+     * Accepts the connection with the given id, whose {@link SharedMemoryChannel} returned the given
+     * {@link SharedMemoryDoorbell} from {@link SharedMemoryChannel#connectDoorbell(SharedMemoryAddress, long)}, and
+     * rings it once accepted. Takes care of closing the {@link SharedMemoryDoorbell}, even if the connection cannot
+     * be accepted. Must be called from the {@link EventLoop}.
+     */
+    @UnstableApi
+    protected final void accept(long id, SharedMemoryDoorbell doorbell) {
+        assert eventLoop().inEventLoop();
+        if (state != 1) {
+            closeDoorbell(doorbell);
+            return;
+        }
+        if (accept(Long.toHexString(id), doorbell)) {
+            try {
+                doorbell.ring();
+            } catch (IOException e) {
+                logger.warn("Failed to ring the doorbell of a connection to {}", localAddress, e);
+            }
+            readInboundIfRequested();
+        }
+    }
+
+    private boolean accept(String id, SharedMemoryDoorbell doorbell) {
+        File directory = localAddress.directory();
+        SharedMemoryRing inbound = null;
+        SharedMemoryRing outbound;
+        try {
+            inbound = SharedMemoryRing.open(new File(directory, id + SharedMemoryChannel.CLIENT_TO_SERVER_SUFFIX));
+            outbound = SharedMemoryRing.open(new File(directory, id + SharedMemoryChannel.SERVER_TO_CLIENT_SUFFIX));
+        } catch (IOException e) {
+            logger.warn("Failed to accept a connection to {}", localAddress, e);
+            if (inbound != null) {
+                inbound.close();
+                inbound.release(true);
+            }
+            closeDoorbell(doorbell);
+            return false;
+        }
+        inbound.accept();
+        outbound.accept();
+        inboundBuffer.add(new SharedMemoryChannel(
+                this, inbound, outbound, doorbell, new SharedMemoryAddress(new File(directory, id))));
+        return true;
+    }
+
+    private void closeDoorbell(SharedMemoryDoorbell doorbell) {
+        if (doorbell != null) {
+            try {
+                doorbell.close();
+            } catch (IOException e) {
+                logger.warn("Failed to close the doorbell of a connection to {}", localAddress, e);
+            }
+        }
+    }
+
+    private void readInboundIfRequested() {
+        if (acceptInProgress && !inboundBuffer.isEmpty()) {
+            acceptInProgress = false;
+            readInbound();
+        }
+    }
+
+    private void readInbound() {
+        RecvByteBufAllocator.Handle handle = unsafe().recvBufAllocHandle();
+        handle.reset(config());
+        ChannelPipeline pipeline = pipeline();
+        do {
+            Object m = inboundBuffer.poll();
+            if (m == null) {
+                break;
+            }
+            pipeline.fireChannelRead(m);
+        } while (handle.continueReading());
+
+        pipeline.fireChannelReadComplete();
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.socket;
+
+import io.netty.channel.Channel;
+import io.netty.channel.FileRegion;
+import io.netty.util.internal.UnstableApi;
+
+/**
+ * A {@link Channel} that can take over the encryption of outbound TLS records from user space, for example by
+ * using kernel TLS (kTLS) on Linux. Once the offload is enabled all bytes written to the {@link Channel} are sent
+ * as TLS application data records, which allows to use zero copy transfers like {@link FileRegion} on TLS
+ * connections.
+ */
+@UnstableApi
+public interface TlsOffloadChannel extends Channel {
+
+    /**
+     * Try to take over the encryption of all bytes that are written from now on. This must be called from the
+     * {@link io.netty.channel.EventLoop} while there are no pending outbound bytes.
+     *
+     * @param protocol          the negotiated protocol, as returned by {@link javax.net.ssl.SSLSession#getProtocol()}.
+     * @param cipherSuite       the negotiated cipher suite, as returned by
+     *                          {@link javax.net.ssl.SSLSession#getCipherSuite()}.
+     * @param key               the write key.
+     * @param iv                the implicit part of the write IV.
+     * @param sequenceNumber    the sequence number of the next record that is written.
+     * @return                  {@code true} if the encryption is done by the {@link Channel} from now on,
+     *                          {@code false} if it is not supported (for example because the kernel module or the
+     *                          cipher is not available) in which case nothing was changed and the caller must
+     *                          continue to encrypt the records itself.
+     */
+    boolean offloadTlsTx(String protocol, String cipherSuite, byte[] key, byte[] iv, long sequenceNumber);
+
+    /**
+     * Returns {@code true} if the encryption of outbound TLS records was taken over by this {@link Channel}.
+     */
+    boolean isTlsTxOffloaded();
+}
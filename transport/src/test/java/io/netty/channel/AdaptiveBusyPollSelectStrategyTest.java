@@ -0,0 +1,80 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.util.IntSupplier;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdaptiveBusyPollSelectStrategyTest {
+    private static final long MAX_SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final IntSupplier SELECT_NOW = new IntSupplier() {
+        @Override
+        public int get() {
+            return 5;
+        }
+    };
+
+    private final AdaptiveBusyPollSelectStrategy strategy = (AdaptiveBusyPollSelectStrategy)
+            new AdaptiveBusyPollSelectStrategyFactory(MAX_SPIN_NANOS, TimeUnit.NANOSECONDS).newSelectStrategy();
+
+    @Test
+    public void testIdleDoesNotSpin() throws Exception {
+        assertEquals(0, strategy.spinBudgetNanos());
+        assertEquals(SelectStrategy.SELECT, strategy.calculateStrategy(SELECT_NOW, false));
+        assertEquals(5, strategy.calculateStrategy(SELECT_NOW, true));
+        strategy.waited(TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals(0, strategy.spinBudgetNanos());
+    }
+
+    @Test
+    public void testGrowsAndShrinks() throws Exception {
+        // Work arrives shortly after the loop went to sleep.
+        strategy.waited(TimeUnit.MICROSECONDS.toNanos(30));
+        long budget = strategy.spinBudgetNanos();
+        assertTrue(budget > 0);
+        assertEquals(SelectStrategy.BUSY_WAIT, strategy.calculateStrategy(SELECT_NOW, false));
+        while (strategy.spinBudgetNanos() < TimeUnit.MICROSECONDS.toNanos(30)) {
+            strategy.waited(TimeUnit.MICROSECONDS.toNanos(30));
+            assertTrue(strategy.spinBudgetNanos() > budget);
+            budget = strategy.spinBudgetNanos();
+        }
+        assertTrue(budget <= MAX_SPIN_NANOS);
+
+        // Work which arrives while spinning keeps the budget.
+        strategy.waited(TimeUnit.MICROSECONDS.toNanos(20));
+        assertEquals(budget, strategy.spinBudgetNanos());
+
+        // Never more than the maximum.
+        for (int i = 0; i < 10; i++) {
+            strategy.waited(MAX_SPIN_NANOS);
+        }
+        assertEquals(MAX_SPIN_NANOS, strategy.spinBudgetNanos());
+
+        // Long waits halve the budget until the loop does not spin anymore.
+        strategy.waited(MAX_SPIN_NANOS + 1);
+        assertEquals(MAX_SPIN_NANOS / 2, strategy.spinBudgetNanos());
+        for (int i = 0; i < 10; i++) {
+            strategy.waited(TimeUnit.SECONDS.toNanos(1));
+        }
+        assertEquals(0, strategy.spinBudgetNanos());
+        assertEquals(SelectStrategy.SELECT, strategy.calculateStrategy(SELECT_NOW, false));
+    }
+}
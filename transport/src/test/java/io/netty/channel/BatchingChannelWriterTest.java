@@ -0,0 +1,188 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchingChannelWriterTest {
+
+    @Test
+    public void testWritesBatch() {
+        FlushCountingHandler flushes = new FlushCountingHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(flushes);
+        BatchingChannelWriter writer = new BatchingChannelWriter(channel);
+        ChannelPromise promise = channel.newPromise();
+        for (int i = 0; i < 10; i++) {
+            writer.write(i);
+        }
+        writer.write(10, promise);
+        // Nothing is written until the EventLoop runs the task.
+        assertNull(channel.readOutbound());
+        assertFalse(promise.isDone());
+
+        channel.runPendingTasks();
+        assertEquals(1, flushes.count.get());
+        assertTrue(promise.isSuccess());
+        for (int i = 0; i <= 10; i++) {
+            assertEquals(Integer.valueOf(i), channel.readOutbound());
+        }
+        assertNull(channel.readOutbound());
+
+        writer.write(11);
+        channel.runPendingTasks();
+        assertEquals(2, flushes.count.get());
+        assertEquals(Integer.valueOf(11), channel.readOutbound());
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    public void testMaxBatchSize() {
+        FlushCountingHandler flushes = new FlushCountingHandler();
+        EmbeddedChannel channel = new EmbeddedChannel(flushes);
+        BatchingChannelWriter writer = new BatchingChannelWriter(channel, 4);
+        for (int i = 0; i < 10; i++) {
+            writer.write(i);
+        }
+        channel.runPendingTasks();
+        assertEquals(3, flushes.count.get());
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Integer.valueOf(i), channel.readOutbound());
+        }
+        assertFalse(channel.finish());
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testRejectedWritesFailed() throws Exception {
+        EventLoopGroup group = new DefaultEventLoopGroup(1);
+        Channel channel = new LocalChannel();
+        group.register(channel).sync();
+        group.shutdownGracefully(0, 0, TimeUnit.MILLISECONDS).sync();
+
+        final BatchingChannelWriter writer = new BatchingChannelWriter(channel);
+        final ChannelPromise first = channel.newPromise();
+        assertThrows(RejectedExecutionException.class, new Executable() {
+            @Override
+            public void execute() {
+                writer.write(1, first);
+            }
+        });
+        assertTrue(first.cause() instanceof RejectedExecutionException);
+
+        // The flag is reset once the queue was drained, so the next write is rejected again instead of being queued.
+        final ChannelPromise second = channel.newPromise();
+        assertThrows(RejectedExecutionException.class, new Executable() {
+            @Override
+            public void execute() {
+                writer.write(2, second);
+            }
+        });
+        assertTrue(second.cause() instanceof RejectedExecutionException);
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testConcurrentWriters() throws Exception {
+        final int threads = 4;
+        final int messagesPerThread = 10000;
+        final CountDownLatch received = new CountDownLatch(threads * messagesPerThread);
+        final int[] lastReceived = new int[threads];
+        final AtomicInteger outOfOrder = new AtomicInteger();
+        LocalAddress address = new LocalAddress("BatchingChannelWriterTest");
+        EventLoopGroup group = new DefaultEventLoopGroup(2);
+        try {
+            Channel server = new ServerBootstrap()
+                    .group(group)
+                    .channel(LocalServerChannel.class)
+                    .childHandler(new ChannelInboundHandlerAdapter() {
+                        @Override
+                        public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                            // Every message is the id of the writing thread and its sequence number.
+                            int[] ids = (int[]) msg;
+                            if (ids[1] != lastReceived[ids[0]]++) {
+                                outOfOrder.incrementAndGet();
+                            }
+                            received.countDown();
+                        }
+                    })
+                    .bind(address).sync().channel();
+            Channel client = new Bootstrap()
+                    .group(group)
+                    .channel(LocalChannel.class)
+                    .handler(new ChannelInboundHandlerAdapter())
+                    .connect(address).sync().channel();
+
+            final BatchingChannelWriter writer = new BatchingChannelWriter(client);
+            Thread[] writers = new Thread[threads];
+            for (int i = 0; i < threads; i++) {
+                final int id = i;
+                writers[i] = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < messagesPerThread; i++) {
+                            writer.write(new int[] { id, i });
+                        }
+                    }
+                });
+                writers[i].start();
+            }
+            for (Thread thread: writers) {
+                thread.join();
+            }
+            assertTrue(received.await(10, TimeUnit.SECONDS));
+            assertEquals(0, outOfOrder.get());
+
+            client.close().sync();
+            server.close().sync();
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    private static final class FlushCountingHandler extends ChannelOutboundHandlerAdapter {
+        final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public boolean isSharable() {
+            return true;
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) {
+            count.incrementAndGet();
+            ctx.flush();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.channel.ChannelHandlerProfiler.Operation;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.util.concurrent.FastThreadLocalThread;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChannelHandlerProfilerTest {
+    private static final long SLEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @AfterEach
+    public void tearDown() {
+        ChannelHandlerProfiler.disable();
+    }
+
+    // The methods of the adapters are skipped, so they must be overridden to be invoked.
+    private static class ForwardingHandler extends ChannelDuplexHandler {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            ctx.fireChannelRead(msg);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            ctx.write(msg, promise);
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) {
+            ctx.flush();
+        }
+    }
+
+    private static final class SlowHandler extends ChannelDuplexHandler {
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(SLEEP_NANOS));
+            ctx.fireChannelRead(msg);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            Thread.sleep(TimeUnit.NANOSECONDS.toMillis(SLEEP_NANOS));
+            ctx.write(msg, promise);
+        }
+    }
+
+    private static ChannelHandlerProfile profile(String name) {
+        ChannelHandlerProfile profile = ChannelHandlerProfiler.snapshotByName().get(name);
+        return profile != null ? profile : new ChannelHandlerProfile(
+                new long[Operation.values().length * ChannelHandlerProfiler.SLOTS_PER_OPERATION]);
+    }
+
+    @Test
+    public void testRecordsOwnTime() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addLast("profiler-outer", new ForwardingHandler());
+        channel.pipeline().addLast("profiler-slow", new SlowHandler());
+
+        ChannelHandlerProfiler.enable();
+        assertTrue(ChannelHandlerProfiler.isEnabled());
+        assertTrue(channel.writeInbound("in"));
+        assertTrue(channel.writeOutbound("out"));
+        assertEquals("in", channel.readInbound());
+        assertEquals("out", channel.readOutbound());
+        assertFalse(channel.finish());
+
+        ChannelHandlerProfile outer = profile("profiler-outer");
+        ChannelHandlerProfile slow = profile("profiler-slow");
+        assertEquals(1, outer.count(Operation.CHANNEL_READ));
+        assertEquals(1, outer.count(Operation.WRITE));
+        assertEquals(1, outer.count(Operation.FLUSH));
+        assertEquals(1, slow.count(Operation.CHANNEL_READ));
+        assertEquals(1, slow.count(Operation.WRITE));
+
+        // The time of the slow handler is not counted for the handler which passed the event to it.
+        assertTrue(slow.totalNanos(Operation.CHANNEL_READ) >= SLEEP_NANOS);
+        assertTrue(slow.totalNanos(Operation.WRITE) >= SLEEP_NANOS);
+        assertTrue(outer.totalNanos(Operation.CHANNEL_READ) < SLEEP_NANOS);
+        assertTrue(outer.totalNanos(Operation.WRITE) < SLEEP_NANOS);
+        assertTrue(slow.percentileNanos(Operation.CHANNEL_READ, 99) >= slow.totalNanos(Operation.CHANNEL_READ));
+        assertTrue(slow.percentileNanos(Operation.CHANNEL_READ, 99) < 2 * slow.totalNanos(Operation.CHANNEL_READ));
+
+        ChannelHandlerProfile byType = ChannelHandlerProfiler.snapshotByType().get(SlowHandler.class);
+        assertNotNull(byType);
+        assertTrue(byType.count(Operation.CHANNEL_READ) >= 1);
+    }
+
+    @Test
+    public void testAggregatesChannels() {
+        ChannelHandlerProfiler.enable();
+        for (int i = 0; i < 3; i++) {
+            EmbeddedChannel channel = new EmbeddedChannel();
+            channel.pipeline().addLast("profiler-shared", new ForwardingHandler());
+            assertTrue(channel.writeInbound(i));
+            assertEquals(Integer.valueOf(i), channel.readInbound());
+            assertFalse(channel.finish());
+        }
+        assertEquals(3, profile("profiler-shared").count(Operation.CHANNEL_READ));
+    }
+
+    @Test
+    public void testDisabled() {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        channel.pipeline().addLast("profiler-disabled", new ForwardingHandler());
+        assertFalse(ChannelHandlerProfiler.isEnabled());
+        assertTrue(channel.writeInbound("in"));
+        assertEquals("in", channel.readInbound());
+        assertNull(ChannelHandlerProfiler.snapshotByName().get("profiler-disabled"));
+
+        ChannelHandlerProfiler.enable();
+        assertTrue(channel.writeInbound("in"));
+        assertEquals("in", channel.readInbound());
+        ChannelHandlerProfiler.disable();
+        assertTrue(channel.writeInbound("in"));
+        assertEquals("in", channel.readInbound());
+        assertFalse(channel.finish());
+        assertEquals(1, profile("profiler-disabled").count(Operation.CHANNEL_READ));
+    }
+
+    @Test
+    public void testRetiresRecorderOfTerminatedThread() throws Exception {
+        ChannelHandlerProfiler.enable();
+        final int recorders = ChannelHandlerProfiler.numRecorders();
+        Thread thread = new FastThreadLocalThread(new Runnable() {
+            @Override
+            public void run() {
+                EmbeddedChannel channel = new EmbeddedChannel();
+                channel.pipeline().addLast("profiler-retired", new ForwardingHandler());
+                assertTrue(channel.writeInbound("in"));
+                assertEquals("in", channel.readInbound());
+                assertFalse(channel.finish());
+                assertEquals(recorders + 1, ChannelHandlerProfiler.numRecorders());
+            }
+        });
+        thread.start();
+        thread.join();
+
+        // The recorder is gone with the thread, but what it recorded is still part of the snapshots.
+        assertEquals(recorders, ChannelHandlerProfiler.numRecorders());
+        assertEquals(1, profile("profiler-retired").count(Operation.CHANNEL_READ));
+        assertTrue(ChannelHandlerProfiler.snapshotByType().get(ForwardingHandler.class)
+                .count(Operation.CHANNEL_READ) >= 1);
+    }
+
+    @Test
+    public void testPercentile() {
+        long[] slots = new long[Operation.values().length * ChannelHandlerProfiler.SLOTS_PER_OPERATION];
+        // 99 values of up to 1023ns and one of up to 1048575ns.
+        slots[10] = 99;
+        slots[20] = 1;
+        ChannelHandlerProfile profile = new ChannelHandlerProfile(slots);
+        assertEquals(100, profile.count(Operation.CHANNEL_READ));
+        assertEquals(0, profile.count(Operation.WRITE));
+        assertEquals(1023, profile.percentileNanos(Operation.CHANNEL_READ, 50));
+        assertEquals(1023, profile.percentileNanos(Operation.CHANNEL_READ, 99));
+        assertEquals(1048575, profile.percentileNanos(Operation.CHANNEL_READ, 99.5));
+        assertEquals(0, profile.percentileNanos(Operation.WRITE, 99));
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.NetUtil;
+import io.netty.util.concurrent.EventExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ChannelMigrationTest {
+
+    private NioEventLoopGroup bossGroup;
+    private NioEventLoopGroup group;
+    private final List<EventLoop> loops = new ArrayList<EventLoop>();
+    private final BlockingQueue<Channel> accepted = new LinkedBlockingQueue<Channel>();
+    private final BlockingQueue<Integer> echoed = new LinkedBlockingQueue<Integer>();
+    private ChannelRebalancer rebalancer;
+    private Channel server;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        bossGroup = new NioEventLoopGroup(1);
+        group = new NioEventLoopGroup(2);
+        for (EventExecutor loop: group) {
+            loops.add((EventLoop) loop);
+        }
+        // Only checked manually by the tests.
+        rebalancer = new ChannelRebalancer(group, 1, TimeUnit.HOURS, 0.5);
+        server = new ServerBootstrap()
+                .group(bossGroup, group)
+                .channel(NioServerSocketChannel.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast(rebalancer.newHandler(), new ChannelInboundHandlerAdapter() {
+                            @Override
+                            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                // Echo every message.
+                                ctx.writeAndFlush(msg);
+                            }
+                        });
+                        accepted.add(ch);
+                    }
+                })
+                .bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        rebalancer.close();
+        if (server != null) {
+            server.close().syncUninterruptibly();
+        }
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        bossGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    private Channel connect() throws Exception {
+        return new Bootstrap()
+                .group(bossGroup)
+                .channel(NioSocketChannel.class)
+                .handler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ByteBuf buf = (ByteBuf) msg;
+                        echoed.add(buf.readableBytes());
+                        buf.release();
+                    }
+                })
+                .connect(server.localAddress()).sync().channel();
+    }
+
+    private void assertEcho(Channel client, int bytes) throws Exception {
+        client.writeAndFlush(Unpooled.wrappedBuffer(new byte[bytes])).sync();
+        int received = 0;
+        while (received < bytes) {
+            Integer read = echoed.poll(10, TimeUnit.SECONDS);
+            assertNotNull(read);
+            received += read;
+        }
+        assertEquals(bytes, received);
+    }
+
+    private EventLoop otherLoop(Channel channel) {
+        return loops.get(0) == channel.eventLoop() ? loops.get(1) : loops.get(0);
+    }
+
+    @Test
+    public void testMigrate() throws Exception {
+        Channel client = connect();
+        try {
+            Channel child = accepted.poll(10, TimeUnit.SECONDS);
+            assertNotNull(child);
+            assertEcho(client, 16);
+
+            EventLoop target = otherLoop(child);
+            ChannelMigration.migrate(child, target).sync();
+            assertSame(target, child.eventLoop());
+            assertTrue(child.isActive());
+            assertTrue(child.isRegistered());
+            assertEcho(client, 16);
+
+            // Migrating to the current EventLoop does nothing.
+            ChannelMigration.migrate(child, target).sync();
+            assertSame(target, child.eventLoop());
+        } finally {
+            client.close().sync();
+        }
+    }
+
+    @Test
+    public void testMigrateWritesPendingMessages() throws Exception {
+        Channel client = connect();
+        try {
+            final Channel child = accepted.poll(10, TimeUnit.SECONDS);
+            assertNotNull(child);
+            final EventLoop target = otherLoop(child);
+            // Write in the same task as the migration, so the message is still in the ChannelOutboundBuffer
+            // when the channel is deregistered.
+            ChannelFuture migrated = child.eventLoop().submit(new Callable<ChannelFuture>() {
+                @Override
+                public ChannelFuture call() {
+                    child.write(Unpooled.wrappedBuffer(new byte[8]));
+                    ChannelFuture future = ChannelMigration.migrate(child, target);
+                    child.flush();
+                    return future;
+                }
+            }).sync().getNow();
+            migrated.sync();
+            assertSame(target, child.eventLoop());
+            assertEquals(Integer.valueOf(8), echoed.poll(10, TimeUnit.SECONDS));
+        } finally {
+            client.close().sync();
+        }
+    }
+
+    @Test
+    public void testMigrateWhileWritingFromOtherThread() throws Exception {
+        Channel client = connect();
+        try {
+            final Channel child = accepted.poll(10, TimeUnit.SECONDS);
+            assertNotNull(child);
+            final List<Integer> written = new ArrayList<Integer>();
+            final List<Thread> threads = new ArrayList<Thread>();
+            final AtomicReference<Throwable> error = new AtomicReference<Throwable>();
+            // Only accessed by the EventLoop which owns the channel, so no synchronization is needed if the writes
+            // never run on both EventLoops at the same time.
+            child.eventLoop().submit(new Runnable() {
+                @Override
+                public void run() {
+                    child.pipeline().addFirst(new ChannelOutboundHandlerAdapter() {
+                        @Override
+                        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) {
+                            if (!ctx.channel().eventLoop().inEventLoop()) {
+                                error.compareAndSet(null, new AssertionError(
+                                        "written by " + Thread.currentThread() + " instead of " + ctx.executor()));
+                            }
+                            Thread thread = Thread.currentThread();
+                            if (threads.isEmpty() || threads.get(threads.size() - 1) != thread) {
+                                threads.add(thread);
+                            }
+                            written.add((Integer) msg);
+                            promise.setSuccess();
+                        }
+                    });
+                }
+            }).sync();
+
+            final int messages = 100000;
+            final AtomicReference<ChannelFuture> lastWrite = new AtomicReference<ChannelFuture>();
+            Thread writer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < messages - 1; i++) {
+                        child.write(i, child.voidPromise());
+                    }
+                    lastWrite.set(child.writeAndFlush(messages - 1));
+                }
+            });
+            writer.start();
+            int migrations = 0;
+            while (writer.isAlive()) {
+                ChannelMigration.migrate(child, otherLoop(child)).sync();
+                migrations++;
+            }
+            writer.join();
+            lastWrite.get().sync();
+
+            assertNull(error.get());
+            assertEquals(messages, written.size());
+            for (int i = 0; i < messages; i++) {
+                assertEquals(i, written.get(i).intValue());
+            }
+            // The writes moved with the channel and never went back and forth between the EventLoops.
+            assertTrue(threads.size() <= migrations + 1);
+        } finally {
+            client.close().sync();
+        }
+    }
+
+    @Test
+    public void testMigrateClosedChannelFails() throws Exception {
+        Channel client = connect();
+        try {
+            Channel child = accepted.poll(10, TimeUnit.SECONDS);
+            assertNotNull(child);
+            child.close().sync();
+            assertFalse(ChannelMigration.migrate(child, otherLoop(child)).await().isSuccess());
+        } finally {
+            client.close().sync();
+        }
+    }
+
+    @Test
+    public void testRebalance() throws Exception {
+        Channel client1 = connect();
+        Channel client2 = connect();
+        try {
+            Channel child1 = accepted.poll(10, TimeUnit.SECONDS);
+            Channel child2 = accepted.poll(10, TimeUnit.SECONDS);
+            assertNotNull(child1);
+            assertNotNull(child2);
+            EventLoop busy = loops.get(0);
+            ChannelMigration.migrate(child1, busy).sync();
+            ChannelMigration.migrate(child2, busy).sync();
+            // Nothing was read since the channels were accepted.
+            assertNull(rebalancer.rebalance());
+
+            assertEcho(client1, 16);
+            assertEcho(client2, 16);
+            Channel moved = rebalancer.rebalance();
+            assertTrue(moved == child1 || moved == child2);
+            // Wait for the migration to complete.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (moved.eventLoop() != loops.get(1) || !moved.isRegistered()) {
+                assertTrue(System.nanoTime() < deadline);
+                Thread.sleep(10);
+            }
+
+            // Both loops read the same now.
+            assertEcho(client1, 16);
+            assertEcho(client2, 16);
+            assertNull(rebalancer.rebalance());
+        } finally {
+            client1.close().sync();
+            client2.close().sync();
+        }
+    }
+}
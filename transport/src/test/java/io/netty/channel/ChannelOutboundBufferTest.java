@@ -20,6 +20,7 @@ import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.embedded.EmbeddedChannel;
 import io.netty.util.CharsetUtil;
 import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.util.concurrent.ImmediateEventExecutor;
 import io.netty.util.concurrent.RejectedExecutionHandlers;
 import io.netty.util.concurrent.SingleThreadEventExecutor;
 import org.junit.jupiter.api.Test;
@@ -27,6 +28,8 @@ import org.junit.jupiter.api.Timeout;
 
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.RejectedExecutionException;
@@ -36,8 +39,10 @@ import static io.netty.buffer.Unpooled.*;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class ChannelOutboundBufferTest {
@@ -155,6 +160,207 @@ public class ChannelOutboundBufferTest {
         buf.release();
     }
 
+    @Test
+    public void testRemoveDeferred() {
+        TestChannel channel = new TestChannel();
+        ChannelOutboundBuffer buffer = new ChannelOutboundBuffer(channel);
+
+        ByteBuf buf = copiedBuffer("buf1", CharsetUtil.US_ASCII);
+        ChannelPromise promise = new DefaultChannelPromise(channel, ImmediateEventExecutor.INSTANCE);
+        buffer.addMessage(buf, buf.readableBytes(), promise);
+        buffer.addFlush();
+        assertTrue(buffer.totalPendingWriteBytes() > 0);
+
+        assertSame(promise, buffer.removeDeferred());
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.totalPendingWriteBytes());
+        // Neither the message is released nor the promise notified, that is up to the caller.
+        assertEquals(1, buf.refCnt());
+        assertFalse(promise.isDone());
+        assertNull(buffer.removeDeferred());
+
+        buf.release();
+    }
+
+    // Fills the ring of an empty buffer and removes its first half again, so the next capacity / 2 messages wrap
+    // around to the start of the array. Each message holds its index as an int, the returned promises are those of
+    // the messages which are still in the buffer, in order. The first half of them is flushed, the second is not.
+    private static List<ChannelPromise> addWrapped(TestChannel channel, ChannelOutboundBuffer buffer) {
+        int capacity = ChannelOutboundBuffer.INITIAL_CAPACITY;
+        List<ChannelPromise> promises = new ArrayList<ChannelPromise>();
+        for (int i = 0; i < capacity; i++) {
+            promises.add(addInt(channel, buffer, i));
+        }
+        buffer.addFlush();
+        for (int i = 0; i < capacity / 2; i++) {
+            assertTrue(buffer.remove());
+            assertTrue(promises.remove(0).isSuccess());
+        }
+        for (int i = capacity; i < capacity + capacity / 2; i++) {
+            promises.add(addInt(channel, buffer, i));
+        }
+        assertEquals(capacity / 2, buffer.size());
+        return promises;
+    }
+
+    private static ChannelPromise addInt(TestChannel channel, ChannelOutboundBuffer buffer, int value) {
+        ChannelPromise promise = new DefaultChannelPromise(channel, ImmediateEventExecutor.INSTANCE);
+        buffer.addMessage(buffer(4).writeInt(value), 4, promise);
+        return promise;
+    }
+
+    private static void assertRemoveInOrder(ChannelOutboundBuffer buffer, List<ChannelPromise> promises, int first) {
+        for (int i = 0; i < promises.size(); i++) {
+            ByteBuf buf = (ByteBuf) buffer.current();
+            assertEquals(first + i, buf.getInt(buf.readerIndex()));
+            assertTrue(buffer.remove());
+            assertEquals(0, buf.refCnt());
+            assertTrue(promises.get(i).isSuccess());
+        }
+        assertNull(buffer.current());
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.totalPendingWriteBytes());
+    }
+
+    @Test
+    public void testWrapAround() {
+        TestChannel channel = new TestChannel();
+        ChannelOutboundBuffer buffer = new ChannelOutboundBuffer(channel);
+        int capacity = ChannelOutboundBuffer.INITIAL_CAPACITY;
+        List<ChannelPromise> promises = addWrapped(channel, buffer);
+
+        // Only the flushed messages can be removed.
+        for (int i = 0; i < capacity / 2; i++) {
+            ByteBuf buf = (ByteBuf) buffer.current();
+            assertEquals(capacity / 2 + i, buf.getInt(buf.readerIndex()));
+            assertTrue(buffer.remove());
+        }
+        assertNull(buffer.current());
+        assertFalse(buffer.remove());
+        assertEquals(0, buffer.size());
+
+        buffer.addFlush();
+        assertRemoveInOrder(buffer, promises.subList(capacity / 2, promises.size()), capacity);
+    }
+
+    @Test
+    public void testGrowWhileWrapped() {
+        TestChannel channel = new TestChannel();
+        ChannelOutboundBuffer buffer = new ChannelOutboundBuffer(channel);
+        int capacity = ChannelOutboundBuffer.INITIAL_CAPACITY;
+        List<ChannelPromise> promises = addWrapped(channel, buffer);
+
+        // The ring is full, so these grow it while its head is in the middle of the array.
+        for (int i = capacity + capacity / 2; i < 3 * capacity; i++) {
+            promises.add(addInt(channel, buffer, i));
+        }
+        buffer.addFlush();
+        assertEquals(2 * capacity + capacity / 2, buffer.size());
+        assertRemoveInOrder(buffer, promises, capacity / 2);
+    }
+
+    @Test
+    public void testRemoveBytesAcrossWrap() {
+        TestChannel channel = new TestChannel();
+        ChannelOutboundBuffer buffer = new ChannelOutboundBuffer(channel);
+        int capacity = ChannelOutboundBuffer.INITIAL_CAPACITY;
+        List<ChannelPromise> promises = addWrapped(channel, buffer);
+        buffer.addFlush();
+
+        // Move the head close to the end of the array, so the bytes removed next span the wrap.
+        for (int i = 0; i < capacity / 2 - 2; i++) {
+            assertTrue(buffer.remove());
+        }
+        buffer.removeBytes(4 * 4 + 2);
+        for (int i = 0; i < capacity / 2 + 2; i++) {
+            assertTrue(promises.get(i).isSuccess());
+        }
+        assertFalse(promises.get(capacity / 2 + 2).isDone());
+        ByteBuf buf = (ByteBuf) buffer.current();
+        assertEquals(2, buf.readerIndex());
+        assertEquals(capacity + 2, buf.getInt(0));
+
+        buffer.removeBytes(2);
+        assertRemoveInOrder(buffer, promises.subList(capacity / 2 + 3, promises.size()), capacity + 3);
+    }
+
+    @Test
+    public void testNioBuffersWrapped() {
+        TestChannel channel = new TestChannel();
+        ChannelOutboundBuffer buffer = new ChannelOutboundBuffer(channel);
+        int capacity = ChannelOutboundBuffer.INITIAL_CAPACITY;
+        List<ChannelPromise> promises = addWrapped(channel, buffer);
+        buffer.addFlush();
+
+        ByteBuffer[] buffers = buffer.nioBuffers();
+        assertEquals(capacity, buffer.nioBufferCount());
+        assertEquals(4L * capacity, buffer.nioBufferSize());
+        for (int i = 0; i < capacity; i++) {
+            assertEquals(capacity / 2 + i, buffers[i].getInt(buffers[i].position()));
+        }
+
+        // Limited to the messages before the wrap.
+        buffers = buffer.nioBuffers(capacity / 2, Integer.MAX_VALUE);
+        assertEquals(capacity / 2, buffer.nioBufferCount());
+        assertEquals(capacity - 1, buffers[capacity / 2 - 1].getInt(buffers[capacity / 2 - 1].position()));
+
+        buffer.removeBytes(4L * capacity);
+        for (ChannelPromise promise: promises) {
+            assertTrue(promise.isSuccess());
+        }
+        assertTrue(buffer.isEmpty());
+    }
+
+    @Test
+    public void testCancelAndFailAfterWrap() {
+        TestChannel channel = new TestChannel();
+        ChannelOutboundBuffer buffer = new ChannelOutboundBuffer(channel);
+        int capacity = ChannelOutboundBuffer.INITIAL_CAPACITY;
+        List<ChannelPromise> promises = addWrapped(channel, buffer);
+        List<ByteBuf> bufs = new ArrayList<ByteBuf>();
+
+        // The flushed messages can not be cancelled anymore, the wrapped around unflushed ones can.
+        assertFalse(promises.get(0).cancel(false));
+        ChannelPromise cancelled = promises.get(capacity / 2);
+        ChannelPromise cancelledLast = promises.get(capacity - 1);
+        assertTrue(cancelled.cancel(false));
+        assertTrue(cancelledLast.cancel(false));
+        buffer.addFlush();
+        assertEquals(capacity, buffer.size());
+
+        Exception cause = new Exception();
+        int failed = 0;
+        for (;;) {
+            Object msg = buffer.current();
+            if (msg == null) {
+                break;
+            }
+            bufs.add((ByteBuf) msg);
+            assertTrue(buffer.remove(cause));
+        }
+        assertTrue(buffer.isEmpty());
+        assertEquals(0, buffer.totalPendingWriteBytes());
+        int released = 0;
+        for (ByteBuf buf: bufs) {
+            // The messages of the cancelled entries were released and replaced once they were flushed.
+            if (buf == EMPTY_BUFFER) {
+                released++;
+            } else {
+                assertEquals(0, buf.refCnt());
+            }
+        }
+        assertEquals(2, released);
+        for (ChannelPromise promise: promises) {
+            if (promise == cancelled || promise == cancelledLast) {
+                assertTrue(promise.isCancelled());
+            } else {
+                assertSame(cause, promise.cause());
+                failed++;
+            }
+        }
+        assertEquals(capacity - 2, failed);
+    }
+
     private static void release(ChannelOutboundBuffer buffer) {
         for (;;) {
             if (!buffer.remove()) {
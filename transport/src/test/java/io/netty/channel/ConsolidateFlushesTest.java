@@ -0,0 +1,206 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.util.ReferenceCountUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConsolidateFlushesTest {
+
+    private DefaultEventLoopGroup group;
+    private Channel server;
+    private Channel client;
+    private final BlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        group = new DefaultEventLoopGroup(1);
+        server = new ServerBootstrap()
+                .group(group)
+                .channel(LocalServerChannel.class)
+                .childHandler(new ChannelInitializer<Channel>() {
+                    @Override
+                    protected void initChannel(Channel ch) {
+                        ch.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                            @Override
+                            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                                received.add(((ByteBuf) msg).readByte());
+                                ReferenceCountUtil.release(msg);
+                            }
+                        });
+                    }
+                })
+                .bind(LocalAddress.ANY).sync().channel();
+        client = new Bootstrap()
+                .group(group)
+                .channel(LocalChannel.class)
+                .handler(new ChannelInboundHandlerAdapter())
+                .connect(server.localAddress()).sync().channel();
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        client.close().sync();
+        server.close().sync();
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        assertFalse(((SingleThreadEventLoop) client.eventLoop()).isConsolidateFlushes());
+        assertTrue(writeAndFlushInEventLoop(1).isDone());
+        assertEquals((byte) 1, received.take());
+    }
+
+    @Test
+    public void testFlushDeferredToEndOfIteration() throws Exception {
+        group.setConsolidateFlushes(true);
+        final ChannelFuture[] futures = client.eventLoop().submit(new Callable<ChannelFuture[]>() {
+            @Override
+            public ChannelFuture[] call() {
+                ChannelFuture[] futures = new ChannelFuture[3];
+                for (int i = 0; i < futures.length; i++) {
+                    futures[i] = client.writeAndFlush(Unpooled.wrappedBuffer(new byte[] { (byte) i }));
+                    // Only marked as flushed, nothing was written yet.
+                    assertFalse(futures[i].isDone());
+                }
+                assertEquals(3, client.unsafe().outboundBuffer().size());
+                return futures;
+            }
+        }).sync().getNow();
+        for (int i = 0; i < futures.length; i++) {
+            assertTrue(futures[i].sync().isSuccess());
+            assertEquals((byte) i, received.take());
+        }
+    }
+
+    @Test
+    public void testOnlyFlushedMessagesAreWritten() throws Exception {
+        group.setConsolidateFlushes(true);
+        final ChannelFuture[] futures = client.eventLoop().submit(new Callable<ChannelFuture[]>() {
+            @Override
+            public ChannelFuture[] call() {
+                return new ChannelFuture[] {
+                        client.writeAndFlush(Unpooled.wrappedBuffer(new byte[] { 1 })),
+                        client.write(Unpooled.wrappedBuffer(new byte[] { 2 }))
+                };
+            }
+        }).sync().getNow();
+        assertTrue(futures[0].sync().isSuccess());
+        assertEquals((byte) 1, received.take());
+        assertFalse(futures[1].isDone());
+
+        client.flush();
+        assertTrue(futures[1].sync().isSuccess());
+        assertEquals((byte) 2, received.take());
+    }
+
+    @Test
+    public void testChannelOptOut() throws Exception {
+        group.setConsolidateFlushes(true);
+        assertTrue(client.config().setOption(ChannelOption.CONSOLIDATE_FLUSHES, false));
+        assertFalse(client.config().getOption(ChannelOption.CONSOLIDATE_FLUSHES));
+        assertTrue(writeAndFlushInEventLoop(1).isDone());
+        assertEquals((byte) 1, received.take());
+    }
+
+    @Test
+    public void testConfigSetter() throws Exception {
+        group.setConsolidateFlushes(true);
+        DefaultChannelConfig config = (DefaultChannelConfig) client.config();
+        assertTrue(config.isConsolidateFlushes());
+        config.setConsolidateFlushes(false);
+        assertFalse(config.getOption(ChannelOption.CONSOLIDATE_FLUSHES));
+        assertTrue(writeAndFlushInEventLoop(1).isDone());
+        assertEquals((byte) 1, received.take());
+    }
+
+    @Test
+    public void testFailingFlushDoesNotStopOtherFlushes() throws Exception {
+        group.setConsolidateFlushes(true);
+        final AtomicBoolean fail = new AtomicBoolean();
+        final Channel failing = new Bootstrap()
+                .group(group)
+                .channelFactory(new ChannelFactory<LocalChannel>() {
+                    @Override
+                    public LocalChannel newChannel() {
+                        return new LocalChannel() {
+                            @Override
+                            public EventLoop eventLoop() {
+                                if (fail.get()) {
+                                    throw new IllegalStateException();
+                                }
+                                return super.eventLoop();
+                            }
+                        };
+                    }
+                })
+                .handler(new ChannelInboundHandlerAdapter())
+                .connect(server.localAddress()).sync().channel();
+        try {
+            final ChannelFuture[] futures = client.eventLoop().submit(new Callable<ChannelFuture[]>() {
+                @Override
+                public ChannelFuture[] call() {
+                    ChannelFuture failed = failing.writeAndFlush(Unpooled.wrappedBuffer(new byte[] { 1 }));
+                    ChannelFuture flushed = client.writeAndFlush(Unpooled.wrappedBuffer(new byte[] { 2 }));
+                    // The deferred flush of the first channel throws at the end of this iteration.
+                    fail.set(true);
+                    return new ChannelFuture[] { failed, flushed };
+                }
+            }).sync().getNow();
+            assertTrue(futures[1].sync().isSuccess());
+            assertEquals((byte) 2, received.take());
+            assertFalse(futures[0].isDone());
+
+            // The failing channel is flushed again by its next flush.
+            fail.set(false);
+            failing.flush();
+            assertTrue(futures[0].sync().isSuccess());
+            assertEquals((byte) 1, received.take());
+        } finally {
+            fail.set(false);
+            failing.close().sync();
+        }
+    }
+
+    private ChannelFuture writeAndFlushInEventLoop(final int value) throws Exception {
+        return client.eventLoop().submit(new Callable<ChannelFuture>() {
+            @Override
+            public ChannelFuture call() {
+                return client.writeAndFlush(Unpooled.wrappedBuffer(new byte[] { (byte) value }));
+            }
+        }).sync().getNow();
+    }
+}
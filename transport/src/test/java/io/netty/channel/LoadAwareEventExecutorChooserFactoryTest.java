@@ -0,0 +1,140 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.channel.local.LocalChannel;
+import io.netty.util.concurrent.EventExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LoadAwareEventExecutorChooserFactoryTest {
+    private static final Runnable NOOP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private DefaultEventLoopGroup group;
+    private final CountDownLatch unblock = new CountDownLatch(1);
+
+    @BeforeEach
+    public void setUp() {
+        group = new DefaultEventLoopGroup(4, null, LoadAwareEventExecutorChooserFactory.INSTANCE);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        unblock.countDown();
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+    }
+
+    @Test
+    public void testNeverChoosesTheBusiestLoop() throws Exception {
+        List<EventExecutor> loops = new ArrayList<EventExecutor>();
+        for (EventExecutor loop: group) {
+            loops.add(loop);
+        }
+        // The first loop gets the most pending tasks and the last one none at all.
+        for (int i = 0; i < loops.size(); i++) {
+            block(loops.get(i));
+            for (int j = 0; j < (loops.size() - i) * 10; j++) {
+                loops.get(i).execute(NOOP);
+            }
+        }
+        for (int i = 1; i < loops.size(); i++) {
+            assertTrue(LoadAwareEventExecutorChooserFactory.load(loops.get(i - 1)) >
+                    LoadAwareEventExecutorChooserFactory.load(loops.get(i)));
+        }
+        int[] chosen = new int[loops.size()];
+        for (int i = 0; i < 1000; i++) {
+            chosen[loops.indexOf(group.next())]++;
+        }
+        assertEquals(0, chosen[0]);
+        assertTrue(chosen[loops.size() - 1] > chosen[1]);
+    }
+
+    @Test
+    public void testRegisterOnChosenLoop() throws Exception {
+        EventExecutor busy = group.next();
+        block(busy);
+        for (int i = 0; i < 100; i++) {
+            busy.execute(NOOP);
+        }
+        for (int i = 0; i < 100; i++) {
+            Channel channel = new LocalChannel();
+            group.register(channel).sync();
+            assertNotSame(busy, channel.eventLoop());
+            channel.close().sync();
+        }
+    }
+
+    @Test
+    public void testSingleLoop() {
+        DefaultEventLoopGroup single = new DefaultEventLoopGroup(
+                1, null, LoadAwareEventExecutorChooserFactory.INSTANCE);
+        try {
+            assertSame(single.next(), single.next());
+        } finally {
+            single.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    @Test
+    public void testIterationsOnlyTimedWhenUsed() throws Exception {
+        SingleThreadEventLoop tracked = (SingleThreadEventLoop) group.next();
+        block(tracked);
+        Thread.sleep(10);
+        assertTrue(tracked.iterationLatencyNanos() >= TimeUnit.MILLISECONDS.toNanos(10));
+
+        DefaultEventLoopGroup untrackedGroup = new DefaultEventLoopGroup(1);
+        try {
+            SingleThreadEventLoop untracked = (SingleThreadEventLoop) untrackedGroup.next();
+            block(untracked);
+            Thread.sleep(10);
+            assertEquals(0, untracked.iterationLatencyNanos());
+        } finally {
+            unblock.countDown();
+            untrackedGroup.shutdownGracefully(0, 0, TimeUnit.SECONDS).syncUninterruptibly();
+        }
+    }
+
+    private void block(EventExecutor loop) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        loop.execute(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.util.NetUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.net.InetSocketAddress;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SharedRecvByteBufAllocatorTest {
+
+    private NioEventLoopGroup group;
+
+    @BeforeEach
+    public void setUp() {
+        group = new NioEventLoopGroup(1);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        group.shutdownGracefully(0, 0, TimeUnit.SECONDS).sync();
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testReceivedBytesAreCopiedIntoRightSizedBuffers() throws Exception {
+        final BlockingQueue<ByteBuf> received = new LinkedBlockingQueue<ByteBuf>();
+        Channel server = bindServer(new SharedRecvByteBufAllocator(), received);
+        Channel client = connect(server);
+        try {
+            byte[] expected = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+            client.writeAndFlush(Unpooled.wrappedBuffer(expected)).sync();
+
+            ByteBuf buf = readFully(received, expected.length);
+            try {
+                assertEquals(expected.length, buf.capacity());
+                byte[] actual = new byte[expected.length];
+                buf.readBytes(actual);
+                assertArrayEquals(expected, actual);
+            } finally {
+                buf.release();
+            }
+        } finally {
+            client.close().sync();
+            server.close().sync();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testBusyChannelFallsBackToPerChannelAllocator() throws Exception {
+        final BlockingQueue<ByteBuf> received = new LinkedBlockingQueue<ByteBuf>();
+        Channel server = bindServer(
+                new SharedRecvByteBufAllocator(new FixedRecvByteBufAllocator(4096), 1024), received);
+        Channel client = connect(server);
+        try {
+            byte[] expected = new byte[256 * 1024];
+            new Random(42).nextBytes(expected);
+            client.writeAndFlush(Unpooled.wrappedBuffer(expected)).sync();
+
+            byte[] actual = new byte[expected.length];
+            int offset = 0;
+            boolean fallback = false;
+            while (offset < actual.length) {
+                ByteBuf buf = received.poll(5, TimeUnit.SECONDS);
+                try {
+                    // Only copies of the shared buffer, which are right-sized, or buffers of the fallback are seen.
+                    assertTrue(buf.capacity() <= 1024 || buf.capacity() == 4096);
+                    fallback |= buf.capacity() == 4096;
+                    int length = buf.readableBytes();
+                    buf.readBytes(actual, offset, length);
+                    offset += length;
+                } finally {
+                    buf.release();
+                }
+            }
+            assertArrayEquals(expected, actual);
+            assertTrue(fallback);
+        } finally {
+            client.close().sync();
+            server.close().sync();
+        }
+    }
+
+    private Channel bindServer(RecvByteBufAllocator allocator, final BlockingQueue<ByteBuf> received)
+            throws Exception {
+        return new ServerBootstrap()
+                .group(group)
+                .channel(NioServerSocketChannel.class)
+                .childOption(ChannelOption.RCVBUF_ALLOCATOR, allocator)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        received.add((ByteBuf) msg);
+                    }
+                })
+                .bind(new InetSocketAddress(NetUtil.LOCALHOST, 0)).sync().channel();
+    }
+
+    private Channel connect(Channel server) throws Exception {
+        final CountDownLatch latch = new CountDownLatch(1);
+        Channel client = new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .handler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) {
+                        latch.countDown();
+                    }
+                })
+                .connect(server.localAddress()).sync().channel();
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return client;
+    }
+
+    private static ByteBuf readFully(BlockingQueue<ByteBuf> received, int length) throws Exception {
+        ByteBuf buf = received.poll(5, TimeUnit.SECONDS);
+        assertEquals(length, buf.readableBytes());
+        return buf;
+    }
+}
@@ -20,6 +20,7 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.AbstractChannel;
+import io.netty.channel.AdaptiveRecvByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
@@ -31,6 +32,8 @@ import io.netty.channel.ChannelPromise;
 import io.netty.channel.DefaultEventLoopGroup;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.MaxMessagesRecvByteBufAllocator;
+import io.netty.channel.RecvByteBufAllocator;
 import io.netty.channel.SimpleChannelInboundHandler;
 import io.netty.channel.SingleThreadEventLoop;
 import io.netty.util.ReferenceCountUtil;
@@ -46,9 +49,11 @@ import org.junit.jupiter.api.function.Executable;
 
 import java.net.ConnectException;
 import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static java.util.concurrent.TimeUnit.SECONDS;
@@ -58,6 +63,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
@@ -1165,6 +1171,166 @@ public class LocalChannelTest {
         }
     }
 
+    @Test
+    public void testOneMessagePerReadByDefault() throws Exception {
+        RecvByteBufAllocator allocator = new LocalChannel().config().getRecvByteBufAllocator();
+        assertEquals(1, ((MaxMessagesRecvByteBufAllocator) allocator).maxMessagesPerRead());
+        assertEquals(100, readCompletesOfPiledUpFlushes(100, null));
+    }
+
+    @Test
+    @Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+    public void testFlushesReadInBatchesDifferentGroup() throws Exception {
+        RecvByteBufAllocator allocator = new AdaptiveRecvByteBufAllocator().maxMessagesPerRead(16);
+        assertThat(readCompletesOfPiledUpFlushes(100, allocator) < 100, is(true));
+    }
+
+    @Test
+    @Timeout(value = 5000, unit = TimeUnit.MILLISECONDS)
+    public void testReadRespectsHandle() throws Exception {
+        // The handle stops after each message, even though more could be read.
+        final RecvByteBufAllocator allocator = new AdaptiveRecvByteBufAllocator().maxMessagesPerRead(16);
+        assertEquals(100, readCompletesOfPiledUpFlushes(100, new RecvByteBufAllocator() {
+            @Override
+            public Handle newHandle() {
+                return new DelegatingHandle(allocator.newHandle()) {
+                    @Override
+                    public boolean continueReading() {
+                        return false;
+                    }
+                };
+            }
+        }));
+    }
+
+    // Returns the number of channelReadComplete() events of the server side for the messages the client flushed
+    // one by one while the server was busy.
+    private static int readCompletesOfPiledUpFlushes(final int messages, RecvByteBufAllocator allocator)
+            throws Exception {
+        final CountDownLatch activeLatch = new CountDownLatch(1);
+        final CountDownLatch readLatch = new CountDownLatch(messages);
+        final AtomicReference<Channel> childRef = new AtomicReference<Channel>();
+        final AtomicInteger readCompletes = new AtomicInteger();
+        Bootstrap cb = new Bootstrap();
+        ServerBootstrap sb = new ServerBootstrap();
+
+        cb.group(group1)
+                .channel(LocalChannel.class)
+                .handler(new TestHandler());
+        if (allocator != null) {
+            sb.childOption(ChannelOption.RCVBUF_ALLOCATOR, allocator);
+        }
+        sb.group(group2)
+                .channel(LocalServerChannel.class)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelActive(ChannelHandlerContext ctx) {
+                        childRef.set(ctx.channel());
+                        activeLatch.countDown();
+                        ctx.fireChannelActive();
+                    }
+
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        readLatch.countDown();
+                    }
+
+                    @Override
+                    public void channelReadComplete(ChannelHandlerContext ctx) {
+                        readCompletes.incrementAndGet();
+                    }
+                });
+
+        Channel sc = null;
+        Channel cc = null;
+        try {
+            sc = sb.bind(TEST_ADDRESS).sync().channel();
+            cc = cb.connect(TEST_ADDRESS).sync().channel();
+            assertTrue(activeLatch.await(5, SECONDS));
+
+            // Keep the reader busy while the messages are flushed one by one, so they pile up in its inbound buffer.
+            final CountDownLatch blockLatch = new CountDownLatch(1);
+            childRef.get().eventLoop().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        blockLatch.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            for (int i = 0; i < messages; i++) {
+                cc.writeAndFlush(i).sync();
+            }
+            blockLatch.countDown();
+
+            assertTrue(readLatch.await(5, SECONDS));
+            // Taken on the event loop, so the channelReadComplete() of the last read was fired already.
+            return childRef.get().eventLoop().submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return readCompletes.get();
+                }
+            }).sync().getNow();
+        } finally {
+            closeChannel(cc);
+            closeChannel(sc);
+        }
+    }
+
+    @Test
+    public void testWrittenBufferTransferredToPeerSameGroup() throws Exception {
+        testWrittenBufferTransferredToPeer(sharedGroup, sharedGroup);
+    }
+
+    @Test
+    public void testWrittenBufferTransferredToPeerDifferentGroup() throws Exception {
+        testWrittenBufferTransferredToPeer(group1, group2);
+    }
+
+    private static void testWrittenBufferTransferredToPeer(
+            EventLoopGroup serverGroup, EventLoopGroup clientGroup) throws Exception {
+        final ByteBuf buffer = Unpooled.buffer().writeInt(42);
+        final AtomicReference<Object> received = new AtomicReference<Object>();
+        final AtomicInteger receivedRefCnt = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(1);
+        Bootstrap cb = new Bootstrap();
+        ServerBootstrap sb = new ServerBootstrap();
+
+        cb.group(clientGroup)
+                .channel(LocalChannel.class)
+                .handler(new TestHandler());
+        sb.group(serverGroup)
+                .channel(LocalServerChannel.class)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        received.set(msg);
+                        receivedRefCnt.set(ReferenceCountUtil.refCnt(msg));
+                        ReferenceCountUtil.release(msg);
+                        latch.countDown();
+                    }
+                });
+
+        Channel sc = null;
+        Channel cc = null;
+        try {
+            sc = sb.bind(TEST_ADDRESS).sync().channel();
+            cc = cb.connect(TEST_ADDRESS).sync().channel();
+
+            cc.writeAndFlush(buffer).sync();
+            assertTrue(latch.await(5, SECONDS));
+            // The peer receives the written buffer itself, which was neither retained nor released on the way.
+            assertSame(buffer, received.get());
+            assertEquals(1, receivedRefCnt.get());
+            assertEquals(0, buffer.refCnt());
+        } finally {
+            closeChannel(cc);
+            closeChannel(sc);
+        }
+    }
+
     private static final class ChannelReadHandler extends ChannelInboundHandlerAdapter {
 
         private final CountDownLatch latch;
@@ -16,10 +16,14 @@
 package io.netty.channel.nio;
 
 import io.netty.channel.AbstractEventLoopTest;
+import io.netty.channel.AdaptiveBusyPollSelectStrategyFactory;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.DefaultSelectStrategyFactory;
 import io.netty.channel.EventLoop;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.EventLoopMetric;
 import io.netty.channel.EventLoopTaskQueueFactory;
 import io.netty.channel.SelectStrategy;
 import io.netty.channel.SelectStrategyFactory;
@@ -345,4 +349,120 @@ public class NioEventLoopTest extends AbstractEventLoopTest {
         }
     }
 
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testMetric() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(1);
+        final NioEventLoop loop = (NioEventLoop) group.next();
+        try {
+            EventLoopMetric metric = loop.metric();
+            // Let the loop start and go to sleep.
+            loop.submit(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }).sync();
+            Thread.sleep(100);
+            long iterations = metric.iterations();
+            long taskNanos = metric.taskNanos();
+            long wakeups = metric.wakeups();
+
+            loop.submit(new Runnable() {
+                @Override
+                public void run() {
+                    // Busy for a bit so the time shows up.
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(10);
+                    while (System.nanoTime() < deadline) {
+                        Thread.yield();
+                    }
+                }
+            }).sync();
+            loop.schedule(new Runnable() {
+                @Override
+                public void run() {
+                }
+            }, 1, TimeUnit.HOURS);
+
+            Channel channel = new NioServerSocketChannel();
+            channel.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                    ((Channel) msg).unsafe().closeForcibly();
+                }
+            });
+            loop.register(channel).sync();
+            channel.bind(new InetSocketAddress(0)).sync();
+            SocketChannel socket = SocketChannel.open();
+            try {
+                socket.connect(channel.localAddress());
+                while (metric.selectedKeys() == 0 || metric.scheduledTasks() == 0) {
+                    Thread.sleep(10);
+                }
+            } finally {
+                socket.close();
+                channel.close().sync();
+            }
+
+            assertTrue(metric.iterations() > iterations);
+            assertTrue(metric.taskNanos() - taskNanos >= TimeUnit.MILLISECONDS.toNanos(10));
+            assertTrue(metric.wakeups() > wakeups);
+            assertTrue(metric.ioNanos() > 0);
+            assertTrue(metric.lastIterationNanos() > 0);
+            assertTrue(metric.iterationNanos() >= metric.ioNanos() + metric.taskNanos());
+            assertEquals(1, metric.scheduledTasks());
+            assertEquals(0, metric.pendingTasks());
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
+
+    @Test
+    @Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+    public void testAdaptiveBusyPoll() throws Exception {
+        NioEventLoopGroup group = new NioEventLoopGroup(1, new DefaultThreadFactory("ioPool"),
+                SelectorProvider.provider(), new AdaptiveBusyPollSelectStrategyFactory(1, TimeUnit.MILLISECONDS));
+        final NioEventLoop loop = (NioEventLoop) group.next();
+        try {
+            EventLoopMetric metric = loop.metric();
+            Runnable noop = new Runnable() {
+                @Override
+                public void run() {
+                }
+            };
+            loop.submit(noop).sync();
+            Thread.sleep(100);
+            // The wait is reported once the loop was woken up again.
+            loop.submit(noop).sync();
+            assertTrue(metric.blockNanos() > 0);
+
+            // Tasks arrive faster than the maximum spin, so the loop starts to poll before it blocks.
+            for (int i = 0; i < 10000; i++) {
+                loop.submit(noop).sync();
+            }
+            assertTrue(metric.spinNanos() > 0);
+
+            // The loop is still working, so I/O is served.
+            Channel channel = new NioServerSocketChannel();
+            channel.pipeline().addLast(new ChannelInboundHandlerAdapter() {
+                @Override
+                public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                    ((Channel) msg).unsafe().closeForcibly();
+                }
+            });
+            loop.register(channel).sync();
+            channel.bind(new InetSocketAddress(0)).sync();
+            SocketChannel socket = SocketChannel.open();
+            try {
+                socket.connect(channel.localAddress());
+                while (metric.selectedKeys() == 0) {
+                    Thread.sleep(10);
+                }
+            } finally {
+                socket.close();
+                channel.close().sync();
+            }
+        } finally {
+            group.shutdownGracefully();
+        }
+    }
 }
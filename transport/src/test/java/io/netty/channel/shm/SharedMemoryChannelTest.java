@@ -0,0 +1,291 @@
+/*
+ * Copyright 2022 The Netty Project
+ *
+ * The Netty Project licenses this file to you under the Apache License,
+ * version 2.0 (the "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at:
+ *
+ *   https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations
+ * under the License.
+ */
+package io.netty.channel.shm;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.DefaultEventLoopGroup;
+import io.netty.channel.EventLoopGroup;
+import io.netty.util.CharsetUtil;
+import io.netty.util.internal.PlatformDependent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.File;
+import java.net.BindException;
+import java.net.ConnectException;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Timeout(value = 10000, unit = TimeUnit.MILLISECONDS)
+public class SharedMemoryChannelTest {
+
+    private EventLoopGroup group;
+    private SharedMemoryAddress address;
+
+    @BeforeEach
+    public void setUp() {
+        group = new DefaultEventLoopGroup(2);
+        address = new SharedMemoryAddress(new File(PlatformDependent.tmpdir(),
+                "netty-shm-test-" + Long.toHexString(PlatformDependent.threadLocalRandom().nextLong())));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        group.shutdownGracefully().syncUninterruptibly();
+        File[] files = address.directory().listFiles();
+        if (files != null) {
+            for (File file: files) {
+                file.delete();
+            }
+        }
+        address.directory().delete();
+    }
+
+    @Test
+    public void testEcho() throws Exception {
+        Channel server = bindEchoServer();
+        final ByteBuf received = Unpooled.buffer();
+        final byte[] data = new byte[1024 * 1024];
+        new Random().nextBytes(data);
+        final CountDownLatch done = new CountDownLatch(1);
+        // A ring smaller than the data, so writes have to wait for the peer to read.
+        Channel client = new Bootstrap()
+                .group(group)
+                .channel(SharedMemoryChannel.class)
+                .option(SharedMemoryChannelOption.RING_CAPACITY, 64 * 1024)
+                .handler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ByteBuf buf = (ByteBuf) msg;
+                        received.writeBytes(buf);
+                        buf.release();
+                        if (received.readableBytes() == data.length) {
+                            done.countDown();
+                        }
+                    }
+                })
+                .connect(address).sync().channel();
+        try {
+            assertTrue(client.isActive());
+            assertEquals(address, client.remoteAddress());
+            for (int i = 0; i < data.length; i += 4096) {
+                client.write(Unpooled.wrappedBuffer(data, i, 4096));
+            }
+            client.flush();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            byte[] echoed = new byte[data.length];
+            received.readBytes(echoed);
+            assertArrayEquals(data, echoed);
+        } finally {
+            received.release();
+            client.close().sync();
+            server.close().sync();
+        }
+    }
+
+    @Test
+    public void testClaimOutbound() throws Exception {
+        Channel server = bindEchoServer();
+        final ByteBuf received = Unpooled.buffer();
+        final CountDownLatch done = new CountDownLatch(1);
+        final SharedMemoryChannel client = (SharedMemoryChannel) new Bootstrap()
+                .group(group)
+                .channel(SharedMemoryChannel.class)
+                .handler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ByteBuf buf = (ByteBuf) msg;
+                        received.writeBytes(buf);
+                        buf.release();
+                        if (received.readableBytes() == 9) {
+                            done.countDown();
+                        }
+                    }
+                })
+                .connect(address).sync().channel();
+        try {
+            // Only from the EventLoop.
+            assertNull(client.claimOutbound(1));
+            client.eventLoop().submit(new Runnable() {
+                @Override
+                public void run() {
+                    ByteBuf claimed = client.claimOutbound(16);
+                    assertNotNull(claimed);
+                    assertTrue(claimed.capacity() >= 16);
+                    assertEquals(0, claimed.writerIndex());
+                    // Only one claim at a time, and never more than the ring can hold.
+                    assertNull(client.claimOutbound(1));
+                    claimed.release();
+                    assertNull(client.claimOutbound(SharedMemoryRing.MAX_CAPACITY));
+
+                    ByteBuf first = client.claimOutbound(16);
+                    first.writeCharSequence("abc", CharsetUtil.US_ASCII);
+                    assertTrue(((SharedMemoryRingByteBuf) first).isInRing());
+                    client.writeAndFlush(first);
+
+                    // Writing another message first moves the claimed bytes out of the ring.
+                    ByteBuf second = client.claimOutbound(16);
+                    second.writeCharSequence("ghi", CharsetUtil.US_ASCII);
+                    client.write(Unpooled.copiedBuffer("def", CharsetUtil.US_ASCII));
+                    assertFalse(((SharedMemoryRingByteBuf) second).isInRing());
+                    client.writeAndFlush(second);
+                }
+            }).sync();
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertEquals("abcdefghi", received.toString(CharsetUtil.US_ASCII));
+        } finally {
+            received.release();
+            client.close().sync();
+            server.close().sync();
+        }
+    }
+
+    @Test
+    public void testCloseIsPropagated() throws Exception {
+        final CountDownLatch childInactive = new CountDownLatch(1);
+        final ByteBuf received = Unpooled.buffer();
+        Channel server = new ServerBootstrap()
+                .group(group)
+                .channel(SharedMemoryServerChannel.class)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        received.writeBytes((ByteBuf) msg);
+                        ((ByteBuf) msg).release();
+                    }
+
+                    @Override
+                    public void channelInactive(ChannelHandlerContext ctx) {
+                        childInactive.countDown();
+                    }
+                })
+                .bind(address).sync().channel();
+        Channel client = new Bootstrap()
+                .group(group)
+                .channel(SharedMemoryChannel.class)
+                .handler(new ChannelInboundHandlerAdapter())
+                .connect(address).sync().channel();
+        try {
+            // Bytes written before closing are still read by the peer.
+            client.writeAndFlush(Unpooled.copiedBuffer("bye", CharsetUtil.US_ASCII));
+            client.close().sync();
+            assertTrue(childInactive.await(5, TimeUnit.SECONDS));
+            assertEquals("bye", received.toString(CharsetUtil.US_ASCII));
+        } finally {
+            received.release();
+            server.close().sync();
+        }
+        // Both ring files were removed.
+        String[] names = address.directory().list();
+        assertEquals(0, names == null ? 0 : names.length);
+    }
+
+    @Test
+    public void testConnectRefused() throws Exception {
+        ChannelFuture future = new Bootstrap()
+                .group(group)
+                .channel(SharedMemoryChannel.class)
+                .handler(new ChannelInboundHandlerAdapter())
+                .connect(address).await();
+        assertFalse(future.isSuccess());
+        assertThat(future.cause(), instanceOf(ConnectException.class));
+    }
+
+    @Test
+    public void testConnectRefusedByLeftoverLockFile() throws Exception {
+        // A server which died without closing leaves its lock file behind, but not the lock.
+        assertTrue(address.directory().mkdirs());
+        assertTrue(new File(address.directory(), "lock").createNewFile());
+        ChannelFuture future = new Bootstrap()
+                .group(group)
+                .channel(SharedMemoryChannel.class)
+                .handler(new ChannelInboundHandlerAdapter())
+                .connect(address).await();
+        assertFalse(future.isSuccess());
+        assertThat(future.cause(), instanceOf(ConnectException.class));
+
+        // The directory can be bound again.
+        bindEchoServer().close().sync();
+    }
+
+    @Test
+    public void testBindTwice() throws Exception {
+        Channel server = bindEchoServer();
+        try {
+            ChannelFuture future = new ServerBootstrap()
+                    .group(group)
+                    .channel(SharedMemoryServerChannel.class)
+                    .childHandler(new ChannelInboundHandlerAdapter())
+                    .bind(address).await();
+            assertThat(future.cause(), instanceOf(BindException.class));
+        } finally {
+            server.close().sync();
+        }
+        // Can be bound again once closed.
+        bindEchoServer().close().sync();
+    }
+
+    @Test
+    public void testRejectsNonByteBuf() throws Exception {
+        Channel server = bindEchoServer();
+        Channel client = new Bootstrap()
+                .group(group)
+                .channel(SharedMemoryChannel.class)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5000)
+                .handler(new ChannelInboundHandlerAdapter())
+                .connect(address).sync().channel();
+        try {
+            ChannelFuture future = client.writeAndFlush("not a ByteBuf").await();
+            assertThat(future.cause(), instanceOf(UnsupportedOperationException.class));
+        } finally {
+            client.close().sync();
+            server.close().sync();
+        }
+    }
+
+    private Channel bindEchoServer() throws InterruptedException {
+        return new ServerBootstrap()
+                .group(group)
+                .channel(SharedMemoryServerChannel.class)
+                .childHandler(new ChannelInboundHandlerAdapter() {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                        ctx.writeAndFlush(msg);
+                    }
+                })
+                .bind(address).sync().channel();
+    }
+}